@@ -0,0 +1,278 @@
+package com.quine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.quine.core.Task;
+import com.quine.core.TaskRegistry;
+import com.quine.utils.LLMClient;
+import com.quine.utils.MutationPipeline;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 桩服务器测试：本地 JDK HttpServer 模拟 OpenAI 兼容接口，不访问网络地检查 LLM 客户端的并发、取消与流式接收
+ *
+ * 桩服务器对每个请求等待固定延迟后返回任务的初始代码。依次检查：
+ * 1. 流水线：经 MutationPipeline 取完 N 个变异的总耗时，以及服务器观察到的最大并发
+ * 2. 取消：仍有请求在途时关闭流水线，HTTP 请求应立即结束并归还在途名额
+ * 3. 流式：按固定速度（每 5 ms 8 个字符）生成的各种回复，阻塞式与流式各自得出结论的耗时，
+ *    以及提前完成、违规中止、辅助类保留与连接中断的处理
+ * 参数：[请求数（默认 9）] [每个请求的延迟 ms（默认 200）]
+ */
+public class LLMStubBench {
+    private static final int MAX_IN_FLIGHT = 3;
+    // 流式回复的生成速度
+    private static final int CHUNK_CHARS = 8;
+    private static final long CHUNK_MS = 5;
+
+    private final String reply;
+    private final long delayMs;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    // 流式检查的回复脚本，为 null 时按 reply / delayMs 应答
+    private volatile Script script;
+
+    /**
+     * 一条按生成速度输出的回复；done 为 false 时输出完不发 [DONE] 直接断开
+     */
+    private static class Script {
+        final String text;
+        final boolean done;
+
+        Script(String text, boolean done) {
+            this.text = text;
+            this.done = done;
+        }
+
+        long generationMs() {
+            return (text.length() + CHUNK_CHARS - 1) / CHUNK_CHARS * CHUNK_MS;
+        }
+    }
+
+    LLMStubBench(String reply, long delayMs) {
+        this.reply = reply;
+        this.delayMs = delayMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        long delayMs = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        Task task = TaskRegistry.fromSystemProperties();
+        LLMStubBench stub = new LLMStubBench(task.seedSource(), delayMs);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        boolean passed = true;
+        try (LLMClient client = new LLMClient(url, "stub", "stub", MAX_IN_FLIGHT, task.brief(), false, null)) {
+            // 1. 流水线：深度与在途上限相同，理想耗时为 ceil(N / 上限) 个延迟
+            long start = System.nanoTime();
+            long expectedMs = (requests + MAX_IN_FLIGHT - 1) / MAX_IN_FLIGHT * delayMs;
+            int failures = 0;
+            MutationPipeline pipeline = new MutationPipeline(client, MAX_IN_FLIGHT, task.seedSource());
+            for (int i = 0; i < requests; i++) {
+                if (!pipeline.next().isSuccess()) {
+                    failures++;
+                }
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(String.format("流水线: %d 个请求 × %d ms，耗时 %d ms（理想 %d ms），服务器最大并发 %d，失败 %d",
+                requests, delayMs, elapsedMs, expectedMs, stub.peak.get(), failures));
+            passed &= failures == 0 && stub.peak.get() <= MAX_IN_FLIGHT;
+
+            // 2. 取消：next() 已补发新请求，此时关闭流水线
+            int inFlightBefore = client.inFlight();
+            long cancelStart = System.nanoTime();
+            pipeline.close();
+            while (client.inFlight() > 0 && System.nanoTime() - cancelStart < delayMs * 1_000_000 / 2) {
+                Thread.sleep(1);
+            }
+            long cancelMs = (System.nanoTime() - cancelStart) / 1_000_000;
+            System.out.println(String.format("取消: 关闭前在途 %d 个，%d ms 后在途 %d 个", inFlightBefore, cancelMs, client.inFlight()));
+            passed &= client.inFlight() == 0;
+
+            // 3. 流式
+            passed &= stub.streaming(url, task);
+        } finally {
+            server.stop(0);
+        }
+        System.out.println(passed ? "✓ 通过" : "✗ 未通过");
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * 流式检查：每种回复先后以阻塞式与流式请求，比较得出结论（代码可用或判定失败）的耗时
+     * @return 全部符合预期时为 true
+     */
+    private boolean streaming(String url, Task task) throws InterruptedException {
+        String code = task.seedSource().strip();
+        String simpleName = task.targetClass().substring(task.targetClass().lastIndexOf('.') + 1);
+        String helper = "class Helper {\n    static int calls;\n}";
+        String explanation = "\n这个版本的主要改动如下：" + "用更好的算法替换了原来的实现，减少了比较与交换次数。".repeat(40);
+        String forbidden = task.forbiddenApis().isEmpty() ? null : task.forbiddenApis().get(0);
+
+        boolean passed = true;
+        System.out.println("流式（每 " + CHUNK_MS + " ms " + CHUNK_CHARS + " 个字符）:");
+        passed &= streamCase(url, "代码后跟说明", new Script("```java\n" + code + "\n```\n" + explanation, true),
+            content -> content.equals(code), task);
+        passed &= streamCase(url, "辅助类在 public 类之后", new Script("```java\n" + code + "\n\n" + helper + "\n```\n" + explanation, true),
+            content -> content.equals(code + "\n\n" + helper), task);
+        passed &= streamCase(url, "辅助类在 public 类之前", new Script(helper + "\n\n" + code + "\n", true),
+            content -> content.equals(helper + "\n\n" + code), task);
+        passed &= streamCase(url, "类名错误", new Script(code.replace(" " + simpleName + " ", " Wrong" + simpleName + " ") + explanation, true),
+            null, task);
+        if (forbidden != null) {
+            passed &= streamCase(url, "禁用 API", new Script(code.replaceFirst("\\{", "{\n    // " + forbidden) + explanation, true),
+                null, task);
+        }
+        passed &= streamCase(url, "以说明文字开头", new Script("下面是改进后的版本：\n```java\n" + code + "\n```" + explanation, true),
+            null, task);
+        passed &= streamCase(url, "连接中断", new Script(code.substring(0, code.length() / 2), false), null, task);
+        return passed;
+    }
+
+    /**
+     * 阻塞式只计时（违规也要收完整段回复，由编译前检查拒绝）；流式计时并检查结论
+     * @param expected 期望的清洗后代码检查，为 null 表示期望流式请求失败
+     */
+    private boolean streamCase(String url, String name, Script script, Predicate<String> expected, Task task)
+            throws InterruptedException {
+        this.script = script;
+        long blockingMs = -1;
+        long streamingMs = -1;
+        String outcome = null;
+        for (boolean stream : new boolean[]{false, true}) {
+            try (LLMClient client = new LLMClient(url, "stub", "stub", 1, task.brief(), false, null, stream)) {
+                client.setConstraints(task.targetClass(), task.forbiddenApis());
+                long start = System.nanoTime();
+                try {
+                    String content = client.mutateCode(task.seedSource());
+                    outcome = expected != null && expected.test(content) ? null : "返回了不符合预期的代码";
+                } catch (IOException e) {
+                    outcome = expected == null ? null : "失败: " + e.getMessage();
+                    if (stream && expected == null) {
+                        name += "（" + e.getMessage() + "）";
+                    }
+                }
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                if (stream) {
+                    streamingMs = elapsedMs;
+                } else {
+                    blockingMs = elapsedMs;
+                }
+            }
+            Thread.sleep(CHUNK_MS * 4);  // 等上一个被取消的响应写完
+        }
+        this.script = null;
+        System.out.println(String.format("  阻塞 %4d ms，流式 %4d ms %s %s", blockingMs, streamingMs,
+            outcome == null ? "✓" : "✗ " + outcome, name));
+        return outcome == null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Script current = script;
+            if (current != null) {
+                serve(exchange, current, JsonParser.parseString(request).getAsJsonObject().has("stream"));
+                return;
+            }
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                active.decrementAndGet();
+            }
+            byte[] body = completion(reply).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * 按生成速度应答脚本：流式逐块发送 SSE 事件，阻塞式等整段生成完再一次返回
+     */
+    private static void serve(HttpExchange exchange, Script script, boolean stream) throws IOException {
+        try {
+            if (!stream) {
+                Thread.sleep(script.generationMs());
+                byte[] body = completion(script.text).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < script.text.length(); i += CHUNK_CHARS) {
+                    Thread.sleep(CHUNK_MS);
+                    String delta = script.text.substring(i, Math.min(script.text.length(), i + CHUNK_CHARS));
+                    out.write(("data: " + chunk(delta) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                if (script.done) {
+                    out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端已取消请求（违规中止或提前完成）
+        }
+    }
+
+    /**
+     * 流式响应的一个 data 事件
+     */
+    private static String chunk(String content) {
+        JsonObject delta = new JsonObject();
+        delta.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.add("delta", delta);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject event = new JsonObject();
+        event.add("choices", choices);
+        return event.toString();
+    }
+
+    /**
+     * 阻塞式 chat/completions 响应
+     */
+    private static String completion(String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.add("message", message);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", 0);
+        usage.addProperty("completion_tokens", 0);
+        JsonObject response = new JsonObject();
+        response.add("choices", choices);
+        response.add("usage", usage);
+        return response.toString();
+    }
+}
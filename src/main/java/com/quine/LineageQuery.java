@@ -0,0 +1,68 @@
+package com.quine;
+
+import com.quine.core.LineageStore;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * 谱系查询工具（只读打开，进化运行期间也可以查询）：
+ * (无参数)             各战役（每次运行一个）概况与最快个体的祖先链
+ * chain <战役>         最快个体的祖先链
+ * slower <百分比>      比父代慢该百分比以上的候选
+ * gen <战役> <代数>    某一代的全部候选
+ * family <指纹>        同一算法指纹的全部候选
+ * source <节点>        某个候选的源码
+ * <战役> 为 任务id@启动时间，只写任务 id 时取该任务最近一次运行
+ */
+public class LineageQuery {
+
+    public static void main(String[] args) {
+        try (LineageStore store = new LineageStore(Paths.get(System.getProperty("quine.lineage.dir", "target/lineage")), true)) {
+            System.out.println(store.report());
+            long start = System.nanoTime();
+            String command = args.length == 0 ? "summary" : args[0];
+            switch (command) {
+                case "summary":
+                    for (String campaign : store.campaigns()) {
+                        System.out.println("\n== " + campaign + " 最快个体的祖先链 ==");
+                        print(store.fastestAncestorChain(campaign));
+                    }
+                    break;
+                case "chain":
+                    print(store.fastestAncestorChain(store.resolveCampaign(args[1])));
+                    break;
+                case "slower":
+                    print(store.slowerThanParent(1 + Double.parseDouble(args[1]) / 100));
+                    break;
+                case "gen":
+                    print(store.generation(store.resolveCampaign(args[1]), Integer.parseInt(args[2])));
+                    break;
+                case "family":
+                    print(store.withFingerprint(Long.parseUnsignedLong(args[1], 16)));
+                    break;
+                case "source":
+                    System.out.println(store.node(Integer.parseInt(args[1])));
+                    System.out.println(store.source(Integer.parseInt(args[1])));
+                    break;
+                default:
+                    System.err.println("未知命令: " + command + "（可用：summary / chain / slower / gen / family / source）");
+                    return;
+            }
+            System.out.printf("查询耗时 %.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        } catch (IOException e) {
+            System.err.println("✗ 读取谱系库失败: " + e.getMessage());
+        }
+    }
+
+    private static void print(List<LineageStore.Node> nodes) {
+        if (nodes.isEmpty()) {
+            System.out.println("（无）");
+        }
+        for (LineageStore.Node node : nodes) {
+            System.out.println("  " + node);
+        }
+    }
+}
@@ -1,29 +1,84 @@
 package com.quine;
 
+import com.quine.core.BenchmarkStats;
+import com.quine.core.CampaignScheduler;
 import com.quine.core.Evaluator;
+import com.quine.core.EvolutionJournal;
+import com.quine.core.KnobTuner;
+import com.quine.core.LineageStore;
+import com.quine.core.PopulationEvaluator;
+import com.quine.core.SelectionPolicy;
+import com.quine.core.StandardWorkload;
+import com.quine.core.Task;
+import com.quine.core.TaskRegistry;
 import com.quine.utils.LLMClient;
+import com.quine.utils.MutationPipeline;
+import com.quine.utils.TranscriptStore;
 
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.Random;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class Main {
-    private static final String TARGET_FILE = "src/main/java/com/quine/sandbox/TargetSubject.java";
+    // 任务（-Dquine.task=sequential|parallel|prefix_sum|...）：决定目标文件、提示词与默认测试规模
+    private static final Task TASK = TaskRegistry.fromSystemProperties();
+    private static final String TARGET_FILE = TASK.targetFile();
     private static final String BACKUP_DIR = "target/generations";
+    // 未开启进化日志时本次运行在谱系库中的战役 id（开启时以日志记下的为准）
+    private static final String RUN_ID = LineageStore.runCampaignId(TASK.id());
 
-    // 测试数据规模
-    private static final int TEST_DATA_SIZE = 10000;     // 小数据集，让冒泡排序能跑完
+    // 测试数据规模，默认由任务决定
+    private static final int TEST_DATA_SIZE = Integer.getInteger("quine.testSize", TASK.testSize());
 
-    private static final int MAX_GENERATIONS = 200;
+    private static final int MAX_GENERATIONS = Integer.getInteger("quine.generations", 200);
+
+    // 选择的显著性水平（Welch t 检验）
+    private static final double SIGNIFICANCE = 0.05;
+    // 差异不显著而接受为冠军时，中位数最多允许比冠军慢 5%，避免噪声较大的慢候选逐代累积退化
+    private static final double NEUTRAL_TOLERANCE = 1.05;
+
+    // 开启多规模基准（-Dquine.scaling=true）时，按该生产规模下的预测耗时排序
+    private static final long PRODUCTION_SIZE = Long.getLong("quine.productionSize", 10_000_000);
+    private static final double SCALING_MARGIN = 1.10;  // 预测耗时超出冠军 10% 视为规模倒退
+
+    // 任一数据分布下比冠军慢 50% 以上即视为出现病态最坏情况
+    private static final double WORKLOAD_REGRESSION = 1.5;
+
+    // 时间与内存的多目标选择（-Dquine.selection=time|weighted|pareto）
+    private static final SelectionPolicy SELECTION = SelectionPolicy.fromSystemProperties(PRODUCTION_SIZE);
+
+    // 种群模式：每代产生 POPULATION_SIZE 个候选，保留最优的 SURVIVORS 个（为 1 时走单候选循环）
+    private static final int POPULATION_SIZE = Integer.getInteger("quine.population", 1);
+    private static final int SURVIVORS = Integer.getInteger("quine.survivors", 2);
+
+    // 单候选模式的变异流水线深度：评估当前候选时，预先在途的 LLM 请求数
+    private static final int PIPELINE_DEPTH = Integer.getInteger("quine.pipeline", 2);
+
+    // 多任务并发进化（-Dquine.campaigns=sequential:3,prefix_sum,histogram:2）：任务id[:权重]，未设置时只进化 TASK
+    private static final String CAMPAIGNS = System.getProperty("quine.campaigns");
 
     public static void main(String[] args) {
         System.out.println("🧬 Project Quine: 自进化算法引擎启动");
         System.out.println("=" .repeat(60));
+        if (CAMPAIGNS != null && !CAMPAIGNS.isBlank()) {
+            runCampaigns();
+            return;
+        }
+        System.out.println("✓ 任务: " + TASK.id() + "（" + TARGET_FILE + "）");
+        if (TranscriptStore.shared() != null) {
+            System.out.println("✓ LLM " + TranscriptStore.shared().getMode().name().toLowerCase() + " 模式：已有 "
+                + TranscriptStore.shared().size() + " 条录制");
+        }
 
-        try {
-            // 0. 清空并重建备份目录
+        try (Evaluator evaluator = new Evaluator(); LLMClient llmClient = new LLMClient(TASK.brief());
+             EvolutionJournal journal = EvolutionJournal.fromSystemProperties(TASK.id());
+             LineageStore lineage = LineageStore.fromSystemProperties()) {
+            llmClient.setConstraints(TASK.targetClass(), TASK.forbiddenApis());
+            // 0. 有可恢复的进化日志时从中断处继续，否则清空并重建备份目录
+            EvolutionJournal.ResumeState resume = journal == null ? null : journal.resumeState();
             Path backupPath = Paths.get(BACKUP_DIR);
-            if (Files.exists(backupPath)) {
+            if (resume == null && Files.exists(backupPath)) {
                 // 删除旧的变异记录
                 Files.walk(backupPath)
                     .filter(p -> p.toString().endsWith(".java"))
@@ -34,12 +89,26 @@ public class Main {
             Files.createDirectories(backupPath);
 
             // 1. 生成测试数据
-            int[] testData = generateTestData(TEST_DATA_SIZE);
+            int[] testData = StandardWorkload.UNIFORM.generate(TEST_DATA_SIZE);
             System.out.println("✓ 生成测试数据: " + TEST_DATA_SIZE + " 个随机整数");
 
-            // 2. 评估初始代码
-            String currentCode = readSourceFile();
-            Evaluator evaluator = new Evaluator();
+            // 2. 评估初始代码（恢复时为日志中的冠军，评估结果通常直接来自评估缓存）
+            String currentCode;
+            if (resume != null) {
+                currentCode = journal.loadSource(resume.champion);
+                writeSourceFile(currentCode);
+                System.out.println("↻ 从进化日志恢复: " + resume);
+                if (resume.generation >= MAX_GENERATIONS) {
+                    System.out.println("✓ 日志已完成 " + resume.generation + " 代（上限 " + MAX_GENERATIONS
+                        + "），没有需要继续的进化；提高 -Dquine.generations 可以接着进化");
+                }
+            } else {
+                currentCode = readSourceFile();
+                if (journal != null) {
+                    // 初始代码也落盘：第一代中途崩溃时它是已收到回复的父代，恢复时从它继续
+                    journal.storeSource(currentCode);
+                }
+            }
 
             Evaluator.EvalResult baseline = evaluator.evaluate(currentCode, testData);
 
@@ -48,49 +117,181 @@ public class Main {
                 return;
             }
 
-            long baselineTime = baseline.timeUs;
-            System.out.println("✓ 初始基准: " + formatTime(baselineTime));
+            System.out.println("✓ 初始基准: " + formatTime(baseline.timeUs));
+            System.out.println("  " + baseline.stats);
+            if (baseline.scaling != null) {
+                System.out.println("  " + baseline.scaling);
+            }
+            if (!baseline.workloads.isEmpty()) {
+                System.out.println("  " + baseline.workloadSummary());
+            }
+            System.out.println("  " + baseline.memory);
+            if (baseline.speedup != null) {
+                System.out.println("  " + baseline.speedup);
+            }
+            if (baseline.throughput != null) {
+                System.out.println("  " + baseline.throughput);
+            }
+            baseline = evaluator.profileChampion(currentCode, testData, baseline);
+            if (baseline.profile != null) {
+                System.out.println("  " + baseline.profile);
+            }
+            System.out.println("  选择策略: " + SELECTION);
+            if (lineage != null) {
+                lineage.recordSeed(lineageCampaign(journal), currentCode, baseline);
+            }
             System.out.println("=" .repeat(60));
 
             // 3. 进化循环
-            LLMClient llmClient = new LLMClient();
-            int generation = 1;
+            long finalTime = POPULATION_SIZE > 1
+                ? evolvePopulation(evaluator, llmClient, journal, lineage, resume, testData, currentCode, baseline)
+                : evolveSingle(evaluator, llmClient, journal, lineage, resume, testData, currentCode, baseline);
+            if (journal != null) {
+                journal.finish(MAX_GENERATIONS);
+            }
+
+            System.out.println("\n" + "=" .repeat(60));
+            System.out.println("进化完成！最终性能: " + formatTime(finalTime));
+            System.out.println(evaluator.compileLatencyReport());
+            System.out.println(evaluator.verificationReport());
+            System.out.println(evaluator.preScreenReport());
+            System.out.println(evaluator.isolationReport());
+            System.out.println(Evaluator.runawayReport());
+            System.out.println(evaluator.tunerReport());
+            System.out.println(evaluator.profilerReport());
+            System.out.println(evaluator.cacheReport());
+            System.out.println(llmClient.report());
+            if (TranscriptStore.shared() != null) {
+                System.out.println(TranscriptStore.shared().report());
+            }
+            if (journal != null) {
+                System.out.println(journal.report());
+            }
+            if (lineage != null) {
+                System.out.println(lineage.report());
+            }
+
+        } catch (Exception e) {
+            System.err.println("系统错误: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 单候选进化：每代一个变异，串行完成 变异 -> 编译 -> 验证 -> 测速 -> 选择
+     * @return 最终基准时间
+     */
+    private static long evolveSingle(Evaluator evaluator, LLMClient llmClient, EvolutionJournal journal,
+                                     LineageStore lineage, EvolutionJournal.ResumeState resume, int[] testData,
+                                     String currentCode, Evaluator.EvalResult champion) throws IOException {
+        long baselineTime = champion.timeUs;
+        try (MutationPipeline pipeline = new MutationPipeline(llmClient, PIPELINE_DEPTH, currentCode, profileHint(champion, currentCode))) {
+            int generation = resume == null ? 1 : resume.generation + 1;
+            // 崩溃前那一代已收到、以当前冠军为父代的回复，直接复用
+            Deque<String> reused = new ArrayDeque<>(openCandidates(journal, resume, List.of(currentCode)).keySet());
+            // 本地调参：冠军每次易主（含初始冠军）后先在本地搜索常量，LLM 请求同时在途
+            KnobTuner.Proposal tuned = evaluator.tuneKnobs(currentCode, testData);
 
             while (generation <= MAX_GENERATIONS) {
                 System.out.println("\n[Gen " + generation + "] 开始变异...");
+                String parentCode = currentCode;
+                LLMClient.Usage usage = new LLMClient.Usage();  // 本代的 LLM 用量（含丢弃的旧冠军变异）
 
                 try {
-                    // 变异
-                    String mutatedCode = llmClient.mutateCode(currentCode);
-                    System.out.println("[Gen " + generation + "] LLM 变异完成");
+                    String mutatedCode;
+                    if (!reused.isEmpty()) {
+                        mutatedCode = reused.poll();
+                        System.out.println("[Gen " + generation + "] 复用进化日志中已收到的变异");
+                    } else if (tuned != null) {
+                        // 调参候选不经过 LLM，与 LLM 变异走同样的评估与选择
+                        mutatedCode = tuned.sourceCode;
+                        System.out.println("[Gen " + generation + "] " + tuned);
+                        tuned = null;
+                    } else {
+                        // 变异（请求早已在流水线中在途）
+                        MutationPipeline.Mutation mutation = pipeline.next();
+                        usage.add(mutation.usage);
+                        while (!mutation.parentCode.equals(currentCode)) {
+                            // 冠军易主前发出的请求：与新冠军比较可能把刚取得的改进悄悄还原，丢弃（流水线已按新冠军补发）
+                            System.out.println("[Gen " + generation + "] 丢弃基于旧冠军的变异 (" + mutation.latencyMs + " ms)");
+                            mutation = pipeline.next();
+                            usage.add(mutation.usage);
+                        }
+                        if (!mutation.isSuccess()) {
+                            System.out.println("[Gen " + generation + "] ✗ 异常: " + mutation.error.getMessage());
+                            System.out.println("[Gen " + generation + "] " + usage.format());
+                            record(journal, lineage, generation, null, parentCode, "failed",
+                                new Evaluator.EvalResult(false, 0, "变异异常: " + mutation.error.getMessage()));
+                            commitJournal(journal, generation, currentCode, null);
+                            generation++;
+                            continue;
+                        }
+                        mutatedCode = mutation.code;
+                        if (journal != null) {
+                            journal.recordReceived(generation, mutatedCode, EvolutionJournal.hash(parentCode));
+                        }
+                        System.out.println("[Gen " + generation + "] LLM 变异完成 (" + mutation.latencyMs + " ms)");
+                    }
+                    System.out.println("[Gen " + generation + "] " + usage.format());
 
                     // 评估
                     Evaluator.EvalResult result = evaluator.evaluate(mutatedCode, testData);
 
                     if (!result.success) {
                         System.out.println("[Gen " + generation + "] ✗ 失败: " + result.error);
+                        record(journal, lineage, generation, mutatedCode, parentCode, "failed", result);
+                        commitJournal(journal, generation, currentCode, null);
                         generation++;
                         continue;
                     }
 
                     System.out.println("[Gen " + generation + "] ✓ 编译成功，性能: " + formatTime(result.timeUs));
+                    System.out.println("[Gen " + generation + "]   " + result.stats);
+                    if (result.scaling != null) {
+                        System.out.println("[Gen " + generation + "]   " + result.scaling);
+                    }
+                    if (!result.workloads.isEmpty()) {
+                        System.out.println("[Gen " + generation + "]   " + result.workloadSummary());
+                    }
+                    System.out.println("[Gen " + generation + "]   " + result.memory);
+                    if (result.speedup != null) {
+                        System.out.println("[Gen " + generation + "]   " + result.speedup);
+                    }
+                    if (result.throughput != null) {
+                        System.out.println("[Gen " + generation + "]   " + result.throughput);
+                    }
 
-                    // 自然选择（允许 5% 以内的性能波动）
-                    double tolerance = 1.05;  // 允许性能下降 5%
-                    if (result.timeUs <= baselineTime * tolerance) {
-                        boolean isImprovement = result.timeUs < baselineTime;
+                    // 自然选择：Welch t 检验，显著更快为进化，差异不显著为中性变异，显著更慢丢弃
+                    // 开启多规模基准时，生产规模下预测明显更慢的候选同样丢弃；任一数据分布下明显退化的也丢弃
+                    // 多目标选择下，内存维度不可接受的同样丢弃；耗时持平但内存更优视为进化
+                    // 不是显著更快时，中位数超出冠军 NEUTRAL_TOLERANCE 的同样丢弃
+                    BenchmarkStats.Verdict verdict = result.stats.compareTo(champion.stats, SIGNIFICANCE);
+                    double pValue = result.stats.pValueAgainst(champion.stats);
+                    boolean scalesWorse = scalesWorse(result, champion);
+                    String pathological = result.workloadRegressionAgainst(champion, WORKLOAD_REGRESSION);
+                    boolean memoryAcceptable = SELECTION.memoryAcceptable(result, champion);
+                    boolean withinTolerance = verdict == BenchmarkStats.Verdict.FASTER
+                        || result.stats.medianUs <= champion.stats.medianUs * NEUTRAL_TOLERANCE;
+                    String outcome = "rejected";
+                    if (verdict != BenchmarkStats.Verdict.SLOWER && withinTolerance && !scalesWorse && pathological == null && memoryAcceptable) {
+                        boolean isImprovement = verdict == BenchmarkStats.Verdict.FASTER || SELECTION.winsOnMemory(result, champion);
                         long diff = Math.abs(baselineTime - result.timeUs);
                         double ratio = (double) baselineTime / result.timeUs;
 
                         System.out.println("=" .repeat(60));
                         if (isImprovement) {
                             System.out.println("🎉 进化成功！");
-                            System.out.println("   提升: " + formatTime(diff) + " (" + String.format("%.2fx", ratio) + " 倍速)");
+                            System.out.println("   提升: " + formatTime(diff) + " (" + String.format("%.2fx 倍速, p=%.4f", ratio, pValue) + ")");
                         } else {
-                            System.out.println("🔄 中性变异（性能相近，保留多样性）");
-                            System.out.println("   差异: +" + formatTime(diff) + " (" + String.format("%.1f%%", (ratio - 1) * -100) + ")");
+                            System.out.println("🔄 中性变异（差异不显著，保留多样性）");
+                            System.out.println("   差异: " + formatTime(diff) + " (" + String.format("%+.1f%%, p=%.3f", (ratio - 1) * -100, pValue) + ")");
                         }
                         System.out.println("   新基准: " + formatTime(result.timeUs));
+                        System.out.println("   内存: " + result.memory);
+                        result = evaluator.profileChampion(mutatedCode, testData, result);
+                        if (result.profile != null) {
+                            System.out.println("   " + result.profile);
+                        }
                         System.out.println("=" .repeat(60));
 
                         // 备份当前代码
@@ -99,11 +300,32 @@ public class Main {
                         // 替换源文件
                         writeSourceFile(mutatedCode);
                         currentCode = mutatedCode;
+                        champion = result;
                         baselineTime = result.timeUs;
+                        pipeline.rebase(currentCode, profileHint(result, currentCode));
+                        tuned = evaluator.tuneKnobs(currentCode, testData);
+                        outcome = isImprovement ? "improved" : "neutral";
+                    } else if (pathological != null) {
+                        System.out.println("[Gen " + generation + "] 数据分布 " + pathological + " 下明显退化 ("
+                            + formatTime(Math.round(result.workloads.get(pathological).medianUs)) + " vs "
+                            + formatTime(Math.round(champion.workloads.get(pathological).medianUs)) + ")，丢弃变异");
+                    } else if (!memoryAcceptable && verdict != BenchmarkStats.Verdict.SLOWER) {
+                        System.out.println("[Gen " + generation + "] 内存代价倒退 (" + result.memory + " vs 冠军 "
+                            + champion.memory + ")，丢弃变异");
+                    } else if (!withinTolerance && verdict != BenchmarkStats.Verdict.SLOWER) {
+                        System.out.println("[Gen " + generation + "] 差异不显著但中位数慢于冠军 "
+                            + String.format("%+.1f%%（容差 %+.0f%%, p=%.3f）", (result.stats.medianUs / champion.stats.medianUs - 1) * 100,
+                                (NEUTRAL_TOLERANCE - 1) * 100, pValue) + "，丢弃变异");
+                    } else if (scalesWorse) {
+                        System.out.println("[Gen " + generation + "] 规模外推倒退 (n=" + PRODUCTION_SIZE + " 预测 "
+                            + formatTime(Math.round(result.rankingCostUs(PRODUCTION_SIZE))) + " vs "
+                            + formatTime(Math.round(champion.rankingCostUs(PRODUCTION_SIZE))) + ")，丢弃变异");
                     } else {
                         double regression = ((double) result.timeUs / baselineTime - 1) * 100;
-                        System.out.println("[Gen " + generation + "] 性能倒退 (" + String.format("+%.1f%%", regression) + ")，丢弃变异");
+                        System.out.println("[Gen " + generation + "] 性能显著倒退 (" + String.format("%+.1f%%, p=%.4f", regression, pValue) + ")，丢弃变异");
                     }
+                    record(journal, lineage, generation, mutatedCode, parentCode, outcome, result);
+                    commitJournal(journal, generation, currentCode, null);
 
                 } catch (Exception e) {
                     System.out.println("[Gen " + generation + "] ✗ 异常: " + e.getMessage());
@@ -111,23 +333,272 @@ public class Main {
 
                 generation++;
             }
+        }
 
-            System.out.println("\n" + "=" .repeat(60));
-            System.out.println("进化完成！最终性能: " + formatTime(baselineTime));
+        return baselineTime;
+    }
 
+    /**
+     * 种群进化：每代并发产生 N 个变异，并行编译、串行测速，保留最优的 K 个
+     * @return 最终基准时间
+     */
+    private static long evolvePopulation(Evaluator evaluator, LLMClient llmClient, EvolutionJournal journal,
+                                         LineageStore lineage, EvolutionJournal.ResumeState resume, int[] testData,
+                                         String currentCode, Evaluator.EvalResult baseline) throws Exception {
+        System.out.println("种群模式: 每代 " + POPULATION_SIZE + " 个候选，保留 " + SURVIVORS + " 个");
+
+        PopulationEvaluator.Candidate champion = new PopulationEvaluator.Candidate(0, currentCode, baseline);
+        // 冠军源码 -> 热点采样摘要，以它为父代的变异请求附带摘要
+        Map<String, String> hints = new HashMap<>();
+        if (baseline.profile != null) {
+            hints.put(currentCode, profileHint(baseline, currentCode));
+        }
+        String tunedFor = null;
+        List<PopulationEvaluator.Candidate> survivors = new ArrayList<>();
+        survivors.add(champion);
+        Map<String, String> reused = Map.of();
+        if (resume != null) {
+            // 恢复其余幸存者（评估结果来自评估缓存）
+            for (String hash : resume.survivors) {
+                if (!hash.equals(resume.champion)) {
+                    String code = journal.loadSource(hash);
+                    Evaluator.EvalResult result = evaluator.evaluate(code, testData);
+                    if (result.success) {
+                        survivors.add(new PopulationEvaluator.Candidate(survivors.size(), code, result));
+                    }
+                }
+            }
+            // 崩溃前那一代已收到的回复（源码 -> 父代源码），计入恢复后第一代的候选，少发相应数量的请求
+            reused = openCandidates(journal, resume, survivors.stream().map(c -> c.sourceCode).toList());
+        }
+
+        try (PopulationEvaluator population = new PopulationEvaluator(evaluator, PopulationEvaluator.defaultCompileWorkers())) {
+            for (int generation = resume == null ? 1 : resume.generation + 1; generation <= MAX_GENERATIONS; generation++) {
+                System.out.println("\n[Gen " + generation + "] 开始变异 " + POPULATION_SIZE + " 个候选...");
+
+                // 变异：父代在幸存者中轮转，LLM 调用在虚拟线程上并发进行
+                List<String> offspring = new ArrayList<>();
+                List<String> parents = new ArrayList<>();
+                for (Map.Entry<String, String> entry : reused.entrySet()) {
+                    if (offspring.size() < POPULATION_SIZE) {
+                        offspring.add(entry.getKey());
+                        parents.add(entry.getValue());
+                    }
+                }
+                if (!reused.isEmpty()) {
+                    System.out.println("[Gen " + generation + "] 复用进化日志中已收到的 " + offspring.size() + " 个变异");
+                    reused = Map.of();
+                }
+                List<CompletableFuture<String>> pending = new ArrayList<>();
+                LLMClient.Usage usage = new LLMClient.Usage();  // 本代全部请求的用量
+                for (int i = offspring.size(); i < POPULATION_SIZE; i++) {
+                    String parent = survivors.get(i % survivors.size()).sourceCode;
+                    pending.add(llmClient.mutateCodeAsync(parent, hints.get(parent), usage));
+                }
+                // 本地调参：冠军易主后在等待 LLM 的同时搜索一次常量，提议与 LLM 变异一起评估
+                KnobTuner.Proposal tuned = null;
+                if (!champion.sourceCode.equals(tunedFor)) {
+                    tunedFor = champion.sourceCode;
+                    tuned = evaluator.tuneKnobs(champion.sourceCode, testData);
+                }
+                int requested = offspring.size();
+                for (int i = 0; i < pending.size(); i++) {
+                    String parent = survivors.get((requested + i) % survivors.size()).sourceCode;
+                    try {
+                        String code = pending.get(i).get();
+                        if (journal != null) {
+                            journal.recordReceived(generation, code, EvolutionJournal.hash(parent));
+                        }
+                        offspring.add(code);
+                        parents.add(parent);
+                    } catch (ExecutionException e) {
+                        System.out.println("[Gen " + generation + "] ✗ 变异异常: " + e.getCause().getMessage());
+                        record(journal, lineage, generation, null, parent, "failed",
+                            new Evaluator.EvalResult(false, 0, "变异异常: " + e.getCause().getMessage()));
+                    }
+                }
+                if (tuned != null) {
+                    System.out.println("[Gen " + generation + "] " + tuned);
+                    offspring.add(tuned.sourceCode);
+                    parents.add(champion.sourceCode);
+                }
+
+                // 评估
+                List<PopulationEvaluator.Candidate> evaluated = population.evaluateAll(offspring, testData);
+                List<PopulationEvaluator.Candidate> pool = new ArrayList<>(survivors);
+                for (PopulationEvaluator.Candidate candidate : evaluated) {
+                    if (candidate.result.success) {
+                        System.out.println("[Gen " + generation + "] 候选 " + candidate.index + " ✓ 性能: " + formatTime(candidate.result.timeUs)
+                            + "，" + candidate.result.memory);
+                        String pathological = candidate.result.workloadRegressionAgainst(champion.result, WORKLOAD_REGRESSION);
+                        if (pathological != null) {
+                            System.out.println("[Gen " + generation + "] 候选 " + candidate.index + " 在数据分布 " + pathological + " 下明显退化，淘汰");
+                            continue;
+                        }
+                        pool.add(candidate);
+                    } else {
+                        System.out.println("[Gen " + generation + "] 候选 " + candidate.index + " ✗ 失败: " + candidate.result.error);
+                    }
+                }
+
+                // 自然选择：按选择策略排序（耗时 / 加权代价 / Pareto 前沿），保留前 K 个
+                survivors = SELECTION.selectSurvivors(pool, c -> c.result, SURVIVORS);
+
+                // 冠军只在显著更快（或耗时持平而内存显著更优）时易主，避免噪声导致的来回切换
+                PopulationEvaluator.Candidate best = survivors.get(0);
+                BenchmarkStats.Verdict verdict = best.result.stats.compareTo(champion.result.stats, SIGNIFICANCE);
+                boolean better = verdict == BenchmarkStats.Verdict.FASTER && SELECTION.memoryAcceptable(best.result, champion.result)
+                    || verdict == BenchmarkStats.Verdict.INDISTINGUISHABLE && SELECTION.winsOnMemory(best.result, champion.result);
+                if (best != champion && better && !scalesWorse(best.result, champion.result)) {
+                    double ratio = (double) champion.result.timeUs / best.result.timeUs;
+                    System.out.println("=" .repeat(60));
+                    System.out.println("🎉 进化成功！");
+                    System.out.println("   提升: " + formatTime(champion.result.timeUs - best.result.timeUs) + " ("
+                        + String.format("%.2fx 倍速, p=%.4f", ratio, best.result.stats.pValueAgainst(champion.result.stats)) + ")");
+                    System.out.println("   新基准: " + formatTime(best.result.timeUs));
+                    System.out.println("   内存: " + best.result.memory);
+                    Evaluator.EvalResult profiled = evaluator.profileChampion(best.sourceCode, testData, best.result);
+                    if (profiled.profile != null) {
+                        System.out.println("   " + profiled.profile);
+                        hints.put(best.sourceCode, profileHint(profiled, best.sourceCode));
+                    }
+                    System.out.println("=" .repeat(60));
+
+                    backupCode(generation, best.sourceCode);
+                    writeSourceFile(best.sourceCode);
+                    champion = best;
+                }
+                hints.keySet().retainAll(survivors.stream().map(c -> c.sourceCode).toList());
+
+                // 进化日志：本代全部候选及其去向，连同幸存者一起落盘
+                for (PopulationEvaluator.Candidate candidate : evaluated) {
+                    String outcome = !candidate.result.success ? "failed"
+                        : candidate == champion ? "improved"
+                        : survivors.contains(candidate) ? "neutral" : "rejected";
+                    record(journal, lineage, generation, candidate.sourceCode, parents.get(candidate.index), outcome, candidate.result);
+                }
+                commitJournal(journal, generation, champion.sourceCode, survivors.stream().map(c -> c.sourceCode).toList());
+
+                System.out.println(String.format("[Gen %d] 吞吐: %.1f 候选/分钟", generation, population.candidatesPerMinute()));
+                System.out.println("[Gen " + generation + "] " + evaluator.cacheReport());
+                System.out.println("[Gen " + generation + "] " + usage.format());
+            }
+        }
+        return champion.result.timeUs;
+    }
+
+    /**
+     * 多任务并发进化：每个任务一个战役，共享 LLM 请求槽、编译线程与串行基准通道
+     */
+    private static void runCampaigns() {
+        List<LLMClient> clients = new ArrayList<>();
+        try (CampaignScheduler scheduler = CampaignScheduler.fromSystemProperties()) {
+            for (Map.Entry<Task, Integer> entry : CampaignScheduler.parseCampaigns(CAMPAIGNS).entrySet()) {
+                Task task = entry.getKey();
+                LLMClient client = new LLMClient(task.brief());
+                client.setConstraints(task.targetClass(), task.forbiddenApis());
+                clients.add(client);
+                scheduler.addCampaign(task, entry.getValue(), client::mutateCode,
+                    Integer.getInteger("quine.testSize", task.testSize()), Paths.get(BACKUP_DIR, task.id()));
+                System.out.println("✓ 战役: " + task.id() + "（" + task.targetFile() + "，权重 " + entry.getValue() + "）");
+            }
+            System.out.println("=" .repeat(60));
+
+            scheduler.runAll(MAX_GENERATIONS);
+
+            System.out.println("\n" + "=" .repeat(60));
+            System.out.println("全部战役完成！");
+            System.out.println(scheduler.report());
+            for (LLMClient client : clients) {
+                System.out.println(client.report());
+            }
+            if (TranscriptStore.shared() != null) {
+                System.out.println(TranscriptStore.shared().report());
+            }
         } catch (Exception e) {
             System.err.println("系统错误: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            for (LLMClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * 记录一个候选到进化日志与谱系库（未开启的忽略）
+     * @param code 候选源码，变异本身失败时为 null
+     */
+    private static void record(EvolutionJournal journal, LineageStore lineage, int generation, String code,
+                               String parentCode, String verdict, Evaluator.EvalResult result) throws IOException {
+        if (journal != null) {
+            journal.recordCandidate(generation, code, EvolutionJournal.hash(parentCode), verdict, result);
+        }
+        if (lineage != null) {
+            lineage.record(lineageCampaign(journal), generation, code, parentCode, verdict, result);
+        }
+    }
+
+    /**
+     * 本次运行在谱系库中的战役 id：有进化日志时取日志记下的 id（恢复运行时沿用），否则为启动时生成的 id
+     */
+    private static String lineageCampaign(EvolutionJournal journal) {
+        return journal != null ? journal.runId() : RUN_ID;
+    }
+
+    /**
+     * 恢复时未结束那一代已收到的回复中，父代仍在 parents 之中的那些
+     * @return 源码 -> 父代源码（记录顺序），没有时为空
+     */
+    private static Map<String, String> openCandidates(EvolutionJournal journal, EvolutionJournal.ResumeState resume,
+                                                      List<String> parents) throws IOException {
+        Map<String, String> candidates = new LinkedHashMap<>();
+        if (resume == null) {
+            return candidates;
+        }
+        Map<String, String> parentsByHash = new HashMap<>();
+        for (String parent : parents) {
+            parentsByHash.put(EvolutionJournal.hash(parent), parent);
+        }
+        for (Map.Entry<String, String> entry : resume.openCandidates.entrySet()) {
+            String parent = parentsByHash.get(entry.getValue());
+            if (parent != null) {
+                candidates.put(journal.loadSource(entry.getKey()), parent);
+            }
         }
+        return candidates;
     }
 
-    private static int[] generateTestData(int size) {
-        Random random = new Random(42);
-        int[] data = new int[size];
-        for (int i = 0; i < size; i++) {
-            data[i] = random.nextInt(100000);
+    /**
+     * 代结束：冠军与幸存者落盘，之后崩溃可从这一代之后继续
+     * @param survivorCodes 种群模式的幸存者源码，单候选模式为 null（只有冠军）
+     */
+    private static void commitJournal(EvolutionJournal journal, int generation, String championCode,
+                                      List<String> survivorCodes) throws IOException {
+        if (journal == null) {
+            return;
         }
-        return data;
+        String champion = journal.storeSource(championCode);
+        List<String> survivors = new ArrayList<>();
+        for (String code : survivorCodes == null ? List.of(championCode) : survivorCodes) {
+            survivors.add(journal.storeSource(code));
+        }
+        journal.commitGeneration(generation, champion, survivors);
+    }
+
+    /**
+     * 两者都有规模曲线，且候选在生产规模下的预测耗时明显高于冠军
+     */
+    private static boolean scalesWorse(Evaluator.EvalResult candidate, Evaluator.EvalResult champion) {
+        return candidate.scaling != null && champion.scaling != null
+            && candidate.rankingCostUs(PRODUCTION_SIZE) > champion.rankingCostUs(PRODUCTION_SIZE) * SCALING_MARGIN;
+    }
+
+    /**
+     * 冠军的热点采样摘要，写进以它为父代的变异提示词；未采样时为 null
+     */
+    private static String profileHint(Evaluator.EvalResult champion, String championCode) {
+        return champion.profile == null ? null : champion.profile.summary(championCode);
     }
 
     private static String readSourceFile() throws IOException {
@@ -139,7 +610,8 @@ public class Main {
     }
 
     private static void backupCode(int generation, String code) throws IOException {
-        String backupFile = BACKUP_DIR + "/gen_" + generation + "_TargetSubject.java";
+        String simpleName = TASK.targetClass().substring(TASK.targetClass().lastIndexOf('.') + 1);
+        String backupFile = BACKUP_DIR + "/gen_" + generation + "_" + simpleName + ".java";
         Files.writeString(Paths.get(backupFile), code);
         System.out.println("   备份: " + backupFile);
     }
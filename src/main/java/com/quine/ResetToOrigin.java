@@ -1,57 +1,26 @@
 package com.quine;
 
+import com.quine.core.EvolutionJournal;
+import com.quine.core.Task;
+import com.quine.core.TaskRegistry;
+
 import java.io.IOException;
 import java.nio.file.*;
 
 /**
- * 重置工具：将代码恢复为初始的冒泡排序
+ * 重置工具：将所有任务的目标代码恢复为初始实现（resources/seeds 下的初始代码）
  * 运行此类可以重新开始进化
  */
 public class ResetToOrigin {
-    private static final String TARGET_FILE = "src/main/java/com/quine/sandbox/TargetSubject.java";
-
-    // 初始的冒泡排序代码
-    private static final String INITIAL_CODE = """
-package com.quine.sandbox;
-
-import com.quine.core.TaskSolver;
-
-public class TargetSubject implements TaskSolver {
-    @Override
-    public int[] solve(int[] input) {
-        // 冒泡排序 - 故意低效的实现
-        int[] arr = input.clone();
-        int n = arr.length;
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = 0; j < n - i - 1; j++) {
-                if (arr[j] > arr[j + 1]) {
-                    int temp = arr[j];
-                    arr[j] = arr[j + 1];
-                    arr[j + 1] = temp;
-                }
-            }
-        }
-        return arr;
-    }
-}
-""";
 
     public static void main(String[] args) {
         try {
-            // 备份当前代码（如果存在）
-            Path targetPath = Paths.get(TARGET_FILE);
-            if (Files.exists(targetPath)) {
-                String timestamp = String.valueOf(System.currentTimeMillis());
-                String backupFile = "target/backup_before_reset_" + timestamp + ".java";
-                Files.createDirectories(Paths.get("target"));
-                Files.copy(targetPath, Paths.get(backupFile));
-                System.out.println("✓ 当前代码已备份到: " + backupFile);
+            for (Task task : TaskRegistry.all()) {
+                reset(task.targetFile(), task.seedSource());
+                // 进化日志一并归档，否则下次启动会从日志中的冠军恢复
+                EvolutionJournal.archive(Paths.get(System.getProperty("quine.journal.dir", "target/journal")), task.id());
+                System.out.println("✓ 任务 " + task.id() + " 已重置为初始代码");
             }
-
-            // 写入初始代码
-            Files.writeString(targetPath, INITIAL_CODE);
-
-            System.out.println("✓ 代码已重置为初始冒泡排序");
             System.out.println("✓ 现在可以重新运行 Main.java 开始进化");
 
         } catch (IOException e) {
@@ -59,4 +28,19 @@ public class TargetSubject implements TaskSolver {
             e.printStackTrace();
         }
     }
+
+    private static void reset(String file, String code) throws IOException {
+        // 备份当前代码（如果存在）
+        Path targetPath = Paths.get(file);
+        if (Files.exists(targetPath)) {
+            String timestamp = String.valueOf(System.currentTimeMillis());
+            String backupFile = "target/backup_before_reset_" + timestamp + "_" + targetPath.getFileName();
+            Files.createDirectories(Paths.get("target"));
+            Files.copy(targetPath, Paths.get(backupFile));
+            System.out.println("✓ 当前代码已备份到: " + backupFile);
+        }
+
+        // 写入初始代码
+        Files.writeString(targetPath, code);
+    }
 }
@@ -0,0 +1,65 @@
+package com.quine;
+
+import com.quine.core.Task;
+import com.quine.core.TaskRegistry;
+import com.quine.utils.LLMClient;
+import com.quine.utils.TranscriptStore;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 录制种子工具：把已有的代际备份（默认 example/generations）串成一条对话录制
+ *
+ * 按代数排序，初始代码 -> gen_1 -> gen_2 ... 每一步记为"以上一代为父代的整段源码请求 -> 下一代源码"。
+ * 之后以 -Dquine.llm.mode=replay -Dquine.llm.replay.strict=false 运行 Main，无需网络即可端到端跑通编译、评估与选择
+ * （父代一旦与备份不同，提示词就不再命中，需要非严格回放按录制顺序补位）。
+ * 参数：[代际备份目录]（默认 example/generations）
+ */
+public class SeedTranscripts {
+    private static final Pattern GENERATION_FILE = Pattern.compile("gen_(\\d+)_.*\\.java");
+
+    public static void main(String[] args) {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "example/generations");
+        Task task = TaskRegistry.fromSystemProperties();
+        try (TranscriptStore store = new TranscriptStore(
+                 Paths.get(System.getProperty("quine.llm.transcripts", "target/transcripts")), TranscriptStore.Mode.RECORD, false);
+             LLMClient client = new LLMClient("", "", "", 1, task.brief(), false, null)) {
+            TreeMap<Integer, Path> generations = new TreeMap<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "gen_*.java")) {
+                for (Path file : files) {
+                    Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        generations.put(Integer.parseInt(matcher.group(1)), file);
+                    }
+                }
+            }
+            if (generations.isEmpty()) {
+                System.err.println("✗ " + directory + " 下没有代际备份（gen_N_*.java）");
+                return;
+            }
+
+            String parent = task.seedSource();
+            int added = 0;
+            for (Map.Entry<Integer, Path> entry : generations.entrySet()) {
+                String child = Files.readString(entry.getValue());
+                String prompt = client.fullSourcePrompt(parent);
+                if (!store.contains(prompt)) {
+                    store.record(prompt, child, 0, 0);
+                    added++;
+                }
+                parent = child;
+            }
+            System.out.println("✓ 任务 " + task.id() + "：" + generations.size() + " 代，新增 " + added + " 条录制");
+            System.out.println(store.report());
+            System.out.println("✓ 现在可以以 -Dquine.llm.mode=replay -Dquine.llm.replay.strict=false 离线运行 Main");
+
+        } catch (IOException e) {
+            System.err.println("✗ 生成录制失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
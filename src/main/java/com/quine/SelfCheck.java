@@ -0,0 +1,142 @@
+package com.quine;
+
+import com.quine.core.PreScreen;
+import com.quine.core.Track;
+import com.quine.utils.CompilerUtils;
+import com.quine.utils.PatchApplier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 自检工具：不访问网络地重放补丁应用与预筛中出过问题的案例，确认修正仍然有效
+ *
+ * 每个案例打印 ✓ / ✗ 与说明，全部通过时退出码为 0。
+ * 参数：[代际备份目录]（默认 example/generations）
+ */
+public class SelfCheck {
+    private static final String TARGET_CLASS = "com.quine.sandbox.TargetSubject";
+
+    private int passed;
+    private int failed;
+
+    public static void main(String[] args) throws Exception {
+        Path generations = Paths.get(args.length > 0 ? args[0] : "example/generations");
+        SelfCheck check = new SelfCheck();
+        check.patchApplier(generations);
+        check.preScreen();
+        System.out.println(String.format("%s 通过 %d 项，未通过 %d 项", check.failed == 0 ? "✓" : "✗", check.passed, check.failed));
+        System.exit(check.failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * 补丁应用：带注解的成员替换、diff 之后的说明文字
+     */
+    private void patchApplier(Path generations) throws Exception {
+        System.out.println("补丁应用:");
+        String gen27 = Files.readString(generations.resolve("gen_27_TargetSubject.java"));
+
+        // 注解在前的方法：应按 floorLog2(int) 替换原方法，而不是当成名为 SuppressWarnings 的新成员追加
+        String annotated = """
+            @SuppressWarnings("unused")
+            private int floorLog2(int n) {
+                return 31 - Integer.numberOfLeadingZeros(n);
+            }
+            """;
+        String patched = apply(gen27, annotated);
+        check("带注解的方法替换同名方法", patched != null && count(patched, "int floorLog2(int n)") == 1
+            && patched.contains("numberOfLeadingZeros") && compiles(patched));
+
+        // 多个注解、注解参数里带括号与逗号
+        String stacked = """
+            @Override
+            @SuppressWarnings(value = {"unused", "cast"})
+            public int[] solve(int[] input) {
+                int[] arr = input.clone();
+                if (arr.length > 1) {
+                    introsort(arr, 0, arr.length - 1, 2 * floorLog2(arr.length));
+                }
+                return arr;
+            }
+            """;
+        patched = apply(gen27, stacked);
+        check("多个带参数注解的方法替换同名方法", patched != null && count(patched, "int[] solve(int[] input)") == 1
+            && compiles(patched));
+
+        // 最后一个块之后的说明文字不计入块
+        String diff = """
+            @@ -47,7 +47,3 @@
+                 private int floorLog2(int n) {
+            -        int log = 0;
+            -        while ((n >>= 1) != 0) {
+            -            log++;
+            -        }
+            -        return log;
+            +        return 31 - Integer.numberOfLeadingZeros(n);
+                 }
+            这样 floorLog2 只需要一条指令。
+            """;
+        patched = apply(gen27, diff);
+        check("diff 之后的说明文字", patched != null && patched.contains("numberOfLeadingZeros") && compiles(patched));
+    }
+
+    /**
+     * 预筛：单线程赛道的禁用 API 在字节码层面也要拦住
+     */
+    private void preScreen() throws Exception {
+        System.out.println("预筛:");
+        String streamSort = """
+            package com.quine.sandbox;
+
+            import com.quine.core.TaskSolver;
+            import java.util.stream.IntStream;
+
+            public class TargetSubject implements TaskSolver {
+                @Override
+                public int[] solve(int[] input) {
+                    return IntStream.of(input).sorted().toArray();
+                }
+            }
+            """;
+        PreScreen screen = new PreScreen(Track.SEQUENTIAL.forbiddenApis(), 4);
+        String violation = screen.checkBytecode(CompilerUtils.compile(TARGET_CLASS, streamSort));
+        check("IntStream.sorted() 被单线程赛道拒绝" + (violation != null ? "（" + violation + "）" : ""), violation != null);
+    }
+
+    private static String apply(String source, String patch) {
+        try {
+            return PatchApplier.apply(source, patch);
+        } catch (PatchApplier.PatchException e) {
+            System.out.println("    补丁无法应用: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean compiles(String source) {
+        try {
+            CompilerUtils.compile(TARGET_CLASS, source);
+            return true;
+        } catch (Exception e) {
+            System.out.println("    编译失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private void check(String name, boolean ok) {
+        System.out.println("  " + (ok ? "✓ " : "✗ ") + name);
+        if (ok) {
+            passed++;
+        } else {
+            failed++;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.quine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 基准测试引擎
+ *
+ * 1. 自适应预热：至少预热 MIN_WARMUP_MS，之后连续 STEADY_WINDOW 次耗时的变异系数低于阈值即视为进入稳态；
+ *    预热总时长有上限，慢候选不会因迟迟不稳定而耗尽超时预算
+ * 2. 多 fork：每个 fork 通过工厂重新加载候选（全新 ClassLoader，JIT 画像从零开始），
+ *    避免一次偶然的编译决策决定整个结果
+ * 3. 每次 solve 的返回值交给 {@link Blackhole}，防止死代码消除
+ */
+public class BenchmarkEngine {
+    private static final long MIN_WARMUP_MS = 100;
+    private static final int STEADY_WINDOW = 5;
+    private static final double STEADY_CV = 0.05;
+
+    private final int forks;
+    private final long maxWarmupMs;
+    private final int measurementIterations;
+
+    /**
+     * @param forks fork 次数
+     * @param maxWarmupMs 每个 fork 预热时长上限（未进入稳态也停止）
+     * @param measurementIterations 每个 fork 的测量次数
+     */
+    public BenchmarkEngine(int forks, long maxWarmupMs, int measurementIterations) {
+        this.forks = Math.max(1, forks);
+        this.maxWarmupMs = Math.max(MIN_WARMUP_MS, maxWarmupMs);
+        this.measurementIterations = Math.max(2, measurementIterations);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.forks / quine.warmupMs / quine.measurements
+     */
+    public static BenchmarkEngine fromSystemProperties() {
+        return new BenchmarkEngine(
+            Integer.getInteger("quine.forks", 3),
+            Long.getLong("quine.warmupMs", 1000),
+            Integer.getInteger("quine.measurements", 10));
+    }
+
+    public int getForks() {
+        return forks;
+    }
+
+    public long getMaxWarmupMs() {
+        return maxWarmupMs;
+    }
+
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    /**
+     * 运行基准
+     * @param solverFactory 每个 fork 调用一次，返回一个新加载的求解器实例
+     * @param testData 测试数据（每次测量前复制，复制不计时）
+     */
+    public BenchmarkStats run(Callable<TaskSolver> solverFactory, int[] testData) throws Exception {
+        return run(solverFactory, testData, sampleUs -> { });
+    }
+
+    /**
+     * 运行基准，并在每个测量样本产生时回调（供工作进程流式回传）
+     */
+    public BenchmarkStats run(Callable<TaskSolver> solverFactory, int[] testData, DoubleConsumer sampleListener) throws Exception {
+        return run(solverFactory, IntSortKernel.INSTANCE, testData, sampleListener);
+    }
+
+    /**
+     * 运行任意原始类型特化的基准
+     * @param kernel 负责复制输入与调用候选，计时区内不经过包装类型
+     */
+    public <D> BenchmarkStats run(Callable<?> solverFactory, Kernel<D> kernel, D testData) throws Exception {
+        return run(solverFactory, kernel, testData, sampleUs -> { });
+    }
+
+    public <D> BenchmarkStats run(Callable<?> solverFactory, Kernel<D> kernel, D testData,
+                                  DoubleConsumer sampleListener) throws Exception {
+        Blackhole blackhole = new Blackhole();
+        List<Double> samples = new ArrayList<>();
+        int warmupTotal = 0;
+
+        for (int fork = 0; fork < forks; fork++) {
+            Object solver = solverFactory.call();
+            warmupTotal += warmUp(solver, kernel, testData, blackhole);
+
+            for (int i = 0; i < measurementIterations; i++) {
+                double sampleUs = timeOnce(solver, kernel, testData, blackhole) / 1_000.0;
+                samples.add(sampleUs);
+                sampleListener.accept(sampleUs);
+            }
+        }
+        blackhole.flush();
+
+        double[] samplesUs = new double[samples.size()];
+        for (int i = 0; i < samplesUs.length; i++) {
+            samplesUs[i] = samples.get(i);
+        }
+        return new BenchmarkStats(samplesUs, forks, warmupTotal);
+    }
+
+    /**
+     * 自适应预热，返回实际预热次数
+     */
+    private <D> int warmUp(Object solver, Kernel<D> kernel, D testData, Blackhole blackhole) throws InterruptedException {
+        double[] window = new double[STEADY_WINDOW];
+        int iterations = 0;
+        long start = System.nanoTime();
+        while (true) {
+            window[iterations % STEADY_WINDOW] = timeOnce(solver, kernel, testData, blackhole);
+            iterations++;
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs >= maxWarmupMs) {
+                break;
+            }
+            if (iterations >= STEADY_WINDOW && elapsedMs >= MIN_WARMUP_MS
+                    && Statistics.coefficientOfVariation(window) < STEADY_CV) {
+                break;
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * 单次计时（纳秒）；在迭代之间响应中断，超时后尽快退出
+     */
+    private <D> long timeOnce(Object solver, Kernel<D> kernel, D testData, Blackhole blackhole) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("基准测试被中断");
+        }
+        D input = kernel.copy(testData);
+        long start = System.nanoTime();
+        Object result = kernel.invoke(solver, input);
+        long elapsed = System.nanoTime() - start;
+        blackhole.consume(result);
+        return elapsed;
+    }
+}
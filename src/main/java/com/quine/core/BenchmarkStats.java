@@ -0,0 +1,76 @@
+package com.quine.core;
+
+/**
+ * 一次基准测试的统计摘要（单位：微秒）
+ */
+public class BenchmarkStats {
+    public final double[] samplesUs;    // 全部测量样本（各 fork 合并）
+    public final int forks;
+    public final int warmupIterations;  // 各 fork 预热次数之和
+    public final double meanUs;
+    public final double medianUs;
+    public final double p90Us;
+    public final double p99Us;
+    public final double minUs;
+    public final double maxUs;
+    public final double stdDevUs;
+    public final double ci95Us;         // 均值 95% 置信区间半宽
+
+    /**
+     * 与基线比较的结论
+     */
+    public enum Verdict {
+        FASTER,            // 显著更快
+        SLOWER,            // 显著更慢
+        INDISTINGUISHABLE  // 差异在噪声范围内
+    }
+
+    public BenchmarkStats(double[] samplesUs, int forks, int warmupIterations) {
+        this.samplesUs = samplesUs.clone();
+        this.forks = forks;
+        this.warmupIterations = warmupIterations;
+
+        double[] sorted = Statistics.sortedCopy(samplesUs);
+        this.meanUs = Statistics.mean(sorted);
+        this.medianUs = Statistics.percentile(sorted, 0.5);
+        this.p90Us = Statistics.percentile(sorted, 0.9);
+        this.p99Us = Statistics.percentile(sorted, 0.99);
+        this.minUs = sorted.length == 0 ? 0 : sorted[0];
+        this.maxUs = sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        this.stdDevUs = Math.sqrt(Statistics.variance(sorted));
+        this.ci95Us = sorted.length < 2 ? 0
+            : Statistics.tQuantile(0.975, sorted.length - 1) * stdDevUs / Math.sqrt(sorted.length);
+    }
+
+    public int sampleCount() {
+        return samplesUs.length;
+    }
+
+    /**
+     * Welch t 检验：与基线相比是否存在显著差异
+     * @param baseline 当前冠军的统计
+     * @param alpha 显著性水平（如 0.05）
+     */
+    public Verdict compareTo(BenchmarkStats baseline, double alpha) {
+        double pValue = pValueAgainst(baseline);
+        if (pValue >= alpha) {
+            return Verdict.INDISTINGUISHABLE;
+        }
+        return meanUs < baseline.meanUs ? Verdict.FASTER : Verdict.SLOWER;
+    }
+
+    public double pValueAgainst(BenchmarkStats baseline) {
+        if (sampleCount() < 2 || baseline.sampleCount() < 2) {
+            return 1.0;
+        }
+        return Statistics.welchTTest(
+            meanUs, stdDevUs * stdDevUs, sampleCount(),
+            baseline.meanUs, baseline.stdDevUs * baseline.stdDevUs, baseline.sampleCount());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("中位数 %.1f μs, 均值 %.1f ± %.1f μs (95%% CI), p90 %.1f μs, p99 %.1f μs, n=%d, forks=%d",
+            medianUs, meanUs, ci95Us, p90Us, p99Us, sampleCount(), forks);
+    }
+}
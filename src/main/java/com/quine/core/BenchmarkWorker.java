@@ -0,0 +1,409 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerUtils;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准工作进程入口：在一个干净的 JVM 里测速由父进程发来的字节码
+ *
+ * 协议（stdin/stdout，DataStream 编码）：
+ *   启动完成 -> 'R'
+ *   测速请求 -> 'B'、类名、字节码表、测试数据、fork/预热/测量配置
+ *   响应     -> 若干 'S'+样本(μs)，最后 'D'+预热次数 或 'E'+错误信息
+ *   试运行   -> 'T'、任务、类名、字节码表、测试数据、附加输入、验证/探测配置、CPU 与分配上限、线程阶梯、规模阶梯与预算
+ *   响应     -> 探测通过时先发 'P'，最后 'D' / 'E'（失败）/ 'X'（探测拒绝）+ 信息 + 残留线程数 + 跑通的最大规模
+ * stdin 关闭即退出。候选代码的 System.out 被重定向到 stderr，避免污染协议流。
+ * 试运行期间看门狗线程检查进程 CPU 时间与累计分配量，超限直接 halt，退出码见 {@link ExecutionLimits}。
+ */
+public class BenchmarkWorker {
+    static final byte READY = 'R';
+    static final byte BENCHMARK = 'B';
+    static final byte TRIAL = 'T';
+    static final byte SAMPLE = 'S';
+    static final byte PROBED = 'P';
+    static final byte DONE = 'D';
+    static final byte ERROR = 'E';
+    static final byte REJECTED = 'X';
+    private static final long WATCHDOG_INTERVAL_MS = 5;
+
+    public static void main(String[] args) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        System.setOut(System.err);
+
+        out.writeByte(READY);
+        out.flush();
+
+        while (true) {
+            byte kind;
+            try {
+                kind = in.readByte();
+            } catch (EOFException e) {
+                return;
+            }
+            if (kind == TRIAL) {
+                Trial trial = Trial.read(in);
+                runTrial(trial, TaskRegistry.byId(trial.taskId).kernel(), out);
+            } else {
+                runJob(Job.read(in), out);
+            }
+            out.flush();
+        }
+    }
+
+    private static void runJob(Job job, DataOutputStream out) throws IOException {
+        BenchmarkEngine engine = new BenchmarkEngine(job.forks, job.maxWarmupMs, job.measurements);
+        try {
+            BenchmarkStats stats = engine.run(
+                () -> (TaskSolver) new CompilerUtils.CompiledUnit(job.className, job.classBytes)
+                    .load().getDeclaredConstructor().newInstance(),
+                job.testData,
+                sampleUs -> {
+                    try {
+                        out.writeByte(SAMPLE);
+                        out.writeDouble(sampleUs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            out.writeByte(DONE);
+            out.writeInt(stats.warmupIterations);
+        } catch (Throwable e) {
+            out.writeByte(ERROR);
+            out.writeUTF(String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * 试运行：探测 -> 正确性验证 -> 完整数据与各附加输入各跑一次 -> 线程阶梯上每种线程数各跑一次完整数据
+     * -> 规模阶梯逐级各跑一次（与多规模基准同样按预算提前停止），父进程随后在本进程内只会运行已跑通的输入
+     */
+    private static <D> void runTrial(Trial trial, Kernel<D> kernel, DataOutputStream out) throws IOException {
+        int threadsBefore = Thread.activeCount();
+        Watchdog watchdog = new Watchdog(trial.cpuSeconds, trial.allocatedMb);
+        watchdog.start();
+        byte verdict = DONE;
+        String message = "";
+        int scalingLimit = 0;
+        ForkJoinPool pool = null;
+        try {
+            CompilerUtils.CompiledUnit unit = new CompilerUtils.CompiledUnit(trial.className, trial.classBytes);
+            Object solver = unit.load().getDeclaredConstructor().newInstance();
+            ParallelTaskSolver parallel = null;
+            if (solver instanceof ParallelTaskSolver) {
+                // 线程阶梯的最后一级即父进程主基准的池大小；父进程的 quine.parallel.maxThreads 不会传到这里
+                parallel = (ParallelTaskSolver) solver;
+                int threads = trial.threadLadder.length > 0
+                    ? trial.threadLadder[trial.threadLadder.length - 1] : SpeedupBenchmark.maxThreads();
+                pool = new ForkJoinPool(threads);
+                solver = parallel.bind(pool);
+            }
+
+            if (trial.probeSolves > 0) {
+                String hopeless = new PreScreen(List.of(), Integer.MAX_VALUE)
+                    .probe(solver, kernel, unit, trial.testData.length, trial.probeSolves, trial.probeBudgetSeconds);
+                if (hopeless != null) {
+                    verdict = REJECTED;
+                    message = hopeless;
+                    return;
+                }
+                out.writeByte(PROBED);
+                out.flush();
+            }
+
+            CorrectnessVerifier.Result verification = new CorrectnessVerifier(trial.verifyMaxSize).verify(solver, kernel);
+            if (!verification.passed) {
+                verdict = ERROR;
+                message = verification.toString();
+                return;
+            }
+            String failure = CorrectnessVerifier.check(solver, kernel, kernel.fromInts(trial.testData));
+            if (failure != null) {
+                verdict = ERROR;
+                message = "正确性测试失败（完整测试数据）：" + failure;
+                return;
+            }
+            for (Map.Entry<String, int[]> input : trial.inputs.entrySet()) {
+                failure = CorrectnessVerifier.check(solver, kernel, kernel.fromInts(input.getValue()));
+                if (failure != null) {
+                    verdict = ERROR;
+                    message = "数据分布 " + input.getKey() + " 下失败: " + failure;
+                    return;
+                }
+            }
+            if (parallel != null) {
+                for (int i = 0; i < trial.threadLadder.length - 1; i++) {
+                    failure = checkOnPool(parallel, trial.threadLadder[i], kernel, kernel.fromInts(trial.testData));
+                    if (failure != null) {
+                        verdict = ERROR;
+                        message = trial.threadLadder[i] + " 线程下失败: " + failure;
+                        return;
+                    }
+                }
+            }
+
+            List<Integer> sizes = new ArrayList<>();
+            List<Double> times = new ArrayList<>();
+            for (int size : trial.scalingSizes) {
+                if (ScalingBenchmark.stopBefore(sizes, times, size, trial.scalingBudgetUs) != null) {
+                    break;
+                }
+                D input = kernel.fromInts(StandardWorkload.UNIFORM.generate(size));
+                long start = System.nanoTime();
+                Object output;
+                try {
+                    output = kernel.invoke(solver, kernel.copy(input));
+                } catch (Throwable e) {
+                    verdict = ERROR;
+                    message = "规模 n=" + size + " 下抛出 " + e.getClass().getSimpleName()
+                        + (e.getMessage() != null ? ": " + e.getMessage() : "");
+                    return;
+                }
+                double elapsedUs = (System.nanoTime() - start) / 1e3;
+                failure = kernel.check(input, output);
+                if (failure != null) {
+                    verdict = ERROR;
+                    message = "规模 n=" + size + " 下失败: " + failure;
+                    return;
+                }
+                scalingLimit = size;
+                sizes.add(size);
+                times.add(elapsedUs);
+                if (ScalingBenchmark.stopAfter(size, elapsedUs, trial.scalingBudgetUs) != null) {
+                    break;
+                }
+            }
+        } catch (Throwable e) {
+            verdict = ERROR;
+            message = "编译或运行错误: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            watchdog.interrupt();
+            if (pool != null) {
+                pool.shutdownNow();
+                try {
+                    pool.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            out.writeByte(verdict);
+            out.writeUTF(message);
+            // 候选自建的线程还活着时，父进程不再复用本进程
+            out.writeInt(Math.max(0, Thread.activeCount() - threadsBefore - (watchdog.isAlive() ? 1 : 0)));
+            out.writeInt(scalingLimit);
+        }
+    }
+
+    /**
+     * 在独立的 threads 线程池上跑一次，与加速比基准的每一级相同
+     */
+    private static <D> String checkOnPool(ParallelTaskSolver solver, int threads, Kernel<D> kernel, D input) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return CorrectnessVerifier.check(solver.bind(pool), kernel, input);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 试运行期间的资源看门狗：进程 CPU 时间（所有线程合计）与累计分配量超限时立即 halt
+     * halt 不执行关闭钩子，也不等待候选线程响应中断
+     */
+    private static class Watchdog extends Thread {
+        private final long cpuLimitNanos;
+        private final long allocationLimitBytes;
+
+        Watchdog(int cpuSeconds, long allocatedMb) {
+            super("quine-watchdog");
+            setDaemon(true);
+            this.cpuLimitNanos = cpuSeconds * 1_000_000_000L;
+            this.allocationLimitBytes = allocatedMb << 20;
+        }
+
+        @Override
+        public void run() {
+            com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long cpuStart = os.getProcessCpuTime();
+            long allocatedStart = threads.getTotalThreadAllocatedBytes();
+            while (!isInterrupted()) {
+                if (cpuLimitNanos > 0 && cpuStart >= 0 && os.getProcessCpuTime() - cpuStart > cpuLimitNanos) {
+                    Runtime.getRuntime().halt(ExecutionLimits.EXIT_CPU);
+                }
+                if (allocationLimitBytes > 0 && allocatedStart >= 0
+                        && threads.getTotalThreadAllocatedBytes() - allocatedStart > allocationLimitBytes) {
+                    Runtime.getRuntime().halt(ExecutionLimits.EXIT_ALLOCATION);
+                }
+                try {
+                    Thread.sleep(WATCHDOG_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次试运行请求
+     */
+    static class Trial {
+        final String taskId;
+        final String className;
+        final Map<String, byte[]> classBytes;
+        final int[] testData;
+        final Map<String, int[]> inputs;   // 附加输入（数据分布名 -> 数据）
+        final int verifyMaxSize;
+        final int probeSolves;             // 0 表示不探测
+        final int probeBudgetSeconds;
+        final int cpuSeconds;
+        final long allocatedMb;
+        final int[] threadLadder;          // 多线程赛道的加速比线程阶梯，其他赛道为空
+        final int[] scalingSizes;          // 多规模基准的规模阶梯，未开启时为空
+        final long scalingBudgetUs;
+
+        Trial(String taskId, String className, Map<String, byte[]> classBytes, int[] testData, Map<String, int[]> inputs,
+              int verifyMaxSize, int probeSolves, int probeBudgetSeconds, int cpuSeconds, long allocatedMb,
+              int[] threadLadder, int[] scalingSizes, long scalingBudgetUs) {
+            this.taskId = taskId;
+            this.className = className;
+            this.classBytes = classBytes;
+            this.testData = testData;
+            this.inputs = inputs;
+            this.verifyMaxSize = verifyMaxSize;
+            this.probeSolves = probeSolves;
+            this.probeBudgetSeconds = probeBudgetSeconds;
+            this.cpuSeconds = cpuSeconds;
+            this.allocatedMb = allocatedMb;
+            this.threadLadder = threadLadder;
+            this.scalingSizes = scalingSizes;
+            this.scalingBudgetUs = scalingBudgetUs;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TRIAL);
+            out.writeUTF(taskId);
+            out.writeUTF(className);
+            writeClasses(out, classBytes);
+            writeInts(out, testData);
+            out.writeInt(inputs.size());
+            for (Map.Entry<String, int[]> input : inputs.entrySet()) {
+                out.writeUTF(input.getKey());
+                writeInts(out, input.getValue());
+            }
+            out.writeInt(verifyMaxSize);
+            out.writeInt(probeSolves);
+            out.writeInt(probeBudgetSeconds);
+            out.writeInt(cpuSeconds);
+            out.writeLong(allocatedMb);
+            writeInts(out, threadLadder);
+            writeInts(out, scalingSizes);
+            out.writeLong(scalingBudgetUs);
+        }
+
+        static Trial read(DataInputStream in) throws IOException {
+            String taskId = in.readUTF();
+            String className = in.readUTF();
+            Map<String, byte[]> classBytes = readClasses(in);
+            int[] testData = readInts(in);
+            int inputCount = in.readInt();
+            Map<String, int[]> inputs = new LinkedHashMap<>();
+            for (int i = 0; i < inputCount; i++) {
+                String name = in.readUTF();
+                inputs.put(name, readInts(in));
+            }
+            return new Trial(taskId, className, classBytes, testData, inputs,
+                in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readLong(),
+                readInts(in), readInts(in), in.readLong());
+        }
+    }
+
+    /**
+     * 一次测速请求
+     */
+    static class Job {
+        final String className;
+        final Map<String, byte[]> classBytes;
+        final int[] testData;
+        final int forks;
+        final long maxWarmupMs;
+        final int measurements;
+
+        Job(String className, Map<String, byte[]> classBytes, int[] testData,
+            int forks, long maxWarmupMs, int measurements) {
+            this.className = className;
+            this.classBytes = classBytes;
+            this.testData = testData;
+            this.forks = forks;
+            this.maxWarmupMs = maxWarmupMs;
+            this.measurements = measurements;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(BENCHMARK);
+            out.writeUTF(className);
+            writeClasses(out, classBytes);
+            writeInts(out, testData);
+            out.writeInt(forks);
+            out.writeLong(maxWarmupMs);
+            out.writeInt(measurements);
+        }
+
+        static Job read(DataInputStream in) throws IOException {
+            String className = in.readUTF();
+            Map<String, byte[]> classBytes = readClasses(in);
+            int[] testData = readInts(in);
+            return new Job(className, classBytes, testData, in.readInt(), in.readLong(), in.readInt());
+        }
+    }
+
+    static void writeClasses(DataOutputStream out, Map<String, byte[]> classBytes) throws IOException {
+        out.writeInt(classBytes.size());
+        for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+    }
+
+    static Map<String, byte[]> readClasses(DataInputStream in) throws IOException {
+        int classCount = in.readInt();
+        Map<String, byte[]> classBytes = new LinkedHashMap<>();
+        for (int i = 0; i < classCount; i++) {
+            String name = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            classBytes.put(name, bytes);
+        }
+        return classBytes;
+    }
+
+    /**
+     * int[] 整块编码，避免逐元素 writeInt 的开销（大数据集时差异明显）
+     */
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        out.write(buffer.array());
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        byte[] bytes = new byte[length * Integer.BYTES];
+        in.readFully(bytes);
+        int[] values = new int[length];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(values);
+        return values;
+    }
+}
@@ -0,0 +1,233 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerUtils;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * 一个任务的进化战役：在调度器分配的资源上循环 变异 -> 编译 -> 验证与测速 -> 选择
+ *
+ * 三个阶段分别经过调度器的 LLM、编译、基准三条通道；战役自身只持有冠军状态与统计。
+ * 选择规则与单候选模式一致，但只在确有改进（显著更快，或耗时持平而内存更优）时替换冠军，
+ * 多个战役同时写各自的目标文件，中性漂移没有意义。
+ */
+public class Campaign {
+    private static final double SIGNIFICANCE = 0.05;
+    private static final double WORKLOAD_REGRESSION = 1.5;
+
+    /**
+     * 变异来源（通常是 LLMClient::mutateCode）
+     * profileHint 为父代的热点采样摘要，未开启采样时为 null
+     */
+    @FunctionalInterface
+    public interface Mutator {
+        String mutate(String parentCode, String profileHint) throws IOException;
+    }
+
+    public final Task task;
+    public final int priority;
+    private final Evaluator evaluator;
+    private final Mutator mutator;
+    private final SelectionPolicy selection;
+    private final int[] testData;
+    private final Path backupDir;
+    private final String runId;  // 本次运行在谱系库中的战役 id
+
+    private volatile String championCode;
+    private volatile Evaluator.EvalResult champion;
+    private volatile String championHint;
+    private volatile KnobTuner.Proposal tuned;
+
+    // 统计
+    private volatile int generation;
+    private volatile int evaluated;
+    private volatile int improvements;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param priority 优先级权重（≥ 1），各通道按权重成比例分配
+     * @param backupDir 冠军备份目录
+     */
+    public Campaign(Task task, int priority, Evaluator evaluator, Mutator mutator, SelectionPolicy selection,
+                    int[] testData, Path backupDir) {
+        this.task = task;
+        this.priority = Math.max(1, priority);
+        this.evaluator = evaluator;
+        this.mutator = mutator;
+        this.selection = selection;
+        this.testData = testData;
+        this.backupDir = backupDir;
+        this.runId = LineageStore.runCampaignId(task.id());
+    }
+
+    /**
+     * 评估初始代码，之后循环 maxGenerations 代；在战役自己的线程上运行
+     */
+    void run(CampaignScheduler scheduler, int maxGenerations) throws Exception {
+        startNanos = System.nanoTime();
+        try {
+            championCode = Files.readString(Paths.get(task.targetFile()));
+            champion = evaluate(scheduler, championCode);
+            if (!champion.success) {
+                log("✗ 初始代码评估失败: " + champion.error);
+                return;
+            }
+            log("✓ 初始基准: " + champion.timeUs + " μs");
+            profileChampion(scheduler);
+            tuneChampion(scheduler);
+            if (scheduler.lineage != null) {
+                scheduler.lineage.recordSeed(runId, championCode, champion);
+            }
+            Files.createDirectories(backupDir);
+
+            for (int gen = 1; gen <= maxGenerations; gen++) {
+                generation = gen;
+                String parent = championCode;
+                String hint = championHint;
+                String code;
+                try {
+                    if (tuned != null) {
+                        // 调参候选不占用 LLM 通道，与 LLM 变异走同样的评估与选择
+                        code = tuned.sourceCode;
+                        log(tuned.toString());
+                        tuned = null;
+                    } else {
+                        code = scheduler.llm.run(this, () -> mutator.mutate(parent, hint));
+                    }
+                } catch (IOException e) {
+                    log("✗ 变异异常: " + e.getMessage());
+                    record(scheduler, null, parent, "failed", new Evaluator.EvalResult(false, 0, "变异异常: " + e.getMessage()));
+                    continue;
+                }
+                Evaluator.EvalResult result = evaluate(scheduler, code);
+                evaluated++;
+                if (!result.success) {
+                    log("✗ 失败: " + result.error);
+                    record(scheduler, code, parent, "failed", result);
+                    continue;
+                }
+                boolean improved = isImprovement(result);
+                record(scheduler, code, parent, improved ? "improved" : "rejected", result);
+                if (improved) {
+                    improvements++;
+                    log(String.format("🎉 进化成功: %d μs -> %d μs", champion.timeUs, result.timeUs));
+                    Files.writeString(backupDir.resolve("gen_" + generation + "_" + simpleName() + ".java"), code);
+                    Files.writeString(Paths.get(task.targetFile()), code);
+                    championCode = code;
+                    champion = result;
+                    profileChampion(scheduler);
+                    tuneChampion(scheduler);
+                } else {
+                    log("性能 " + result.timeUs + " μs，未超过冠军 " + champion.timeUs + " μs");
+                }
+            }
+        } finally {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 源码缓存 -> 编译通道 -> 基准通道；缓存命中的候选不占用任何通道
+     */
+    private Evaluator.EvalResult evaluate(CampaignScheduler scheduler, String code) throws Exception {
+        Evaluator.EvalResult cached = evaluator.lookupCached(code, testData);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        CompilerUtils.CompiledUnit unit;
+        try {
+            unit = scheduler.compile.run(this, () -> scheduler.compileWithPooledSession(evaluator, code));
+        } catch (Evaluator.RejectedException e) {
+            Evaluator.EvalResult rejected = new Evaluator.EvalResult(false, 0, e.getMessage());
+            evaluator.remember(code, testData, null, rejected, System.nanoTime() - start);
+            return rejected;
+        }
+        long compileNanos = System.nanoTime() - start;
+        Evaluator.EvalResult result = scheduler.benchmark.run(this, () -> evaluator.evaluateCompiled(unit, testData));
+        evaluator.remember(code, testData, unit, result, compileNanos);
+        return result;
+    }
+
+    /**
+     * 冠军热点采样：编译通道 -> 基准通道，摘要写进之后的变异提示词；未开启采样时不占用任何通道
+     */
+    private void profileChampion(CampaignScheduler scheduler) throws Exception {
+        if (!evaluator.profilesChampions()) {
+            return;
+        }
+        String code = championCode;
+        Evaluator.EvalResult result = champion;
+        CompilerUtils.CompiledUnit unit = scheduler.compile.run(this, () -> scheduler.compileWithPooledSession(evaluator, code));
+        champion = scheduler.benchmark.run(this, () -> evaluator.profileChampion(unit, testData, result));
+        championHint = champion.profile == null ? null : champion.profile.summary(code);
+        if (champion.profile != null) {
+            log(champion.profile.toString());
+        }
+    }
+
+    /**
+     * 冠军本地常量调参，在基准通道上进行；提议作为下一代的候选
+     */
+    private void tuneChampion(CampaignScheduler scheduler) throws Exception {
+        if (evaluator.tunesKnobs()) {
+            String code = championCode;
+            tuned = scheduler.benchmark.run(this, () -> evaluator.tuneKnobs(code, testData));
+        }
+    }
+
+    private void record(CampaignScheduler scheduler, String code, String parent, String verdict,
+                        Evaluator.EvalResult result) throws IOException {
+        if (scheduler.lineage != null) {
+            scheduler.lineage.record(runId, generation, code, parent, verdict, result);
+        }
+    }
+
+    private boolean isImprovement(Evaluator.EvalResult result) {
+        if (result.workloadRegressionAgainst(champion, WORKLOAD_REGRESSION) != null
+                || !selection.memoryAcceptable(result, champion)) {
+            return false;
+        }
+        BenchmarkStats.Verdict verdict = result.stats.compareTo(champion.stats, SIGNIFICANCE);
+        return verdict == BenchmarkStats.Verdict.FASTER
+            || verdict == BenchmarkStats.Verdict.INDISTINGUISHABLE && selection.winsOnMemory(result, champion);
+    }
+
+    private String simpleName() {
+        return task.targetClass().substring(task.targetClass().lastIndexOf('.') + 1);
+    }
+
+    private void log(String message) {
+        System.out.println("[" + task.id() + (generation > 0 ? " Gen " + generation : "") + "] " + message);
+    }
+
+    Evaluator evaluator() {
+        return evaluator;
+    }
+
+    public int generation() {
+        return generation;
+    }
+
+    public Evaluator.EvalResult champion() {
+        return champion;
+    }
+
+    /**
+     * 吞吐量：每分钟评估的候选数（按战役运行的墙钟时间计）
+     */
+    public double candidatesPerMinute() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return startNanos == 0 || end == startNanos ? 0 : evaluated * 60_000_000_000.0 / (end - startNanos);
+    }
+
+    public int evaluated() {
+        return evaluated;
+    }
+
+    public int improvements() {
+        return improvements;
+    }
+}
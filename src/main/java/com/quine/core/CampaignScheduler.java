@@ -0,0 +1,217 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerSession;
+import com.quine.utils.CompilerUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多任务并发进化调度器
+ *
+ * 多个战役（每个任务一个）同时进化，共享三类资源：
+ * 1. LLM 通道：有限的并发请求槽，可按每分钟请求数限速
+ * 2. 编译通道：固定数量的编译会话，按核数扩展
+ * 3. 基准通道：严格串行，同一时刻只有一个候选在测速，计时互不干扰
+ * 一个战役等 LLM 回复或编译时，其他战役的候选可以占用基准通道，机器不再空转。
+ * 各通道按优先级权重公平分配（见 {@link FairLane}），定期报告每个战役的吞吐量与排队等待。
+ */
+public class CampaignScheduler implements AutoCloseable {
+    final FairLane llm;
+    final FairLane compile;
+    final FairLane benchmark;
+    private final BlockingQueue<CompilerSession> sessions;
+    private final EvaluationCache cache;
+    final LineageStore lineage;
+    private final BenchmarkEngine engine;
+    private final List<Workload> workloads;
+    private final long reportIntervalMs;
+    private final List<Campaign> campaigns = new ArrayList<>();
+
+    /**
+     * @param llmSlots 同时在途的 LLM 请求上限
+     * @param llmPerMinute 每分钟 LLM 请求上限，0 表示不限速
+     * @param compileWorkers 编译会话数
+     * @param reportSeconds 进度报告间隔
+     * @param lineage 全部战役共用的谱系库，null 表示不记录
+     */
+    public CampaignScheduler(int llmSlots, int llmPerMinute, int compileWorkers, int reportSeconds,
+                             BenchmarkEngine engine, List<Workload> workloads, EvaluationCache cache,
+                             LineageStore lineage) throws IOException {
+        this.llm = new FairLane("LLM", llmSlots, llmPerMinute);
+        this.compile = new FairLane("编译", compileWorkers, 0);
+        this.benchmark = new FairLane("基准", 1, 0);
+        this.sessions = new ArrayBlockingQueue<>(Math.max(1, compileWorkers));
+        for (int i = 0; i < Math.max(1, compileWorkers); i++) {
+            sessions.add(new CompilerSession());
+        }
+        this.engine = engine;
+        this.workloads = List.copyOf(workloads);
+        this.cache = cache;
+        this.lineage = lineage;
+        this.reportIntervalMs = reportSeconds * 1_000L;
+    }
+
+    /**
+     * 从系统属性读取配置：
+     * quine.scheduler.llmSlots（默认 4）/ quine.scheduler.llmPerMinute（默认 0，不限速）/
+     * quine.scheduler.compileWorkers（默认核数 - 1）/ quine.scheduler.reportSeconds（默认 60）
+     */
+    public static CampaignScheduler fromSystemProperties() throws IOException {
+        return new CampaignScheduler(
+            Integer.getInteger("quine.scheduler.llmSlots", 4),
+            Integer.getInteger("quine.scheduler.llmPerMinute", 0),
+            Integer.getInteger("quine.scheduler.compileWorkers", PopulationEvaluator.defaultCompileWorkers()),
+            Integer.getInteger("quine.scheduler.reportSeconds", 60),
+            BenchmarkEngine.fromSystemProperties(),
+            StandardWorkload.parse(System.getProperty("quine.workloads", "all")),
+            EvaluationCache.fromSystemProperties(),
+            LineageStore.fromSystemProperties());
+    }
+
+    /**
+     * 解析 quine.campaigns：逗号分隔的 任务id[:权重]，如 "sequential:3,prefix_sum,histogram:2"，权重默认 1
+     * @return 任务 -> 权重（保持书写顺序）
+     */
+    public static Map<Task, Integer> parseCampaigns(String spec) {
+        Map<Task, Integer> parsed = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String entry = part.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            Task task = TaskRegistry.byId(colon < 0 ? entry : entry.substring(0, colon).trim());
+            int weight = colon < 0 ? 1 : Integer.parseInt(entry.substring(colon + 1).trim());
+            if (weight < 1) {
+                throw new IllegalArgumentException("战役权重必须 ≥ 1: " + entry);
+            }
+            parsed.put(task, weight);
+        }
+        return parsed;
+    }
+
+    /**
+     * 添加一个战役；每个战役有自己的评估器（进程内测速），评估缓存共享
+     * @param testSize 该任务的测试数据规模
+     * @param backupDir 该战役的冠军备份目录
+     */
+    public Campaign addCampaign(Task task, int priority, Campaign.Mutator mutator, int testSize,
+                                Path backupDir) throws IOException {
+        Evaluator evaluator = new Evaluator(task, engine, null, null, workloads, cache);
+        Campaign campaign = new Campaign(task, priority, evaluator, mutator,
+            SelectionPolicy.fromSystemProperties(Long.getLong("quine.productionSize", 10_000_000)),
+            StandardWorkload.UNIFORM.generate(testSize), backupDir);
+        campaigns.add(campaign);
+        return campaign;
+    }
+
+    public List<Campaign> getCampaigns() {
+        return Collections.unmodifiableList(campaigns);
+    }
+
+    /**
+     * 每个战役一个线程并发进化 generations 代，期间定期打印报告，全部结束后返回
+     */
+    public void runAll(int generations) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (Campaign campaign : campaigns) {
+            Thread thread = new Thread(() -> {
+                try {
+                    campaign.run(this, generations);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    System.err.println("[" + campaign.task.id() + "] ❌ 战役异常终止: " + e.getMessage());
+                }
+            }, "quine-campaign-" + campaign.task.id());
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long nextReport = System.currentTimeMillis() + reportIntervalMs;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                thread.join(Math.max(1, nextReport - System.currentTimeMillis()));
+                if (System.currentTimeMillis() >= nextReport) {
+                    System.out.println(report());
+                    nextReport += reportIntervalMs;
+                }
+            }
+        }
+    }
+
+    /**
+     * 编译通道内执行：从会话池借一个编译会话
+     */
+    CompilerUtils.CompiledUnit compileWithPooledSession(Evaluator evaluator, String code) throws Exception {
+        CompilerSession session = sessions.take();
+        try {
+            return evaluator.compile(code, session);
+        } finally {
+            sessions.add(session);
+        }
+    }
+
+    /**
+     * 每个战役的进度、吞吐量与各通道的排队等待
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("📊 调度报告\n");
+        for (Campaign campaign : campaigns) {
+            Evaluator.EvalResult champion = campaign.champion();
+            sb.append(String.format("  %s（权重 %d）：第 %d 代，评估 %d 个候选（%.1f 个/分钟），改进 %d 次，冠军 %s%n",
+                campaign.task.id(), campaign.priority, campaign.generation(), campaign.evaluated(),
+                campaign.candidatesPerMinute(), campaign.improvements(),
+                champion == null || !champion.success ? "-" : champion.timeUs + " μs"));
+            for (FairLane lane : List.of(llm, compile, benchmark)) {
+                FairLane.Usage usage = lane.usageOf(campaign);
+                sb.append(String.format("    %s：%d 次，平均等待 %s（最长 %s），占用 %s%n",
+                    lane.name(), usage.grants,
+                    formatNanos(usage.grants == 0 ? 0 : usage.waitNanos / usage.grants),
+                    formatNanos(usage.maxWaitNanos), formatNanos(usage.serviceNanos)));
+            }
+            sb.append("    ").append(campaign.evaluator().isolationReport()).append('\n');
+            if (campaign.evaluator().tunesKnobs()) {
+                sb.append("    ").append(campaign.evaluator().tunerReport()).append('\n');
+            }
+            if (campaign.evaluator().profilesChampions()) {
+                sb.append("    ").append(campaign.evaluator().profilerReport()).append('\n');
+            }
+        }
+        sb.append("  ").append(Evaluator.runawayReport()).append('\n');
+        if (cache != null) {
+            sb.append("  ").append(cache.report()).append('\n');
+        }
+        if (lineage != null) {
+            sb.append("  ").append(lineage.report()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return ms < 1_000 ? ms + " ms" : String.format("%.1f s", ms / 1000.0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Campaign campaign : campaigns) {
+            campaign.evaluator().close();
+        }
+        for (CompilerSession session : sessions) {
+            session.close();
+        }
+        if (cache != null) {
+            cache.close();
+        }
+        if (lineage != null) {
+            lineage.close();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.quine.core;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于性质的正确性验证
+ *
+ * 四个手写小数组放过了大量错误候选（只在重复值、极值或较大规模下出错），
+ * 它们随后要么白白耗掉整段测速预算，要么被错误地晋升为冠军。这里改为：
+ * 1. 边界用例 + 各数据分布 + 随机数组，规模从 0 逐级增长到 maxSize
+ * 2. 每个输出只扫描一遍：检查非递减，同时累加多重集哈希与输入比对（是否为输入的排列），不再排序参考副本
+ * 3. 第一个失败立即停止，并把反例收缩到最小再报告
+ * 用例以 int[] 生成，经 {@link Kernel#fromInts} 派生到 long[]、double[] 等特化，再追加各特化自己的边界与随机用例。
+ */
+public class CorrectnessVerifier {
+    private static final long SEED = 20240601L;
+    private static final int MAX_SHRINK_ATTEMPTS = 2_000;
+    private static final int SMALL_SIZES = 8;      // 0..8 每个规模都测
+    private static final int RANDOM_PER_SIZE = 3;  // 每个规模的随机数组个数
+
+    private final int maxSize;
+    private final Map<Kernel<?>, List<?>> cases = new ConcurrentHashMap<>();  // 每个特化确定性生成一次，每次验证复用（用例在调用前复制）
+
+    // 自身开销统计
+    private long runs;
+    private long totalNanos;
+    private long totalElements;
+
+    /**
+     * @param maxSize 最大验证规模，之间按 4 倍递增
+     */
+    public CorrectnessVerifier(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.verify.maxSize（默认 32768）
+     */
+    public static CorrectnessVerifier fromSystemProperties() {
+        return new CorrectnessVerifier(Integer.getInteger("quine.verify.maxSize", 32_768));
+    }
+
+    /**
+     * 验证结果
+     */
+    public static class Result {
+        public final boolean passed;
+        public final int cases;              // 实际运行的用例数
+        public final long elements;          // 排序过的元素总数
+        public final long elapsedNanos;      // 验证耗时（含收缩）
+        public final String reason;          // 失败原因，通过时为 null
+        public final String counterexample;  // 收缩后的最小反例（可读形式），通过时为 null
+
+        Result(boolean passed, int cases, long elements, long elapsedNanos, String reason, String counterexample) {
+            this.passed = passed;
+            this.cases = cases;
+            this.elements = elements;
+            this.elapsedNanos = elapsedNanos;
+            this.reason = reason;
+            this.counterexample = counterexample;
+        }
+
+        @Override
+        public String toString() {
+            if (passed) {
+                return String.format("正确性验证通过：%d 个用例，%d 个元素，耗时 %.1f ms", cases, elements, elapsedNanos / 1e6);
+            }
+            return String.format("正确性测试失败（第 %d 个用例）：%s；最小反例 %s", cases, reason, counterexample);
+        }
+    }
+
+    /**
+     * 按用例顺序逐个验证，遇到第一个失败即停
+     */
+    public Result verify(TaskSolver solver) {
+        return verify(solver, IntSortKernel.INSTANCE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <D> Result verify(Object solver, Kernel<D> kernel) {
+        long start = System.nanoTime();
+        int count = 0;
+        long elements = 0;
+        Result result = null;
+
+        for (D input : (List<D>) cases.computeIfAbsent(kernel, this::testCases)) {
+            count++;
+            elements += kernel.length(input);
+            String failure = check(solver, kernel, input);
+            if (failure != null) {
+                D minimal = shrink(solver, kernel, input);
+                String minimalFailure = check(solver, kernel, minimal);
+                result = new Result(false, count, elements, System.nanoTime() - start,
+                    minimalFailure != null ? minimalFailure : failure, kernel.format(minimal));
+                break;
+            }
+        }
+        if (result == null) {
+            result = new Result(true, count, elements, System.nanoTime() - start, null, null);
+        }
+
+        synchronized (this) {
+            runs++;
+            totalNanos += result.elapsedNanos;
+            totalElements += result.elements;
+        }
+        return result;
+    }
+
+    /**
+     * 单个用例：为 null 表示通过，否则返回失败原因
+     */
+    static String check(TaskSolver solver, int[] input) {
+        return check(solver, IntSortKernel.INSTANCE, input);
+    }
+
+    static <D> String check(Object solver, Kernel<D> kernel, D input) {
+        Object output;
+        try {
+            output = kernel.invoke(solver, kernel.copy(input));
+        } catch (Throwable e) {
+            return "抛出 " + e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+        return kernel.check(input, output);
+    }
+
+    /**
+     * 用例序列：先边界，再按规模递增；同一规模内先结构化分布再随机
+     * 用例以 int[] 生成后派生到目标特化，特化自有的边界与随机用例紧随同一阶段的 int 派生用例
+     */
+    private <D> List<D> testCases(Kernel<D> kernel) {
+        List<D> cases = new ArrayList<>();
+        // 原有的四个用例，以及极值、重复值
+        int[][] edges = {
+            {5, 3, 1, 4, 2}, {1}, {2, 1}, {-5, 0, 3, -2, 10}, {}, {7, 7, 7, 7},
+            {Integer.MAX_VALUE, Integer.MIN_VALUE},
+            {0, Integer.MIN_VALUE, -1, Integer.MAX_VALUE, 1, Integer.MIN_VALUE}
+        };
+        for (int[] edge : edges) {
+            cases.add(kernel.fromInts(edge));
+        }
+        cases.addAll(kernel.edgeCases());
+
+        Random random = new Random(SEED);
+        List<Integer> sizes = new ArrayList<>();
+        for (int size = 0; size <= Math.min(SMALL_SIZES, maxSize); size++) {
+            sizes.add(size);
+        }
+        for (int size = 16; size <= maxSize; size *= 4) {
+            sizes.add(size);
+        }
+        for (int size : sizes) {
+            if (size >= 16) {
+                for (StandardWorkload workload : StandardWorkload.values()) {
+                    cases.add(kernel.fromInts(workload.generate(size)));
+                }
+            }
+            for (int i = 0; i < RANDOM_PER_SIZE; i++) {
+                int bound = i == 0 ? 4 : i == 1 ? Math.max(1, size) : 0;  // 大量重复 / 约 n 个取值 / 全值域
+                int[] data = new int[size];
+                for (int j = 0; j < size; j++) {
+                    data[j] = bound == 0 ? random.nextInt() : random.nextInt(bound) - bound / 2;
+                }
+                cases.add(kernel.fromInts(data));
+            }
+            cases.addAll(kernel.randomCases(size, random));
+        }
+        return cases;
+    }
+
+    /**
+     * 收缩反例：先按块删除元素（块大小逐次减半），int[] 再尝试把数值压缩为秩
+     */
+    @SuppressWarnings("unchecked")
+    static <D> D shrink(Object solver, Kernel<D> kernel, D failing) {
+        D current = failing;
+        int attempts = 0;
+        boolean progress = true;
+        while (progress && attempts < MAX_SHRINK_ATTEMPTS) {
+            progress = false;
+            for (int chunk = Math.max(1, kernel.length(current) / 2); chunk >= 1 && attempts < MAX_SHRINK_ATTEMPTS; chunk /= 2) {
+                int start = 0;
+                while (start + chunk <= kernel.length(current) && attempts < MAX_SHRINK_ATTEMPTS) {
+                    D candidate = kernel.remove(current, start, chunk);
+                    attempts++;
+                    if (check(solver, kernel, candidate) != null) {
+                        current = candidate;
+                        progress = true;
+                    } else {
+                        start += chunk;
+                    }
+                }
+            }
+        }
+        if (kernel == IntSortKernel.INSTANCE) {
+            int[] ranked = toRanks((int[]) current);
+            if (!Arrays.equals(ranked, (int[]) current) && check(solver, kernel, (D) ranked) != null) {
+                current = (D) ranked;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 把每个值替换为它在不同值中的秩，保留相对大小与重复关系
+     */
+    private static int[] toRanks(int[] data) {
+        int[] distinct = Arrays.stream(data).distinct().sorted().toArray();
+        int[] ranked = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            ranked[i] = Arrays.binarySearch(distinct, data[i]);
+        }
+        return ranked;
+    }
+
+    /**
+     * 自身开销报告
+     */
+    public synchronized String report() {
+        return String.format("正确性验证 %d 次：平均 %.1f ms，平均 %d 个元素",
+            runs, runs == 0 ? 0 : totalNanos / 1e6 / runs, runs == 0 ? 0 : totalElements / runs);
+    }
+}
@@ -0,0 +1,105 @@
+package com.quine.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * double[] 排序（{@link DoubleSortSolver}）：全序与 Double.compare 一致
+ * 判定按位比较（NaN 规范化），把 -0.0 改写成 0.0 的实现同样不通过
+ */
+public final class DoubleSortKernel implements Kernel<double[]> {
+    public static final DoubleSortKernel INSTANCE = new DoubleSortKernel();
+
+    private DoubleSortKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return DoubleSortSolver.class;
+    }
+
+    @Override
+    public double[] fromInts(int[] data) {
+        double[] result = new double[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = data[i] * 0.001;
+        }
+        return result;
+    }
+
+    @Override
+    public List<double[]> edgeCases() {
+        return List.of(
+            new double[]{0.0, -0.0},
+            new double[]{1.0, Double.NaN},
+            new double[]{Double.NaN, 1.0, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN},
+            new double[]{Double.MIN_VALUE, -Double.MIN_VALUE, 0.0, Double.MAX_VALUE, -Double.MAX_VALUE});
+    }
+
+    @Override
+    public List<double[]> randomCases(int size, Random random) {
+        double[] data = new double[size];
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextInt(16) == 0 ? specials[random.nextInt(specials.length)] : random.nextGaussian() * 1e6;
+        }
+        return List.of(data);
+    }
+
+    @Override
+    public double[] copy(double[] input) {
+        return input.clone();
+    }
+
+    @Override
+    public int length(double[] input) {
+        return input.length;
+    }
+
+    @Override
+    public long bytes(double[] input) {
+        return 8L * input.length;
+    }
+
+    @Override
+    public double[] remove(double[] input, int start, int length) {
+        double[] result = new double[input.length - length];
+        System.arraycopy(input, 0, result, 0, start);
+        System.arraycopy(input, start + length, result, start, input.length - start - length);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, double[] input) {
+        return ((DoubleSortSolver) solver).solve(input);
+    }
+
+    @Override
+    public String check(double[] input, Object result) {
+        if (!(result instanceof double[])) {
+            return "返回 " + (result == null ? "null" : result.getClass().getSimpleName());
+        }
+        double[] output = (double[]) result;
+        if (output.length != input.length) {
+            return "长度 " + output.length + "，应为 " + input.length;
+        }
+        long expected = 0;
+        for (double value : input) {
+            expected += Kernel.mix(Double.doubleToLongBits(value));
+        }
+        long hash = 0;
+        for (int i = 0; i < output.length; i++) {
+            if (i > 0 && Double.compare(output[i - 1], output[i]) > 0) {
+                return String.format("位置 %d 处无序（%s > %s）", i, output[i - 1], output[i]);
+            }
+            hash += Kernel.mix(Double.doubleToLongBits(output[i]));
+        }
+        return hash == expected ? null : "输出不是输入的排列（元素被改动、丢失或重复，-0.0 与 0.0 视为不同）";
+    }
+
+    @Override
+    public String format(double[] input) {
+        return Kernel.abbreviate(Arrays.toString(input), input.length, 20);
+    }
+}
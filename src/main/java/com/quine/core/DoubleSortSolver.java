@@ -0,0 +1,12 @@
+package com.quine.core;
+
+/**
+ * double[] 排序（如打分），顺序与 Double.compare 一致：-0.0 在 0.0 之前，NaN 排在最后
+ */
+public interface DoubleSortSolver {
+    /**
+     * @param input 乱序数组
+     * @return 升序数组
+     */
+    double[] solve(double[] input);
+}
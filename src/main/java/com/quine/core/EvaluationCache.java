@@ -0,0 +1,253 @@
+package com.quine.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.quine.utils.CompilerUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 持久化的内容寻址评估缓存
+ *
+ * LLM 经常返回与之前几乎相同的代码：只改了空白、局部变量名或方法顺序。两级键：
+ * 1. 规范化源码哈希（去注释、压缩空白）：命中时连编译都省掉
+ * 2. 规范化字节码哈希（见 {@link CompilerUtils.CompiledUnit#canonicalHash}）：命中时省掉验证与测速
+ * 键都附带评估上下文（测试数据、基准配置、数据分布），配置变了不会误用旧结果。
+ * 条目以 JSON 行追加写入 target/eval-cache，下次运行启动时载入。
+ */
+public class EvaluationCache implements AutoCloseable {
+    private static final String FILE_NAME = "evaluations.jsonl";
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    private final BufferedWriter writer;
+
+    // 命中统计
+    private long lookups;
+    private long sourceHits;
+    private long bytecodeHits;
+    private long savedNanos;
+
+    /**
+     * 一条缓存记录
+     */
+    private static class Entry {
+        String key;
+        Evaluator.EvalResult result;
+        long costNanos;  // 得到该结果实际花费的编译 + 评估时间
+
+        Entry(String key, Evaluator.EvalResult result, long costNanos) {
+            this.key = key;
+            this.result = result;
+            this.costNanos = costNanos;
+        }
+    }
+
+    public EvaluationCache(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                try {
+                    Entry entry = gson.fromJson(line, Entry.class);
+                    if (entry != null && entry.key != null && entry.result != null) {
+                        entries.put(entry.key, entry);
+                    }
+                } catch (JsonParseException e) {
+                    // 上次运行中途退出留下的半行，跳过
+                }
+            }
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.cache（默认开启）/ quine.cache.dir（默认 target/eval-cache）
+     * @return 关闭时返回 null
+     */
+    public static EvaluationCache fromSystemProperties() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("quine.cache", "true"))) {
+            return null;
+        }
+        return new EvaluationCache(Paths.get(System.getProperty("quine.cache.dir", "target/eval-cache")));
+    }
+
+    /**
+     * 源码级键
+     */
+    public static String sourceKey(String sourceCode, String context) {
+        return "src:" + CompilerUtils.sha256(normalizeSource(sourceCode).getBytes(StandardCharsets.UTF_8)) + "@" + context;
+    }
+
+    /**
+     * 字节码级键
+     */
+    public static String bytecodeKey(CompilerUtils.CompiledUnit unit, String context) {
+        return "bc:" + unit.canonicalHash + "@" + context;
+    }
+
+    /**
+     * 源码规范化：去掉注释，空白压缩为单个空格，符号两侧的空白全部去掉；字符串与字符字面量原样保留
+     */
+    public static String normalizeSource(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '/') {
+                while (i < source.length() && source.charAt(i) != '\n') {
+                    i++;
+                }
+                pendingSpace = true;
+            } else if (c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? source.length() : end + 2;
+                pendingSpace = true;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && out.length() > 0 && isWordChar(out.charAt(out.length() - 1)) && isWordChar(c)) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                if (c == '"' || c == '\'') {
+                    int end = literalEnd(source, i);
+                    out.append(source, i, end);
+                    i = end;
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isJavaIdentifierPart(c);
+    }
+
+    /**
+     * 字面量结束位置（含结束引号），文本块按三引号处理
+     */
+    private static int literalEnd(String source, int start) {
+        char quote = source.charAt(start);
+        if (quote == '"' && source.startsWith("\"\"\"", start)) {
+            int end = source.indexOf("\"\"\"", start + 3);
+            return end < 0 ? source.length() : end + 3;
+        }
+        int i = start + 1;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return source.length();
+    }
+
+    /**
+     * 按源码键查找；每个候选调用一次，计入查找总数
+     */
+    public Evaluator.EvalResult lookupSource(String key) {
+        Entry entry = entries.get(key);
+        synchronized (this) {
+            lookups++;
+            if (entry != null) {
+                sourceHits++;
+                savedNanos += entry.costNanos;
+            }
+        }
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * 按字节码键查找；只在源码键未命中、编译之后调用
+     */
+    public Evaluator.EvalResult lookupBytecode(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            synchronized (this) {
+                bytecodeHits++;
+                savedNanos += entry.costNanos;
+            }
+        }
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * 该键对应结果当初的花费，不存在时为 0
+     */
+    public long costNanos(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.costNanos;
+    }
+
+    /**
+     * 记录结果并追加到磁盘；与负载有关的失败（超时、资源上限终止）不记录，下次重新评估
+     */
+    public void put(String key, Evaluator.EvalResult result, long costNanos) {
+        if (result.retryable) {
+            return;
+        }
+        Entry entry = new Entry(key, result, costNanos);
+        if (entries.putIfAbsent(key, entry) != null) {
+            return;
+        }
+        synchronized (writer) {
+            try {
+                writer.write(gson.toJson(entry));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("⚠️ 评估缓存写入失败: " + e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized double hitRate() {
+        return lookups == 0 ? 0 : (double) (sourceHits + bytecodeHits) / lookups;
+    }
+
+    /**
+     * 命中率与节省时间报告
+     */
+    public synchronized String report() {
+        return String.format("评估缓存：%d 个候选命中 %d 个（源码 %d / 字节码 %d，命中率 %.1f%%），节省约 %.1f s 编译与测速，共 %d 条记录",
+            lookups, sourceHits + bytecodeHits, sourceHits, bytecodeHits, hitRate() * 100,
+            savedNanos / 1e9, entries.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    /**
+     * 评估上下文的指纹：任何影响评估结果的配置都应纳入
+     */
+    static String contextKey(List<?> parts) {
+        return CompilerUtils.sha256(parts.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+}
@@ -1,25 +1,236 @@
 package com.quine.core;
 
+import com.quine.utils.CompilerSession;
 import com.quine.utils.CompilerUtils;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
 import java.util.concurrent.*;
 
-public class Evaluator {
+public class Evaluator implements AutoCloseable {
     private static final int TIMEOUT_SECONDS = 20;
+    private static final int SCALING_TIMEOUT_SECONDS = 120;
+    private static final int PROBE_TIMEOUT_SECONDS = 3;
+    // 超时后等待候选线程响应中断的时间，过后仍在运行的记为失控线程
+    private static final long RUNAWAY_GRACE_MS = 200;
+    // 隔离模式下每个试运行进程服务的候选数（残留线程或被杀死时提前替换）
+    private static final int TRIALS_PER_WORKER = 20;
+    // 超时后仍未退出的候选线程（Java 无法强行终止）
+    private static final List<Thread> RUNAWAYS = new CopyOnWriteArrayList<>();
+    // 评估流程（验证用例、禁用 API 等）变化时递增，使旧的缓存结果失效
+    private static final int EVALUATION_VERSION = 7;
+
+    // 任务：内置排序赛道或 ServiceLoader 登记的其他任务
+    private final Task task;
+    // 常驻编译会话，跨代保持 javac 热态
+    private final CompilerSession compiler;
+    private final BenchmarkEngine benchmarkEngine;
+    // 进程外测速（为 null 时在本 JVM 内测速）
+    private final ForkedBenchmarkRunner forkedRunner;
+    // 多规模基准（为 null 时只测单一规模）
+    private final ScalingBenchmark scalingBenchmark;
+    // 附加数据分布：逐个测速并单独报告，用轻量配置以控制总耗时
+    private final List<Workload> workloads;
+    private final BenchmarkEngine workloadEngine = new BenchmarkEngine(1, 200, 5);
+    private final Map<String, int[]> workloadData = new ConcurrentHashMap<>();
+    // 编译后、测速前的廉价预筛（为 null 时不预筛）
+    private final PreScreen preScreen;
+    // 隔离执行：候选先在带资源上限的工作进程中试运行（为 null 时不隔离）
+    private final ExecutionLimits limits;
+    private final ForkedBenchmarkRunner isolation;
+    // 测速前的正确性验证
+    private final CorrectnessVerifier verifier = CorrectnessVerifier.fromSystemProperties();
+    // 测速后的分配 / GC 探测
+    private final MemoryProbe memoryProbe = new MemoryProbe();
+    // 持久化评估缓存（为 null 时不缓存）
+    private final EvaluationCache cache;
+    private final Map<String, String> contextKeys = new ConcurrentHashMap<>();
+    // 多线程赛道：主基准使用的线程池（满线程预算）与加速比基准，单线程赛道为 null
+    private final ForkJoinPool parallelPool;
+    private final SpeedupBenchmark speedupBenchmark;
+    // 堆外赛道：文件映射的大规模吞吐量基准，其他赛道为 null
+    private final OffHeapBenchmark offHeapBenchmark;
+    // 两次 LLM 调用之间的本地常量调参（为 null 时不调参；隔离执行下不调参）
+    private final KnobTuner tuner;
+    // 冠军的 JFR 热点采样（为 null 时不采样）
+    private final HotspotProfiler profiler = HotspotProfiler.fromSystemProperties();
+
+    public Evaluator() throws IOException {
+        this(TaskRegistry.fromSystemProperties(), BenchmarkEngine.fromSystemProperties(), ForkedBenchmarkRunner.fromSystemProperties(),
+            Boolean.getBoolean("quine.scaling") ? ScalingBenchmark.fromSystemProperties() : null,
+            StandardWorkload.parse(System.getProperty("quine.workloads", "all")),
+            EvaluationCache.fromSystemProperties());
+    }
+
+    public Evaluator(BenchmarkEngine benchmarkEngine, ForkedBenchmarkRunner forkedRunner,
+                     ScalingBenchmark scalingBenchmark, List<Workload> workloads) throws IOException {
+        this(Track.SEQUENTIAL, benchmarkEngine, forkedRunner, scalingBenchmark, workloads, null);
+    }
+
+    public Evaluator(Task task, BenchmarkEngine benchmarkEngine, ForkedBenchmarkRunner forkedRunner,
+                     ScalingBenchmark scalingBenchmark, List<Workload> workloads,
+                     EvaluationCache cache) throws IOException {
+        this.task = task;
+        this.compiler = new CompilerSession();
+        this.benchmarkEngine = benchmarkEngine;
+        this.scalingBenchmark = scalingBenchmark;
+        this.workloads = List.copyOf(workloads);
+        this.cache = cache;
+        this.preScreen = PreScreen.fromSystemProperties(task);
+        ExecutionLimits executionLimits = ExecutionLimits.fromSystemProperties();
+        if (executionLimits != null && task == Track.OFF_HEAP) {
+            // 堆外吞吐量基准映射数 GB 的磁盘输入，无法先在工作进程中试运行，隔离保证不了本进程只跑已跑通的输入
+            System.out.println("⚠️ " + task.id() + " 任务不支持隔离执行（数 GB 的堆外输入无法先在工作进程中试运行），改为本进程内运行");
+            executionLimits = null;
+        }
+        this.limits = executionLimits;
+        this.isolation = limits == null ? null : new ForkedBenchmarkRunner(
+            forkedRunner == null ? 1 : forkedRunner.getWorkers(), TRIALS_PER_WORKER, false, limits);
+        KnobTuner knobTuner = KnobTuner.fromSystemProperties();
+        if (knobTuner != null && isolation != null) {
+            // 调参变体在本进程内直接运行，会绕过工作进程的资源上限；调出的候选本身仍会经过隔离试运行
+            System.out.println("⚠️ 隔离执行下不做本地调参（调参变体无法在工作进程中运行）");
+            knobTuner = null;
+        }
+        this.tuner = knobTuner;
+
+        // 工作进程只能运行 TaskSolver；其他任务的候选在本进程内测速
+        if (task != Track.SEQUENTIAL && forkedRunner != null) {
+            System.out.println("⚠️ " + task.id() + " 任务不支持进程外测速，改为本进程内测速");
+            forkedRunner.close();
+        }
+        this.forkedRunner = task == Track.SEQUENTIAL ? forkedRunner : null;
+        if (task == Track.PARALLEL) {
+            this.parallelPool = new ForkJoinPool(SpeedupBenchmark.maxThreads());
+            this.speedupBenchmark = SpeedupBenchmark.fromSystemProperties();
+        } else {
+            this.parallelPool = null;
+            this.speedupBenchmark = null;
+        }
+        this.offHeapBenchmark = task == Track.OFF_HEAP ? OffHeapBenchmark.fromSystemProperties() : null;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * 可以安全并行的测速数：本进程内只能串行，进程外等于工作进程数
+     */
+    public int benchmarkParallelism() {
+        return forkedRunner == null ? 1 : forkedRunner.getWorkers();
+    }
 
     /**
      * 评估结果
      */
     public static class EvalResult {
         public final boolean success;
-        public final long timeUs;  // 改用微秒精度
+        public final long timeUs;  // 改用微秒精度（中位数）
         public final String error;
+        public final BenchmarkStats stats;  // 完整统计，失败时为 null
+        public final ScalingProfile scaling; // 多规模拟合结果，未开启时为 null
+        public final Map<String, BenchmarkStats> workloads;  // 各数据分布下的统计（分布名 -> 统计）
+        public final MemoryProfile memory;   // 分配量 / GC / 峰值内存，失败时为 null
+        public final SpeedupProfile speedup; // 多线程赛道的加速比曲线，单线程赛道为 null
+        public final ThroughputProfile throughput;  // 堆外赛道的大规模吞吐量，其他赛道为 null
+        public final HotspotProfile profile;  // 冠军的 JFR 热点，未采样时为 null
+        public final boolean retryable;       // 失败与机器负载有关（超时、资源上限终止、计时探测），不写入持久缓存
 
         public EvalResult(boolean success, long timeUs, String error) {
+            this(success, timeUs, error, null);
+        }
+
+        public EvalResult(boolean success, long timeUs, String error, BenchmarkStats stats) {
+            this(success, timeUs, error, stats, null, Map.of(), null, null, null, null, false);
+        }
+
+        private EvalResult(boolean success, long timeUs, String error, BenchmarkStats stats,
+                           ScalingProfile scaling, Map<String, BenchmarkStats> workloads, MemoryProfile memory,
+                           SpeedupProfile speedup, ThroughputProfile throughput, HotspotProfile profile, boolean retryable) {
             this.success = success;
             this.timeUs = timeUs;
             this.error = error;
+            this.stats = stats;
+            this.scaling = scaling;
+            this.workloads = workloads;
+            this.memory = memory;
+            this.speedup = speedup;
+            this.throughput = throughput;
+            this.profile = profile;
+            this.retryable = retryable;
+        }
+
+        /**
+         * 与负载有关的失败：本次照常淘汰，但换个时机重新评估可能通过
+         */
+        public static EvalResult retryableFailure(String error) {
+            return new EvalResult(false, 0, error, null, null, Map.of(), null, null, null, null, true);
+        }
+
+        public EvalResult withScaling(ScalingProfile scaling) {
+            return new EvalResult(success, timeUs, error, stats, scaling, workloads, memory, speedup, throughput, profile, retryable);
+        }
+
+        public EvalResult withWorkloads(Map<String, BenchmarkStats> workloads) {
+            return new EvalResult(success, timeUs, error, stats, scaling,
+                Collections.unmodifiableMap(new LinkedHashMap<>(workloads)), memory, speedup, throughput, profile, retryable);
+        }
+
+        public EvalResult withMemory(MemoryProfile memory) {
+            return new EvalResult(success, timeUs, error, stats, scaling, workloads, memory, speedup, throughput, profile, retryable);
+        }
+
+        public EvalResult withSpeedup(SpeedupProfile speedup) {
+            return new EvalResult(success, timeUs, error, stats, scaling, workloads, memory, speedup, throughput, profile, retryable);
+        }
+
+        public EvalResult withThroughput(ThroughputProfile throughput) {
+            return new EvalResult(success, timeUs, error, stats, scaling, workloads, memory, speedup, throughput, profile, retryable);
+        }
+
+        public EvalResult withProfile(HotspotProfile profile) {
+            return new EvalResult(success, timeUs, error, stats, scaling, workloads, memory, speedup, throughput, profile, retryable);
+        }
+
+        /**
+         * 找出相对冠军倒退超过 factor 倍的数据分布（只比较双方都测过的分布）
+         * @return 倒退的分布名，没有则返回 null
+         */
+        public String workloadRegressionAgainst(EvalResult champion, double factor) {
+            for (Map.Entry<String, BenchmarkStats> entry : workloads.entrySet()) {
+                BenchmarkStats theirs = champion.workloads.get(entry.getKey());
+                if (theirs != null && entry.getValue().medianUs > theirs.medianUs * factor) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 各分布中位耗时的单行摘要
+         */
+        public String workloadSummary() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, BenchmarkStats> entry : workloads.entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append(" | ");
+                }
+                sb.append(String.format("%s %.1f μs", entry.getKey().toLowerCase(Locale.ROOT), entry.getValue().medianUs));
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 排序用的代价：堆外赛道取阶梯上限处的单次耗时；有规模曲线时取生产规模下的预测耗时；否则取单点中位数
+         */
+        public double rankingCostUs(long productionSize) {
+            if (throughput != null) {
+                return throughput.predictSecondsAtTarget() * 1e6;
+            }
+            return scaling != null ? scaling.predictUs(productionSize) : timeUs;
         }
     }
 
@@ -27,96 +238,520 @@ public class Evaluator {
      * 评估代码：编译 -> 加载 -> 正确性测试 -> 性能测试
      */
     public EvalResult evaluate(String sourceCode, int[] testData) {
+        EvalResult cached = lookupCached(sourceCode, testData);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        CompilerUtils.CompiledUnit unit;
         try {
-            // 0. 代码检查：禁止使用标准库排序
-            if (containsForbiddenAPIs(sourceCode)) {
-                return new EvalResult(false, 0, "代码违规：禁止使用 Arrays.sort 或 Collections.sort");
+            unit = compile(sourceCode, compiler);
+        } catch (RejectedException e) {
+            EvalResult rejected = new EvalResult(false, 0, e.getMessage());
+            remember(sourceCode, testData, null, rejected, System.nanoTime() - start);
+            return rejected;
+        }
+        long compileNanos = System.nanoTime() - start;
+        EvalResult result = evaluateCompiled(unit, testData);
+        remember(sourceCode, testData, unit, result, compileNanos);
+        return result;
+    }
+
+    /**
+     * 按规范化源码查缓存；未开启缓存或未命中时返回 null
+     */
+    public EvalResult lookupCached(String sourceCode, int[] testData) {
+        return cache == null ? null : cache.lookupSource(EvaluationCache.sourceKey(sourceCode, contextKey(testData)));
+    }
+
+    /**
+     * 把源码级结果写入缓存；花费按编译耗时加上字节码级条目的评估耗时计
+     * @param unit 编译产物，编译前就被拒绝时为 null
+     */
+    public void remember(String sourceCode, int[] testData, CompilerUtils.CompiledUnit unit,
+                         EvalResult result, long compileNanos) {
+        if (cache == null) {
+            return;
+        }
+        String context = contextKey(testData);
+        long evaluateNanos = unit == null ? 0 : cache.costNanos(EvaluationCache.bytecodeKey(unit, context));
+        cache.put(EvaluationCache.sourceKey(sourceCode, context), result, compileNanos + evaluateNanos);
+    }
+
+    /**
+     * 评估上下文：测试数据、基准配置、验证规模、预筛配置、数据分布、是否多规模，任何一项变化都不复用旧结果
+     */
+    private String contextKey(int[] testData) {
+        String data = testData.length + "/" + Arrays.hashCode(testData);
+        return contextKeys.computeIfAbsent(data, key -> EvaluationCache.contextKey(List.of(
+            EVALUATION_VERSION, task.targetClass(), data, verifier.getMaxSize(),
+            preScreen == null ? "-" : preScreen.getMaxLoopDepth(),
+            parallelPool == null ? 1 : parallelPool.getParallelism(),
+            benchmarkEngine.getForks(), benchmarkEngine.getMaxWarmupMs(), benchmarkEngine.getMeasurementIterations(),
+            forkedRunner != null, scalingBenchmark != null, String.valueOf(limits),
+            offHeapBenchmark == null ? 0 : offHeapBenchmark.getMaxBytes(),
+            workloads.stream().map(Workload::name).toList())));
+    }
+
+    /**
+     * 阶段一：源码检查 + 编译 + 字节码预筛
+     * 只读取任务配置，可以在任意线程上用各自的编译会话并行执行
+     */
+    public CompilerUtils.CompiledUnit compile(String sourceCode, CompilerSession session) throws RejectedException {
+        // 0. 代码检查：禁止使用任务声明的 API（标准库排序等现成实现；多线程赛道另禁公共池、并行流与自建线程）
+        String forbidden = findForbiddenAPI(sourceCode);
+        if (forbidden != null) {
+            throw new RejectedException("代码违规：禁止使用 " + forbidden);
+        }
+
+        // 1. 编译
+        CompilerUtils.CompiledUnit unit;
+        try {
+            unit = session.compile(task.targetClass(), sourceCode);
+        } catch (Exception e) {
+            throw new RejectedException("编译或运行错误: " + e.getMessage());
+        }
+
+        // 2. 预筛：字节码级禁用调用（含别名、方法引用、反射、自动装箱）与循环嵌套深度
+        String violation = preScreen == null ? null : preScreen.checkBytecode(unit);
+        if (violation != null) {
+            throw new RejectedException("预筛拒绝：" + violation);
+        }
+        return unit;
+    }
+
+    /**
+     * 阶段二：加载 -> 正确性测试 -> 性能测试
+     * 计时敏感，调用方应保证同一时刻只有一个候选在跑
+     */
+    public EvalResult evaluateCompiled(CompilerUtils.CompiledUnit unit, int[] testData) {
+        if (cache == null) {
+            return runEvaluation(unit, testData);
+        }
+        // 字节码级缓存：改名、调换方法顺序后的重复候选在这里命中
+        String key = EvaluationCache.bytecodeKey(unit, contextKey(testData));
+        EvalResult cached = cache.lookupBytecode(key);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        EvalResult result = runEvaluation(unit, testData);
+        cache.put(key, result, System.nanoTime() - start);
+        return result;
+    }
+
+    private EvalResult runEvaluation(CompilerUtils.CompiledUnit unit, int[] testData) {
+        return runEvaluation(unit, task.kernel(), testData);
+    }
+
+    /**
+     * 各阶段经由 kernel 派生数据并调用候选，long[] / double[] 等特化与 int[] 共用同一套流程
+     */
+    private <D> EvalResult runEvaluation(CompilerUtils.CompiledUnit unit, Kernel<D> kernel, int[] testData) {
+        long start = System.nanoTime();
+        try {
+            // 0. 隔离执行：探测、验证与各输入的首次运行（含加速比的每种线程数、多规模基准的各级规模）都放到
+            //    带资源上限的工作进程里，超限即连进程一起杀死；通过后本进程只会在已跑通的输入上运行候选
+            int scalingLimit = Integer.MAX_VALUE;
+            if (isolation != null) {
+                ForkedBenchmarkRunner.TrialResult trial = isolation.trial(task, unit, testData, workloadInputs(testData),
+                    verifier.getMaxSize(), preScreen == null ? 0 : probeSolves(), TIMEOUT_SECONDS, PROBE_TIMEOUT_SECONDS,
+                    speedupBenchmark, scalingBenchmark);
+                if (!trial.passed) {
+                    if (trial.probeRejected) {
+                        preScreen.probeRejected();
+                        return EvalResult.retryableFailure("预筛拒绝：" + trial.reason);
+                    }
+                    return trial.retryable ? EvalResult.retryableFailure(trial.reason) : new EvalResult(false, 0, trial.reason);
+                }
+                scalingLimit = trial.scalingLimit;
+            }
+
+            // 1. 在独立 ClassLoader 中加载
+            Object solver = newSolver(unit);
+            D data = kernel.fromInts(testData);
+
+            if (isolation == null) {
+                // 1.5 预筛：小规模计时探测，外推完整测速注定超时的不再验证与测速
+                if (preScreen != null) {
+                    String hopeless = probe(solver, kernel, unit, testData.length);
+                    if (hopeless != null) {
+                        return EvalResult.retryableFailure("预筛拒绝：" + hopeless);
+                    }
+                }
+
+                // 2. 正确性测试（带超时保护：大规模用例上 O(n²) 或死循环的候选不能卡住评估）
+                CorrectnessVerifier.Result verification = withTimeout(() -> verifier.verify(solver, kernel), TIMEOUT_SECONDS);
+                if (!verification.passed) {
+                    return new EvalResult(false, 0, verification.toString());
+                }
+                // 完整测试数据上再检查一次输出：只在大规模下才走的分支（并行划分、阈值切换）也要覆盖到
+                String fullSizeFailure = withTimeout(() -> CorrectnessVerifier.check(solver, kernel, data), TIMEOUT_SECONDS);
+                if (fullSizeFailure != null) {
+                    return new EvalResult(false, 0, "正确性测试失败（完整测试数据）：" + fullSizeFailure);
+                }
+            }
+
+            // 3. 性能测试（带超时保护），每个 fork 重新加载一次候选
+            Callable<Object> solverFactory = () -> newSolver(unit);
+            BenchmarkStats stats = forkedRunner != null
+                ? forkedRunner.run(unit, testData, benchmarkEngine, TIMEOUT_SECONDS)
+                : withTimeout(() -> benchmarkEngine.run(solverFactory, kernel, data), TIMEOUT_SECONDS);
+            EvalResult result = new EvalResult(true, Math.round(stats.medianUs), null, stats);
+
+            // 3.5 内存探测：沿用已预热的验证实例，在本进程内读取分配与 GC 计数
+            result = result.withMemory(withTimeout(() -> memoryProbe.run(solver, kernel, data), TIMEOUT_SECONDS));
+
+            // 4. 各数据分布逐个测速，单独报告，防止最坏情况被均匀随机数据掩盖
+            if (!workloads.isEmpty()) {
+                Map<String, BenchmarkStats> perWorkload = new LinkedHashMap<>();
+                for (Workload workload : workloads) {
+                    int[] ints = workloadInts(workload, testData.length);
+                    try {
+                        perWorkload.put(workload.name(), forkedRunner != null
+                            ? forkedRunner.run(unit, ints, workloadEngine, TIMEOUT_SECONDS)
+                            : withTimeout(() -> workloadEngine.run(solverFactory, kernel, kernel.fromInts(ints)), TIMEOUT_SECONDS));
+                    } catch (Exception e) {
+                        return failure("数据分布 " + workload.name() + " 下失败: " + describe(e), e);
+                    }
+                }
+                result = result.withWorkloads(perWorkload);
             }
 
-            // 1. 编译并加载
-            Class<?> clazz = CompilerUtils.compileAndLoad("com.quine.sandbox.TargetSubject", sourceCode);
-            TaskSolver solver = (TaskSolver) clazz.getDeclaredConstructor().newInstance();
+            // 5. 多规模基准（可选）：在规模阶梯上拟合经验复杂度；隔离执行下不超过试运行跑通的规模
+            if (scalingBenchmark != null) {
+                int maxSize = scalingLimit;
+                ScalingProfile profile = withTimeout(
+                    () -> scalingBenchmark.run(solverFactory, kernel,
+                        size -> kernel.fromInts(StandardWorkload.UNIFORM.generate(size)), maxSize), SCALING_TIMEOUT_SECONDS);
+                result = result.withScaling(profile);
+            }
 
-            // 2. 正确性测试
-            if (!verifyCorrectness(solver)) {
-                return new EvalResult(false, 0, "正确性测试失败");
+            // 6. 多线程赛道：1..N 线程的加速比与并行效率
+            if (speedupBenchmark != null) {
+                SpeedupProfile speedup = withTimeout(() -> speedupBenchmark.run(
+                    () -> (ParallelTaskSolver) unit.load().getDeclaredConstructor().newInstance(), testData),
+                    SCALING_TIMEOUT_SECONDS);
+                result = result.withSpeedup(speedup);
             }
 
-            // 3. 性能测试（带超时保护）
-            long timeUs = benchmark(solver, testData);
-            return new EvalResult(true, timeUs, null);
+            // 7. 堆外赛道：磁盘上数 GB 的输入映射为 MemorySegment，测吞吐量
+            if (offHeapBenchmark != null) {
+                try {
+                    ThroughputProfile throughput = withTimeout(
+                        () -> offHeapBenchmark.run(() -> (SegmentSortSolver) newSolver(unit)), offHeapBenchmark.timeoutSeconds());
+                    result = result.withThroughput(throughput);
+                } catch (Exception e) {
+                    return failure("大规模堆外数据下失败: " + describe(e), e);
+                }
+            }
+            if (preScreen != null) {
+                preScreen.recordEvaluation(System.nanoTime() - start);
+            }
+            return result;
 
         } catch (Exception e) {
-            return new EvalResult(false, 0, "编译或运行错误: " + e.getMessage());
+            return failure("编译或运行错误: " + e.getMessage(), e);
         }
     }
 
     /**
-     * 检查代码是否使用了禁止的 API
+     * 评估中抛出异常的失败结果：超时与工作进程故障（IO）与负载有关，标记为可重试
      */
-    private boolean containsForbiddenAPIs(String sourceCode) {
-        return sourceCode.contains("Arrays.sort") ||
-               sourceCode.contains("Collections.sort") ||
-               sourceCode.contains("Arrays.parallelSort");
+    private static EvalResult failure(String error, Exception e) {
+        boolean retryable = false;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            retryable |= cause instanceof ExecutionTimeoutException || cause instanceof IOException;
+        }
+        return retryable ? EvalResult.retryableFailure(error) : new EvalResult(false, 0, error);
     }
 
     /**
-     * 正确性验证
+     * 小规模探测；候选在探测中抛出异常时放行，交给正确性验证给出反例
+     * @return 拒绝原因，放行时为 null
      */
-    private boolean verifyCorrectness(TaskSolver solver) {
-        int[][] testCases = {
-            {5, 3, 1, 4, 2},
-            {1},
-            {2, 1},
-            {-5, 0, 3, -2, 10}
-        };
+    private <D> String probe(Object solver, Kernel<D> kernel, CompilerUtils.CompiledUnit unit, int testSize) throws Exception {
+        int solves = probeSolves();
+        try {
+            return withTimeout(() -> preScreen.probe(solver, kernel, unit, testSize, solves, TIMEOUT_SECONDS), PROBE_TIMEOUT_SECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (RuntimeException e) {
+            preScreen.probeRejected();
+            return "小规模探测超时（超过 " + PROBE_TIMEOUT_SECONDS + " 秒）";
+        }
+    }
 
-        for (int[] testCase : testCases) {
-            int[] expected = testCase.clone();
-            Arrays.sort(expected);
+    /**
+     * 完整测速中的 solve 次数：每个 fork 至少一次预热 + 测量迭代，外加完整数据上的一次正确性检查
+     */
+    private int probeSolves() {
+        return benchmarkEngine.getForks() * (benchmarkEngine.getMeasurementIterations() + 1) + 1;
+    }
 
-            int[] result = solver.solve(testCase.clone());
+    private int[] workloadInts(Workload workload, int size) {
+        return workloadData.computeIfAbsent(workload.name() + "@" + size, key -> workload.generate(size));
+    }
 
-            if (!Arrays.equals(result, expected)) {
-                return false;
-            }
+    /**
+     * 试运行要覆盖的附加输入：之后在本进程内测速的每个数据分布
+     */
+    private Map<String, int[]> workloadInputs(int[] testData) {
+        Map<String, int[]> inputs = new LinkedHashMap<>();
+        for (Workload workload : workloads) {
+            inputs.put(workload.name(), workloadInts(workload, testData.length));
+        }
+        return inputs;
+    }
+
+    /**
+     * 对冠军做一次本地常量调参；未开启、没有明显更快的取值或调参出错时返回 null
+     * 计时敏感，调用方应保证同一时刻只有一个候选在跑
+     */
+    public KnobTuner.Proposal tuneKnobs(String sourceCode, int[] testData) {
+        if (tuner == null) {
+            return null;
+        }
+        try {
+            return tuner.tune(this, sourceCode, testData);
+        } catch (Exception e) {
+            System.out.println("⚠️ 本地调参中止: " + describe(e));
+            return null;
         }
-        return true;
+    }
+
+    public boolean tunesKnobs() {
+        return tuner != null;
+    }
+
+    /**
+     * 用常驻编译会话编译（源码检查、字节码预筛同 compile）
+     */
+    CompilerUtils.CompiledUnit compileResident(String sourceCode) throws RejectedException {
+        return compile(sourceCode, compiler);
     }
 
     /**
-     * 性能基准测试（带预热和多次测量）
+     * 在独立线程上运行候选代码，超时保护与失控线程记录同评估流程
      */
-    private long benchmark(TaskSolver solver, int[] testData) throws Exception {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
+    <T> T runGuarded(Callable<T> task, int timeoutSeconds) throws Exception {
+        return withTimeout(task, timeoutSeconds);
+    }
 
+    public boolean profilesChampions() {
+        return profiler != null;
+    }
+
+    /**
+     * 对接受的冠军做一次 JFR 热点采样，结果附在评估结果上；未开启采样或采样失败时原样返回
+     * 计时敏感，调用方应保证同一时刻只有一个候选在跑
+     */
+    public EvalResult profileChampion(String sourceCode, int[] testData, EvalResult result) {
+        if (profiler == null || !result.success) {
+            return result;
+        }
         try {
-            Future<Long> future = executor.submit(() -> {
-                // 1. 预热阶段：跑 3 次让 JIT 编译器介入
-                for (int i = 0; i < 3; i++) {
-                    solver.solve(testData.clone());
-                }
+            return profileChampion(compile(sourceCode, compiler), testData, result);
+        } catch (RejectedException e) {
+            return result;
+        }
+    }
 
-                // 2. 正式测量：跑 5 次取平均值
-                long totalTime = 0;
-                for (int i = 0; i < 5; i++) {
-                    int[] input = testData.clone();
-                    long start = System.nanoTime();
-                    solver.solve(input);
-                    long end = System.nanoTime();
-                    totalTime += (end - start);
-                }
+    public EvalResult profileChampion(CompilerUtils.CompiledUnit unit, int[] testData, EvalResult result) {
+        if (profiler == null || !result.success) {
+            return result;
+        }
+        try {
+            return result.withProfile(profileUnit(unit, task.kernel(), testData));
+        } catch (Exception e) {
+            System.out.println("⚠️ 热点采样失败: " + describe(e));
+            return result;
+        }
+    }
+
+    private <D> HotspotProfile profileUnit(CompilerUtils.CompiledUnit unit, Kernel<D> kernel, int[] testData) throws Exception {
+        Object solver = newSolver(unit);
+        D data = kernel.fromInts(testData);
+        return withTimeout(() -> profiler.profile(solver, kernel, data, unit.className), TIMEOUT_SECONDS);
+    }
+
+    /**
+     * 候选在编译前就被拒绝（违规或编译失败）
+     */
+    public static class RejectedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 候选执行超时（本进程内的超时保护或测速工作进程被杀死）
+     */
+    static class ExecutionTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExecutionTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 检查代码是否使用了禁止的 API
+     * @return 第一个命中的 API，没有则返回 null
+     */
+    private String findForbiddenAPI(String sourceCode) {
+        for (String api : task.forbiddenApis()) {
+            if (sourceCode.contains(api)) {
+                return api;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在新的 ClassLoader 中实例化候选；多线程赛道绑定到满线程预算的池
+     * 实例未实现任务要求的接口时，在这里而不是计时区内失败
+     */
+    private Object newSolver(CompilerUtils.CompiledUnit unit) throws Exception {
+        return bindSolver(unit.load().getDeclaredConstructor().newInstance());
+    }
+
+    Object bindSolver(Object instance) {
+        if (task == Track.PARALLEL) {
+            return ((ParallelTaskSolver) instance).bind(parallelPool);
+        }
+        Class<?> contract = task.kernel().solverType();
+        if (!contract.isInstance(instance)) {
+            throw new ClassCastException(instance.getClass().getSimpleName() + " 未实现 " + contract.getSimpleName());
+        }
+        return instance;
+    }
+
+    /**
+     * 异常描述：ExecutionException 取其原因，StackOverflowError 等无消息的错误给出类名
+     */
+    private static String describe(Throwable e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
 
-                // 返回平均时间（纳秒转微秒，保留更高精度）
-                return totalTime / 5 / 1_000;
-            });
+    /**
+     * 在独立线程上执行计时任务（带超时保护）
+     * 超时后中断；不响应中断的线程无法终止，记为失控线程（守护线程，不阻止 JVM 退出）
+     */
+    private static <T> T withTimeout(Callable<T> task, int timeoutSeconds) throws Exception {
+        Thread[] runner = new Thread[1];
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quine-candidate");
+            thread.setDaemon(true);
+            runner[0] = thread;
+            return thread;
+        });
 
-            return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            Future<T> future = executor.submit(task);
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
 
         } catch (TimeoutException e) {
-            throw new RuntimeException("执行超时（超过 " + TIMEOUT_SECONDS + " 秒）");
+            executor.shutdownNow();
+            if (!executor.awaitTermination(RUNAWAY_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                RUNAWAYS.add(runner[0]);
+            }
+            throw new ExecutionTimeoutException("执行超时（超过 " + timeoutSeconds + " 秒）");
         } finally {
             executor.shutdownNow();
         }
     }
+
+    /**
+     * 隔离执行报告：试运行与终止次数、已销毁但未退出的工作进程
+     */
+    public String isolationReport() {
+        String report = isolation == null ? "隔离执行：未开启" : isolation.report();
+        if (forkedRunner != null) {
+            report += "，测速工作进程残留 " + forkedRunner.leakedProcesses() + " 个";
+        }
+        return report;
+    }
+
+    /**
+     * 失控线程报告（全进程）：仍在运行的失控线程会持续占用核心，拖慢之后的每一次测速
+     */
+    public static String runawayReport() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int alive = 0;
+        long cpuNanos = 0;
+        for (Thread thread : RUNAWAYS) {
+            if (thread.isAlive()) {
+                alive++;
+                cpuNanos += Math.max(0, threads.getThreadCpuTime(thread.threadId()));
+            }
+        }
+        return String.format("失控线程 %d 个（仍在运行 %d 个，已占用 CPU %.1f s）", RUNAWAYS.size(), alive, cpuNanos / 1e9);
+    }
+
+    /**
+     * 编译延迟统计（冷启动 vs 热编译）
+     */
+    public String compileLatencyReport() {
+        return compiler.latencyReport();
+    }
+
+    /**
+     * 正确性验证自身的开销
+     */
+    public String verificationReport() {
+        return verifier.report();
+    }
+
+    /**
+     * 预筛拒绝数与节省的测速时间
+     */
+    public String preScreenReport() {
+        return preScreen == null ? "预筛：未开启" : preScreen.report(TIMEOUT_SECONDS);
+    }
+
+    /**
+     * 本地调参的变体吞吐与提出的候选数
+     */
+    public String tunerReport() {
+        return tuner == null ? "本地调参：未开启" : tuner.report();
+    }
+
+    /**
+     * 热点采样次数与开销
+     */
+    public String profilerReport() {
+        return profiler == null ? "热点采样：未开启" : profiler.report();
+    }
+
+    /**
+     * 评估缓存命中率报告
+     */
+    public String cacheReport() {
+        return cache == null ? "评估缓存：未开启" : cache.report();
+    }
+
+    @Override
+    public void close() throws IOException {
+        compiler.close();
+        if (cache != null) {
+            cache.close();
+        }
+        if (forkedRunner != null) {
+            forkedRunner.close();
+        }
+        if (isolation != null) {
+            isolation.close();
+        }
+        if (parallelPool != null) {
+            parallelPool.shutdownNow();
+        }
+        if (offHeapBenchmark != null) {
+            offHeapBenchmark.close();
+        }
+    }
 }
@@ -0,0 +1,382 @@
+package com.quine.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.quine.utils.CompilerUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 崩溃安全的进化日志：每个候选一条记录，只追加，每条记录写入即 fsync
+ *
+ * 冠军代码、当前代数原本只存在于局部变量中，JVM 在第 150 代崩溃就前功尽弃，已付费的 LLM 调用也白花了。
+ * 日志记录每个候选的源码哈希、父代哈希（谱系）、判定与统计；源码按哈希单独存放在 sources/ 下。
+ * LLM 回复一到就记一条 received 记录，评估完成后再记判定；每代结束时写一条代结束记录（冠军与幸存者哈希），
+ * 即可恢复的持久状态。重启时从最后一条代结束记录继续，未结束那一代已收到的回复直接复用，不再重新请求；
+ * 之前的候选评估结果由评估缓存直接给出，不重复测速。
+ * 进化跑满代数后写一条 finished 记录，之后的启动把日志归档并从头开始。崩溃留下的半行在打开时截掉。
+ * 新日志的第一条是 run 记录（本次运行的谱系战役 id），恢复运行时沿用，谱系库中同一次运行不会拆成两个战役。
+ */
+public class EvolutionJournal implements AutoCloseable {
+    private static final String SOURCES = "sources";
+    private static final String RECEIVED = "received";
+    // recover 的哨兵返回值：日志已完成，没有可继续的状态
+    private static final ResumeState FINISHED = new ResumeState(0, "", List.of(), 0, Map.of());
+
+    private final Path file;
+    private final Path sourceDir;
+    private final FileChannel channel;
+    private final Gson gson = new Gson();
+    private final ResumeState resumeState;
+    private String runId;
+    private final long openedNanos = System.nanoTime();
+
+    // 自身开销统计
+    private long commits;
+    private long records;
+    private long writeNanos;
+
+    /**
+     * 一条日志记录：type 为 run（运行开始）、candidate（候选）、generation（代结束）或 finished（进化完成）
+     */
+    static class Entry {
+        String type;
+        int generation;
+        long timestamp;
+        // 运行开始
+        String run;
+        // 候选
+        String hash;
+        String parent;
+        String verdict;
+        Long timeUs;
+        Double medianUs;
+        Double ci95Us;
+        Long bytesPerCall;
+        String error;
+        // 代结束
+        String champion;
+        List<String> survivors;
+    }
+
+    /**
+     * 最后一条代结束记录描述的持久状态；第一代就中断时为第 0 代，冠军是那些回复共同的父代（初始代码）
+     */
+    public static class ResumeState {
+        public final int generation;       // 已完成的代数
+        public final String champion;      // 冠军源码哈希
+        public final List<String> survivors;
+        public final int candidates;        // 日志中已判定的候选总数
+        // 未结束那一代已落盘的候选：源码哈希 -> 父代哈希（记录顺序），恢复后直接复用
+        public final Map<String, String> openCandidates;
+
+        ResumeState(int generation, String champion, List<String> survivors, int candidates,
+                    Map<String, String> openCandidates) {
+            this.generation = generation;
+            this.champion = champion;
+            this.survivors = survivors;
+            this.candidates = candidates;
+            this.openCandidates = Collections.unmodifiableMap(new LinkedHashMap<>(openCandidates));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("已完成 %d 代（%d 个候选），冠军 %s，未完成的一代已有 %d 个候选", generation, candidates,
+                champion.substring(0, 12), openCandidates.size());
+        }
+    }
+
+    /**
+     * @param directory 日志目录
+     * @param taskId 任务 id，每个任务一个日志文件
+     * @param resume false 时把旧日志改名保留，从头开始；true 时只恢复未完成的日志
+     */
+    public EvolutionJournal(Path directory, String taskId, boolean resume) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(taskId + ".jsonl");
+        this.sourceDir = directory.resolve(SOURCES);
+        Files.createDirectories(sourceDir);
+        if (!resume) {
+            archive(directory, taskId);
+        }
+        FileChannel opened = open(file);
+        ResumeState state = recover(opened);
+        if (state == FINISHED) {
+            // 上次进化已跑满代数：没有可继续的状态，归档后从头开始
+            opened.close();
+            Path archived = archive(directory, taskId);
+            System.out.println("✓ 进化日志 " + file + " 上次已完成，归档为 " + archived.getFileName() + "，本次从头开始");
+            opened = open(file);
+            state = null;
+            runId = null;
+        }
+        this.channel = opened;
+        this.resumeState = state;
+        channel.position(channel.size());
+        if (runId == null) {
+            Entry entry = new Entry();
+            entry.type = "run";
+            entry.timestamp = System.currentTimeMillis();
+            entry.run = LineageStore.runCampaignId(taskId);
+            append(entry);
+            runId = entry.run;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 把任务的现有日志改名保留（taskId-时间戳.jsonl），下次运行从头开始
+     * @return 归档后的路径，没有日志时为 null
+     */
+    public static Path archive(Path directory, String taskId) throws IOException {
+        Path file = directory.resolve(taskId + ".jsonl");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Path archived = directory.resolve(taskId + "-" + System.currentTimeMillis() + ".jsonl");
+        Files.move(file, archived);
+        return archived;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.journal（默认开启）/ quine.journal.dir（默认 target/journal）/
+     * quine.resume（默认 true：有未完成的日志时继续）
+     * @return 关闭时返回 null
+     */
+    public static EvolutionJournal fromSystemProperties(String taskId) throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("quine.journal", "true"))) {
+            return null;
+        }
+        return new EvolutionJournal(Paths.get(System.getProperty("quine.journal.dir", "target/journal")), taskId,
+            Boolean.parseBoolean(System.getProperty("quine.resume", "true")));
+    }
+
+    /**
+     * 读出已有记录，截掉最后一个换行之后的残缺内容，返回最后一条代结束记录；已完成的日志返回 FINISHED。
+     * 还没有代结束记录但已收到回复时（第一代中途崩溃）返回第 0 代，以回复的父代为冠军，回复照样复用
+     */
+    private ResumeState recover(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // 读满为止
+        }
+        String content = new String(buffer.array(), StandardCharsets.UTF_8);
+        int durableEnd = content.lastIndexOf('\n') + 1;
+        if (durableEnd < content.length()) {
+            channel.truncate(content.substring(0, durableEnd).getBytes(StandardCharsets.UTF_8).length);
+            channel.force(true);
+        }
+
+        ResumeState state = null;
+        int candidates = 0;
+        Map<String, String> open = new LinkedHashMap<>();
+        boolean finished = false;
+        for (String line : content.substring(0, durableEnd).split("\n")) {
+            Entry entry;
+            try {
+                entry = gson.fromJson(line, Entry.class);
+            } catch (JsonParseException e) {
+                continue;
+            }
+            if (entry == null) {
+                continue;
+            }
+            if ("run".equals(entry.type) && runId == null) {
+                runId = entry.run;
+            } else if ("candidate".equals(entry.type)) {
+                if (!RECEIVED.equals(entry.verdict)) {
+                    candidates++;
+                }
+                if (entry.hash != null && Files.exists(sourcePath(entry.hash))) {
+                    open.putIfAbsent(entry.hash, entry.parent);
+                }
+            } else if ("generation".equals(entry.type) && entry.champion != null
+                    && Files.exists(sourcePath(entry.champion))) {
+                open.clear();
+                state = new ResumeState(entry.generation, entry.champion,
+                    entry.survivors == null ? List.of(entry.champion) : List.copyOf(entry.survivors), candidates, Map.of());
+            } else if ("finished".equals(entry.type)) {
+                finished = true;
+            }
+        }
+        if (finished) {
+            return FINISHED;
+        }
+        if (state == null) {
+            String seed = open.isEmpty() ? null : open.values().iterator().next();
+            if (seed == null || !Files.exists(sourcePath(seed))) {
+                return null;
+            }
+            return new ResumeState(0, seed, List.of(seed), candidates, open);
+        }
+        return new ResumeState(state.generation, state.champion, state.survivors, candidates, open);
+    }
+
+    /**
+     * 可恢复的状态，日志为空或第一代还没有任何记录时为 null
+     */
+    public ResumeState resumeState() {
+        return resumeState;
+    }
+
+    /**
+     * 本次运行的谱系战役 id（任务 id@启动时间）；恢复运行时为日志开始时记下的 id
+     */
+    public String runId() {
+        return runId;
+    }
+
+    /**
+     * 源码哈希（与评估缓存的规范化无关，逐字节）
+     */
+    public static String hash(String sourceCode) {
+        return CompilerUtils.sha256(sourceCode.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 按哈希保存源码（已存在则跳过），返回哈希
+     */
+    public String storeSource(String sourceCode) throws IOException {
+        String hash = hash(sourceCode);
+        Path path = sourcePath(hash);
+        if (!Files.exists(path)) {
+            long start = System.nanoTime();
+            Path tmp = Files.createTempFile(sourceDir, hash, ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = ByteBuffer.wrap(sourceCode.getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory(sourceDir);
+            synchronized (this) {
+                writeNanos += System.nanoTime() - start;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * fsync 目录本身，改名之后的目录项才算落盘；不支持打开目录的平台（Windows）上跳过
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // 平台不支持，依赖文件系统自身的顺序保证
+        }
+    }
+
+    public String loadSource(String hash) throws IOException {
+        return Files.readString(sourcePath(hash));
+    }
+
+    private Path sourcePath(String hash) {
+        return sourceDir.resolve(hash + ".java");
+    }
+
+    /**
+     * LLM 回复一到就记录（源码落盘并 fsync），崩溃后恢复时直接复用，不必重新请求
+     */
+    public synchronized void recordReceived(int generation, String sourceCode, String parentHash) throws IOException {
+        Entry entry = new Entry();
+        entry.type = "candidate";
+        entry.generation = generation;
+        entry.timestamp = System.currentTimeMillis();
+        entry.hash = storeSource(sourceCode);
+        entry.parent = parentHash;
+        entry.verdict = RECEIVED;
+        append(entry);
+    }
+
+    /**
+     * 记录一个评估完的候选，写入即 fsync
+     * @param verdict improved / neutral / rejected / failed
+     * @param result 评估结果，变异本身失败时为 null
+     */
+    public synchronized void recordCandidate(int generation, String sourceCode, String parentHash,
+                                             String verdict, Evaluator.EvalResult result) throws IOException {
+        Entry entry = new Entry();
+        entry.type = "candidate";
+        entry.generation = generation;
+        entry.timestamp = System.currentTimeMillis();
+        entry.hash = sourceCode == null ? null : storeSource(sourceCode);
+        entry.parent = parentHash;
+        entry.verdict = verdict;
+        if (result != null) {
+            entry.timeUs = result.timeUs;
+            entry.error = result.error;
+            if (result.stats != null) {
+                entry.medianUs = result.stats.medianUs;
+                entry.ci95Us = result.stats.ci95Us;
+            }
+            entry.bytesPerCall = result.memory == null ? null : result.memory.bytesPerCall;
+        }
+        append(entry);
+    }
+
+    /**
+     * 代结束：写入代结束记录并 fsync
+     * @param survivors 幸存者源码哈希（单候选模式下只有冠军）
+     */
+    public synchronized void commitGeneration(int generation, String championHash, List<String> survivors) throws IOException {
+        Entry marker = new Entry();
+        marker.type = "generation";
+        marker.generation = generation;
+        marker.timestamp = System.currentTimeMillis();
+        marker.champion = championHash;
+        marker.survivors = survivors;
+        append(marker);
+        commits++;
+    }
+
+    /**
+     * 进化跑满代数：之后的启动不再恢复这份日志
+     */
+    public synchronized void finish(int generation) throws IOException {
+        Entry marker = new Entry();
+        marker.type = "finished";
+        marker.generation = generation;
+        marker.timestamp = System.currentTimeMillis();
+        append(marker);
+    }
+
+    private void append(Entry entry) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer bytes = ByteBuffer.wrap((gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        records++;
+        writeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * 写入开销报告：每代平均落盘耗时（含源码与 fsync），以及占日志打开以来墙钟时间的比例
+     */
+    public synchronized String report() {
+        double elapsed = System.nanoTime() - openedNanos;
+        return String.format("进化日志：%d 代，%d 条记录，每代写入 %.2f ms（含 fsync），占运行时间 %.3f%%",
+            commits, records, commits == 0 ? 0 : writeNanos / 1e6 / commits, elapsed == 0 ? 0 : writeNanos * 100 / elapsed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
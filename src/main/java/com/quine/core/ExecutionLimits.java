@@ -0,0 +1,64 @@
+package com.quine.core;
+
+/**
+ * 隔离执行的资源上限：超出任一上限的候选连同所在的工作进程一起被终止
+ *
+ * Java 无法强行终止一个忽略中断的线程，超时后 shutdownNow() 返回，死循环仍占着一个核心跑到进程结束。
+ * 隔离模式下候选先在工作 JVM 中试运行：堆上限由 -Xmx 保证，CPU 时间与分配量由工作进程内的看门狗检查，
+ * 超出即 halt；墙钟上限由父进程强制杀死工作进程。
+ */
+public class ExecutionLimits {
+    // 工作进程因超限退出时的退出码（-XX:+ExitOnOutOfMemoryError 的堆溢出固定为 3）
+    static final int EXIT_HEAP = 3;
+    static final int EXIT_CPU = 10;
+    static final int EXIT_ALLOCATION = 11;
+
+    public final int cpuSeconds;      // 一次试运行的进程 CPU 时间上限（所有线程合计）
+    public final int heapMb;          // 工作 JVM 的最大堆
+    public final long allocatedMb;    // 一次试运行的累计分配量上限
+    public final int wallSeconds;     // 一次试运行的墙钟上限
+
+    public ExecutionLimits(int cpuSeconds, int heapMb, long allocatedMb, int wallSeconds) {
+        this.cpuSeconds = cpuSeconds;
+        this.heapMb = heapMb;
+        this.allocatedMb = allocatedMb;
+        this.wallSeconds = wallSeconds;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.isolate（默认关闭）/ quine.limits.cpuSeconds / quine.limits.heapMb /
+     * quine.limits.allocatedMb / quine.limits.wallSeconds
+     * @return 未开启隔离时返回 null
+     */
+    public static ExecutionLimits fromSystemProperties() {
+        if (!Boolean.getBoolean("quine.isolate")) {
+            return null;
+        }
+        return new ExecutionLimits(
+            Integer.getInteger("quine.limits.cpuSeconds", 30),
+            Integer.getInteger("quine.limits.heapMb", 1024),
+            Long.getLong("quine.limits.allocatedMb", 16_384),
+            Integer.getInteger("quine.limits.wallSeconds", 20));
+    }
+
+    /**
+     * 工作进程退出码对应的超限原因，不是超限退出时返回 null
+     */
+    String describeExit(int exitCode) {
+        switch (exitCode) {
+            case EXIT_HEAP:
+                return "超出堆上限（" + heapMb + " MB）";
+            case EXIT_CPU:
+                return "超出 CPU 时间上限（" + cpuSeconds + " 秒）";
+            case EXIT_ALLOCATION:
+                return "超出分配量上限（" + allocatedMb + " MB）";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CPU %d s / 堆 %d MB / 分配 %d MB / 墙钟 %d s", cpuSeconds, heapMb, allocatedMb, wallSeconds);
+    }
+}
@@ -0,0 +1,143 @@
+package com.quine.core;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * 多个战役共享的有限资源通道（LLM 请求槽、编译线程、基准通道）
+ *
+ * 许可空出时，在等待者中选"已占用服务时间 / 优先级权重"最小的战役（stride 调度），同一战役内先来先服务：
+ * 高优先级战役按权重成比例地多拿资源，低优先级战役也不会被饿死。
+ * 可选的最小发放间隔用于限速（如 LLM 每分钟请求数）。每个战役的排队等待与服务时间单独统计。
+ */
+final class FairLane {
+    private final String name;
+    private final long minIntervalNanos;
+    private int available;
+    private long lastGrantNanos = Long.MIN_VALUE / 2;
+    private long sequence;
+    private final List<Waiter> waiting = new ArrayList<>();
+    private final Map<Campaign, Usage> usage = new IdentityHashMap<>();
+
+    private static class Waiter {
+        final Campaign campaign;
+        final long order;
+        final long enqueuedNanos = System.nanoTime();
+
+        Waiter(Campaign campaign, long order) {
+            this.campaign = campaign;
+            this.order = order;
+        }
+    }
+
+    /**
+     * 某个战役在本通道上的占用统计
+     */
+    static class Usage {
+        long grants;
+        long waitNanos;
+        long maxWaitNanos;
+        long serviceNanos;
+    }
+
+    /**
+     * @param name 通道名（用于报告）
+     * @param permits 同时持有许可的上限
+     * @param perMinute 每分钟最多发放的许可数，0 表示不限速
+     */
+    FairLane(String name, int permits, int perMinute) {
+        this.name = name;
+        this.available = Math.max(1, permits);
+        this.minIntervalNanos = perMinute <= 0 ? 0 : 60_000_000_000L / perMinute;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * 排队取得许可后执行 work，结束即归还
+     */
+    <T> T run(Campaign campaign, Callable<T> work) throws Exception {
+        Waiter waiter;
+        synchronized (this) {
+            waiter = new Waiter(campaign, sequence++);
+            waiting.add(waiter);
+            usage.computeIfAbsent(campaign, c -> new Usage());
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long rateWait = lastGrantNanos + minIntervalNanos - now;
+                    if (available > 0 && next() == waiter && rateWait <= 0) {
+                        break;
+                    }
+                    if (available > 0 && next() == waiter) {
+                        wait(Math.max(1, rateWait / 1_000_000));
+                    } else {
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                waiting.remove(waiter);
+                notifyAll();
+                throw e;
+            }
+            waiting.remove(waiter);
+            available--;
+            lastGrantNanos = System.nanoTime();
+            Usage stats = usage.get(campaign);
+            long waited = lastGrantNanos - waiter.enqueuedNanos;
+            stats.grants++;
+            stats.waitNanos += waited;
+            stats.maxWaitNanos = Math.max(stats.maxWaitNanos, waited);
+            // 速率限制下，后面的等待者要在下一个发放时刻被唤醒
+            notifyAll();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            synchronized (this) {
+                usage.get(campaign).serviceNanos += System.nanoTime() - start;
+                available++;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 下一个应得许可的等待者：服务时间 / 权重 最小，其次先到先得
+     */
+    private Waiter next() {
+        Waiter best = null;
+        double bestPass = 0;
+        for (Waiter waiter : waiting) {
+            double pass = (double) usage.get(waiter.campaign).serviceNanos / waiter.campaign.priority;
+            if (best == null || pass < bestPass || pass == bestPass && waiter.order < best.order) {
+                best = waiter;
+                bestPass = pass;
+            }
+        }
+        return best;
+    }
+
+    synchronized int queueLength() {
+        return waiting.size();
+    }
+
+    /**
+     * 某战役在本通道上的统计快照，未使用过时返回空统计
+     */
+    synchronized Usage usageOf(Campaign campaign) {
+        Usage stats = usage.get(campaign);
+        Usage copy = new Usage();
+        if (stats != null) {
+            copy.grants = stats.grants;
+            copy.waitNanos = stats.waitNanos;
+            copy.maxWaitNanos = stats.maxWaitNanos;
+            copy.serviceNanos = stats.serviceNanos;
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,452 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerUtils;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 进程外基准执行器：候选在独立的工作 JVM 中测速
+ *
+ * 主进程积累了 200 代的 JIT 画像、死类、OkHttp/Gson 的 GC 压力，
+ * 在其中测速会让结果依赖评估顺序。这里维护一个预先启动的工作 JVM 池：
+ * 每个工作进程最多服务 jobsPerWorker 个候选（默认 1，即每个候选一个全新 JVM），
+ * 用完即销毁并在后台补充新进程，JVM 启动时间不落在关键路径上。
+ * 多个线程可同时调用 {@link #run}，各自占用一个工作进程并行测速。
+ * 配置了 {@link ExecutionLimits} 时工作进程带堆上限启动，并可用 {@link #trial} 在资源上限内试运行候选：
+ * 超限的候选连同工作进程一起被杀死，不会在主进程里留下空转的线程。
+ */
+public class ForkedBenchmarkRunner implements AutoCloseable {
+    private static final int WORKER_STARTUP_TIMEOUT_SECONDS = 60;
+
+    private final int workers;
+    private final int jobsPerWorker;
+    private final boolean pinCores;
+    private final ExecutionLimits limits;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final Set<Worker> all = ConcurrentHashMap.newKeySet();
+    private final ExecutorService spawner;
+    // 已销毁但尚未退出的工作进程
+    private final Set<Process> dying = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+    private int nextCore;
+
+    // 试运行统计
+    private long trials;
+    private long cpuKills;
+    private long heapKills;
+    private long allocationKills;
+    private long wallKills;
+
+    /**
+     * 一个工作 JVM
+     */
+    private static class Worker {
+        final Process process;
+        final DataOutputStream out;
+        final DataInputStream in;
+        int jobs;
+
+        Worker(Process process) {
+            this.process = process;
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+    }
+
+    /**
+     * @param workers 预启动的工作进程数（即最大并行测速数）
+     * @param jobsPerWorker 每个工作进程服务的候选数，1 表示每个候选一个全新 JVM
+     * @param pinCores 在 Linux 上用 taskset 把各工作进程绑到不同核心
+     */
+    public ForkedBenchmarkRunner(int workers, int jobsPerWorker, boolean pinCores) {
+        this(workers, jobsPerWorker, pinCores, null);
+    }
+
+    /**
+     * @param limits 资源上限，null 表示不限制（只有测速超时）
+     */
+    public ForkedBenchmarkRunner(int workers, int jobsPerWorker, boolean pinCores, ExecutionLimits limits) {
+        this.workers = Math.max(1, workers);
+        this.limits = limits;
+        this.jobsPerWorker = Math.max(1, jobsPerWorker);
+        this.pinCores = pinCores && isTasksetAvailable();
+        this.spawner = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "quine-worker-spawner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < this.workers; i++) {
+            spawnAsync();
+        }
+    }
+
+    /**
+     * 可同时进行的测速数
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.forkedWorkers（0 表示关闭）/ quine.jobsPerWorker / quine.pinCores，
+     * 开启隔离（quine.isolate）时工作进程同样带堆上限
+     * @return 未开启时返回 null
+     */
+    public static ForkedBenchmarkRunner fromSystemProperties() {
+        int workers = Integer.getInteger("quine.forkedWorkers", 0);
+        if (workers <= 0) {
+            return null;
+        }
+        return new ForkedBenchmarkRunner(workers,
+            Integer.getInteger("quine.jobsPerWorker", 1),
+            Boolean.getBoolean("quine.pinCores"),
+            ExecutionLimits.fromSystemProperties());
+    }
+
+    /**
+     * 试运行结果
+     */
+    public static class TrialResult {
+        public final boolean passed;
+        public final boolean probeRejected;  // 小规模探测拒绝或探测阶段超时
+        public final String reason;          // 失败原因，通过时为 null
+        public final boolean retryable;      // 因超时或资源上限被终止（与机器负载有关）
+        public final int scalingLimit;       // 规模阶梯上跑通的最大规模，未跑规模阶梯时为 0
+
+        TrialResult(boolean passed, boolean probeRejected, String reason) {
+            this(passed, probeRejected, reason, false, 0);
+        }
+
+        TrialResult(boolean passed, boolean probeRejected, String reason, boolean retryable) {
+            this(passed, probeRejected, reason, retryable, 0);
+        }
+
+        TrialResult(boolean passed, boolean probeRejected, String reason, boolean retryable, int scalingLimit) {
+            this.passed = passed;
+            this.probeRejected = probeRejected;
+            this.reason = reason;
+            this.retryable = retryable;
+            this.scalingLimit = scalingLimit;
+        }
+    }
+
+    /**
+     * 在资源上限内试运行一个已编译的候选：小规模探测（可选）、正确性验证、完整数据与各附加输入各一次，
+     * 以及之后本进程内的加速比基准与多规模基准会用到的每种线程数与规模
+     * 探测阶段与之后的阶段分别计墙钟：探测超过 probeTimeoutSeconds 即杀死工作进程
+     * @param inputs 附加输入（数据分布名 -> 数据）
+     * @param probeSolves 完整测速中的 solve 次数，0 表示不探测
+     * @param budgetSeconds 完整测速的超时预算（探测外推用）
+     * @param speedup 加速比基准，非多线程赛道为 null
+     * @param scaling 多规模基准，未开启时为 null
+     */
+    public TrialResult trial(Task task, CompilerUtils.CompiledUnit unit, int[] testData, Map<String, int[]> inputs,
+                             int verifyMaxSize, int probeSolves, int budgetSeconds, int probeTimeoutSeconds,
+                             SpeedupBenchmark speedup, ScalingBenchmark scaling) throws Exception {
+        if (limits == null) {
+            throw new IllegalStateException("未配置资源上限");
+        }
+        Worker worker = idle.poll(WORKER_STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (worker == null) {
+            throw new IOException("等待空闲工作进程超时");
+        }
+        synchronized (this) {
+            trials++;
+        }
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+        boolean healthy = false;
+        boolean probing = probeSolves > 0;
+        try {
+            ScheduledFuture<?> kill = watchdog.schedule(worker.process::destroyForcibly,
+                probing ? probeTimeoutSeconds : limits.wallSeconds, TimeUnit.SECONDS);
+
+            new BenchmarkWorker.Trial(task.id(), unit.className, unit.classBytes, testData, inputs,
+                verifyMaxSize, probeSolves, budgetSeconds, limits.cpuSeconds, limits.allocatedMb,
+                speedup == null ? new int[0] : speedup.threadLadder(),
+                scaling == null ? new int[0] : scaling.ladder(),
+                scaling == null ? 0 : scaling.perSolveBudgetUs()).write(worker.out);
+            worker.out.flush();
+
+            while (true) {
+                byte tag;
+                try {
+                    tag = worker.in.readByte();
+                } catch (IOException e) {
+                    return killed(worker, kill.isDone(), probing, probeTimeoutSeconds);
+                }
+
+                if (tag == BenchmarkWorker.PROBED) {
+                    // 探测通过：余下阶段改按墙钟上限计时
+                    kill.cancel(false);
+                    probing = false;
+                    kill = watchdog.schedule(worker.process::destroyForcibly, limits.wallSeconds, TimeUnit.SECONDS);
+                    continue;
+                }
+                String message;
+                int leftoverThreads;
+                int scalingLimit;
+                try {
+                    message = worker.in.readUTF();
+                    leftoverThreads = worker.in.readInt();
+                    scalingLimit = worker.in.readInt();
+                } catch (IOException e) {
+                    return killed(worker, kill.isDone(), probing, probeTimeoutSeconds);
+                }
+                kill.cancel(false);
+                healthy = leftoverThreads == 0;
+                if (tag == BenchmarkWorker.DONE) {
+                    return new TrialResult(true, false, null, false, scalingLimit);
+                } else if (tag == BenchmarkWorker.REJECTED) {
+                    return new TrialResult(false, true, message);
+                } else if (tag == BenchmarkWorker.ERROR) {
+                    return new TrialResult(false, false, message);
+                }
+                healthy = false;
+                throw new IOException("未知的工作进程消息: " + tag);
+            }
+        } finally {
+            watchdog.shutdownNow();
+            release(worker, healthy);
+        }
+    }
+
+    /**
+     * 工作进程在试运行中退出：按墙钟看门狗或退出码给出原因
+     */
+    private TrialResult killed(Worker worker, boolean wallClock, boolean probing, int probeTimeoutSeconds) throws IOException {
+        if (wallClock && probing) {
+            count(0);
+            return new TrialResult(false, true, "小规模探测超时（超过 " + probeTimeoutSeconds + " 秒），工作进程已终止", true);
+        }
+        if (wallClock) {
+            count(0);
+            return new TrialResult(false, false, "隔离执行终止：超出墙钟上限（" + limits.wallSeconds + " 秒）", true);
+        }
+        String reason = null;
+        try {
+            if (worker.process.waitFor(5, TimeUnit.SECONDS)) {
+                int exitCode = worker.process.exitValue();
+                reason = limits.describeExit(exitCode);
+                if (reason != null) {
+                    count(exitCode);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reason == null) {
+            throw new IOException("工作进程异常退出");
+        }
+        return new TrialResult(false, false, "隔离执行终止：" + reason, true);
+    }
+
+    private synchronized void count(int exitCode) {
+        if (exitCode == ExecutionLimits.EXIT_CPU) {
+            cpuKills++;
+        } else if (exitCode == ExecutionLimits.EXIT_HEAP) {
+            heapKills++;
+        } else if (exitCode == ExecutionLimits.EXIT_ALLOCATION) {
+            allocationKills++;
+        } else {
+            wallKills++;
+        }
+    }
+
+    /**
+     * 在工作进程中测速一个已编译的候选
+     * @param timeoutSeconds 超时后直接杀死工作进程
+     */
+    public BenchmarkStats run(CompilerUtils.CompiledUnit unit, int[] testData, BenchmarkEngine config,
+                              int timeoutSeconds) throws Exception {
+        Worker worker = idle.poll(WORKER_STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (worker == null) {
+            throw new IOException("等待空闲工作进程超时");
+        }
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+        boolean healthy = false;
+        try {
+            ScheduledFuture<?> kill = watchdog.schedule(worker.process::destroyForcibly, timeoutSeconds, TimeUnit.SECONDS);
+
+            new BenchmarkWorker.Job(unit.className, unit.classBytes, testData,
+                config.getForks(), config.getMaxWarmupMs(), config.getMeasurementIterations()).write(worker.out);
+            worker.out.flush();
+
+            List<Double> samples = new ArrayList<>();
+            while (true) {
+                byte tag;
+                try {
+                    tag = worker.in.readByte();
+                } catch (IOException e) {
+                    if (kill.isDone()) {
+                        count(0);
+                        throw new Evaluator.ExecutionTimeoutException("执行超时（超过 " + timeoutSeconds + " 秒），工作进程已终止");
+                    }
+                    throw new IOException("工作进程异常退出", e);
+                }
+
+                if (tag == BenchmarkWorker.SAMPLE) {
+                    samples.add(worker.in.readDouble());
+                } else if (tag == BenchmarkWorker.DONE) {
+                    int warmupIterations = worker.in.readInt();
+                    kill.cancel(false);
+                    healthy = true;
+                    return new BenchmarkStats(toArray(samples), config.getForks(), warmupIterations);
+                } else if (tag == BenchmarkWorker.ERROR) {
+                    String message = worker.in.readUTF();
+                    kill.cancel(false);
+                    healthy = true;
+                    throw new RuntimeException(message);
+                } else {
+                    throw new IOException("未知的工作进程消息: " + tag);
+                }
+            }
+        } finally {
+            watchdog.shutdownNow();
+            release(worker, healthy);
+        }
+    }
+
+    private void release(Worker worker, boolean healthy) {
+        worker.jobs++;
+        if (healthy && worker.jobs < jobsPerWorker && !closed) {
+            idle.add(worker);
+        } else {
+            retire(worker);
+            if (!closed) {
+                spawnAsync();
+            }
+        }
+    }
+
+    private void spawnAsync() {
+        int core;
+        synchronized (this) {
+            core = nextCore++ % Runtime.getRuntime().availableProcessors();
+        }
+        spawner.submit(() -> {
+            try {
+                Worker worker = spawn(core);
+                if (closed) {
+                    retire(worker);
+                } else {
+                    idle.add(worker);
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("工作进程启动失败: " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    private Worker spawn(int core) throws IOException {
+        List<String> command = new ArrayList<>();
+        if (pinCores) {
+            command.addAll(List.of("taskset", "-c", String.valueOf(core)));
+        }
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        // 父进程开启了预览特性时工作进程也要开启，否则加载不了同一批类
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview")) {
+            command.add("--enable-preview");
+        }
+        if (limits != null) {
+            command.add("-Xmx" + limits.heapMb + "m");
+            command.add("-XX:+ExitOnOutOfMemoryError");
+        }
+        command.add("-cp");
+        command.add(workerClassPath());
+        command.add(BenchmarkWorker.class.getName());
+
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        Worker worker = new Worker(process);
+        // 握手前就登记，关闭时才能销毁启动中的进程；握手失败（含 EOF）则立即退役，不留在 all 里
+        all.add(worker);
+
+        // 等待就绪信号：JVM 启动完成后才进入空闲队列
+        try {
+            if (worker.in.readByte() != BenchmarkWorker.READY) {
+                throw new IOException("工作进程握手失败");
+            }
+        } catch (IOException e) {
+            retire(worker);
+            throw e;
+        }
+        return worker;
+    }
+
+    /**
+     * 工作进程 classpath：框架类所在位置 + 当前 classpath
+     * （mvn exec:java 下 java.class.path 并不包含 target/classes）
+     */
+    private static String workerClassPath() {
+        try {
+            Path location = Paths.get(BenchmarkWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location + File.pathSeparator + System.getProperty("java.class.path");
+        } catch (Exception e) {
+            return System.getProperty("java.class.path");
+        }
+    }
+
+    private static boolean isTasksetAvailable() {
+        if (!System.getProperty("os.name").toLowerCase().contains("linux")) {
+            return false;
+        }
+        try {
+            return new ProcessBuilder("taskset", "-V").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void retire(Worker worker) {
+        all.remove(worker);
+        Process process = worker.process;
+        process.destroyForcibly();
+        if (process.isAlive()) {
+            dying.add(process);
+            process.onExit().thenRun(() -> dying.remove(process));
+        }
+    }
+
+    /**
+     * 已销毁但仍未退出的工作进程数
+     */
+    public int leakedProcesses() {
+        return dying.size();
+    }
+
+    /**
+     * 试运行与终止统计
+     */
+    public synchronized String report() {
+        long kills = cpuKills + heapKills + allocationKills + wallKills;
+        return String.format("隔离执行（%s）：试运行 %d 次，终止工作进程 %d 次（CPU %d / 堆 %d / 分配 %d / 墙钟 %d），残留进程 %d 个",
+            limits, trials, kills, cpuKills, heapKills, allocationKills, wallKills, leakedProcesses());
+    }
+
+    private static double[] toArray(List<Double> samples) {
+        double[] result = new double[samples.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = samples.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        spawner.shutdownNow();
+        for (Worker worker : all) {
+            retire(worker);
+        }
+        idle.clear();
+    }
+}
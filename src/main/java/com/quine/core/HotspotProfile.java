@@ -0,0 +1,92 @@
+package com.quine.core;
+
+import java.util.List;
+
+/**
+ * 热点画像：一次 JFR 采样中候选代码最热的方法、行与分配点
+ *
+ * 采样归属到栈上最靠近栈顶的候选帧：候选调用的 JDK 方法（如 System.arraycopy）算在调用它的那一行上。
+ */
+public class HotspotProfile {
+    private static final int PROMPT_LINE_CHARS = 80;
+
+    public final long samples;                 // 落在候选代码中的执行采样数
+    public final List<Entry> methods;          // 方法 -> 采样占比
+    public final List<Entry> lines;            // 方法:行 -> 采样占比
+    public final List<Entry> allocations;      // 方法:行 分配的类型 -> 估算字节数
+
+    /**
+     * 一个热点：label 为方法（或 方法 + 分配类型），line 为源码行号（方法级为 -1），weight 为占比或字节数
+     */
+    public static class Entry {
+        public final String label;
+        public final int line;
+        public final double weight;
+
+        public Entry(String label, int line, double weight) {
+            this.label = label;
+            this.line = line;
+            this.weight = weight;
+        }
+    }
+
+    public HotspotProfile(long samples, List<Entry> methods, List<Entry> lines, List<Entry> allocations) {
+        this.samples = samples;
+        this.methods = methods;
+        this.lines = lines;
+        this.allocations = allocations;
+    }
+
+    /**
+     * 写进变异提示词的紧凑摘要，热点行附上源码原文
+     * @param sourceCode 被采样的源码（行号以它为准）
+     */
+    public String summary(String sourceCode) {
+        if (samples == 0 && allocations.isEmpty()) {
+            return "";
+        }
+        String[] source = sourceCode.split("\n", -1);
+        StringBuilder sb = new StringBuilder();
+        sb.append("热点方法（").append(samples).append(" 个采样）：");
+        for (int i = 0; i < methods.size(); i++) {
+            sb.append(i == 0 ? "" : "，").append(String.format("%s %.0f%%", methods.get(i).label, methods.get(i).weight * 100));
+        }
+        sb.append('\n');
+        if (!lines.isEmpty()) {
+            sb.append("热点行：\n");
+            for (Entry entry : lines) {
+                sb.append(String.format("  第 %d 行 %.0f%%：%s%n", entry.line, entry.weight * 100, sourceLine(source, entry.line)));
+            }
+        }
+        if (!allocations.isEmpty()) {
+            sb.append("主要分配点：\n");
+            for (Entry entry : allocations) {
+                sb.append(String.format("  第 %d 行 %s 约 %s：%s%n", entry.line, entry.label,
+                    MemoryProfile.formatBytes((long) entry.weight), sourceLine(source, entry.line)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sourceLine(String[] source, int line) {
+        if (line < 1 || line > source.length) {
+            return "";
+        }
+        String text = source[line - 1].strip();
+        return text.length() > PROMPT_LINE_CHARS ? text.substring(0, PROMPT_LINE_CHARS) + "…" : text;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("热点（%d 采样）：", samples));
+        for (int i = 0; i < Math.min(3, lines.size()); i++) {
+            Entry entry = lines.get(i);
+            sb.append(i == 0 ? "" : " | ").append(String.format("%s:%d %.0f%%", entry.label, entry.line, entry.weight * 100));
+        }
+        if (!allocations.isEmpty()) {
+            Entry top = allocations.get(0);
+            sb.append(String.format("；分配 %s:%d 约 %s", top.label, top.line, MemoryProfile.formatBytes((long) top.weight)));
+        }
+        return sb.toString();
+    }
+}
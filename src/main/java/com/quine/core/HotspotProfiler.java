@@ -0,0 +1,199 @@
+package com.quine.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * JFR 热点采样：对接受的冠军录制一段短时间的 Flight Recorder，提取最热的方法、行与分配点
+ *
+ * 变异器原本不知道候选的时间花在哪里，只能按通用策略盲改。冠军预热后在本线程上反复求解，
+ * 同时开启执行采样（jdk.ExecutionSample）与分配采样（jdk.ObjectAllocationSample），
+ * 只统计本线程上、栈上含候选类的事件，归属到最靠近栈顶的候选帧。
+ * 录制是整个 JVM 范围的：种群模式下其他线程同时在跑同名的候选类，它们的样本不能算到冠军头上。
+ */
+public class HotspotProfiler {
+    private static final int TOP_METHODS = 3;
+    private static final int TOP_LINES = 5;
+    private static final int TOP_ALLOCATIONS = 3;
+    private static final String PRIMITIVE_DESCRIPTORS = "IJDFBCSZ";
+    private static final String[] PRIMITIVE_NAMES = {"int", "long", "double", "float", "byte", "char", "short", "boolean"};
+    private static volatile Object sink;
+
+    private final long durationMs;
+
+    // 统计
+    private long profiles;
+    private long profileNanos;
+
+    /**
+     * @param durationMs 录制时长（另有等长的预热，上限 1 秒）
+     */
+    public HotspotProfiler(long durationMs) {
+        this.durationMs = Math.max(50, durationMs);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.profile（默认关闭）/ quine.profile.ms（默认 1000）
+     * @return 未开启时返回 null
+     */
+    public static HotspotProfiler fromSystemProperties() {
+        if (!Boolean.getBoolean("quine.profile")) {
+            return null;
+        }
+        return new HotspotProfiler(Long.getLong("quine.profile.ms", 1000));
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * 预热后录制候选在 data 上反复求解的热点
+     * @param className 候选类名，只统计该类（含内部类、lambda）的帧
+     */
+    public <D> HotspotProfile profile(Object solver, Kernel<D> kernel, D data, String className) throws IOException {
+        long start = System.nanoTime();
+        runFor(solver, kernel, data, Math.min(durationMs, 1_000));
+
+        Path file = Files.createTempFile("quine-profile", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(1)).withStackTrace();
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "1000/s").withStackTrace();
+            recording.start();
+            runFor(solver, kernel, data, durationMs);
+            recording.stop();
+            recording.dump(file);
+            return summarize(RecordingFile.readAllEvents(file), className, Thread.currentThread().threadId());
+        } finally {
+            Files.deleteIfExists(file);
+            synchronized (this) {
+                profiles++;
+                profileNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static <D> void runFor(Object solver, Kernel<D> kernel, D data, long millis) {
+        long end = System.nanoTime() + millis * 1_000_000;
+        do {
+            sink = kernel.invoke(solver, kernel.copy(data));
+        } while (System.nanoTime() < end);
+    }
+
+    /**
+     * @param threadId 求解所在线程，其他线程的样本忽略
+     */
+    static HotspotProfile summarize(List<RecordedEvent> events, String className, long threadId) {
+        Map<String, Long> methods = new HashMap<>();
+        Map<String, Long> lines = new HashMap<>();
+        Map<String, Long> allocations = new HashMap<>();
+        long samples = 0;
+        for (RecordedEvent event : events) {
+            if (!onThread(event, threadId)) {
+                continue;
+            }
+            RecordedFrame frame = candidateFrame(event.getStackTrace(), className);
+            if (frame == null) {
+                continue;
+            }
+            String method = frame.getMethod().getName();
+            String type = frame.getMethod().getType().getName();
+            if (!type.equals(className)) {
+                method = type.substring(type.lastIndexOf('$') + 1) + "." + method;  // 内部类的方法带上类名
+            }
+            String line = method + "\n" + frame.getLineNumber();
+            String eventType = event.getEventType().getName();
+            if (eventType.equals("jdk.ExecutionSample")) {
+                samples++;
+                methods.merge(method, 1L, Long::sum);
+                lines.merge(line, 1L, Long::sum);
+            } else if (eventType.equals("jdk.ObjectAllocationSample")) {
+                String allocated = event.getClass("objectClass").getName();
+                allocations.merge(line + "\n" + simpleTypeName(allocated), event.getLong("weight"), Long::sum);
+            }
+        }
+
+        List<HotspotProfile.Entry> topMethods = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top(methods, TOP_METHODS)) {
+            topMethods.add(new HotspotProfile.Entry(entry.getKey(), -1, (double) entry.getValue() / samples));
+        }
+        List<HotspotProfile.Entry> topLines = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top(lines, TOP_LINES)) {
+            String[] key = entry.getKey().split("\n");
+            topLines.add(new HotspotProfile.Entry(key[0], Integer.parseInt(key[1]), (double) entry.getValue() / samples));
+        }
+        List<HotspotProfile.Entry> topAllocations = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top(allocations, TOP_ALLOCATIONS)) {
+            String[] key = entry.getKey().split("\n");
+            topAllocations.add(new HotspotProfile.Entry(key[2], Integer.parseInt(key[1]), entry.getValue()));
+        }
+        return new HotspotProfile(samples, topMethods, topLines, topAllocations);
+    }
+
+    /**
+     * 事件是否采自该线程：执行采样看被采样的线程（sampledThread），分配采样看发生分配的线程（eventThread）
+     */
+    private static boolean onThread(RecordedEvent event, long threadId) {
+        String field = event.getEventType().getName().equals("jdk.ExecutionSample") ? "sampledThread" : "eventThread";
+        RecordedThread thread = event.hasField(field) ? event.getThread(field) : null;
+        return thread != null && thread.getJavaThreadId() == threadId;
+    }
+
+    /**
+     * 栈上最靠近栈顶的候选帧；栈上没有候选代码时为 null
+     */
+    private static RecordedFrame candidateFrame(RecordedStackTrace stackTrace, String className) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod() != null) {
+                String type = frame.getMethod().getType().getName();
+                if (type.equals(className) || type.startsWith(className + "$")) {
+                    return frame;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts, int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * JFR 的类名（java.lang.Integer、[I）转为源码写法（Integer、int[]）
+     */
+    private static String simpleTypeName(String name) {
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        String element = name.substring(dimensions);
+        if (dimensions > 0) {
+            int primitive = element.length() == 1 ? PRIMITIVE_DESCRIPTORS.indexOf(element.charAt(0)) : -1;
+            element = primitive >= 0 ? PRIMITIVE_NAMES[primitive] : element.substring(1, element.length() - 1);
+        }
+        element = element.substring(element.lastIndexOf('.') + 1);
+        return element + "[]".repeat(dimensions);
+    }
+
+    /**
+     * 采样开销
+     */
+    public synchronized String report() {
+        return String.format("热点采样：%d 次，平均耗时 %.0f ms", profiles, profiles == 0 ? 0 : profileNanos / 1e6 / profiles);
+    }
+}
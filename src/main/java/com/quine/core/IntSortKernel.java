@@ -0,0 +1,91 @@
+package com.quine.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * int[] 排序（{@link TaskSolver}）
+ */
+public final class IntSortKernel implements Kernel<int[]> {
+    public static final IntSortKernel INSTANCE = new IntSortKernel();
+
+    private IntSortKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return TaskSolver.class;
+    }
+
+    @Override
+    public int[] fromInts(int[] data) {
+        return data;
+    }
+
+    @Override
+    public List<int[]> edgeCases() {
+        return List.of();
+    }
+
+    @Override
+    public List<int[]> randomCases(int size, Random random) {
+        return List.of();
+    }
+
+    @Override
+    public int[] copy(int[] input) {
+        return input.clone();
+    }
+
+    @Override
+    public int length(int[] input) {
+        return input.length;
+    }
+
+    @Override
+    public long bytes(int[] input) {
+        return 4L * input.length;
+    }
+
+    @Override
+    public int[] remove(int[] input, int start, int length) {
+        int[] result = new int[input.length - length];
+        System.arraycopy(input, 0, result, 0, start);
+        System.arraycopy(input, start + length, result, start, input.length - start - length);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, int[] input) {
+        return ((TaskSolver) solver).solve(input);
+    }
+
+    @Override
+    public String check(int[] input, Object result) {
+        if (!(result instanceof int[])) {
+            return "返回 " + (result == null ? "null" : result.getClass().getSimpleName());
+        }
+        int[] output = (int[]) result;
+        if (output.length != input.length) {
+            return "长度 " + output.length + "，应为 " + input.length;
+        }
+        long expected = 0;
+        for (int value : input) {
+            expected += Kernel.mix(value);
+        }
+        long hash = 0;
+        for (int i = 0; i < output.length; i++) {
+            if (i > 0 && output[i - 1] > output[i]) {
+                return String.format("位置 %d 处无序（%d > %d）", i, output[i - 1], output[i]);
+            }
+            hash += Kernel.mix(output[i]);
+        }
+        return hash == expected ? null : "输出不是输入的排列（元素被改动、丢失或重复）";
+    }
+
+    @Override
+    public String format(int[] input) {
+        return Kernel.abbreviate(Arrays.toString(input), input.length, 20);
+    }
+}
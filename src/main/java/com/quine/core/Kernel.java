@@ -0,0 +1,92 @@
+package com.quine.core;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 一类求解器的数据操作：派生输入、复制、调用、判定
+ *
+ * 验证器、基准引擎与内存探测都只通过这里接触数据，所以同一套设施可以服务 int[]、long[]、double[]
+ * 以及键/载荷数组等不同的原始类型特化。调用与判定全程使用原始类型数组，不经过包装类型；
+ * 结果以 Object 返回只是为了交给 Blackhole，数组本身就是对象，不会装箱。
+ *
+ * @param <D> 一次调用的输入
+ */
+public interface Kernel<D> {
+
+    /**
+     * 候选必须实现的求解器接口
+     */
+    Class<?> solverType();
+
+    /**
+     * 从 int 测试数据派生本类型的输入（保持大小关系与重复关系，使各数据分布在所有特化上含义一致）
+     */
+    D fromInts(int[] data);
+
+    /**
+     * 本类型特有的边界用例（int 派生用例之外，如 long 极值、NaN 与 -0.0）
+     */
+    List<D> edgeCases();
+
+    /**
+     * 本类型特有的随机用例（如覆盖 int 范围之外的全值域）
+     */
+    List<D> randomCases(int size, Random random);
+
+    D copy(D input);
+
+    int length(D input);
+
+    /**
+     * 输入占用的字节数，用于分配倍数与吞吐量
+     */
+    long bytes(D input);
+
+    /**
+     * 去掉 [start, start + length) 一段，用于收缩反例
+     */
+    D remove(D input, int start, int length);
+
+    /**
+     * 在计时区内调用候选
+     * @return 结果（交给 Blackhole 与 check）
+     */
+    Object invoke(Object solver, D input);
+
+    /**
+     * 判定结果
+     * @param input 调用前的输入（未被修改的副本）
+     * @return 为 null 表示通过，否则返回失败原因
+     */
+    String check(D input, Object output);
+
+    /**
+     * 反例的可读形式（过长时截断）
+     */
+    String format(D input);
+
+    /**
+     * 与顺序无关的多重集哈希所用的混合函数（SplitMix64 终结函数）
+     */
+    static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 截断过长的数组文本
+     */
+    static String abbreviate(String arrayText, int length, int shown) {
+        if (length <= shown) {
+            return arrayText;
+        }
+        int cut = 0;
+        for (int i = 0; i < shown; i++) {
+            cut = arrayText.indexOf(',', cut + 1);
+        }
+        return arrayText.substring(0, cut) + ", ...]（共 " + length + " 个）";
+    }
+}
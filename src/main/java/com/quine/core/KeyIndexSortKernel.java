@@ -0,0 +1,133 @@
+package com.quine.core;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 键/载荷并行数组排序（{@link KeyIndexSortSolver}）：派生数据的载荷为原始行号
+ */
+public final class KeyIndexSortKernel implements Kernel<KeyIndexSortKernel.Pairs> {
+    public static final KeyIndexSortKernel INSTANCE = new KeyIndexSortKernel();
+
+    /**
+     * 一组并行数组
+     */
+    public static final class Pairs {
+        public final long[] keys;
+        public final int[] payload;
+
+        public Pairs(long[] keys, int[] payload) {
+            this.keys = keys;
+            this.payload = payload;
+        }
+    }
+
+    private KeyIndexSortKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return KeyIndexSortSolver.class;
+    }
+
+    @Override
+    public Pairs fromInts(int[] data) {
+        long[] keys = new long[data.length];
+        int[] payload = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            keys[i] = data[i];
+            payload[i] = i;
+        }
+        return new Pairs(keys, payload);
+    }
+
+    @Override
+    public List<Pairs> edgeCases() {
+        return List.of(
+            new Pairs(new long[]{Long.MAX_VALUE, Long.MIN_VALUE}, new int[]{0, 1}),
+            new Pairs(new long[]{3, 1, 3, 1, 2}, new int[]{10, 11, 12, 13, 14}),
+            new Pairs(new long[]{1L << 32, 1, 0}, new int[]{-1, Integer.MAX_VALUE, Integer.MIN_VALUE}));
+    }
+
+    @Override
+    public List<Pairs> randomCases(int size, Random random) {
+        long[] keys = new long[size];
+        int[] payload = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextLong();
+            payload[i] = random.nextInt();
+        }
+        return List.of(new Pairs(keys, payload));
+    }
+
+    @Override
+    public Pairs copy(Pairs input) {
+        return new Pairs(input.keys.clone(), input.payload.clone());
+    }
+
+    @Override
+    public int length(Pairs input) {
+        return input.keys.length;
+    }
+
+    @Override
+    public long bytes(Pairs input) {
+        return 12L * input.keys.length;
+    }
+
+    @Override
+    public Pairs remove(Pairs input, int start, int length) {
+        int remaining = input.keys.length - length;
+        long[] keys = new long[remaining];
+        int[] payload = new int[remaining];
+        System.arraycopy(input.keys, 0, keys, 0, start);
+        System.arraycopy(input.keys, start + length, keys, start, remaining - start);
+        System.arraycopy(input.payload, 0, payload, 0, start);
+        System.arraycopy(input.payload, start + length, payload, start, remaining - start);
+        return new Pairs(keys, payload);
+    }
+
+    @Override
+    public Object invoke(Object solver, Pairs input) {
+        ((KeyIndexSortSolver) solver).solve(input.keys, input.payload);
+        return input;
+    }
+
+    @Override
+    public String check(Pairs input, Object result) {
+        Pairs output = (Pairs) result;
+        if (output.keys.length != input.keys.length || output.payload.length != input.payload.length) {
+            return "数组长度被改变";
+        }
+        long expected = 0;
+        for (int i = 0; i < input.keys.length; i++) {
+            expected += pairHash(input.keys[i], input.payload[i]);
+        }
+        long hash = 0;
+        for (int i = 0; i < output.keys.length; i++) {
+            if (i > 0 && output.keys[i - 1] > output.keys[i]) {
+                return String.format("位置 %d 处键无序（%d > %d）", i, output.keys[i - 1], output.keys[i]);
+            }
+            hash += pairHash(output.keys[i], output.payload[i]);
+        }
+        return hash == expected ? null : "(键, 载荷) 对被拆散：载荷没有随键移动，或元素丢失、重复";
+    }
+
+    private static long pairHash(long key, int payload) {
+        return Kernel.mix(Kernel.mix(key) ^ payload);
+    }
+
+    @Override
+    public String format(Pairs input) {
+        StringBuilder sb = new StringBuilder("[");
+        int shown = Math.min(input.keys.length, 10);
+        for (int i = 0; i < shown; i++) {
+            sb.append(i == 0 ? "" : ", ").append(input.keys[i]).append("→").append(input.payload[i]);
+        }
+        if (input.keys.length > shown) {
+            sb.append(", ...]（共 ").append(input.keys.length).append(" 个）");
+            return sb.toString();
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.quine.core;
+
+/**
+ * 键/载荷并行数组排序：按 keys 升序原地重排，payload 随键一起移动
+ * 相同键的载荷顺序不作要求，但每个 (键, 载荷) 对必须保持
+ */
+public interface KeyIndexSortSolver {
+    /**
+     * @param keys 排序键
+     * @param payload 与 keys 等长的载荷（如行号）
+     */
+    void solve(long[] keys, int[] payload);
+}
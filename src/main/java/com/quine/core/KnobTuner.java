@@ -0,0 +1,502 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerUtils;
+import com.quine.utils.PatchApplier;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地常量调参：在两次 LLM 调用之间，用逐次减半（successive halving）搜索冠军源码里的数值常量
+ *
+ * 很多胜出的变异只是改了一个数：插入排序阈值、基数桶宽、增量序列。每次都要一个完整的 LLM 往返。
+ * 调参器找出源码中的整数 / 浮点字面量（旋钮），把它们换成类的非 final 静态字段后只编译一次，
+ * 之后每个变体只需用反射改字段值，就能在同一个已加载、已预热的类上正确性检查并计时，没有编译与网络开销。
+ * 所有单旋钮变体先各跑少量次数，每轮保留前 1/eta、预算乘 eta，直到只剩一个；
+ * 单独胜过基线的取值再合成一个组合变体参加决赛。决赛胜出且明显快于基线时，把取值写回字面量，
+ * 作为普通候选交给完整评估与选择。
+ */
+public class KnobTuner {
+    private static final String KNOB_FIELD = "QUINE_KNOB_";
+    private static final int MIN_INT_KNOB = 4;           // 0 ~ 3 多是下标、增量与取中点，不当作旋钮
+    private static final double[] FACTORS = {0.25, 0.5, 0.75, 1.5, 2, 4};
+    private static final double MIN_GAIN = 0.03;         // 决赛中至少快 3% 才提出候选
+    private static final int VARIANT_TIMEOUT_SECONDS = 5;
+    private static final Pattern NUMBER = Pattern.compile(
+        "(?<![\\w.$])(0[xX][0-9a-fA-F_]+[lL]?"
+            + "|\\d[\\d_]*\\.\\d*(?:[eE][+-]?\\d+)?[fFdD]?"
+            + "|\\d[\\d_]*[eE][+-]?\\d+[fFdD]?"
+            + "|\\d[\\d_]*[fFdDlL]?)(?![\\w.])");
+    private static final Pattern COMPARISON = Pattern.compile("(?:[<>]=?)\\s*$");
+    private static final Pattern STATIC_CONSTANT = Pattern.compile("\\bstatic\\s+(final)\\s+\\w+\\s+(\\w+)\\s*=\\s*$");
+    private static final Pattern NARROW_DECLARATION = Pattern.compile("\\b(?:byte|short|char)\\b|\\bcase\\b");
+
+    private final int maxKnobs;
+    private final int eta;
+    private final int initialSolves;
+    // 调参用的小规模验证（每个变体都要跑，规模比测速前的正式验证小）
+    private final CorrectnessVerifier verifier = new CorrectnessVerifier(256);
+
+    // 统计
+    private long runs;
+    private long variants;
+    private long measurements;
+    private long proposals;
+    private long tuneNanos;
+
+    /**
+     * @param maxKnobs 每次最多调的字面量个数
+     * @param eta 每轮保留 1/eta，预算乘 eta
+     * @param initialSolves 第一轮每个变体的计时次数
+     */
+    public KnobTuner(int maxKnobs, int eta, int initialSolves) {
+        this.maxKnobs = Math.max(1, maxKnobs);
+        this.eta = Math.max(2, eta);
+        this.initialSolves = Math.max(1, initialSolves);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.tune（默认关闭）/ quine.tune.maxKnobs（默认 8）/ quine.tune.eta（默认 2）/
+     * quine.tune.solves（默认 2）
+     * @return 未开启时返回 null
+     */
+    public static KnobTuner fromSystemProperties() {
+        if (!Boolean.getBoolean("quine.tune")) {
+            return null;
+        }
+        return new KnobTuner(Integer.getInteger("quine.tune.maxKnobs", 8), Integer.getInteger("quine.tune.eta", 2),
+            Integer.getInteger("quine.tune.solves", 2));
+    }
+
+    /**
+     * 调参结果：写回字面量后的源码与改动说明
+     */
+    public static class Proposal {
+        public final String sourceCode;
+        public final String changes;       // 如 "第 21 行 16 -> 24"
+        public final int variants;         // 本次计时的变体数
+        public final double gain;          // 决赛中相对基线的提速比例
+
+        Proposal(String sourceCode, String changes, int variants, double gain) {
+            this.sourceCode = sourceCode;
+            this.changes = changes;
+            this.variants = variants;
+            this.gain = gain;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("本地调参：%s（%d 个变体，决赛快 %.1f%%）", changes, variants, gain * 100);
+        }
+    }
+
+    /**
+     * 一个旋钮：源码中的一个数值字面量
+     */
+    static class Knob {
+        final int start;
+        final int end;
+        final int line;
+        final String literal;
+        final Class<?> type;     // int / long / float / double
+        final boolean hex;
+        final double value;
+        final boolean threshold; // 紧跟在比较运算符之后，多为规模阈值
+        String constant;         // 字面量是 static final 字段的初始值时为字段名：类初始化后改不动，直接调这个字段
+        int finalStart;          // 该字段声明中 final 关键字的位置
+
+        Knob(int start, int end, int line, String literal, Class<?> type, boolean hex, double value, boolean threshold) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.literal = literal;
+            this.type = type;
+            this.hex = hex;
+            this.value = value;
+            this.threshold = threshold;
+        }
+
+        String field(int index) {
+            return constant != null ? constant : KNOB_FIELD + index;
+        }
+
+        /**
+         * 候选取值：按比例缩放，整数取整且不小于 MIN_INT_KNOB 的一半
+         */
+        List<Double> candidates() {
+            Set<Double> values = new LinkedHashSet<>();
+            for (double factor : FACTORS) {
+                double scaled = value * factor;
+                if (type == int.class || type == long.class) {
+                    scaled = Math.max(MIN_INT_KNOB / 2, Math.round(scaled));
+                    if (type == int.class && scaled > Integer.MAX_VALUE) {
+                        continue;
+                    }
+                }
+                if (scaled != value) {
+                    values.add(scaled);
+                }
+            }
+            return new ArrayList<>(values);
+        }
+
+        String format(double v) {
+            if (type == int.class) {
+                return hex ? "0x" + Integer.toHexString((int) v).toUpperCase() : Integer.toString((int) v);
+            }
+            if (type == long.class) {
+                return (hex ? "0x" + Long.toHexString((long) v).toUpperCase() : Long.toString((long) v)) + "L";
+            }
+            return type == float.class ? (float) v + "f" : Double.toString(v);
+        }
+    }
+
+    /**
+     * 一个变体：每个旋钮的取值（未改动的等于原值）与当前成绩
+     */
+    private static class Variant {
+        final double[] values;
+        long bestNanos = Long.MAX_VALUE;   // 各轮累计的最短单次耗时
+        boolean broken;
+
+        Variant(double[] values) {
+            this.values = values;
+        }
+    }
+
+    /**
+     * 找出源码中可调的字面量：跳过注释与字符串、case 标签、byte/short/char 声明（需要编译期常量），
+     * 整数只取 ≥ MIN_INT_KNOB 的；比较运算符之后的阈值优先，最多 maxKnobs 个
+     */
+    List<Knob> findKnobs(String sourceCode) {
+        String masked = PatchApplier.mask(sourceCode);
+        int body = masked.indexOf('{');
+        List<Knob> knobs = new ArrayList<>();
+        Matcher matcher = NUMBER.matcher(masked);
+        while (matcher.find()) {
+            if (matcher.start() < body) {
+                continue;
+            }
+            int lineStart = masked.lastIndexOf('\n', matcher.start()) + 1;
+            int lineEnd = masked.indexOf('\n', matcher.end());
+            String line = masked.substring(lineStart, lineEnd < 0 ? masked.length() : lineEnd);
+            if (NARROW_DECLARATION.matcher(line).find()) {
+                continue;
+            }
+            String before = masked.substring(lineStart, matcher.start());
+            Knob knob = parse(matcher.group(1), matcher.start(), matcher.end(), lineNumber(masked, matcher.start()),
+                COMPARISON.matcher(before).find());
+            if (knob != null) {
+                Matcher constant = STATIC_CONSTANT.matcher(before);
+                if (constant.find() && masked.substring(matcher.end()).matches("(?s)\\s*;.*")) {
+                    knob.constant = constant.group(2);
+                    knob.finalStart = lineStart + constant.start(1);
+                }
+                knobs.add(knob);
+            }
+        }
+        List<Knob> chosen = new ArrayList<>(knobs);
+        chosen.sort(Comparator.comparing((Knob k) -> !k.threshold));
+        chosen = chosen.subList(0, Math.min(maxKnobs, chosen.size()));
+        chosen.sort(Comparator.comparingInt(k -> k.start));
+        return chosen;
+    }
+
+    private static Knob parse(String literal, int start, int end, int line, boolean threshold) {
+        String digits = literal.replace("_", "");
+        char suffix = Character.toLowerCase(digits.charAt(digits.length() - 1));
+        boolean hex = digits.startsWith("0x") || digits.startsWith("0X");
+        try {
+            if (hex) {
+                boolean isLong = suffix == 'l';
+                long value = Long.parseUnsignedLong(digits.substring(2, digits.length() - (isLong ? 1 : 0)), 16);
+                return value < MIN_INT_KNOB || !isLong && value > Integer.MAX_VALUE ? null
+                    : new Knob(start, end, line, literal, isLong ? long.class : int.class, true, value, threshold);
+            }
+            if (suffix == 'f' || suffix == 'd' || digits.contains(".") || digits.contains("e") || digits.contains("E")) {
+                double value = Double.parseDouble(suffix == 'f' || suffix == 'd' ? digits.substring(0, digits.length() - 1) : digits);
+                return value == 0 ? null
+                    : new Knob(start, end, line, literal, suffix == 'f' ? float.class : double.class, false, value, threshold);
+            }
+            if (suffix == 'l') {
+                long value = Long.parseLong(digits.substring(0, digits.length() - 1));
+                return value < MIN_INT_KNOB ? null : new Knob(start, end, line, literal, long.class, false, value, threshold);
+            }
+            long value = Long.parseLong(digits);
+            return value < MIN_INT_KNOB || value > Integer.MAX_VALUE ? null
+                : new Knob(start, end, line, literal, int.class, false, value, threshold);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int lineNumber(String text, int position) {
+        int line = 1;
+        for (int i = 0; i < position; i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * 字面量换成静态字段引用，字段声明插在顶层类体的开头；static final 常量去掉 final，直接调该字段
+     * @return 顶层类体找不到时返回 null
+     */
+    static String knobbed(String sourceCode, String simpleName, List<Knob> knobs) {
+        String masked = PatchApplier.mask(sourceCode);
+        Matcher declaration = Pattern.compile("\\bclass\\s+" + Pattern.quote(simpleName) + "\\b").matcher(masked);
+        if (!declaration.find()) {
+            return null;
+        }
+        int open = masked.indexOf('{', declaration.end());
+        if (open < 0 || knobs.stream().anyMatch(k -> k.start < open)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(sourceCode);
+        for (int i = knobs.size() - 1; i >= 0; i--) {
+            Knob knob = knobs.get(i);
+            if (knob.constant != null) {
+                sb.delete(knob.finalStart, knob.finalStart + "final ".length());
+            } else {
+                sb.replace(knob.start, knob.end, KNOB_FIELD + i);
+            }
+        }
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < knobs.size(); i++) {
+            Knob knob = knobs.get(i);
+            if (knob.constant != null) {
+                continue;
+            }
+            fields.append(" static ").append(knob.type.getName()).append(' ').append(KNOB_FIELD).append(i)
+                .append(" = ").append(knob.literal).append(';');
+        }
+        sb.insert(open + 1, fields);  // 与类声明同一行，之后的行号不变
+        return sb.toString();
+    }
+
+    /**
+     * 取值写回字面量
+     */
+    static String materialize(String sourceCode, List<Knob> knobs, double[] values) {
+        StringBuilder sb = new StringBuilder(sourceCode);
+        for (int i = knobs.size() - 1; i >= 0; i--) {
+            if (values[i] != knobs.get(i).value) {
+                sb.replace(knobs.get(i).start, knobs.get(i).end, knobs.get(i).format(values[i]));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 调参一次
+     * @param evaluator 提供编译、实例化与超时保护
+     * @return 决赛胜出且明显快于基线时的候选，否则为 null
+     */
+    public Proposal tune(Evaluator evaluator, String sourceCode, int[] testData) throws Exception {
+        return tune(evaluator, evaluator.getTask().kernel(), sourceCode, testData);
+    }
+
+    private <D> Proposal tune(Evaluator evaluator, Kernel<D> kernel, String sourceCode, int[] testData) throws Exception {
+        long start = System.nanoTime();
+        int measured = 0;
+        try {
+            List<Knob> knobs = findKnobs(sourceCode);
+            String targetClass = evaluator.getTask().targetClass();
+            String knobbed = knobs.isEmpty() ? null
+                : knobbed(sourceCode, targetClass.substring(targetClass.lastIndexOf('.') + 1), knobs);
+            if (knobbed == null) {
+                return null;
+            }
+            CompilerUtils.CompiledUnit unit;
+            try {
+                unit = evaluator.compileResident(knobbed);
+            } catch (Evaluator.RejectedException e) {
+                return null;
+            }
+            Class<?> type = unit.load();
+            Field[] fields = new Field[knobs.size()];
+            double[] baseline = new double[knobs.size()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = type.getDeclaredField(knobs.get(i).field(i));
+                fields[i].setAccessible(true);
+                baseline[i] = knobs.get(i).value;
+            }
+            D data = kernel.fromInts(testData);
+
+            // 第一轮：基线 + 全部单旋钮变体
+            Variant base = new Variant(baseline);
+            List<Variant> alive = new ArrayList<>();
+            for (int i = 0; i < knobs.size(); i++) {
+                for (double value : knobs.get(i).candidates()) {
+                    double[] values = baseline.clone();
+                    values[i] = value;
+                    alive.add(new Variant(values));
+                }
+            }
+            List<Variant> all = new ArrayList<>(alive);
+
+            // 逐次减半：基线每轮同预算陪跑，作为比较基准
+            int solves = initialSolves;
+            while (alive.size() > 1) {
+                measure(evaluator, kernel, type, fields, data, base, solves);
+                measured++;
+                for (Variant variant : alive) {
+                    measure(evaluator, kernel, type, fields, data, variant, solves);
+                    measured++;
+                }
+                alive.removeIf(v -> v.broken);
+                alive.sort(Comparator.comparingLong(v -> v.bestNanos));
+                alive = new ArrayList<>(alive.subList(0, Math.min(alive.size(), (alive.size() + eta - 1) / eta)));
+                solves *= eta;
+            }
+
+            // 决赛：减半胜者、各旋钮单独胜过基线的取值合成的组合变体、基线
+            double[] combined = baseline.clone();
+            for (Variant variant : all) {
+                if (!variant.broken && variant.bestNanos < base.bestNanos * (1 - MIN_GAIN)) {
+                    for (int i = 0; i < combined.length; i++) {
+                        if (variant.values[i] != baseline[i] && isBetterForKnob(all, variant, i)) {
+                            combined[i] = variant.values[i];
+                        }
+                    }
+                }
+            }
+            List<Variant> finalists = new ArrayList<>(alive);
+            if (!Arrays.equals(combined, baseline) && alive.stream().noneMatch(v -> Arrays.equals(v.values, combined))) {
+                finalists.add(new Variant(combined));
+            }
+            if (finalists.isEmpty()) {
+                return null;
+            }
+            base.bestNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 2; round++) {  // 基线与决赛者交替计时，抵消预热与漂移
+                measure(evaluator, kernel, type, fields, data, base, solves);
+                measured++;
+                for (Variant finalist : finalists) {
+                    finalist.bestNanos = round == 0 ? Long.MAX_VALUE : finalist.bestNanos;
+                    measure(evaluator, kernel, type, fields, data, finalist, solves);
+                    measured++;
+                }
+            }
+            Variant winner = finalists.stream().filter(v -> !v.broken)
+                .min(Comparator.comparingLong(v -> v.bestNanos)).orElse(null);
+            if (winner == null || winner.bestNanos >= base.bestNanos * (1 - MIN_GAIN)) {
+                return null;
+            }
+
+            String tuned = materialize(sourceCode, knobs, winner.values);
+            StringBuilder changes = new StringBuilder();
+            for (int i = 0; i < knobs.size(); i++) {
+                if (winner.values[i] != baseline[i]) {
+                    changes.append(changes.length() == 0 ? "" : "，").append("第 ").append(knobs.get(i).line).append(" 行 ")
+                        .append(knobs.get(i).literal).append(" -> ").append(knobs.get(i).format(winner.values[i]));
+                }
+            }
+            synchronized (this) {
+                proposals++;
+            }
+            return new Proposal(tuned, changes.toString(), measured, 1 - (double) winner.bestNanos / base.bestNanos);
+        } finally {
+            synchronized (this) {
+                runs++;
+                variants += measured;
+                tuneNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * 该变体在旋钮 i 上的取值是否是所有只改旋钮 i 的变体中成绩最好的
+     */
+    private static boolean isBetterForKnob(List<Variant> all, Variant candidate, int knob) {
+        for (Variant other : all) {
+            if (other != candidate && !other.broken && other.bestNanos < candidate.bestNanos && other.values[knob] != candidate.values[knob]) {
+                boolean sameKnob = true;
+                for (int i = 0; i < other.values.length; i++) {
+                    if (i != knob && other.values[i] != candidate.values[i]) {
+                        sameKnob = false;
+                    }
+                }
+                if (sameKnob) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 设置字段、新建实例（实例字段的初始值随之更新），首次计时前先做正确性检查，
+     * 再计时 solves 次，成绩取累计最短单次耗时；检查失败、抛出异常或超时的变体标记为损坏，
+     * 调参继续处理其余变体（超时不响应中断的线程由评估器记为失控线程）
+     */
+    private <D> void measure(Evaluator evaluator, Kernel<D> kernel, Class<?> type, Field[] fields, D data,
+                             Variant variant, int solves) throws Exception {
+        if (variant.broken) {
+            return;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            set(fields[i], variant.values[i]);
+        }
+        Object solver = evaluator.bindSolver(type.getDeclaredConstructor().newInstance());
+        boolean firstRun = variant.bestNanos == Long.MAX_VALUE;
+        long best;
+        try {
+            best = evaluator.runGuarded(() -> {
+                try {
+                    if (firstRun && (!verifier.verify(solver, kernel).passed || CorrectnessVerifier.check(solver, kernel, data) != null)) {
+                        return -1L;
+                    }
+                    long fastest = Long.MAX_VALUE;
+                    for (int i = 0; i < solves; i++) {
+                        D input = kernel.copy(data);
+                        long t0 = System.nanoTime();
+                        Object result = kernel.invoke(solver, input);
+                        fastest = Math.min(fastest, System.nanoTime() - t0);
+                        if (result == null) {
+                            return -1L;
+                        }
+                    }
+                    return fastest;
+                } catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+                    return -1L;
+                }
+            }, VARIANT_TIMEOUT_SECONDS);
+        } catch (Evaluator.ExecutionTimeoutException e) {
+            best = -1;
+        }
+        synchronized (this) {
+            measurements += solves;
+        }
+        if (best < 0) {
+            variant.broken = true;
+        } else {
+            variant.bestNanos = Math.min(variant.bestNanos, best);
+        }
+    }
+
+    private static void set(Field field, double value) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            field.setInt(null, (int) value);
+        } else if (type == long.class) {
+            field.setLong(null, (long) value);
+        } else if (type == float.class) {
+            field.setFloat(null, (float) value);
+        } else {
+            field.setDouble(null, value);
+        }
+    }
+
+    /**
+     * 调参次数、变体吞吐与提出的候选数
+     */
+    public synchronized String report() {
+        return String.format("本地调参：%d 次，计时 %d 个变体（%d 次求解，平均 %.1f ms/变体），提出候选 %d 个",
+            runs, variants, measurements, variants == 0 ? 0 : tuneNanos / 1e6 / variants, proposals);
+    }
+}
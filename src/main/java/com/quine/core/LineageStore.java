@@ -0,0 +1,641 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑的二进制谱系库：所有战役、所有代的全部候选（含被淘汰的）
+ *
+ * 原来的谱系只有 gen_N_TargetSubject.java 备份和控制台输出，被拒绝的候选根本不留存。这里三个文件：
+ * 1. blobs.bin：去重后的源码（按内容哈希，Deflate 压缩），同一源码只存一份
+ * 2. nodes.bin：每个候选一条定长记录（父节点、代数、战役、判定、源码位置、算法指纹、中位数、CI、分配量）
+ * 3. campaigns.txt：战役 id 字典
+ * 打开时只读定长记录（blob 只读头部），载入为按列存放的原始类型数组，并建立父子边、得分、代数与指纹索引；
+ * "最快个体的祖先链"、"比父代慢 20% 以上的候选"之类的查询只扫内存中的列，毫秒级完成，不扫描目录。
+ * 战役 id 按运行区分（任务 id@启动时间，见 {@link #runCampaignId}），不同次运行的谱系互不合并。
+ * 查询工具以只读方式打开：不截断、不写入，正在运行的进化写了一半的尾部记录直接忽略。
+ */
+public class LineageStore implements AutoCloseable {
+    private static final int MAGIC = 0x51_4C_4E_31;  // "QLN1"
+    private static final int RECORD_BYTES = 64;
+    private static final int BLOB_HEADER_BYTES = 16;  // 哈希(8) + 原长(4) + 存储长(4)，两长度相等表示未压缩
+    private static final DateTimeFormatter RUN_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String[] VERDICTS = {"seed", "improved", "neutral", "rejected", "failed"};
+    private static final Set<String> KEYWORDS = Set.of(
+        "abstract", "boolean", "break", "byte", "case", "char", "class", "continue", "default", "do", "double",
+        "else", "extends", "final", "for", "if", "implements", "import", "instanceof", "int", "long", "new",
+        "package", "private", "protected", "public", "return", "short", "static", "super", "switch", "this",
+        "throw", "var", "void", "while", "null", "true", "false");
+
+    private final Path nodesFile;
+    private final Path blobsFile;
+    private final Path campaignsFile;
+    private final FileChannel nodes;
+    private final FileChannel blobs;
+    private final boolean readOnly;
+
+    // 战役字典
+    private final List<String> campaigns = new ArrayList<>();
+    private final Map<String, Integer> campaignIndex = new HashMap<>();
+
+    // 列
+    private int size;
+    private int[] parent = new int[1024];
+    private int[] generation = new int[1024];
+    private short[] campaign = new short[1024];
+    private byte[] verdict = new byte[1024];
+    private long[] blobOffset = new long[1024];
+    private long[] fingerprint = new long[1024];
+    private double[] medianUs = new double[1024];
+    private double[] ci95Us = new double[1024];
+    private long[] bytesPerCall = new long[1024];
+    private long[] timestamp = new long[1024];
+
+    // 索引
+    private final Map<Long, Long> blobByHash = new HashMap<>();         // 源码哈希 -> blob 偏移
+    private final Map<Long, Integer> latestBySource = new HashMap<>();  // (blob 偏移, 战役) -> 最新节点
+    private final Map<Integer, int[]> children = new HashMap<>();       // 节点 -> 子节点（首元素为个数）
+    private final Map<Long, int[]> byFingerprint = new HashMap<>();
+    private final Map<Long, int[]> byGeneration = new HashMap<>();      // (战役, 代数) -> 节点
+    private int[] byScore = new int[0];                                 // 成功节点按中位数升序，按需重建
+    private int scoredSize = -1;
+
+    private long blobBytes;
+    private long sourceBytes;  // 去重前的源码总量（用于报告去重与压缩效果）
+
+    /**
+     * 一个候选节点的快照
+     */
+    public static class Node {
+        public final int id;
+        public final int parent;          // 根节点为 -1
+        public final String campaign;
+        public final int generation;
+        public final String verdict;
+        public final double medianUs;     // 失败为 NaN
+        public final double ci95Us;
+        public final long bytesPerCall;   // 未知为 -1
+        public final long fingerprint;
+        public final long timestamp;
+
+        Node(int id, int parent, String campaign, int generation, String verdict, double medianUs,
+             double ci95Us, long bytesPerCall, long fingerprint, long timestamp) {
+            this.id = id;
+            this.parent = parent;
+            this.campaign = campaign;
+            this.generation = generation;
+            this.verdict = verdict;
+            this.medianUs = medianUs;
+            this.ci95Us = ci95Us;
+            this.bytesPerCall = bytesPerCall;
+            this.fingerprint = fingerprint;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %s Gen %d %s %s（父 %s，指纹 %016x）", id, campaign, generation, verdict,
+                Double.isNaN(medianUs) ? "-" : String.format("%.1f μs ± %.1f", medianUs, ci95Us),
+                parent < 0 ? "-" : "#" + parent, fingerprint);
+        }
+    }
+
+    public LineageStore(Path directory) throws IOException {
+        this(directory, false);
+    }
+
+    /**
+     * @param readOnly 只读打开：文件只以 READ 打开，从不截断或写入，不完整的尾部记录忽略（进化可能正在写入）
+     */
+    public LineageStore(Path directory, boolean readOnly) throws IOException {
+        this.readOnly = readOnly;
+        if (!readOnly) {
+            Files.createDirectories(directory);
+        }
+        this.nodesFile = directory.resolve("nodes.bin");
+        this.blobsFile = directory.resolve("blobs.bin");
+        this.campaignsFile = directory.resolve("campaigns.txt");
+        if (Files.exists(campaignsFile)) {
+            for (String id : Files.readAllLines(campaignsFile, StandardCharsets.UTF_8)) {
+                if (!id.isBlank()) {
+                    campaignIndex.put(id, campaigns.size());
+                    campaigns.add(id);
+                }
+            }
+        }
+        if (readOnly) {
+            this.blobs = FileChannel.open(blobsFile, StandardOpenOption.READ);
+            this.nodes = FileChannel.open(nodesFile, StandardOpenOption.READ);
+        } else {
+            this.blobs = FileChannel.open(blobsFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.nodes = FileChannel.open(nodesFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        loadBlobs();
+        loadNodes();
+    }
+
+    /**
+     * 从系统属性读取配置：quine.lineage（默认开启）/ quine.lineage.dir（默认 target/lineage）
+     * @return 关闭时返回 null
+     */
+    public static LineageStore fromSystemProperties() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("quine.lineage", "true"))) {
+            return null;
+        }
+        return new LineageStore(Paths.get(System.getProperty("quine.lineage.dir", "target/lineage")));
+    }
+
+    /**
+     * 一次运行的战役 id：任务 id@启动时间（如 sort@20260101-120000）；恢复运行时沿用日志中记下的 id
+     */
+    public static String runCampaignId(String taskId) {
+        return taskId + "@" + LocalDateTime.now().format(RUN_STAMP);
+    }
+
+    /**
+     * 只读 blob 头部建立哈希索引；崩溃留下的残缺 blob 截掉（只读时忽略）
+     */
+    private void loadBlobs() throws IOException {
+        long end = blobs.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(BLOB_HEADER_BYTES);
+        while (position + BLOB_HEADER_BYTES <= end) {
+            header.clear();
+            readFully(blobs, header, position);
+            header.flip();
+            long hash = header.getLong();
+            int rawLength = header.getInt();
+            int length = header.getInt();
+            if (position + BLOB_HEADER_BYTES + length > end) {
+                break;
+            }
+            blobByHash.put(hash, position);
+            sourceBytes += rawLength;
+            position += BLOB_HEADER_BYTES + length;
+        }
+        if (readOnly) {
+            blobBytes = position;
+            return;
+        }
+        if (position < end) {
+            blobs.truncate(position);
+        }
+        blobBytes = position;
+        blobs.position(position);
+    }
+
+    /**
+     * 定长记录载入为列；崩溃留下的不完整记录截掉（只读时忽略）
+     */
+    private void loadNodes() throws IOException {
+        long end = nodes.size();
+        if (end < Integer.BYTES && readOnly) {
+            return;
+        }
+        if (end < Integer.BYTES) {
+            nodes.truncate(0);
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+            magic.flip();
+            writeFully(nodes, magic);
+            return;
+        }
+        ByteBuffer all = ByteBuffer.allocate((int) end);
+        readFully(nodes, all, 0);
+        all.flip();
+        if (all.getInt() != MAGIC) {
+            throw new IOException("谱系库格式不符: " + nodesFile);
+        }
+        int records = (int) ((end - Integer.BYTES) / RECORD_BYTES);
+        int loaded = 0;
+        for (; loaded < records; loaded++) {
+            int p = all.getInt();
+            int g = all.getInt();
+            short c = all.getShort();
+            byte v = all.get();
+            all.get();
+            long blob = all.getLong();
+            if (readOnly && (c >= campaigns.size() || blob >= blobBytes)) {
+                break;  // 只读打开期间写入者又追加了战役与 blob：只载入本次读到的字典与 blob 覆盖的前缀
+            }
+            long fp = all.getLong();
+            double median = all.getDouble();
+            double ci = all.getDouble();
+            long allocated = all.getLong();
+            long time = all.getLong();
+            all.position(all.position() + RECORD_BYTES - 60);
+            append(p, g, c, v, blob, fp, median, ci, allocated, time);
+        }
+        if (readOnly) {
+            return;
+        }
+        long durable = Integer.BYTES + (long) loaded * RECORD_BYTES;
+        if (durable < end) {
+            nodes.truncate(durable);
+        }
+        nodes.position(durable);
+    }
+
+    /**
+     * 记录一个候选
+     * @param parentSource 父代源码，根节点（初始代码）为 null
+     * @param verdict seed / improved / neutral / rejected / failed
+     * @param result 评估结果，变异本身失败时为 null
+     * @return 节点 id
+     */
+    public synchronized int record(String campaignId, int gen, String sourceCode, String parentSource,
+                                   String verdict, Evaluator.EvalResult result) throws IOException {
+        checkWritable();
+        short c = (short) campaignId(campaignId);
+        long blob = sourceCode == null ? -1 : storeBlob(sourceCode);
+        int p = -1;
+        if (parentSource != null) {
+            Long parentBlob = blobByHash.get(hash64(parentSource));
+            Integer parentNode = parentBlob == null ? null : latestBySource.get(sourceKey(parentBlob, c));
+            p = parentNode == null ? -1 : parentNode;
+        }
+        int v = Arrays.asList(VERDICTS).indexOf(verdict);
+        if (v < 0) {
+            throw new IllegalArgumentException("未知判定: " + verdict);
+        }
+        long fp = sourceCode == null ? 0 : fingerprint(sourceCode);
+        double median = result == null || result.stats == null ? Double.NaN : result.stats.medianUs;
+        double ci = result == null || result.stats == null ? Double.NaN : result.stats.ci95Us;
+        long allocated = result == null || result.memory == null ? -1 : result.memory.bytesPerCall;
+        long time = System.currentTimeMillis();
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.putInt(p).putInt(gen).putShort(c).put((byte) v).put((byte) 0)
+            .putLong(blob).putLong(fp).putDouble(median).putDouble(ci).putLong(allocated).putLong(time);
+        record.position(RECORD_BYTES);
+        record.flip();
+        writeFully(nodes, record);
+        return append(p, gen, c, (byte) v, blob, fp, median, ci, allocated, time);
+    }
+
+    /**
+     * 初始代码作为根节点，已在库中（恢复运行时）则不重复记录
+     */
+    public synchronized void recordSeed(String campaignId, String sourceCode, Evaluator.EvalResult result) throws IOException {
+        checkWritable();
+        Long blob = blobByHash.get(hash64(sourceCode));
+        if (blob == null || !latestBySource.containsKey(sourceKey(blob, campaignId(campaignId)))) {
+            record(campaignId, 0, sourceCode, null, "seed", result);
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("谱系库以只读方式打开: " + nodesFile);
+        }
+    }
+
+    private int append(int p, int g, short c, byte v, long blob, long fp, double median, double ci,
+                       long allocated, long time) {
+        if (size == parent.length) {
+            int capacity = size * 2;
+            parent = Arrays.copyOf(parent, capacity);
+            generation = Arrays.copyOf(generation, capacity);
+            campaign = Arrays.copyOf(campaign, capacity);
+            verdict = Arrays.copyOf(verdict, capacity);
+            blobOffset = Arrays.copyOf(blobOffset, capacity);
+            fingerprint = Arrays.copyOf(fingerprint, capacity);
+            medianUs = Arrays.copyOf(medianUs, capacity);
+            ci95Us = Arrays.copyOf(ci95Us, capacity);
+            bytesPerCall = Arrays.copyOf(bytesPerCall, capacity);
+            timestamp = Arrays.copyOf(timestamp, capacity);
+        }
+        int id = size++;
+        parent[id] = p;
+        generation[id] = g;
+        campaign[id] = c;
+        verdict[id] = v;
+        blobOffset[id] = blob;
+        fingerprint[id] = fp;
+        medianUs[id] = median;
+        ci95Us[id] = ci;
+        bytesPerCall[id] = allocated;
+        timestamp[id] = time;
+
+        if (p >= 0) {
+            add(children, p, id);
+        }
+        if (blob >= 0) {
+            latestBySource.put(sourceKey(blob, c), id);
+            add(byFingerprint, fp, id);
+        }
+        add(byGeneration, ((long) c << 32) | (g & 0xFFFF_FFFFL), id);
+        return id;
+    }
+
+    private static <K> void add(Map<K, int[]> index, K key, int id) {
+        int[] list = index.get(key);
+        if (list == null) {
+            list = new int[4];
+        } else if (list[0] + 1 == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+        }
+        list[++list[0]] = id;
+        index.put(key, list);
+    }
+
+    private static long sourceKey(long blob, int campaignIndex) {
+        return blob << 16 | campaignIndex;
+    }
+
+    private int campaignId(String id) throws IOException {
+        Integer index = campaignIndex.get(id);
+        if (index == null) {
+            index = campaigns.size();
+            campaigns.add(id);
+            campaignIndex.put(id, index);
+            Files.write(campaignsFile, campaigns, StandardCharsets.UTF_8);
+        }
+        return index;
+    }
+
+    /**
+     * 源码去重存储，返回 blob 偏移
+     */
+    private long storeBlob(String sourceCode) throws IOException {
+        long hash = hash64(sourceCode);
+        Long existing = blobByHash.get(hash);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] raw = sourceCode.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] chunk = new byte[4096];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        // 很短的源码压缩后反而更长，原样存放
+        byte[] stored = compressed.size() < raw.length ? compressed.toByteArray() : raw;
+
+        long offset = blobBytes;
+        ByteBuffer blob = ByteBuffer.allocate(BLOB_HEADER_BYTES + stored.length);
+        blob.putLong(hash).putInt(raw.length).putInt(stored.length).put(stored);
+        blob.flip();
+        writeFully(blobs, blob);
+        blobBytes += BLOB_HEADER_BYTES + stored.length;
+        sourceBytes += raw.length;
+        blobByHash.put(hash, offset);
+        return offset;
+    }
+
+    /**
+     * 节点的源码，变异失败（无源码）时为 null
+     */
+    public synchronized String source(int id) throws IOException {
+        long offset = blobOffset[id];
+        if (offset < 0) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(BLOB_HEADER_BYTES);
+        readFully(blobs, header, offset);
+        header.flip();
+        header.getLong();
+        int rawLength = header.getInt();
+        ByteBuffer compressed = ByteBuffer.allocate(header.getInt());
+        readFully(blobs, compressed, offset + BLOB_HEADER_BYTES);
+        if (compressed.capacity() == rawLength) {
+            return new String(compressed.array(), StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            byte[] raw = new byte[rawLength];
+            inflater.inflate(raw);
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IOException("谱系库源码损坏（#" + id + "）", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 源码内容的 64 位哈希（SHA-256 前 8 字节）
+     */
+    static long hash64(String sourceCode) {
+        return Long.parseUnsignedLong(CompilerUtils.sha256(sourceCode.getBytes(StandardCharsets.UTF_8)).substring(0, 16), 16);
+    }
+
+    /**
+     * 算法指纹：规范化源码中的标识符与数值字面量换成占位符后的哈希，
+     * 只改变量名、常量或注释的候选指纹相同，可以按"同一算法"分组
+     */
+    public static long fingerprint(String sourceCode) {
+        String normalized = EvaluationCache.normalizeSource(sourceCode);
+        StringBuilder shape = new StringBuilder(normalized.length());
+        int i = 0;
+        while (i < normalized.length()) {
+            char c = normalized.charAt(i);
+            if (Character.isJavaIdentifierStart(c)) {
+                int end = i;
+                while (end < normalized.length() && Character.isJavaIdentifierPart(normalized.charAt(end))) {
+                    end++;
+                }
+                String word = normalized.substring(i, end);
+                shape.append(KEYWORDS.contains(word) ? word : "$").append(' ');
+                i = end;
+            } else if (Character.isDigit(c)) {
+                while (i < normalized.length() && (Character.isLetterOrDigit(normalized.charAt(i)) || normalized.charAt(i) == '.'
+                        || normalized.charAt(i) == '_')) {
+                    i++;
+                }
+                shape.append('0');
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return hash64(shape.toString());
+    }
+
+    // ===== 查询 =====
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Node node(int id) {
+        return new Node(id, parent[id], campaigns.get(campaign[id]), generation[id], VERDICTS[verdict[id]],
+            medianUs[id], ci95Us[id], bytesPerCall[id], fingerprint[id], timestamp[id]);
+    }
+
+    private List<Node> nodes(int[] list) {
+        List<Node> result = new ArrayList<>();
+        if (list != null) {
+            for (int i = 1; i <= list[0]; i++) {
+                result.add(node(list[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从该节点沿父边上溯到根，顺序为 根 -> 该节点
+     */
+    public synchronized List<Node> ancestors(int id) {
+        List<Node> chain = new ArrayList<>();
+        for (int current = id; current >= 0; current = parent[current]) {
+            chain.add(node(current));
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    public synchronized List<Node> children(int id) {
+        return nodes(children.get(id));
+    }
+
+    /**
+     * 战役中按中位数最快的 k 个成功候选
+     */
+    public synchronized List<Node> fastest(String campaignId, int k) {
+        Integer c = campaignIndex.get(campaignId);
+        List<Node> result = new ArrayList<>();
+        if (c == null) {
+            return result;
+        }
+        for (int id : scoreIndex()) {
+            if (campaign[id] == c) {
+                result.add(node(id));
+                if (result.size() == k) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 战役中最快个体的祖先链（根 -> 最快个体），没有成功候选时为空
+     */
+    public synchronized List<Node> fastestAncestorChain(String campaignId) {
+        List<Node> fastest = fastest(campaignId, 1);
+        return fastest.isEmpty() ? fastest : ancestors(fastest.get(0).id);
+    }
+
+    /**
+     * 比父代慢 ratio 倍以上的候选（如 1.2 表示慢 20% 以上），按列扫描
+     */
+    public synchronized List<Node> slowerThanParent(double ratio) {
+        List<Node> result = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            int p = parent[id];
+            if (p >= 0 && medianUs[id] > medianUs[p] * ratio) {  // 任一为 NaN 时比较为 false
+                result.add(node(id));
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<Node> generation(String campaignId, int gen) {
+        Integer c = campaignIndex.get(campaignId);
+        return c == null ? new ArrayList<>() : nodes(byGeneration.get(((long) c << 32) | (gen & 0xFFFF_FFFFL)));
+    }
+
+    public synchronized List<Node> withFingerprint(long fp) {
+        return nodes(byFingerprint.get(fp));
+    }
+
+    /**
+     * 按指纹分组计数：同一算法被 LLM 重复产生了多少次
+     */
+    public synchronized Map<Long, Integer> fingerprintCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Map.Entry<Long, int[]> entry : byFingerprint.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return counts;
+    }
+
+    public synchronized List<String> campaigns() {
+        return List.copyOf(campaigns);
+    }
+
+    /**
+     * 战役 id 或任务 id 解析为战役：任务 id 取该任务最近一次运行，找不到时原样返回
+     */
+    public synchronized String resolveCampaign(String id) {
+        if (campaignIndex.containsKey(id)) {
+            return id;
+        }
+        for (int i = campaigns.size() - 1; i >= 0; i--) {
+            if (campaigns.get(i).startsWith(id + "@")) {
+                return campaigns.get(i);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 成功节点按中位数升序；有新节点时重建
+     * 排序键为 (float 中位数位模式 << 32 | id)：非负 float 的位模式与数值同序，整体是一次原始类型 long[] 排序
+     */
+    private int[] scoreIndex() {
+        if (scoredSize != size) {
+            long[] keys = new long[size];
+            int count = 0;
+            for (int id = 0; id < size; id++) {
+                if (!Double.isNaN(medianUs[id])) {
+                    keys[count++] = (long) Float.floatToIntBits((float) Math.max(0, medianUs[id])) << 32 | id;
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            byScore = new int[count];
+            for (int i = 0; i < count; i++) {
+                byScore[i] = (int) keys[i];
+            }
+            scoredSize = size;
+        }
+        return byScore;
+    }
+
+    /**
+     * 规模与去重/压缩效果
+     */
+    public synchronized String report() {
+        long nodeBytes = Integer.BYTES + (long) size * RECORD_BYTES;
+        return String.format("谱系库：%d 个候选，%d 个战役，%d 份不同源码（原始 %s，存储 %s），共占用 %s",
+            size, campaigns.size(), blobByHash.size(), MemoryProfile.formatBytes(sourceBytes),
+            MemoryProfile.formatBytes(blobBytes), MemoryProfile.formatBytes(blobBytes + nodeBytes));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("谱系库文件意外结束");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        nodes.close();
+        blobs.close();
+    }
+}
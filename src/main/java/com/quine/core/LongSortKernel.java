@@ -0,0 +1,105 @@
+package com.quine.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * long[] 排序（{@link LongSortSolver}）：派生数据形如毫秒时间戳
+ */
+public final class LongSortKernel implements Kernel<long[]> {
+    public static final LongSortKernel INSTANCE = new LongSortKernel();
+
+    private static final long EPOCH_MS = 1_700_000_000_000L;
+
+    private LongSortKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return LongSortSolver.class;
+    }
+
+    @Override
+    public long[] fromInts(int[] data) {
+        long[] result = new long[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = EPOCH_MS + data[i] * 1_000L;
+        }
+        return result;
+    }
+
+    @Override
+    public List<long[]> edgeCases() {
+        return List.of(
+            new long[]{Long.MAX_VALUE, Long.MIN_VALUE},
+            new long[]{0, Long.MIN_VALUE, -1, Long.MAX_VALUE, 1, Long.MIN_VALUE},
+            // 只在高 32 位不同：截断为 int 比较的实现会出错
+            new long[]{1L << 40, 1L << 32, (1L << 32) + 1, 0, -(1L << 33)});
+    }
+
+    @Override
+    public List<long[]> randomCases(int size, Random random) {
+        long[] data = new long[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextLong();
+        }
+        return List.of(data);
+    }
+
+    @Override
+    public long[] copy(long[] input) {
+        return input.clone();
+    }
+
+    @Override
+    public int length(long[] input) {
+        return input.length;
+    }
+
+    @Override
+    public long bytes(long[] input) {
+        return 8L * input.length;
+    }
+
+    @Override
+    public long[] remove(long[] input, int start, int length) {
+        long[] result = new long[input.length - length];
+        System.arraycopy(input, 0, result, 0, start);
+        System.arraycopy(input, start + length, result, start, input.length - start - length);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, long[] input) {
+        return ((LongSortSolver) solver).solve(input);
+    }
+
+    @Override
+    public String check(long[] input, Object result) {
+        if (!(result instanceof long[])) {
+            return "返回 " + (result == null ? "null" : result.getClass().getSimpleName());
+        }
+        long[] output = (long[]) result;
+        if (output.length != input.length) {
+            return "长度 " + output.length + "，应为 " + input.length;
+        }
+        long expected = 0;
+        for (long value : input) {
+            expected += Kernel.mix(value);
+        }
+        long hash = 0;
+        for (int i = 0; i < output.length; i++) {
+            if (i > 0 && output[i - 1] > output[i]) {
+                return String.format("位置 %d 处无序（%d > %d）", i, output[i - 1], output[i]);
+            }
+            hash += Kernel.mix(output[i]);
+        }
+        return hash == expected ? null : "输出不是输入的排列（元素被改动、丢失或重复）";
+    }
+
+    @Override
+    public String format(long[] input) {
+        return Kernel.abbreviate(Arrays.toString(input), input.length, 20);
+    }
+}
@@ -0,0 +1,12 @@
+package com.quine.core;
+
+/**
+ * long[] 排序（如时间戳）
+ */
+public interface LongSortSolver {
+    /**
+     * @param input 乱序数组
+     * @return 升序数组
+     */
+    long[] solve(long[] input);
+}
@@ -0,0 +1,95 @@
+package com.quine.core;
+
+import java.lang.management.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存探测：在测速之后用同一个求解器额外跑几次，读取 JVM 的分配与 GC 计数器
+ *
+ * 与计时分开进行，避免计数器读取和堆峰值重置干扰测量样本。
+ * 分配量取自 com.sun.management.ThreadMXBean 的线程分配计数，只统计本线程、不受其他候选干扰；
+ * GC 次数与耗时是全 JVM 的，进程外并行测速时会混入其他候选的 GC，只能作参考。
+ */
+public class MemoryProbe {
+    private static final int WARMUP_CALLS = 3;
+    private static final int MEASURED_CALLS = 5;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    public MemoryProbe() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean extended = bean instanceof com.sun.management.ThreadMXBean
+            ? (com.sun.management.ThreadMXBean) bean : null;
+        if (extended != null && extended.isThreadAllocatedMemorySupported()) {
+            extended.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            extended = null;
+        }
+        this.threads = extended;
+    }
+
+    public MemoryProfile run(TaskSolver solver, int[] testData) throws InterruptedException {
+        return run(solver, IntSortKernel.INSTANCE, testData);
+    }
+
+    public <D> MemoryProfile run(Object solver, Kernel<D> kernel, D testData) throws InterruptedException {
+        Blackhole blackhole = new Blackhole();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            blackhole.consume(kernel.invoke(solver, kernel.copy(testData)));
+        }
+
+        // 输入副本提前准备好，不计入分配量
+        List<D> inputs = new ArrayList<>(MEASURED_CALLS);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            inputs.add(kernel.copy(testData));
+        }
+
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+            .toList();
+        long gcCountBefore = gcCount(collectors);
+        long gcTimeBefore = gcTime(collectors);
+        long usedBefore = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+            usedBefore += pool.getUsage().getUsed();
+        }
+        long allocatedBefore = threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+
+        for (D input : inputs) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("内存探测被中断");
+            }
+            blackhole.consume(kernel.invoke(solver, input));
+        }
+
+        long allocatedAfter = threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        blackhole.flush();
+
+        long bytesPerCall = threads == null ? -1 : (allocatedAfter - allocatedBefore) / MEASURED_CALLS;
+        return new MemoryProfile(bytesPerCall, kernel.bytes(testData),
+            gcCount(collectors) - gcCountBefore, gcTime(collectors) - gcTimeBefore, Math.max(0, peak - usedBefore));
+    }
+
+    private static long gcCount(List<GarbageCollectorMXBean> collectors) {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime(List<GarbageCollectorMXBean> collectors) {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
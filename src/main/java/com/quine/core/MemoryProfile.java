@@ -0,0 +1,46 @@
+package com.quine.core;
+
+/**
+ * 内存画像：单次 solve 的分配量、探测窗口内的 GC，以及堆的峰值增量
+ */
+public class MemoryProfile {
+    public final long bytesPerCall;     // 每次 solve 的线程分配字节数（不含输入副本），不支持时为 -1
+    public final long inputBytes;       // 输入数组本身的字节数，用于归一化
+    public final long gcCount;          // 探测窗口内的 GC 次数
+    public final long gcPauseMs;        // 探测窗口内的 GC 累计耗时
+    public final long peakExtraBytes;   // 探测窗口内堆峰值相对窗口开始时的增量（近似）
+
+    public MemoryProfile(long bytesPerCall, long inputBytes, long gcCount, long gcPauseMs, long peakExtraBytes) {
+        this.bytesPerCall = bytesPerCall;
+        this.inputBytes = inputBytes;
+        this.gcCount = gcCount;
+        this.gcPauseMs = gcPauseMs;
+        this.peakExtraBytes = peakExtraBytes;
+    }
+
+    /**
+     * 每次调用分配量相对输入大小的倍数：原地排序约为 0，归并排序的辅助数组约为 1
+     */
+    public double allocationRatio() {
+        return bytesPerCall < 0 || inputBytes == 0 ? 0 : (double) bytesPerCall / inputBytes;
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        } else if (bytes < 1024L * 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        }
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    @Override
+    public String toString() {
+        String allocation = bytesPerCall < 0 ? "分配量不可用"
+            : String.format("分配 %s/次（输入的 %.2f 倍）", formatBytes(bytesPerCall), allocationRatio());
+        return String.format("%s，GC %d 次 / %d ms，峰值额外内存 %s",
+            allocation, gcCount, gcPauseMs, formatBytes(peakExtraBytes));
+    }
+}
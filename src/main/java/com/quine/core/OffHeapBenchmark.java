@@ -0,0 +1,203 @@
+package com.quine.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 超出堆容量的大规模基准：数据放在本地磁盘的文件里，候选直接对内存映射的 MemorySegment 排序
+ *
+ * 1. 输入文件按数据量确定性生成一次（全值域均匀随机 int），留在磁盘上供后续代与后续运行复用
+ * 2. 每次测量前把输入复制到工作文件并映射为读写段，只对 solve 计时；结束后一遍扫描检查有序与多重集哈希
+ * 3. 数据量按 4 倍递增到上限；按 n log n 外推下一级单次耗时，超出预算就停，慢候选不会去跑几个 GB
+ */
+public class OffHeapBenchmark implements AutoCloseable {
+    private static final long MB = 1024 * 1024;
+    private static final long SEED = 0x5EED_0FF_4EA9L;
+    private static final String WORK_PREFIX = "work-";
+
+    private final Path directory;
+    private final long minBytes;
+    private final long maxBytes;
+    private final long perSolveBudgetNanos;
+    private final int runs;
+    private final Map<Long, Long> inputHashes = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory 输入与工作文件所在目录
+     * @param minMb 阶梯起点（MB）
+     * @param maxMb 阶梯上限（MB）
+     * @param perSolveBudgetMs 单次 solve 的耗时预算
+     * @param runs 每一级的测量次数
+     */
+    public OffHeapBenchmark(Path directory, long minMb, long maxMb, long perSolveBudgetMs, int runs) {
+        this.directory = directory;
+        this.minBytes = Math.max(1, minMb) * MB;
+        this.maxBytes = Math.max(minMb, maxMb) * MB;
+        this.perSolveBudgetNanos = perSolveBudgetMs * 1_000_000;
+        this.runs = Math.max(1, runs);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.offheap.dir（默认 target/offheap）/ quine.offheap.minMb（64）/
+     * quine.offheap.maxMb（4096）/ quine.offheap.budgetMs（20000）/ quine.offheap.runs（3）
+     */
+    public static OffHeapBenchmark fromSystemProperties() {
+        return new OffHeapBenchmark(Paths.get(System.getProperty("quine.offheap.dir", "target/offheap")),
+            Long.getLong("quine.offheap.minMb", 64), Long.getLong("quine.offheap.maxMb", 4096),
+            Long.getLong("quine.offheap.budgetMs", 20_000), Integer.getInteger("quine.offheap.runs", 3));
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 整个阶梯的超时：测量之外还有输入生成、工作文件复制与结果检查
+     */
+    public int timeoutSeconds() {
+        return (int) (perSolveBudgetNanos / 1_000_000_000 * runs * 2 + 120);
+    }
+
+    /**
+     * 逐级测量吞吐量
+     * @param solverFactory 每一级调用一次，返回新加载的求解器
+     * @throws IllegalStateException 候选在某一级上排序错误
+     */
+    public ThroughputProfile run(Callable<SegmentSortSolver> solverFactory) throws Exception {
+        List<Long> sizes = new ArrayList<>();
+        List<Double> medians = new ArrayList<>();
+        String stopReason = null;
+
+        for (long size : ladder()) {
+            if (!sizes.isEmpty()) {
+                long previous = sizes.get(sizes.size() - 1);
+                double predicted = medians.get(medians.size() - 1) * 1e9 * size / previous
+                    * Math.log(size) / Math.log(previous);
+                if (predicted > perSolveBudgetNanos) {
+                    stopReason = String.format("预计 %s 单次耗时 %.1f s，超出预算", MemoryProfile.formatBytes(size), predicted / 1e9);
+                    break;
+                }
+            }
+
+            Path input = ensureInput(size);
+            long expectedHash = inputHashes.get(size);
+            SegmentSortSolver solver = solverFactory.call();
+            double[] seconds = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                seconds[i] = timeOnce(solver, input, size, expectedHash) / 1e9;
+            }
+            Arrays.sort(seconds);
+            sizes.add(size);
+            medians.add(seconds[runs / 2]);
+
+            if (seconds[runs / 2] * 1e9 > perSolveBudgetNanos) {
+                stopReason = String.format("%s 单次耗时 %.1f s，超出预算", MemoryProfile.formatBytes(size), seconds[runs / 2]);
+                break;
+            }
+        }
+
+        long[] sizeArray = sizes.stream().mapToLong(Long::longValue).toArray();
+        double[] medianArray = medians.stream().mapToDouble(Double::doubleValue).toArray();
+        return new ThroughputProfile(sizeArray, medianArray, stopReason, maxBytes);
+    }
+
+    /**
+     * minBytes, 4 × minBytes, ...，最后一级总是 maxBytes 本身
+     */
+    private List<Long> ladder() {
+        List<Long> sizes = new ArrayList<>();
+        for (long size = minBytes; size < maxBytes; size *= 4) {
+            sizes.add(size);
+        }
+        sizes.add(maxBytes);
+        return sizes;
+    }
+
+    /**
+     * 复制输入到工作文件（不计时）-> solve（计时）-> 检查（不计时）
+     * 每次用新的工作文件：超时后仍在运行的候选还映射着旧文件，截断它会让那个线程收到 SIGBUS
+     */
+    private long timeOnce(SegmentSortSolver solver, Path input, long size, long expectedHash) throws Exception {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("堆外基准被中断");
+        }
+        Path work = Files.createTempFile(directory, WORK_PREFIX, ".bin");
+        try (Arena arena = Arena.ofConfined();
+             FileChannel source = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(work, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                 StandardOpenOption.DELETE_ON_CLOSE)) {
+            MemorySegment data = target.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            data.copyFrom(source.map(FileChannel.MapMode.READ_ONLY, 0, size, arena));
+
+            long start = System.nanoTime();
+            solver.solve(data);
+            long elapsed = System.nanoTime() - start;
+
+            String failure = SegmentSortKernel.checkSorted(data, expectedHash);
+            if (failure != null) {
+                throw new IllegalStateException(MemoryProfile.formatBytes(size) + " 数据上排序错误：" + failure);
+            }
+            return elapsed;
+        }
+    }
+
+    /**
+     * 取得该数据量的输入文件：不存在或大小不符时重新生成（先写临时文件再改名，中途退出不会留下半个输入）
+     */
+    private Path ensureInput(long size) throws IOException {
+        Files.createDirectories(directory);
+        Path input = directory.resolve("input-" + size / MB + "m.bin");
+        if (Files.exists(input) && Files.size(input) == size) {
+            if (!inputHashes.containsKey(size)) {
+                try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    inputHashes.put(size, SegmentSortKernel.multisetHash(channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena)));
+                }
+            }
+            return input;
+        }
+
+        System.out.println("  生成堆外基准输入 " + MemoryProfile.formatBytes(size) + " -> " + input);
+        Path temporary = directory.resolve(input.getFileName() + ".tmp");
+        long hash = 0;
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            long count = size / Integer.BYTES;
+            for (long i = 0; i < count; i++) {
+                int value = (int) Kernel.mix(SEED + i);
+                data.setAtIndex(ValueLayout.JAVA_INT, i, value);
+                hash += Kernel.mix(value);
+            }
+            data.force();
+        }
+        Files.move(temporary, input, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        inputHashes.put(size, hash);
+        return input;
+    }
+
+    /**
+     * 删除遗留的工作文件（被中断的测量来不及删除）；输入文件保留，下次运行直接复用
+     */
+    @Override
+    public void close() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, WORK_PREFIX + "*.bin")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
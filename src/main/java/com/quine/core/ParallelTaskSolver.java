@@ -0,0 +1,26 @@
+package com.quine.core;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 并行排序的基因组接口（与 {@link TaskSolver} 并列）
+ *
+ * 线程预算以 ForkJoinPool 的形式传入：并行度即可用线程数。
+ * 实现只能在该池中提交任务，不能使用公共池、并行流或自建线程，否则加速比测量没有意义。
+ */
+public interface ParallelTaskSolver {
+    /**
+     * 核心任务：利用给定线程池对数组进行排序
+     * @param input 乱序数组
+     * @param pool 本次调用的线程预算
+     * @return 有序数组
+     */
+    int[] solve(int[] input, ForkJoinPool pool);
+
+    /**
+     * 绑定到固定线程池，得到可复用现有基准与验证设施的单参数求解器
+     */
+    default TaskSolver bind(ForkJoinPool pool) {
+        return input -> solve(input, pool);
+    }
+}
@@ -0,0 +1,182 @@
+package com.quine.core;
+
+import com.quine.utils.CompilerSession;
+import com.quine.utils.CompilerUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 种群评估器：一代中的多个候选并行编译，再在单一基准通道上逐个测速
+ *
+ * 编译是纯 CPU 且互不干扰，按核数扩展；计时则必须避免互相抢核，
+ * 所以所有候选编译结束后才进入基准通道。本进程内测速时通道同一时刻只跑一个候选；
+ * 进程外测速时通道宽度等于工作进程数，各候选在各自的 JVM 中并行测速。
+ */
+public class PopulationEvaluator implements AutoCloseable {
+    private final Evaluator evaluator;
+    private final ExecutorService compilePool;
+    private final ExecutorService benchmarkLane;
+    private final BlockingQueue<CompilerSession> sessions;
+
+    // 吞吐统计
+    private long candidatesEvaluated;
+    private long busyNanos;
+
+    /**
+     * 一个候选及其评估结果
+     */
+    public static class Candidate {
+        public final int index;
+        public final String sourceCode;
+        public final Evaluator.EvalResult result;
+
+        public Candidate(int index, String sourceCode, Evaluator.EvalResult result) {
+            this.index = index;
+            this.sourceCode = sourceCode;
+            this.result = result;
+        }
+    }
+
+    /**
+     * @param evaluator 负责加载/验证/测速的单候选评估器
+     * @param compileWorkers 并行编译线程数（每个线程独占一个编译会话）
+     */
+    public PopulationEvaluator(Evaluator evaluator, int compileWorkers) throws IOException {
+        this.evaluator = evaluator;
+        this.sessions = new ArrayBlockingQueue<>(compileWorkers);
+        for (int i = 0; i < compileWorkers; i++) {
+            sessions.add(new CompilerSession());
+        }
+        this.compilePool = Executors.newFixedThreadPool(compileWorkers, daemon("quine-compile"));
+        this.benchmarkLane = Executors.newFixedThreadPool(evaluator.benchmarkParallelism(), daemon("quine-benchmark"));
+    }
+
+    /**
+     * 默认编译线程数：留一个核给基准通道
+     */
+    public static int defaultCompileWorkers() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * 评估一整代候选，结果顺序与输入一致
+     */
+    public List<Candidate> evaluateAll(List<String> sources, int[] testData) throws InterruptedException {
+        long start = System.nanoTime();
+
+        // 0. 源码级缓存：命中的重复候选既不编译也不测速
+        List<Evaluator.EvalResult> cached = new ArrayList<>();
+        for (String source : sources) {
+            cached.add(evaluator.lookupCached(source, testData));
+        }
+
+        // 1. 并行编译
+        List<Future<TimedUnit>> compiled = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            String source = sources.get(i);
+            compiled.add(cached.get(i) != null ? null : compilePool.submit(() -> compileWithPooledSession(source)));
+        }
+
+        // 2. 屏障：等全部编译完成，期间基准通道保持空闲
+        List<TimedUnit> units = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            Future<TimedUnit> future = compiled.get(i);
+            try {
+                units.add(future == null ? null : future.get());
+                errors.add(null);
+            } catch (ExecutionException e) {
+                units.add(null);
+                errors.add(e.getCause().getMessage());
+            }
+        }
+
+        // 3. 在基准通道上测速
+        List<Future<Evaluator.EvalResult>> benchmarks = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            TimedUnit unit = units.get(i);
+            if (cached.get(i) != null) {
+                benchmarks.add(CompletableFuture.completedFuture(cached.get(i)));
+            } else if (unit == null) {
+                Evaluator.EvalResult rejected = new Evaluator.EvalResult(false, 0, errors.get(i));
+                evaluator.remember(sources.get(i), testData, null, rejected, 0);
+                benchmarks.add(CompletableFuture.completedFuture(rejected));
+            } else {
+                benchmarks.add(benchmarkLane.submit(() -> evaluator.evaluateCompiled(unit.unit, testData)));
+            }
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            Evaluator.EvalResult result = await(benchmarks.get(i));
+            TimedUnit unit = units.get(i);
+            if (unit != null) {
+                evaluator.remember(sources.get(i), testData, unit.unit, result, unit.compileNanos);
+            }
+            candidates.add(new Candidate(i, sources.get(i), result));
+        }
+
+        synchronized (this) {
+            candidatesEvaluated += sources.size();
+            busyNanos += System.nanoTime() - start;
+        }
+        return candidates;
+    }
+
+    private static Evaluator.EvalResult await(Future<Evaluator.EvalResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new Evaluator.EvalResult(false, 0, "编译或运行错误: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 编译产物及编译耗时（用于缓存的节省时间统计）
+     */
+    private static class TimedUnit {
+        final CompilerUtils.CompiledUnit unit;
+        final long compileNanos;
+
+        TimedUnit(CompilerUtils.CompiledUnit unit, long compileNanos) {
+            this.unit = unit;
+            this.compileNanos = compileNanos;
+        }
+    }
+
+    private TimedUnit compileWithPooledSession(String source) throws Exception {
+        CompilerSession session = sessions.take();
+        try {
+            long start = System.nanoTime();
+            CompilerUtils.CompiledUnit unit = evaluator.compile(source, session);
+            return new TimedUnit(unit, System.nanoTime() - start);
+        } finally {
+            sessions.add(session);
+        }
+    }
+
+    /**
+     * 吞吐量：每分钟评估的候选数（按评估器实际忙碌时间计）
+     */
+    public synchronized double candidatesPerMinute() {
+        return busyNanos == 0 ? 0 : candidatesEvaluated * 60_000_000_000.0 / busyNanos;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        compilePool.shutdownNow();
+        benchmarkLane.shutdownNow();
+        for (CompilerSession session : sessions) {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.quine.core;
+
+import com.quine.utils.ClassFileReader;
+import com.quine.utils.CompilerUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 编译与完整测速之间的廉价预筛：把注定失败的候选挡在基准通道之外
+ *
+ * 超时的候选要白白占满 20 秒预算，挂住的线程也只是被中断而非真正终止。三项检查：
+ * 1. 字节码静态分析禁用调用：任务的禁用 API 按类名/成员名匹配解析后的字节码引用，
+ *    import 别名、全限定名、方法引用（invokedynamic 引导参数）、自动装箱都逃不掉；反射与方法句柄查找一律禁止
+ * 2. 循环嵌套深度：按回跳边求每个方法的循环嵌套层数，超过上限直接拒绝
+ * 3. 小规模计时探测：在两个小规模上计时，拟合指数（以循环嵌套深度为上限，宁可低估）外推到完整规模，
+ *    预计完整测速超出超时预算的直接拒绝
+ * 被拒绝的候选单独计数，并估算节省的测速时间。
+ */
+public class PreScreen {
+    private static final int PROBE_ROUNDS = 3;
+    private static final long PROBE_WARMUP_NANOS = 100_000_000L;
+    private static final int MIN_PROBE_TEST_SIZE = 256;
+
+    // 反射与方法句柄查找：绕过禁用检查的通用手段
+    private static final List<Ban> REFLECTION = List.of(
+        new Ban(Ban.Kind.MEMBER, "reflect", null, "java.lang.reflect"),
+        new Ban(Ban.Kind.MEMBER, "Class", "forName", "Class.forName"),
+        new Ban(Ban.Kind.MEMBER, "Class", "getMethod", "Class.getMethod"),
+        new Ban(Ban.Kind.MEMBER, "Class", "getMethods", "Class.getMethods"),
+        new Ban(Ban.Kind.MEMBER, "Class", "getDeclaredMethod", "Class.getDeclaredMethod"),
+        new Ban(Ban.Kind.MEMBER, "Class", "getDeclaredMethods", "Class.getDeclaredMethods"),
+        new Ban(Ban.Kind.MEMBER, "Lookup", null, "MethodHandles.Lookup"));
+
+    private final List<Ban> bans = new ArrayList<>();
+    private final int maxLoopDepth;
+
+    // 统计
+    private long screened;
+    private long bannedCalls;
+    private long tooDeep;
+    private long probeRejections;
+    private long screenNanos;
+    private long evaluations;      // 通过预筛、完整评估的候选
+    private long evaluationNanos;
+
+    /**
+     * 一条字节码级禁用规则，由任务的禁用 API 文本解析而来
+     */
+    static class Ban {
+        enum Kind { MEMBER, CLASS_OR_MEMBER, NEW, ARRAY }
+
+        final Kind kind;
+        final String owner;   // 类的简单名（或包名片段），null 表示任意类
+        final String member;  // 成员名，null 表示任意成员
+        final String text;    // 报告用的原文
+
+        Ban(Kind kind, String owner, String member, String text) {
+            this.kind = kind;
+            this.owner = owner;
+            this.member = member;
+            this.text = text;
+        }
+
+        /**
+         * "Arrays.sort" / ".sorted(" / "Executors." / "new Thread" / "Integer[]" / "HashMap"
+         */
+        static Ban parse(String api) {
+            String text = api.trim();
+            if (text.startsWith("new ")) {
+                return new Ban(Kind.NEW, text.substring(4).trim(), null, api);
+            }
+            if (text.endsWith("[]")) {
+                return new Ban(Kind.ARRAY, text.substring(0, text.length() - 2), null, api);
+            }
+            text = text.replace("(", "").replace(")", "");
+            int dot = text.lastIndexOf('.');
+            if (dot < 0) {
+                return new Ban(Kind.CLASS_OR_MEMBER, text, text, api);
+            }
+            String owner = text.substring(0, dot);
+            String member = text.substring(dot + 1);
+            return new Ban(Kind.MEMBER, owner.isEmpty() ? null : owner, member.isEmpty() ? null : member, api);
+        }
+    }
+
+    /**
+     * @param forbiddenApis 任务的禁用 API（源码级文本）
+     * @param maxLoopDepth 允许的最大循环嵌套层数
+     */
+    public PreScreen(List<String> forbiddenApis, int maxLoopDepth) {
+        for (String api : forbiddenApis) {
+            bans.add(Ban.parse(api));
+        }
+        bans.addAll(REFLECTION);
+        this.maxLoopDepth = maxLoopDepth;
+    }
+
+    public int getMaxLoopDepth() {
+        return maxLoopDepth;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.prescreen（默认开启）/ quine.prescreen.maxLoopDepth（默认 4）
+     * @return 关闭时返回 null
+     */
+    public static PreScreen fromSystemProperties(Task task) {
+        if (!Boolean.parseBoolean(System.getProperty("quine.prescreen", "true"))) {
+            return null;
+        }
+        return new PreScreen(task.forbiddenApis(), Integer.getInteger("quine.prescreen.maxLoopDepth", 4));
+    }
+
+    // ===== 1 & 2. 静态检查 =====
+
+    /**
+     * 字节码静态检查：禁用调用与循环嵌套深度
+     * @return 拒绝原因，通过时为 null
+     */
+    public String checkBytecode(CompilerUtils.CompiledUnit unit) {
+        long start = System.nanoTime();
+        String violation;
+        try {
+            violation = findBannedReference(unit);
+            if (violation != null) {
+                count(0);
+            } else {
+                int depth = loopDepth(unit);
+                if (depth > maxLoopDepth) {
+                    violation = "循环嵌套 " + depth + " 层，超过上限 " + maxLoopDepth;
+                    count(1);
+                }
+            }
+        } catch (IOException e) {
+            violation = null;  // 解析不了就交给后续阶段，不因预筛自身的局限误杀
+        }
+        synchronized (this) {
+            screened++;
+            screenNanos += System.nanoTime() - start;
+        }
+        return violation;
+    }
+
+    private synchronized void count(int reason) {
+        if (reason == 0) {
+            bannedCalls++;
+        } else if (reason == 1) {
+            tooDeep++;
+        } else {
+            probeRejections++;
+        }
+    }
+
+    /**
+     * 扫描全部类的成员引用、类引用、描述符与引导方法参数
+     */
+    private String findBannedReference(CompilerUtils.CompiledUnit unit) throws IOException {
+        for (byte[] bytes : unit.classBytes.values()) {
+            ClassFileReader.ClassInfo info = ClassFileReader.parse(bytes);
+            List<String> classes = new ArrayList<>();
+            List<String> texts = new ArrayList<>();  // 含描述符的文本，用于数组类型匹配
+            if (info.superName != null) {
+                classes.add(info.superName);
+            }
+            classes.addAll(info.interfaces);
+            texts.addAll(info.fields);
+
+            for (ClassFileReader.MethodInfo method : info.methods) {
+                texts.add(method.descriptor);
+                for (ClassFileReader.Instruction instruction : method.instructions) {
+                    String operand = instruction.operand;
+                    if (instruction.isInvoke() && instruction.opcode != ClassFileReader.INVOKEDYNAMIC
+                            || instruction.opcode >= 0xb2 && instruction.opcode <= 0xb5) {  // get/put field/static
+                        String hit = matchMember(operand, instruction.opcode == 0xb7 && operand.contains(".<init>:"));
+                        if (hit != null) {
+                            return "禁止使用 " + hit + "（字节码 " + operand + "）";
+                        }
+                        texts.add(operand);
+                    } else if (instruction.opcode == 0xbb || instruction.opcode == 0xbd
+                            || instruction.opcode == 0xc0 || instruction.opcode == 0xc1 || instruction.opcode == 0xc5) {
+                        // new / anewarray / checkcast / instanceof / multianewarray
+                        classes.add(operand);
+                        texts.add(operand);
+                        if (instruction.opcode == 0xbd) {
+                            texts.add("[L" + operand + ";");
+                        }
+                    } else if (instruction.opcode == ClassFileReader.INVOKEDYNAMIC) {
+                        texts.add(operand);
+                    } else if (!operand.isEmpty()) {
+                        texts.add(operand);
+                    }
+                }
+            }
+            // 方法引用 / lambda：引导方法参数里的方法句柄
+            for (List<String> arguments : info.bootstrapArguments) {
+                for (String argument : arguments) {
+                    if (argument.startsWith("handle(")) {
+                        String target = argument.substring(argument.indexOf(' ') + 1);
+                        String hit = matchMember(target, target.contains(".<init>:"));
+                        if (hit != null) {
+                            return "禁止使用 " + hit + "（方法引用 " + target + "）";
+                        }
+                    }
+                    texts.add(argument);
+                }
+            }
+
+            for (Ban ban : bans) {
+                for (String clazz : classes) {
+                    if ((ban.kind == Ban.Kind.CLASS_OR_MEMBER || ban.kind == Ban.Kind.NEW && clazz.equals(info.superName))
+                            && ownerMatches(ban.owner, clazz)) {
+                        return "禁止使用 " + ban.text + "（类 " + clazz + "）";
+                    }
+                }
+                if (ban.kind == Ban.Kind.ARRAY) {
+                    Pattern array = Pattern.compile("\\[+L(?:[\\w$]+/)*" + Pattern.quote(ban.owner) + ";");
+                    for (String text : texts) {
+                        if (array.matcher(text).find()) {
+                            return "禁止使用 " + ban.text + "（" + text + "）";
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 成员引用 "owner.name:descriptor" 是否命中某条规则
+     * @param constructor 是否为构造器调用（匹配 new X）
+     */
+    private String matchMember(String reference, boolean constructor) {
+        int colon = reference.indexOf(':');
+        int dot = reference.lastIndexOf('.', colon < 0 ? reference.length() : colon);
+        if (dot < 0) {
+            return null;
+        }
+        String owner = reference.substring(0, dot);
+        String member = reference.substring(dot + 1, colon < 0 ? reference.length() : colon);
+        for (Ban ban : bans) {
+            switch (ban.kind) {
+                case MEMBER:
+                    if ((ban.owner == null || ownerMatches(ban.owner, owner)) && (ban.member == null || ban.member.equals(member))) {
+                        return ban.text;
+                    }
+                    break;
+                case CLASS_OR_MEMBER:
+                    if (ban.member.equals(member) || ownerMatches(ban.owner, owner)) {
+                        return ban.text;
+                    }
+                    break;
+                case NEW:
+                    if (constructor && ownerMatches(ban.owner, owner)) {
+                        return ban.text;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 内部类名（java/util/Arrays、java/lang/invoke/MethodHandles$Lookup）的简单名或任一包名片段与规则相同
+     */
+    private static boolean ownerMatches(String banned, String internalName) {
+        for (String part : internalName.split("[/$]")) {
+            if (part.equals(banned)) {
+                return true;
+            }
+        }
+        // "Arena.global" 之类带点的规则：按限定名后缀匹配
+        return banned.contains(".") && internalName.replace('/', '.').replace('$', '.').endsWith(banned);
+    }
+
+    /**
+     * 全部方法中最深的循环嵌套层数：回跳边 [目标, 跳转指令] 即一个循环，同一循环头的多条回跳边合并
+     */
+    static int loopDepth(CompilerUtils.CompiledUnit unit) throws IOException {
+        int deepest = 0;
+        for (byte[] bytes : unit.classBytes.values()) {
+            for (ClassFileReader.MethodInfo method : ClassFileReader.parse(bytes).methods) {
+                TreeMap<Integer, Integer> loops = new TreeMap<>();  // 循环头 -> 最远的回跳位置
+                for (ClassFileReader.Instruction instruction : method.instructions) {
+                    for (int target : instruction.branchTargets) {
+                        if (target <= instruction.offset) {
+                            loops.merge(target, instruction.offset, Math::max);
+                        }
+                    }
+                }
+                Deque<Integer> enclosing = new ArrayDeque<>();  // 外层循环的结束位置
+                for (Map.Entry<Integer, Integer> loop : loops.entrySet()) {
+                    while (!enclosing.isEmpty() && enclosing.peek() < loop.getKey()) {
+                        enclosing.pop();
+                    }
+                    enclosing.push(loop.getValue());
+                    deepest = Math.max(deepest, enclosing.size());
+                }
+            }
+        }
+        return deepest;
+    }
+
+    // ===== 3. 小规模计时探测 =====
+
+    /**
+     * 小规模计时探测
+     * @param testSize 完整测速规模
+     * @param solves 完整测速中的 solve 次数
+     * @param budgetSeconds 完整测速的超时预算
+     * @return 拒绝原因，通过（或规模太小不探测）时为 null
+     */
+    public <D> String probe(Object solver, Kernel<D> kernel, CompilerUtils.CompiledUnit unit,
+                            int testSize, int solves, int budgetSeconds) throws Exception {
+        if (testSize < MIN_PROBE_TEST_SIZE) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            int large = Math.max(64, testSize / 16);
+            int small = Math.max(16, large / 4);
+            D smallData = kernel.fromInts(StandardWorkload.UNIFORM.generate(small));
+            D largeData = kernel.fromInts(StandardWorkload.UNIFORM.generate(large));
+
+            // 预热：让探测尽量不在解释执行下计时
+            long warmupEnd = System.nanoTime() + PROBE_WARMUP_NANOS;
+            for (int i = 0; i < 1_000 && System.nanoTime() < warmupEnd; i++) {
+                kernel.invoke(solver, kernel.copy(smallData));
+            }
+            // 两个规模交替计时、各取最快：JIT 在中途完成编译时不会只让其中一个规模受益
+            double smallUs = Double.MAX_VALUE;
+            double largeUs = Double.MAX_VALUE;
+            for (int round = 0; round < PROBE_ROUNDS; round++) {
+                smallUs = Math.min(smallUs, time(solver, kernel, smallData));
+                largeUs = Math.min(largeUs, time(solver, kernel, largeData));
+            }
+
+            // 指数以循环嵌套深度为上限（递归至少按 n log n 的 1 次方），噪声只会让预测偏低、不会误杀
+            int depth;
+            try {
+                depth = loopDepth(unit);
+            } catch (IOException e) {
+                depth = 2;
+            }
+            double measured = Math.log(Math.max(largeUs, 1e-3) / Math.max(smallUs, 1e-3)) / Math.log((double) large / small);
+            double exponent = Math.max(1, Math.min(measured, Math.max(1, depth)));
+            double predictedUs = largeUs * Math.pow((double) testSize / large, exponent);
+            double totalSeconds = predictedUs * solves / 1e6;
+            if (totalSeconds > budgetSeconds) {
+                count(2);
+                return String.format("小规模探测外推：n=%d 单次约 %.0f ms（n=%d %.0f μs，n=%d %.0f μs，指数 %.2f），"
+                        + "完整测速约需 %.0f s，超出 %d s 预算",
+                    testSize, predictedUs / 1000, small, smallUs, large, largeUs, exponent, totalSeconds, budgetSeconds);
+            }
+            return null;
+        } finally {
+            synchronized (this) {
+                screenNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static <D> double time(Object solver, Kernel<D> kernel, D data) {
+        D copy = kernel.copy(data);
+        long start = System.nanoTime();
+        kernel.invoke(solver, copy);
+        return (System.nanoTime() - start) / 1e3;
+    }
+
+    /**
+     * 在别处完成的探测拒绝：本进程内探测超时（死循环或极慢），或隔离模式下工作进程中的探测
+     */
+    public void probeRejected() {
+        count(2);
+    }
+
+    /**
+     * 记录一次通过预筛的完整评估耗时，用于估算被拒候选节省的时间
+     */
+    public synchronized void recordEvaluation(long nanos) {
+        evaluations++;
+        evaluationNanos += nanos;
+    }
+
+    /**
+     * 预筛报告：拒绝数按原因分列，节省时间按"静态拒绝 × 平均完整评估耗时 + 探测拒绝 × 超时预算"估算
+     */
+    public synchronized String report(int timeoutSeconds) {
+        long rejected = bannedCalls + tooDeep + probeRejections;
+        double averageSeconds = evaluations == 0 ? 0 : evaluationNanos / 1e9 / evaluations;
+        double savedSeconds = (bannedCalls + tooDeep) * averageSeconds + probeRejections * (double) timeoutSeconds;
+        return String.format("预筛：%d 个候选，拒绝 %d 个（禁用调用 %d / 循环嵌套 %d / 小规模探测 %d），预筛耗时 %.2f s，约节省 %.0f s 测速",
+            screened, rejected, bannedCalls, tooDeep, probeRejections, screenNanos / 1e9, savedSeconds);
+    }
+}
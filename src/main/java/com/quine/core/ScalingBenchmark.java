@@ -0,0 +1,144 @@
+package com.quine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntFunction;
+
+/**
+ * 多规模基准：在几何递增的规模阶梯上测速，拟合经验复杂度
+ *
+ * 单一规模（10K）会让常数小的 O(n²) 赢过 O(n log n)，也看不到只在千万级才出现的退化。
+ * 每一级用轻量配置测速（1 fork、短预热、少量测量）；当按已测数据外推，
+ * 下一级单次耗时将超出预算时提前终止，明显超时的候选不会真的去跑大规模。
+ */
+public class ScalingBenchmark {
+    private final int[] ladder;
+    private final long perSolveBudgetUs;
+    private final BenchmarkEngine engine;
+
+    /**
+     * @param ladder 规模阶梯（递增）
+     * @param perSolveBudgetMs 单次 solve 的耗时预算
+     */
+    public ScalingBenchmark(int[] ladder, long perSolveBudgetMs) {
+        this.ladder = ladder.clone();
+        this.perSolveBudgetUs = perSolveBudgetMs * 1_000;
+        this.engine = new BenchmarkEngine(1, 200, 3);
+    }
+
+    /**
+     * 从系统属性读取配置：quine.scaling.min / quine.scaling.max / quine.scaling.budgetMs
+     * 阶梯按 1-3-10 几何递增，默认 1K 到 10M
+     */
+    public static ScalingBenchmark fromSystemProperties() {
+        int min = Integer.getInteger("quine.scaling.min", 1_000);
+        int max = Integer.getInteger("quine.scaling.max", 10_000_000);
+        return new ScalingBenchmark(geometricLadder(min, max), Long.getLong("quine.scaling.budgetMs", 2_000));
+    }
+
+    /**
+     * 1, 3, 10, 30, ... 形式的规模阶梯
+     */
+    public static int[] geometricLadder(int min, int max) {
+        List<Integer> sizes = new ArrayList<>();
+        long decade = 1;
+        while (decade * 10 <= min) {
+            decade *= 10;
+        }
+        outer:
+        while (true) {
+            for (int step : new int[]{1, 3}) {
+                long size = decade * step;
+                if (size > max) {
+                    break outer;
+                }
+                if (size >= min) {
+                    sizes.add((int) size);
+                }
+            }
+            decade *= 10;
+        }
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 逐级测速
+     * @param solverFactory 每一级调用一次，返回新加载的求解器
+     * @param dataGenerator 按规模生成测试数据
+     */
+    public ScalingProfile run(Callable<TaskSolver> solverFactory, IntFunction<int[]> dataGenerator) throws Exception {
+        return run(solverFactory, IntSortKernel.INSTANCE, dataGenerator);
+    }
+
+    /**
+     * 逐级测速（任意原始类型特化）
+     */
+    public <D> ScalingProfile run(Callable<?> solverFactory, Kernel<D> kernel, IntFunction<D> dataGenerator) throws Exception {
+        return run(solverFactory, kernel, dataGenerator, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 逐级测速，规模不超过 maxSize（隔离执行下为工作进程试运行跑通的最大规模）
+     */
+    public <D> ScalingProfile run(Callable<?> solverFactory, Kernel<D> kernel, IntFunction<D> dataGenerator,
+                                  int maxSize) throws Exception {
+        List<Integer> sizes = new ArrayList<>();
+        List<Double> medians = new ArrayList<>();
+        String stopReason = null;
+
+        for (int size : ladder) {
+            if (size > maxSize) {
+                stopReason = String.format("隔离试运行只跑通到 n=%d", maxSize);
+                break;
+            }
+            stopReason = stopBefore(sizes, medians, size, perSolveBudgetUs);
+            if (stopReason != null) {
+                break;
+            }
+
+            BenchmarkStats stats = engine.run(solverFactory, kernel, dataGenerator.apply(size));
+            sizes.add(size);
+            medians.add(stats.medianUs);
+
+            stopReason = stopAfter(size, stats.medianUs, perSolveBudgetUs);
+            if (stopReason != null) {
+                break;
+            }
+        }
+        return toProfile(sizes, medians, stopReason);
+    }
+
+    /**
+     * 至少有两级数据后，用当前拟合外推下一级，预计超预算时返回停止原因，否则为 null
+     */
+    static String stopBefore(List<Integer> sizes, List<Double> medians, int size, long budgetUs) {
+        if (sizes.size() < 2) {
+            return null;
+        }
+        double predictedUs = toProfile(sizes, medians, null).predictUs(size);
+        return predictedUs > budgetUs
+            ? String.format("预计 n=%d 单次耗时 %.0f ms，超出预算", size, predictedUs / 1000) : null;
+    }
+
+    /**
+     * 这一级实测已超预算时返回停止原因，否则为 null
+     */
+    static String stopAfter(int size, double medianUs, long budgetUs) {
+        return medianUs > budgetUs ? String.format("n=%d 单次耗时 %.0f ms，超出预算", size, medianUs / 1000) : null;
+    }
+
+    int[] ladder() {
+        return ladder.clone();
+    }
+
+    long perSolveBudgetUs() {
+        return perSolveBudgetUs;
+    }
+
+    private static ScalingProfile toProfile(List<Integer> sizes, List<Double> medians, String stopReason) {
+        int[] sizeArray = sizes.stream().mapToInt(Integer::intValue).toArray();
+        double[] medianArray = medians.stream().mapToDouble(Double::doubleValue).toArray();
+        return new ScalingProfile(sizeArray, medianArray, stopReason);
+    }
+}
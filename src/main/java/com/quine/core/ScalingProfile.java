@@ -0,0 +1,132 @@
+package com.quine.core;
+
+import java.util.Arrays;
+
+/**
+ * 多规模基准的结果：各规模的中位耗时，以及拟合出的经验复杂度
+ */
+public class ScalingProfile {
+
+    /**
+     * 候选的复杂度模型 t = c · f(n)
+     */
+    public enum Complexity {
+        LINEAR("O(n)"),
+        LINEARITHMIC("O(n log n)"),
+        QUADRATIC("O(n²)"),
+        CUBIC("O(n³)");
+
+        public final String label;
+
+        Complexity(String label) {
+            this.label = label;
+        }
+
+        public double apply(double n) {
+            switch (this) {
+                case LINEAR: return n;
+                case LINEARITHMIC: return n * Math.log(n);
+                case QUADRATIC: return n * n;
+                default: return n * n * n;
+            }
+        }
+    }
+
+    public final int[] sizes;           // 实际完成测量的规模
+    public final double[] medianUs;     // 对应规模的中位耗时
+    public final double exponent;       // log-log 最小二乘斜率：t ∝ n^exponent
+    public final Complexity complexity; // 残差最小的复杂度模型
+    public final double coefficient;    // 该模型下的常数 c（μs）
+    public final String stopReason;     // 提前终止的原因，完整跑完时为 null
+
+    public ScalingProfile(int[] sizes, double[] medianUs, String stopReason) {
+        this.sizes = sizes.clone();
+        this.medianUs = medianUs.clone();
+        this.stopReason = stopReason;
+        this.exponent = fitExponent(sizes, medianUs);
+        if (sizes.length < 2) {  // 即 !isFitted()，构造期间不调用可覆盖的方法
+            // 阶梯在第一级之后即被截断：单点的对数残差对每个模型都为 0，拟合必然选中 O(n)，
+            // 最慢的候选反而得到最乐观的预测；改按最坏情况 O(n³) 从唯一的测量点外推，没有测量点时代价无穷大
+            this.complexity = Complexity.CUBIC;
+            this.coefficient = sizes.length == 0 ? Double.POSITIVE_INFINITY
+                : Math.max(medianUs[0], 1e-3) / Complexity.CUBIC.apply(sizes[0]);
+            return;
+        }
+
+        Complexity best = Complexity.LINEARITHMIC;
+        double bestResidual = Double.MAX_VALUE;
+        double bestCoefficient = 0;
+        for (Complexity candidate : Complexity.values()) {
+            // 在对数空间拟合 log t = log c + log f(n)：log c 取均值，残差取方差
+            double[] logRatios = new double[sizes.length];
+            for (int i = 0; i < sizes.length; i++) {
+                logRatios[i] = Math.log(Math.max(medianUs[i], 1e-3) / candidate.apply(sizes[i]));
+            }
+            double residual = Statistics.variance(logRatios);
+            if (residual < bestResidual) {
+                bestResidual = residual;
+                best = candidate;
+                bestCoefficient = Math.exp(Statistics.mean(logRatios));
+            }
+        }
+        this.complexity = best;
+        this.coefficient = bestCoefficient;
+    }
+
+    /**
+     * 按拟合模型预测规模 n 下的耗时（μs）
+     */
+    public double predictUs(long n) {
+        return coefficient * complexity.apply(n);
+    }
+
+    /**
+     * 至少两个规模点时才拟合复杂度，否则按最坏情况估计
+     */
+    public boolean isFitted() {
+        return sizes.length >= 2;
+    }
+
+    public boolean isTruncated() {
+        return stopReason != null;
+    }
+
+    /**
+     * log t 对 log n 的最小二乘斜率
+     */
+    static double fitExponent(int[] sizes, double[] timesUs) {
+        int n = sizes.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.log(sizes[i]);
+            y[i] = Math.log(Math.max(timesUs[i], 1e-3));
+        }
+        double meanX = Statistics.mean(x);
+        double meanY = Statistics.mean(y);
+        double covariance = 0;
+        double varianceX = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            varianceX += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return varianceX == 0 ? Double.NaN : covariance / varianceX;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (isFitted()) {
+            sb.append(String.format("经验复杂度 %s（指数 %.2f），规模 %s", complexity.label, exponent, Arrays.toString(sizes)));
+        } else {
+            sb.append(String.format("规模点不足，按最坏情况 %s 估计，规模 %s", complexity.label, Arrays.toString(sizes)));
+        }
+        if (stopReason != null) {
+            sb.append("，提前终止: ").append(stopReason);
+        }
+        return sb.toString();
+    }
+}
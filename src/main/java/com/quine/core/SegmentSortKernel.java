@@ -0,0 +1,124 @@
+package com.quine.core;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 堆外 int 排序（{@link SegmentSortSolver}）：小规模用例放在自动释放的本地内存中，大规模数据见 {@link OffHeapBenchmark}
+ */
+public final class SegmentSortKernel implements Kernel<MemorySegment> {
+    public static final SegmentSortKernel INSTANCE = new SegmentSortKernel();
+
+    private SegmentSortKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return SegmentSortSolver.class;
+    }
+
+    @Override
+    public MemorySegment fromInts(int[] data) {
+        MemorySegment segment = allocate(data.length);
+        MemorySegment.copy(data, 0, segment, ValueLayout.JAVA_INT, 0, data.length);
+        return segment;
+    }
+
+    @Override
+    public List<MemorySegment> edgeCases() {
+        return List.of();
+    }
+
+    @Override
+    public List<MemorySegment> randomCases(int size, Random random) {
+        return List.of();
+    }
+
+    @Override
+    public MemorySegment copy(MemorySegment input) {
+        return allocate(length(input)).copyFrom(input);
+    }
+
+    @Override
+    public int length(MemorySegment input) {
+        return (int) (input.byteSize() / Integer.BYTES);
+    }
+
+    @Override
+    public long bytes(MemorySegment input) {
+        return input.byteSize();
+    }
+
+    @Override
+    public MemorySegment remove(MemorySegment input, int start, int length) {
+        MemorySegment result = allocate(length(input) - length);
+        long head = (long) start * Integer.BYTES;
+        long tail = (long) (start + length) * Integer.BYTES;
+        MemorySegment.copy(input, 0, result, 0, head);
+        MemorySegment.copy(input, tail, result, head, input.byteSize() - tail);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, MemorySegment input) {
+        ((SegmentSortSolver) solver).solve(input);
+        return input;
+    }
+
+    @Override
+    public String check(MemorySegment input, Object result) {
+        MemorySegment output = (MemorySegment) result;
+        if (output.byteSize() != input.byteSize()) {
+            return "长度 " + length(output) + "，应为 " + length(input);
+        }
+        return checkSorted(output, multisetHash(input));
+    }
+
+    @Override
+    public String format(MemorySegment input) {
+        int[] values = input.toArray(ValueLayout.JAVA_INT);
+        return Kernel.abbreviate(Arrays.toString(values), values.length, 20);
+    }
+
+    /**
+     * 与顺序无关的多重集哈希，顺序扫描一遍
+     */
+    public static long multisetHash(MemorySegment data) {
+        long count = data.byteSize() / Integer.BYTES;
+        long hash = 0;
+        for (long i = 0; i < count; i++) {
+            hash += Kernel.mix(data.getAtIndex(ValueLayout.JAVA_INT, i));
+        }
+        return hash;
+    }
+
+    /**
+     * 一遍扫描同时检查非递减与多重集哈希
+     * @return 为 null 表示通过，否则返回失败原因
+     */
+    public static String checkSorted(MemorySegment data, long expectedHash) {
+        long count = data.byteSize() / Integer.BYTES;
+        long hash = 0;
+        int previous = Integer.MIN_VALUE;
+        for (long i = 0; i < count; i++) {
+            int value = data.getAtIndex(ValueLayout.JAVA_INT, i);
+            if (value < previous) {
+                return String.format("位置 %d 处无序（%d > %d）", i, previous, value);
+            }
+            previous = value;
+            hash += Kernel.mix(value);
+        }
+        return hash == expectedHash ? null : "输出不是输入的排列（元素被改动、丢失或重复）";
+    }
+
+    /**
+     * 用例与测速副本都不大，交给 GC 随段对象一起回收
+     */
+    private static MemorySegment allocate(int length) {
+        return Arena.ofAuto().allocate((long) length * Integer.BYTES, Integer.BYTES);
+    }
+}
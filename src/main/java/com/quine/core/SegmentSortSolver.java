@@ -0,0 +1,15 @@
+package com.quine.core;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * 堆外 / 内存映射数据排序：把 MemorySegment 中的 int（本机字节序，ValueLayout.JAVA_INT）原地升序排列
+ * 数据可能远大于堆，元素个数也可能超出 int 范围，下标一律用 long；
+ * 需要辅助空间时用 Arena.ofConfined() 自行分配，并在返回前关闭
+ */
+public interface SegmentSortSolver {
+    /**
+     * @param data 待排序数据，长度为 4 的倍数
+     */
+    void solve(MemorySegment data);
+}
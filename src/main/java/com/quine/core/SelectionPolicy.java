@@ -0,0 +1,129 @@
+package com.quine.core;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 时间与内存的多目标选择
+ *
+ * TIME：只看耗时（原有行为）
+ * WEIGHTED：代价 = 耗时 × (1 + 权重 × 分配倍数)，分配倍数为每次调用分配量 / 输入大小
+ * PARETO：先按 (耗时, 分配量) 做非支配排序，同一前沿内再按加权代价排序
+ */
+public class SelectionPolicy {
+
+    public enum Mode {
+        TIME, WEIGHTED, PARETO
+    }
+
+    public final Mode mode;
+    public final double memoryWeight;
+    public final long productionSize;
+
+    public SelectionPolicy(Mode mode, double memoryWeight, long productionSize) {
+        this.mode = mode;
+        this.memoryWeight = memoryWeight;
+        this.productionSize = productionSize;
+    }
+
+    /**
+     * 从系统属性读取配置：quine.selection（time / weighted / pareto，默认 time）、quine.memoryWeight（默认 0.2）
+     */
+    public static SelectionPolicy fromSystemProperties(long productionSize) {
+        Mode mode = Mode.valueOf(System.getProperty("quine.selection", "time").toUpperCase(Locale.ROOT));
+        double weight = Double.parseDouble(System.getProperty("quine.memoryWeight", "0.2"));
+        return new SelectionPolicy(mode, weight, productionSize);
+    }
+
+    /**
+     * 排序用的标量代价
+     */
+    public double cost(Evaluator.EvalResult result) {
+        double time = result.rankingCostUs(productionSize);
+        if (mode == Mode.TIME || result.memory == null) {
+            return time;
+        }
+        return time * (1 + memoryWeight * result.memory.allocationRatio());
+    }
+
+    /**
+     * a 支配 b：耗时与分配量都不差，且至少一项更好
+     */
+    public boolean dominates(Evaluator.EvalResult a, Evaluator.EvalResult b) {
+        double timeA = a.rankingCostUs(productionSize);
+        double timeB = b.rankingCostUs(productionSize);
+        double memoryA = allocated(a);
+        double memoryB = allocated(b);
+        return timeA <= timeB && memoryA <= memoryB && (timeA < timeB || memoryA < memoryB);
+    }
+
+    private static double allocated(Evaluator.EvalResult result) {
+        return result.memory == null ? 0 : Math.max(0, result.memory.bytesPerCall);
+    }
+
+    /**
+     * 单候选模式下耗时已判定不慢（Welch 检验）之后，内存维度是否也可接受
+     */
+    public boolean memoryAcceptable(Evaluator.EvalResult candidate, Evaluator.EvalResult champion) {
+        switch (mode) {
+            case WEIGHTED: return cost(candidate) <= cost(champion);
+            case PARETO: return !dominates(champion, candidate);
+            default: return true;
+        }
+    }
+
+    /**
+     * 耗时差异不显著时，候选是否凭内存优势取代冠军（TIME 模式下从不）
+     */
+    public boolean winsOnMemory(Evaluator.EvalResult candidate, Evaluator.EvalResult champion) {
+        if (mode == Mode.TIME || candidate.memory == null || champion.memory == null) {
+            return false;
+        }
+        return mode == Mode.WEIGHTED ? cost(candidate) < cost(champion) : dominates(candidate, champion);
+    }
+
+    /**
+     * 从候选池中选出 k 个幸存者
+     */
+    public <T> List<T> selectSurvivors(List<T> pool, Function<T, Evaluator.EvalResult> resultOf, int k) {
+        List<T> ranked = new ArrayList<>(pool);
+        Comparator<T> byCost = Comparator.comparingDouble(item -> cost(resultOf.apply(item)));
+        if (mode != Mode.PARETO) {
+            ranked.sort(byCost);
+        } else {
+            // 非支配排序：逐层剥离 Pareto 前沿
+            Map<T, Integer> rank = new IdentityHashMap<>();
+            List<T> remaining = new ArrayList<>(pool);
+            for (int front = 0; !remaining.isEmpty(); front++) {
+                List<T> current = new ArrayList<>();
+                for (T item : remaining) {
+                    boolean dominated = false;
+                    for (T other : remaining) {
+                        if (other != item && dominates(resultOf.apply(other), resultOf.apply(item))) {
+                            dominated = true;
+                            break;
+                        }
+                    }
+                    if (!dominated) {
+                        current.add(item);
+                    }
+                }
+                for (T item : current) {
+                    rank.put(item, front);
+                }
+                remaining.removeAll(current);
+            }
+            ranked.sort(Comparator.<T>comparingInt(rank::get).thenComparing(byCost));
+        }
+        return new ArrayList<>(ranked.subList(0, Math.min(k, ranked.size())));
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case WEIGHTED: return String.format("加权（内存权重 %.2f）", memoryWeight);
+            case PARETO: return "Pareto（耗时 × 分配量）";
+            default: return "仅耗时";
+        }
+    }
+}
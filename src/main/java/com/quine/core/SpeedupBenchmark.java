@@ -0,0 +1,61 @@
+package com.quine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 多线程基准：同一候选在 1, 2, 4, ..., N 个线程的池上分别测速，得到加速比曲线
+ * 每一级用独立的 ForkJoinPool，测完即关闭，各级之间不共享工作线程
+ */
+public class SpeedupBenchmark {
+    private final int[] threadLadder;
+    private final BenchmarkEngine engine;
+
+    public SpeedupBenchmark(int maxThreads) {
+        this.threadLadder = threadLadder(maxThreads);
+        this.engine = new BenchmarkEngine(1, 200, 3);
+    }
+
+    /**
+     * 从系统属性读取：quine.parallel.maxThreads（默认为可用核数）
+     */
+    public static SpeedupBenchmark fromSystemProperties() {
+        return new SpeedupBenchmark(maxThreads());
+    }
+
+    public static int maxThreads() {
+        return Integer.getInteger("quine.parallel.maxThreads", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 1, 2, 4, ... 直到 maxThreads（最后一级总是 maxThreads 本身）
+     */
+    static int[] threadLadder(int maxThreads) {
+        List<Integer> ladder = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            ladder.add(threads);
+        }
+        ladder.add(Math.max(1, maxThreads));
+        return ladder.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int[] threadLadder() {
+        return threadLadder.clone();
+    }
+
+    public SpeedupProfile run(Callable<ParallelTaskSolver> solverFactory, int[] testData) throws Exception {
+        double[] medians = new double[threadLadder.length];
+        for (int i = 0; i < threadLadder.length; i++) {
+            ForkJoinPool pool = new ForkJoinPool(threadLadder[i]);
+            try {
+                medians[i] = engine.run(() -> solverFactory.call().bind(pool), testData).medianUs;
+            } finally {
+                // 不用 close()：它会等待失控的任务结束
+                pool.shutdownNow();
+            }
+        }
+        return new SpeedupProfile(threadLadder, medians);
+    }
+}
@@ -0,0 +1,48 @@
+package com.quine.core;
+
+/**
+ * 并行加速比：各线程数下的中位耗时，相对单线程的加速比与并行效率
+ */
+public class SpeedupProfile {
+    public final int[] threads;        // 测量的线程数（递增，第一个为 1）
+    public final double[] medianUs;    // 对应线程数的中位耗时
+
+    public SpeedupProfile(int[] threads, double[] medianUs) {
+        this.threads = threads.clone();
+        this.medianUs = medianUs.clone();
+    }
+
+    /**
+     * 第 i 级相对单线程的加速比 T1 / Tp
+     */
+    public double speedup(int i) {
+        return medianUs[0] / medianUs[i];
+    }
+
+    /**
+     * 第 i 级的并行效率：加速比 / 线程数
+     */
+    public double efficiency(int i) {
+        return speedup(i) / threads[i];
+    }
+
+    /**
+     * 最大线程数下的加速比
+     */
+    public double maxSpeedup() {
+        return speedup(threads.length - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("加速比");
+        for (int i = 0; i < threads.length; i++) {
+            sb.append(i == 0 ? " " : " | ");
+            sb.append(String.format("%d 线程 %.1f μs", threads[i], medianUs[i]));
+            if (i > 0) {
+                sb.append(String.format(" (%.2fx, 效率 %.0f%%)", speedup(i), efficiency(i) * 100));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.quine.core;
+
+import java.util.*;
+
+/**
+ * 内置的数据分布
+ *
+ * 均匀随机数据掩盖了大量最坏情况：Lomuto 分区在大量重复值上退化，
+ * 三数取中在 organ-pipe / median-of-3 killer 序列上退化为 O(n²)。
+ */
+public enum StandardWorkload implements Workload {
+    /** 均匀随机，值域 [0, 100000)，与最初的测试数据一致 */
+    UNIFORM {
+        @Override
+        public int[] generate(int size) {
+            Random random = new Random(SEED);
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt(100000);
+            }
+            return data;
+        }
+    },
+    SORTED {
+        @Override
+        public int[] generate(int size) {
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = i;
+            }
+            return data;
+        }
+    },
+    REVERSED {
+        @Override
+        public int[] generate(int size) {
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = size - i;
+            }
+            return data;
+        }
+    },
+    /** 有序数组中随机交换 1% 的位置 */
+    NEARLY_SORTED {
+        @Override
+        public int[] generate(int size) {
+            int[] data = SORTED.generate(size);
+            Random random = new Random(SEED);
+            for (int i = 0; i < size / 100; i++) {
+                swap(data, random.nextInt(size), random.nextInt(size));
+            }
+            return data;
+        }
+    },
+    /** 只有 8 个不同的值：大量重复 */
+    FEW_UNIQUE {
+        @Override
+        public int[] generate(int size) {
+            Random random = new Random(SEED);
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt(8);
+            }
+            return data;
+        }
+    },
+    /** Zipf 分布（s = 1）：少数值出现极频繁，长尾值很少出现 */
+    ZIPFIAN {
+        @Override
+        public int[] generate(int size) {
+            int ranks = Math.max(1, Math.min(size, 10000));
+            double[] cdf = new double[ranks];
+            double total = 0;
+            for (int k = 1; k <= ranks; k++) {
+                total += 1.0 / k;
+                cdf[k - 1] = total;
+            }
+            Random random = new Random(SEED);
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                double u = random.nextDouble() * total;
+                int index = Arrays.binarySearch(cdf, u);
+                data[i] = index >= 0 ? index : -index - 1;
+            }
+            return data;
+        }
+    },
+    /** 锯齿：约 √n 段各自升序的片段 */
+    SAWTOOTH {
+        @Override
+        public int[] generate(int size) {
+            int period = Math.max(2, (int) Math.sqrt(size));
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = i % period;
+            }
+            return data;
+        }
+    },
+    /** 整个 int 值域，并确保包含 Integer.MIN_VALUE / MAX_VALUE / 0 / -1（检验 a - b 式比较的溢出） */
+    FULL_RANGE {
+        @Override
+        public int[] generate(int size) {
+            Random random = new Random(SEED);
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = random.nextInt();
+            }
+            int[] extremes = {Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, Integer.MIN_VALUE};
+            for (int i = 0; i < extremes.length && i < size; i++) {
+                data[random.nextInt(size)] = extremes[i];
+            }
+            return data;
+        }
+    },
+    /** Musser 的 median-of-3 killer 序列：让首/中/尾三数取中的快速排序退化到 O(n²) */
+    MEDIAN_OF_3_KILLER {
+        @Override
+        public int[] generate(int size) {
+            int even = size - (size & 1);
+            int k = even / 2;
+            int[] data = new int[size];
+            for (int i = 1; i <= k; i++) {
+                if ((i & 1) == 1) {
+                    data[i - 1] = i;
+                    data[i] = k + i;
+                }
+                data[k + i - 1] = 2 * i;
+            }
+            if (size != even) {
+                data[size - 1] = size;
+            }
+            return data;
+        }
+    };
+
+    private static final long SEED = 42;
+
+    private static void swap(int[] data, int i, int j) {
+        int temp = data[i];
+        data[i] = data[j];
+        data[j] = temp;
+    }
+
+    /**
+     * 解析逗号分隔的分布名（不区分大小写）；"all" 表示全部，"none" 或空表示不启用
+     */
+    public static List<Workload> parse(String spec) {
+        if (spec == null || spec.isBlank() || spec.equalsIgnoreCase("none")) {
+            return List.of();
+        }
+        if (spec.equalsIgnoreCase("all")) {
+            return List.of(values());
+        }
+        List<Workload> workloads = new ArrayList<>();
+        for (String name : spec.split(",")) {
+            workloads.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return workloads;
+    }
+}
@@ -0,0 +1,170 @@
+package com.quine.core;
+
+import java.util.Arrays;
+
+/**
+ * 基准统计所需的数值工具：分位数、方差、Student t 分布与 Welch t 检验
+ */
+public final class Statistics {
+
+    private Statistics() {
+    }
+
+    public static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) {
+            sum += v;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+
+    /**
+     * 样本方差（n - 1 作分母）
+     */
+    public static double variance(double[] values) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double v : values) {
+            sum += (v - mean) * (v - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    /**
+     * 线性插值分位数
+     * @param sorted 已排序的样本
+     * @param p 0~1
+     */
+    public static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        double rank = p * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        double weight = rank - lower;
+        return sorted[lower] * (1 - weight) + sorted[upper] * weight;
+    }
+
+    public static double[] sortedCopy(double[] values) {
+        double[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * 变异系数（标准差 / 均值），用于判断预热是否进入稳态
+     */
+    public static double coefficientOfVariation(double[] values) {
+        double mean = mean(values);
+        return mean == 0 ? 0 : Math.sqrt(variance(values)) / mean;
+    }
+
+    /**
+     * Welch t 检验（不假设方差相等）的双侧 p 值
+     */
+    public static double welchTTest(double meanA, double varA, int nA, double meanB, double varB, int nB) {
+        double seA = varA / nA;
+        double seB = varB / nB;
+        double se = seA + seB;
+        if (se == 0) {
+            return meanA == meanB ? 1.0 : 0.0;
+        }
+        double t = (meanA - meanB) / Math.sqrt(se);
+        // Welch–Satterthwaite 自由度
+        double df = se * se / (seA * seA / (nA - 1) + seB * seB / (nB - 1));
+        return 2 * (1 - studentTCdf(Math.abs(t), df));
+    }
+
+    /**
+     * Student t 分布的分位点（二分法求逆 CDF）
+     */
+    public static double tQuantile(double p, double df) {
+        double low = 0;
+        double high = 1000;
+        for (int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            if (studentTCdf(mid, df) < p) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Student t 分布的 CDF，借助正则化不完全 Beta 函数计算
+     */
+    public static double studentTCdf(double t, double df) {
+        double x = df / (df + t * t);
+        double tail = 0.5 * regularizedIncompleteBeta(x, df / 2, 0.5);
+        return t >= 0 ? 1 - tail : tail;
+    }
+
+    static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+            + a * Math.log(x) + b * Math.log(1 - x));
+        // 连分式在 x < (a+1)/(a+b+2) 时收敛快，否则利用对称性
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+        double h = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            h *= d * c;
+
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-12) {
+                break;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Lanczos 近似的 ln Γ(x)
+     */
+    static double logGamma(double x) {
+        double[] coefficients = {
+            76.18009172947146, -86.50532032941677, 24.01409824083091,
+            -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5
+        };
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
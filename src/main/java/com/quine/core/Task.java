@@ -0,0 +1,70 @@
+package com.quine.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 可进化任务（SPI）：一个优化战役所需的全部配置
+ *
+ * 求解器接口由 {@link Kernel#solverType()} 给出，输入生成与结果判定（oracle）也在 kernel 里；
+ * 这里补上目标类与源文件、初始实现、禁用 API、提示词与测速规模。
+ * 内置的排序赛道见 {@link Track}；其他任务实现本接口并在 META-INF/services/com.quine.core.Task 中登记，
+ * 由 {@link TaskRegistry} 通过 ServiceLoader 发现。
+ */
+public interface Task {
+
+    /**
+     * 任务标识，即 quine.task 的取值（小写、下划线分隔）
+     */
+    String id();
+
+    /**
+     * 数据派生、调用与判定
+     */
+    Kernel<?> kernel();
+
+    /**
+     * 被进化的类的全限定名
+     */
+    String targetClass();
+
+    /**
+     * 被进化的源文件（相对项目根目录）
+     */
+    String targetFile();
+
+    /**
+     * 源码中出现即拒绝的片段（标准库的现成实现、违反约束的 API）
+     */
+    List<String> forbiddenApis();
+
+    /**
+     * 提示词模板：拼在"当前代码："之前的任务说明与约束
+     */
+    String brief();
+
+    /**
+     * 主基准的默认输入规模（quine.testSize 未指定时使用）
+     */
+    int testSize();
+
+    /**
+     * 初始实现的源码，ResetToOrigin 用它重置目标文件
+     * 默认从类路径 seeds/<类名>.java 读取
+     */
+    default String seedSource() {
+        String simpleName = targetClass().substring(targetClass().lastIndexOf('.') + 1);
+        String resource = "/seeds/" + simpleName + ".java";
+        try (InputStream in = getClass().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到任务 " + id() + " 的初始代码: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
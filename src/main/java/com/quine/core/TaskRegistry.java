@@ -0,0 +1,48 @@
+package com.quine.core;
+
+import java.util.*;
+
+/**
+ * 任务注册表：内置的 {@link Track} 加上通过 ServiceLoader 登记的 {@link Task}
+ */
+public final class TaskRegistry {
+
+    private TaskRegistry() {
+    }
+
+    /**
+     * 全部任务，内置赛道在前；标识重复时先登记的生效
+     */
+    public static List<Task> all() {
+        Map<String, Task> tasks = new LinkedHashMap<>();
+        for (Track track : Track.values()) {
+            tasks.put(track.id(), track);
+        }
+        for (Task task : ServiceLoader.load(Task.class)) {
+            tasks.putIfAbsent(task.id(), task);
+        }
+        return List.copyOf(tasks.values());
+    }
+
+    /**
+     * 按标识查找（不区分大小写）
+     * @throws IllegalArgumentException 没有该任务
+     */
+    public static Task byId(String id) {
+        String normalized = id.toLowerCase(Locale.ROOT);
+        for (Task task : all()) {
+            if (task.id().equals(normalized)) {
+                return task;
+            }
+        }
+        List<String> known = all().stream().map(Task::id).toList();
+        throw new IllegalArgumentException("未知任务: " + id + "，可选 " + known);
+    }
+
+    /**
+     * 从系统属性读取：quine.task（兼容旧的 quine.track，默认 sequential）
+     */
+    public static Task fromSystemProperties() {
+        return byId(System.getProperty("quine.task", System.getProperty("quine.track", "sequential")));
+    }
+}
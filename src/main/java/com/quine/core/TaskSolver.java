@@ -1,5 +1,8 @@
 package com.quine.core;
 
+/**
+ * int[] 排序任务（sequential 赛道）的求解器接口；其他任务各有自己的接口，见 {@link Task}
+ */
 public interface TaskSolver {
     /**
      * 核心任务：对数组进行排序
@@ -0,0 +1,58 @@
+package com.quine.core;
+
+/**
+ * 大规模堆外数据的吞吐量：各数据量下单次排序的中位耗时，折算为 MB/s
+ */
+public class ThroughputProfile {
+    private static final double MB = 1024.0 * 1024;
+
+    public final long[] bytes;              // 测量的数据量（递增）
+    public final double[] medianSeconds;    // 对应数据量的中位耗时
+    public final String stopReason;         // 提前停止的原因，跑满阶梯时为 null
+    public final long targetBytes;          // 阶梯上限，提前停止的候选按 n log n 外推到这里再比较
+
+    public ThroughputProfile(long[] bytes, double[] medianSeconds, String stopReason, long targetBytes) {
+        this.bytes = bytes.clone();
+        this.medianSeconds = medianSeconds.clone();
+        this.stopReason = stopReason;
+        this.targetBytes = targetBytes;
+    }
+
+    public double mbPerSecond(int i) {
+        return bytes[i] / MB / medianSeconds[i];
+    }
+
+    /**
+     * 测到的最大数据量下的吞吐量，一级都没测时为 0
+     */
+    public double largestMbPerSecond() {
+        return bytes.length == 0 ? 0 : mbPerSecond(bytes.length - 1);
+    }
+
+    /**
+     * 阶梯上限处的单次耗时：测到了取实测值，否则从最大一级按 n log n 外推
+     */
+    public double predictSecondsAtTarget() {
+        int last = bytes.length - 1;
+        if (last < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (bytes[last] >= targetBytes) {
+            return medianSeconds[last];
+        }
+        return medianSeconds[last] * targetBytes / bytes[last] * Math.log(targetBytes) / Math.log(bytes[last]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("堆外吞吐量");
+        for (int i = 0; i < bytes.length; i++) {
+            sb.append(i == 0 ? " " : " | ");
+            sb.append(String.format("%s %.1f MB/s (%.2f s)", MemoryProfile.formatBytes(bytes[i]), mbPerSecond(i), medianSeconds[i]));
+        }
+        if (stopReason != null) {
+            sb.append("（").append(stopReason).append("）");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,189 @@
+package com.quine.core;
+
+import com.quine.utils.LLMClient;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 内置的排序赛道：决定目标类、源文件、禁用 API 与提示词
+ * 初始代码放在 resources/seeds 下
+ */
+public enum Track implements Task {
+    /** 单线程排序（{@link TaskSolver}） */
+    SEQUENTIAL("com.quine.sandbox.TargetSubject",
+        "src/main/java/com/quine/sandbox/TargetSubject.java",
+        List.of("Arrays.sort", "Collections.sort", "Arrays.parallelSort", ".sorted("),
+        LLMClient.DEFAULT_BRIEF, IntSortKernel.INSTANCE),
+
+    /** 多线程排序（{@link ParallelTaskSolver}）：允许 java.util.concurrent，线程只能来自传入的池 */
+    PARALLEL("com.quine.sandbox.ParallelTargetSubject",
+        "src/main/java/com/quine/sandbox/ParallelTargetSubject.java",
+        List.of("Arrays.sort", "Collections.sort", "Arrays.parallelSort", ".sorted(",
+            "commonPool", ".parallel()", "parallelStream", "new Thread", "Executors."),
+        """
+            你是一个并行算法优化专家。请对以下多线程排序代码进行改进，目标是在多核机器上获得尽可能高的加速比。
+
+            改进策略（按优先级）：
+            1. 调整任务划分粒度（串行阈值、分段数），减少任务调度开销
+            2. 改进串行部分（小规模段的排序算法、归并过程）
+            3. 尝试不同的并行结构（并行归并、并行分区、样本排序、并行基数排序）
+            4. 减少线程间的数据拷贝与伪共享
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 ParallelTaskSolver 接口：int[] solve(int[] input, ForkJoinPool pool)
+            2. 类名必须保持为 ParallelTargetSubject
+            3. 包名必须是 com.quine.sandbox
+            4. 可以使用 java.util.concurrent 中的 RecursiveAction、RecursiveTask、CountedCompleter、原子类等
+            5. 所有并行任务必须提交到传入的 pool；禁止使用 ForkJoinPool.commonPool()、并行流、new Thread、Executors
+            6. 【重要】绝对禁止使用 Arrays.sort、Arrays.parallelSort、Collections.sort、Stream.sorted 等标准库排序方法
+            7. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """, IntSortKernel.INSTANCE),
+
+    /** long[] 排序（{@link LongSortSolver}），如时间戳 */
+    LONG_SORT("com.quine.sandbox.LongTargetSubject",
+        "src/main/java/com/quine/sandbox/LongTargetSubject.java",
+        primitiveBans(),
+        primitiveBrief("long[] 排序", "LongSortSolver 接口：long[] solve(long[] input)", "LongTargetSubject",
+            "数据为 64 位整数（形如毫秒时间戳，也包含 Long.MIN_VALUE / Long.MAX_VALUE），不能截断为 int 比较"),
+        LongSortKernel.INSTANCE),
+
+    /** double[] 排序（{@link DoubleSortSolver}），如打分 */
+    DOUBLE_SORT("com.quine.sandbox.DoubleTargetSubject",
+        "src/main/java/com/quine/sandbox/DoubleTargetSubject.java",
+        primitiveBans(),
+        primitiveBrief("double[] 排序", "DoubleSortSolver 接口：double[] solve(double[] input)", "DoubleTargetSubject",
+            "顺序必须与 Double.compare 一致：-0.0 排在 0.0 之前，NaN 排在最后，且 -0.0 不能被改写为 0.0"),
+        DoubleSortKernel.INSTANCE),
+
+    /** 键/载荷并行数组排序（{@link KeyIndexSortSolver}），如按键重排行号 */
+    KEY_INDEX_SORT("com.quine.sandbox.KeyIndexTargetSubject",
+        "src/main/java/com/quine/sandbox/KeyIndexTargetSubject.java",
+        primitiveBans(),
+        primitiveBrief("键/载荷并行数组排序", "KeyIndexSortSolver 接口：void solve(long[] keys, int[] payload)，原地重排",
+            "KeyIndexTargetSubject", "payload 必须随 keys 一起移动，每个 (键, 载荷) 对都要保持；相同键的载荷顺序不限"),
+        KeyIndexSortKernel.INSTANCE),
+
+    /** 堆外 / 内存映射数据排序（{@link SegmentSortSolver}），数据量可超过堆 */
+    OFF_HEAP("com.quine.sandbox.OffHeapTargetSubject",
+        "src/main/java/com/quine/sandbox/OffHeapTargetSubject.java",
+        List.of("Arrays.sort", "Collections.sort", "Arrays.parallelSort", ".sorted(", ".boxed()",
+            "Arena.global", "Arena.ofAuto", "Arena.ofShared", "toArray(", "new Thread", "Executors."),
+        """
+            你是一个外存与堆外内存算法专家。请对以下排序代码进行改进，目标是在数 GB、远超 Java 堆的数据上获得尽可能高的吞吐量（MB/s）。
+
+            改进策略（按优先级）：
+            1. 尝试更适合大数据量的算法（如 LSD/MSD 基数排序、分块排序后多路归并）
+            2. 改进访问模式：顺序读写优先，减少随机访问与跨页跳转
+            3. 合理使用辅助空间：按需用 Arena.ofConfined() 分配有限大小的缓冲区，而不是整份拷贝
+            4. 减少逐元素的边界检查开销（如批量读写、按块处理）
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 SegmentSortSolver 接口：void solve(MemorySegment data)，对其中的 int（ValueLayout.JAVA_INT）原地升序排序
+            2. 类名必须保持为 OffHeapTargetSubject
+            3. 包名必须是 com.quine.sandbox
+            4. 数据可能有数 GB：禁止把数据整体读入 Java 数组（toArray 等），下标一律用 long
+            5. 辅助内存只能来自 try-with-resources 中的 Arena.ofConfined()，返回前必须关闭；禁止 Arena.global / ofAuto / ofShared 与自建线程
+            6. 【重要】绝对禁止使用 Arrays.sort、Arrays.parallelSort、Collections.sort、Stream.sorted 等标准库排序方法
+            7. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """, SegmentSortKernel.INSTANCE);
+
+    private final String targetClass;
+    private final String targetFile;
+    private final List<String> forbiddenApis;
+    private final String brief;
+    // 数据派生、调用与判定
+    private final Kernel<?> kernel;
+
+    Track(String targetClass, String targetFile, List<String> forbiddenApis, String brief, Kernel<?> kernel) {
+        this.targetClass = targetClass;
+        this.targetFile = targetFile;
+        this.forbiddenApis = forbiddenApis;
+        this.brief = brief;
+        this.kernel = kernel;
+    }
+
+    /**
+     * 原始类型特化赛道的禁用 API：标准库排序，以及一切装箱路径
+     */
+    private static List<String> primitiveBans() {
+        return List.of("Arrays.sort", "Collections.sort", "Arrays.parallelSort", ".sorted(", ".boxed()",
+            "Integer[]", "Long[]", "Double[]", "Integer.valueOf", "Long.valueOf", "Double.valueOf");
+    }
+
+    private static String primitiveBrief(String task, String contract, String className, String dataNote) {
+        return """
+            你是一个算法优化专家。请对以下%s代码进行性能改进。
+
+            改进策略（按优先级）：
+            1. 尝试更优的算法（如快速排序、归并排序、基数排序等）
+            2. 改进数据访问模式，全程使用原始类型数组
+            3. 减少不必要的数组拷贝与临时分配
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 %s
+            2. 类名必须保持为 %s
+            3. 包名必须是 com.quine.sandbox
+            4. %s
+            5. 禁止装箱：不得使用 Integer[] / Long[] / Double[]、集合、Stream.boxed() 或 valueOf
+            6. 【重要】绝对禁止使用 Arrays.sort、Arrays.parallelSort、Collections.sort、Stream.sorted 等标准库排序方法
+            7. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """.formatted(task, contract, className, dataNote);
+    }
+
+    @Override
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public Kernel<?> kernel() {
+        return kernel;
+    }
+
+    @Override
+    public String targetClass() {
+        return targetClass;
+    }
+
+    @Override
+    public String targetFile() {
+        return targetFile;
+    }
+
+    @Override
+    public List<String> forbiddenApis() {
+        return forbiddenApis;
+    }
+
+    @Override
+    public String brief() {
+        return brief;
+    }
+
+    /**
+     * 单线程赛道用小数据集，让初始的低效实现能跑完；多线程与堆外赛道需要足够大的数据才能体现差异
+     */
+    @Override
+    public int testSize() {
+        return this == PARALLEL || this == OFF_HEAP ? 1 << 18 : 10_000;
+    }
+}
@@ -0,0 +1,31 @@
+package com.quine.core;
+
+import java.util.function.IntFunction;
+
+/**
+ * 测试数据分布：按规模生成一组输入
+ * 内置分布见 {@link StandardWorkload}，也可以用 {@link #of} 接入自定义分布
+ */
+public interface Workload {
+
+    String name();
+
+    /**
+     * 生成指定规模的数据（相同规模必须得到相同数据，保证可复现）
+     */
+    int[] generate(int size);
+
+    static Workload of(String name, IntFunction<int[]> generator) {
+        return new Workload() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int[] generate(int size) {
+                return generator.apply(size);
+            }
+        };
+    }
+}
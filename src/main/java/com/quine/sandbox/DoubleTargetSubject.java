@@ -0,0 +1,21 @@
+package com.quine.sandbox;
+
+import com.quine.core.DoubleSortSolver;
+
+public class DoubleTargetSubject implements DoubleSortSolver {
+    @Override
+    public double[] solve(double[] input) {
+        // 插入排序 - 故意低效的实现，按 Double.compare 的全序比较
+        double[] arr = input.clone();
+        for (int i = 1; i < arr.length; i++) {
+            double key = arr[i];
+            int j = i - 1;
+            while (j >= 0 && Double.compare(arr[j], key) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+        }
+        return arr;
+    }
+}
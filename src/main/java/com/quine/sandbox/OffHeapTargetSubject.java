@@ -0,0 +1,40 @@
+package com.quine.sandbox;
+
+import com.quine.core.SegmentSortSolver;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+public class OffHeapTargetSubject implements SegmentSortSolver {
+    @Override
+    public void solve(MemorySegment data) {
+        // 堆排序 - 原地、不需要辅助空间，但访问模式对缓存和页缓存都不友好
+        long n = data.byteSize() / Integer.BYTES;
+        for (long i = n / 2 - 1; i >= 0; i--) {
+            siftDown(data, i, n);
+        }
+        for (long end = n - 1; end > 0; end--) {
+            int top = data.getAtIndex(ValueLayout.JAVA_INT, 0);
+            data.setAtIndex(ValueLayout.JAVA_INT, 0, data.getAtIndex(ValueLayout.JAVA_INT, end));
+            data.setAtIndex(ValueLayout.JAVA_INT, end, top);
+            siftDown(data, 0, end);
+        }
+    }
+
+    private static void siftDown(MemorySegment data, long root, long n) {
+        int value = data.getAtIndex(ValueLayout.JAVA_INT, root);
+        while (2 * root + 1 < n) {
+            long child = 2 * root + 1;
+            if (child + 1 < n && data.getAtIndex(ValueLayout.JAVA_INT, child + 1) > data.getAtIndex(ValueLayout.JAVA_INT, child)) {
+                child++;
+            }
+            int childValue = data.getAtIndex(ValueLayout.JAVA_INT, child);
+            if (value >= childValue) {
+                break;
+            }
+            data.setAtIndex(ValueLayout.JAVA_INT, root, childValue);
+            root = child;
+        }
+        data.setAtIndex(ValueLayout.JAVA_INT, root, value);
+    }
+}
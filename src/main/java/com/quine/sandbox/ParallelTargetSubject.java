@@ -0,0 +1,64 @@
+package com.quine.sandbox;
+
+import com.quine.core.ParallelTaskSolver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelTargetSubject implements ParallelTaskSolver {
+    private static final int THRESHOLD = 8192;
+
+    @Override
+    public int[] solve(int[] input, ForkJoinPool pool) {
+        // 朴素的并行归并排序：两路 fork，段内插入排序
+        int[] arr = input.clone();
+        int[] buffer = new int[arr.length];
+        pool.invoke(new SortTask(arr, buffer, 0, arr.length));
+        return arr;
+    }
+
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        SortTask(int[] arr, int[] buffer, int from, int to) {
+            this.arr = arr;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int key = arr[i];
+                    int j = i - 1;
+                    while (j >= from && arr[j] > key) {
+                        arr[j + 1] = arr[j];
+                        j--;
+                    }
+                    arr[j + 1] = key;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(arr, buffer, from, mid), new SortTask(arr, buffer, mid, to));
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) {
+                buffer[k++] = arr[i] <= arr[j] ? arr[i++] : arr[j++];
+            }
+            while (i < mid) {
+                buffer[k++] = arr[i++];
+            }
+            while (j < to) {
+                buffer[k++] = arr[j++];
+            }
+            System.arraycopy(buffer, from, arr, from, to - from);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.quine.sandbox;
+
+import com.quine.task.PrefixSumSolver;
+
+public class PrefixSumTargetSubject implements PrefixSumSolver {
+    @Override
+    public long[] solve(int[] input) {
+        // 每个位置都从头重新累加 - 故意低效的实现
+        long[] output = new long[input.length];
+        for (int i = 0; i < input.length; i++) {
+            long sum = 0;
+            for (int j = 0; j <= i; j++) {
+                sum += input[j];
+            }
+            output[i] = sum;
+        }
+        return output;
+    }
+}
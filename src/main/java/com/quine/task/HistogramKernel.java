@@ -0,0 +1,100 @@
+package com.quine.task;
+
+import com.quine.core.Kernel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 字节直方图（{@link HistogramSolver}）：oracle 顺序计数一遍逐桶比对
+ */
+public final class HistogramKernel implements Kernel<int[]> {
+    public static final HistogramKernel INSTANCE = new HistogramKernel();
+
+    private HistogramKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return HistogramSolver.class;
+    }
+
+    @Override
+    public int[] fromInts(int[] data) {
+        return data;
+    }
+
+    @Override
+    public List<int[]> edgeCases() {
+        // 负数：value % 256 得到负下标，value >> 24 之类的取错字节
+        return List.of(
+            new int[]{-1, 255, 256, Integer.MIN_VALUE},
+            new int[]{0x7F, 0x80, -0x80, -0x81},
+            new int[]{0x1234_5600, 0x0000_0100, 0x00FF_0000});
+    }
+
+    @Override
+    public List<int[]> randomCases(int size, Random random) {
+        // 全部落在同一个桶：检查计数不会因重复而丢失
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextInt() & ~0xFF | 0x5A;
+        }
+        return List.of(data);
+    }
+
+    @Override
+    public int[] copy(int[] input) {
+        return input.clone();
+    }
+
+    @Override
+    public int length(int[] input) {
+        return input.length;
+    }
+
+    @Override
+    public long bytes(int[] input) {
+        return 4L * input.length;
+    }
+
+    @Override
+    public int[] remove(int[] input, int start, int length) {
+        int[] result = new int[input.length - length];
+        System.arraycopy(input, 0, result, 0, start);
+        System.arraycopy(input, start + length, result, start, input.length - start - length);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, int[] input) {
+        return ((HistogramSolver) solver).solve(input);
+    }
+
+    @Override
+    public String check(int[] input, Object result) {
+        if (!(result instanceof int[])) {
+            return "返回 " + (result == null ? "null" : result.getClass().getSimpleName());
+        }
+        int[] output = (int[]) result;
+        if (output.length != HistogramSolver.BUCKETS) {
+            return "长度 " + output.length + "，应为 " + HistogramSolver.BUCKETS;
+        }
+        int[] expected = new int[HistogramSolver.BUCKETS];
+        for (int value : input) {
+            expected[value & 0xFF]++;
+        }
+        for (int b = 0; b < expected.length; b++) {
+            if (output[b] != expected[b]) {
+                return String.format("桶 %d 计数为 %d，应为 %d", b, output[b], expected[b]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String format(int[] input) {
+        return Kernel.abbreviate(Arrays.toString(input), input.length, 20);
+    }
+}
@@ -0,0 +1,14 @@
+package com.quine.task;
+
+/**
+ * 字节直方图：统计每个元素最低 8 位（value & 0xFF）的出现次数，即基数排序一趟的计数
+ */
+public interface HistogramSolver {
+    int BUCKETS = 256;
+
+    /**
+     * @param input 任意 int 数组（可能被修改，调用方不再使用）
+     * @return 长度为 {@link #BUCKETS} 的计数，counts[b] 为 (value & 0xFF) == b 的元素个数
+     */
+    int[] solve(int[] input);
+}
@@ -0,0 +1,69 @@
+package com.quine.task;
+
+import com.quine.core.Kernel;
+import com.quine.core.Task;
+
+import java.util.List;
+
+/**
+ * 字节直方图任务：计数类热点（基数排序的计数趟、分桶统计）
+ */
+public class HistogramTask implements Task {
+
+    @Override
+    public String id() {
+        return "histogram";
+    }
+
+    @Override
+    public Kernel<?> kernel() {
+        return HistogramKernel.INSTANCE;
+    }
+
+    @Override
+    public String targetClass() {
+        return "com.quine.sandbox.HistogramTargetSubject";
+    }
+
+    @Override
+    public String targetFile() {
+        return "src/main/java/com/quine/sandbox/HistogramTargetSubject.java";
+    }
+
+    @Override
+    public List<String> forbiddenApis() {
+        return List.of("Collectors.", "groupingBy", "HashMap", "TreeMap", "IntStream", "parallelStream",
+            "commonPool", "new Thread", "Executors.");
+    }
+
+    @Override
+    public String brief() {
+        return """
+            你是一个算法优化专家。请对以下直方图统计代码进行性能改进。
+
+            改进策略（按优先级）：
+            1. 去掉重复扫描，一遍遍历完成计数
+            2. 减少计数数组上的写冲突与依赖链（如多组计数器交替累加后合并）
+            3. 改进循环结构（循环展开、减少边界检查）
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 HistogramSolver 接口：int[] solve(int[] input)，返回长度 256 的数组，counts[b] 为 (value & 0xFF) == b 的元素个数
+            2. 类名必须保持为 HistogramTargetSubject
+            3. 包名必须是 com.quine.sandbox
+            4. 输入包含负数，桶下标必须用 value & 0xFF 计算
+            5. 【重要】禁止使用集合、Stream、Collectors 以及任何线程
+            6. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """;
+    }
+
+    @Override
+    public int testSize() {
+        return 1 << 16;
+    }
+}
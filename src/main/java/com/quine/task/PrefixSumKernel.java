@@ -0,0 +1,97 @@
+package com.quine.task;
+
+import com.quine.core.Kernel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 前缀和（{@link PrefixSumSolver}）：oracle 顺序累加一遍逐项比对
+ */
+public final class PrefixSumKernel implements Kernel<int[]> {
+    public static final PrefixSumKernel INSTANCE = new PrefixSumKernel();
+
+    private PrefixSumKernel() {
+    }
+
+    @Override
+    public Class<?> solverType() {
+        return PrefixSumSolver.class;
+    }
+
+    @Override
+    public int[] fromInts(int[] data) {
+        return data;
+    }
+
+    @Override
+    public List<int[]> edgeCases() {
+        // 用 int 累加的实现在这里溢出
+        return List.of(
+            new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE},
+            new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE},
+            new int[]{-1, 1, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE});
+    }
+
+    @Override
+    public List<int[]> randomCases(int size, Random random) {
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = Integer.MAX_VALUE - random.nextInt(1 << 20);
+        }
+        return List.of(data);
+    }
+
+    @Override
+    public int[] copy(int[] input) {
+        return input.clone();
+    }
+
+    @Override
+    public int length(int[] input) {
+        return input.length;
+    }
+
+    @Override
+    public long bytes(int[] input) {
+        return 4L * input.length;
+    }
+
+    @Override
+    public int[] remove(int[] input, int start, int length) {
+        int[] result = new int[input.length - length];
+        System.arraycopy(input, 0, result, 0, start);
+        System.arraycopy(input, start + length, result, start, input.length - start - length);
+        return result;
+    }
+
+    @Override
+    public Object invoke(Object solver, int[] input) {
+        return ((PrefixSumSolver) solver).solve(input);
+    }
+
+    @Override
+    public String check(int[] input, Object result) {
+        if (!(result instanceof long[])) {
+            return "返回 " + (result == null ? "null" : result.getClass().getSimpleName());
+        }
+        long[] output = (long[]) result;
+        if (output.length != input.length) {
+            return "长度 " + output.length + "，应为 " + input.length;
+        }
+        long sum = 0;
+        for (int i = 0; i < input.length; i++) {
+            sum += input[i];
+            if (output[i] != sum) {
+                return String.format("位置 %d 处为 %d，应为 %d", i, output[i], sum);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String format(int[] input) {
+        return Kernel.abbreviate(Arrays.toString(input), input.length, 20);
+    }
+}
@@ -0,0 +1,12 @@
+package com.quine.task;
+
+/**
+ * 前缀和：output[i] = input[0] + ... + input[i]，用 long 累加，不得溢出
+ */
+public interface PrefixSumSolver {
+    /**
+     * @param input 任意 int 数组（可能被修改，调用方不再使用）
+     * @return 与 input 等长的包含式前缀和
+     */
+    long[] solve(int[] input);
+}
@@ -0,0 +1,69 @@
+package com.quine.task;
+
+import com.quine.core.Kernel;
+import com.quine.core.Task;
+
+import java.util.List;
+
+/**
+ * 前缀和任务：扫描类热点（累计量、偏移表、基数排序的计数转下标）
+ */
+public class PrefixSumTask implements Task {
+
+    @Override
+    public String id() {
+        return "prefix_sum";
+    }
+
+    @Override
+    public Kernel<?> kernel() {
+        return PrefixSumKernel.INSTANCE;
+    }
+
+    @Override
+    public String targetClass() {
+        return "com.quine.sandbox.PrefixSumTargetSubject";
+    }
+
+    @Override
+    public String targetFile() {
+        return "src/main/java/com/quine/sandbox/PrefixSumTargetSubject.java";
+    }
+
+    @Override
+    public List<String> forbiddenApis() {
+        return List.of("Arrays.parallelPrefix", "Arrays.setAll", "IntStream", "LongStream", "parallelStream",
+            "commonPool", "new Thread", "Executors.");
+    }
+
+    @Override
+    public String brief() {
+        return """
+            你是一个算法优化专家。请对以下前缀和代码进行性能改进。
+
+            改进策略（按优先级）：
+            1. 去掉重复计算，一遍扫描得到全部前缀和
+            2. 减少数组拷贝与额外分配
+            3. 改进循环结构（循环展开、减少依赖链、便于 JIT 向量化）
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 PrefixSumSolver 接口：long[] solve(int[] input)，返回包含式前缀和 output[i] = input[0] + ... + input[i]
+            2. 类名必须保持为 PrefixSumTargetSubject
+            3. 包名必须是 com.quine.sandbox
+            4. 用 long 累加：输入可能全是 Integer.MAX_VALUE，int 累加会溢出
+            5. 【重要】禁止使用 Arrays.parallelPrefix、Arrays.setAll、Stream 以及任何线程
+            6. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """;
+    }
+
+    @Override
+    public int testSize() {
+        return 10_000;
+    }
+}
@@ -0,0 +1,420 @@
+package com.quine.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 最小的 class 文件解析器：常量池、方法、字节码指令与 BootstrapMethods
+ *
+ * 只覆盖本项目需要的部分：把每条指令的常量池操作数解析成可读文本，
+ * 用于与常量池顺序无关的字节码规范化哈希，以及禁用调用的静态检查。
+ */
+public final class ClassFileReader {
+
+    // 常量池 tag
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELDREF = 9;
+    private static final int METHODREF = 10;
+    private static final int INTERFACE_METHODREF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    // 需要特殊处理的操作码
+    public static final int IINC = 0x84;
+    public static final int TABLESWITCH = 0xaa;
+    public static final int LOOKUPSWITCH = 0xab;
+    public static final int INVOKEVIRTUAL = 0xb6;
+    public static final int INVOKESPECIAL = 0xb7;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int INVOKEINTERFACE = 0xb9;
+    public static final int INVOKEDYNAMIC = 0xba;
+    public static final int WIDE = 0xc4;
+
+    /**
+     * 各操作码的操作数字节数；-1 表示变长（switch / wide）
+     */
+    private static final int[] OPERAND_LENGTHS = new int[256];
+    /**
+     * 操作数的含义
+     */
+    private static final int[] OPERAND_KINDS = new int[256];
+    private static final int KIND_NONE = 0;
+    private static final int KIND_IMMEDIATE = 1;   // bipush / sipush / newarray
+    private static final int KIND_LOCAL = 2;       // xload / xstore / ret
+    private static final int KIND_CONSTANT = 3;    // 常量池引用
+    private static final int KIND_BRANCH = 4;      // 相对跳转
+
+    static {
+        Arrays.fill(OPERAND_LENGTHS, 0);
+        define(KIND_IMMEDIATE, 1, 0x10, 0x10);        // bipush
+        define(KIND_IMMEDIATE, 2, 0x11, 0x11);        // sipush
+        define(KIND_CONSTANT, 1, 0x12, 0x12);         // ldc
+        define(KIND_CONSTANT, 2, 0x13, 0x14);         // ldc_w, ldc2_w
+        define(KIND_LOCAL, 1, 0x15, 0x19);            // iload..aload
+        define(KIND_LOCAL, 1, 0x36, 0x3a);            // istore..astore
+        define(KIND_LOCAL, 2, IINC, IINC);            // iinc: 下标 + 增量
+        define(KIND_BRANCH, 2, 0x99, 0xa8);           // if*, goto, jsr
+        define(KIND_LOCAL, 1, 0xa9, 0xa9);            // ret
+        define(KIND_NONE, -1, TABLESWITCH, LOOKUPSWITCH);
+        define(KIND_CONSTANT, 2, 0xb2, 0xb8);         // get/put field/static, invokevirtual/special/static
+        define(KIND_CONSTANT, 4, INVOKEINTERFACE, INVOKEDYNAMIC);
+        define(KIND_CONSTANT, 2, 0xbb, 0xbb);         // new
+        define(KIND_IMMEDIATE, 1, 0xbc, 0xbc);        // newarray
+        define(KIND_CONSTANT, 2, 0xbd, 0xbd);         // anewarray
+        define(KIND_CONSTANT, 2, 0xc0, 0xc1);         // checkcast, instanceof
+        define(KIND_NONE, -1, WIDE, WIDE);
+        define(KIND_CONSTANT, 3, 0xc5, 0xc5);         // multianewarray
+        define(KIND_BRANCH, 2, 0xc6, 0xc7);           // ifnull, ifnonnull
+        define(KIND_BRANCH, 4, 0xc8, 0xc9);           // goto_w, jsr_w
+    }
+
+    private static void define(int kind, int length, int from, int to) {
+        for (int op = from; op <= to; op++) {
+            OPERAND_KINDS[op] = kind;
+            OPERAND_LENGTHS[op] = length;
+        }
+    }
+
+    private ClassFileReader() {
+    }
+
+    /**
+     * 一个类
+     */
+    public static class ClassInfo {
+        public final String name;
+        public final String superName;
+        public final List<String> interfaces;
+        public final List<String> fields;          // "name:descriptor"
+        public final List<MethodInfo> methods;
+        public final List<List<String>> bootstrapArguments;  // 每个引导方法的静态参数（已解析为文本）
+
+        ClassInfo(String name, String superName, List<String> interfaces, List<String> fields,
+                  List<MethodInfo> methods, List<List<String>> bootstrapArguments) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.fields = fields;
+            this.methods = methods;
+            this.bootstrapArguments = bootstrapArguments;
+        }
+    }
+
+    /**
+     * 一个方法及其指令序列
+     */
+    public static class MethodInfo {
+        public final String name;
+        public final String descriptor;
+        public final List<Instruction> instructions;  // 抽象/本地方法为空
+
+        MethodInfo(String name, String descriptor, List<Instruction> instructions) {
+            this.name = name;
+            this.descriptor = descriptor;
+            this.instructions = instructions;
+        }
+    }
+
+    /**
+     * 一条指令
+     */
+    public static class Instruction {
+        public final int offset;
+        public final int opcode;
+        public final String operand;       // 解析后的操作数文本，无操作数时为空串
+        public final int[] branchTargets;  // 绝对跳转目标（switch 可有多个），非跳转指令为空数组
+
+        Instruction(int offset, int opcode, String operand, int[] branchTargets) {
+            this.offset = offset;
+            this.opcode = opcode;
+            this.operand = operand;
+            this.branchTargets = branchTargets;
+        }
+
+        public boolean isInvoke() {
+            return opcode >= INVOKEVIRTUAL && opcode <= INVOKEDYNAMIC;
+        }
+
+        @Override
+        public String toString() {
+            return opcode + (operand.isEmpty() ? "" : " " + operand)
+                + (branchTargets.length == 0 ? "" : " ->" + Arrays.toString(branchTargets));
+        }
+    }
+
+    public static ClassInfo parse(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("不是合法的 class 文件");
+        }
+        in.readUnsignedShort();  // minor
+        in.readUnsignedShort();  // major
+
+        ConstantPool pool = ConstantPool.read(in);
+
+        in.readUnsignedShort();  // access flags
+        String name = pool.className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superName = superIndex == 0 ? null : pool.className(superIndex);
+
+        List<String> interfaces = new ArrayList<>();
+        int interfaceCount = in.readUnsignedShort();
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(pool.className(in.readUnsignedShort()));
+        }
+
+        List<String> fields = new ArrayList<>();
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.readUnsignedShort();
+            fields.add(pool.utf8(in.readUnsignedShort()) + ":" + pool.utf8(in.readUnsignedShort()));
+            skipAttributes(in);
+        }
+
+        List<MethodInfo> methods = new ArrayList<>();
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            in.readUnsignedShort();
+            String methodName = pool.utf8(in.readUnsignedShort());
+            String descriptor = pool.utf8(in.readUnsignedShort());
+            List<Instruction> instructions = List.of();
+            int attributeCount = in.readUnsignedShort();
+            for (int a = 0; a < attributeCount; a++) {
+                String attributeName = pool.utf8(in.readUnsignedShort());
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                if (attributeName.equals("Code")) {
+                    instructions = decodeCode(data, pool);
+                }
+            }
+            methods.add(new MethodInfo(methodName, descriptor, instructions));
+        }
+
+        List<List<String>> bootstrapArguments = new ArrayList<>();
+        int attributeCount = in.readUnsignedShort();
+        for (int a = 0; a < attributeCount; a++) {
+            String attributeName = pool.utf8(in.readUnsignedShort());
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            if (attributeName.equals("BootstrapMethods")) {
+                DataInputStream bsm = new DataInputStream(new ByteArrayInputStream(data));
+                int count = bsm.readUnsignedShort();
+                for (int b = 0; b < count; b++) {
+                    List<String> arguments = new ArrayList<>();
+                    arguments.add(pool.describe(bsm.readUnsignedShort()));
+                    int argumentCount = bsm.readUnsignedShort();
+                    for (int c = 0; c < argumentCount; c++) {
+                        arguments.add(pool.describe(bsm.readUnsignedShort()));
+                    }
+                    bootstrapArguments.add(arguments);
+                }
+            }
+        }
+
+        return new ClassInfo(name, superName, interfaces, fields, methods, bootstrapArguments);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.readUnsignedShort();
+            in.skipNBytes(in.readInt());
+        }
+    }
+
+    /**
+     * 解码 Code 属性中的字节码
+     */
+    private static List<Instruction> decodeCode(byte[] attribute, ConstantPool pool) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(attribute));
+        in.readUnsignedShort();  // max_stack
+        in.readUnsignedShort();  // max_locals
+        byte[] code = new byte[in.readInt()];
+        in.readFully(code);
+
+        List<Instruction> instructions = new ArrayList<>();
+        int pc = 0;
+        while (pc < code.length) {
+            int opcode = code[pc] & 0xff;
+            int start = pc;
+            pc++;
+            String operand = "";
+            int[] targets = new int[0];
+
+            if (opcode == TABLESWITCH || opcode == LOOKUPSWITCH) {
+                pc = (pc + 3) & ~3;  // 4 字节对齐
+                List<Integer> targetList = new ArrayList<>();
+                targetList.add(start + s4(code, pc));
+                if (opcode == TABLESWITCH) {
+                    int low = s4(code, pc + 4);
+                    int high = s4(code, pc + 8);
+                    pc += 12;
+                    for (int i = 0; i <= high - low; i++, pc += 4) {
+                        targetList.add(start + s4(code, pc));
+                    }
+                    operand = low + ".." + high;
+                } else {
+                    int pairs = s4(code, pc + 4);
+                    pc += 8;
+                    StringBuilder keys = new StringBuilder();
+                    for (int i = 0; i < pairs; i++, pc += 8) {
+                        keys.append(s4(code, pc)).append(',');
+                        targetList.add(start + s4(code, pc + 4));
+                    }
+                    operand = keys.toString();
+                }
+                targets = targetList.stream().mapToInt(Integer::intValue).toArray();
+            } else if (opcode == WIDE) {
+                int widened = code[pc] & 0xff;
+                int slot = u2(code, pc + 1);
+                if (widened == IINC) {
+                    operand = "#" + slot + "," + (short) u2(code, pc + 3);
+                    pc += 5;
+                } else {
+                    operand = "#" + slot;
+                    pc += 3;
+                }
+                opcode = widened;
+            } else {
+                int length = OPERAND_LENGTHS[opcode];
+                switch (OPERAND_KINDS[opcode]) {
+                    case KIND_IMMEDIATE:
+                        operand = String.valueOf(length == 1 ? code[pc] : (short) u2(code, pc));
+                        break;
+                    case KIND_LOCAL:
+                        operand = opcode == IINC
+                            ? "#" + (code[pc] & 0xff) + "," + code[pc + 1]
+                            : "#" + (code[pc] & 0xff);
+                        break;
+                    case KIND_CONSTANT:
+                        int index = length == 1 ? code[pc] & 0xff : u2(code, pc);
+                        operand = pool.describe(index);
+                        if (opcode == 0xc5) {
+                            operand += " dims=" + (code[pc + 2] & 0xff);
+                        }
+                        break;
+                    case KIND_BRANCH:
+                        targets = new int[]{start + (length == 2 ? (short) u2(code, pc) : s4(code, pc))};
+                        break;
+                    default:
+                        break;
+                }
+                pc += length;
+            }
+            instructions.add(new Instruction(start, opcode, operand, targets));
+        }
+        return instructions;
+    }
+
+    private static int u2(byte[] code, int pos) {
+        return ((code[pos] & 0xff) << 8) | (code[pos + 1] & 0xff);
+    }
+
+    private static int s4(byte[] code, int pos) {
+        return ((code[pos] & 0xff) << 24) | ((code[pos + 1] & 0xff) << 16)
+            | ((code[pos + 2] & 0xff) << 8) | (code[pos + 3] & 0xff);
+    }
+
+    /**
+     * 常量池：原样读取后按需解析为文本
+     */
+    private static class ConstantPool {
+        private final int[] tags;
+        private final Object[] values;  // Utf8/数值常量为值本身，引用类为 int[] 下标
+
+        private ConstantPool(int[] tags, Object[] values) {
+            this.tags = tags;
+            this.values = values;
+        }
+
+        static ConstantPool read(DataInputStream in) throws IOException {
+            int count = in.readUnsignedShort();
+            int[] tags = new int[count];
+            Object[] values = new Object[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                tags[i] = tag;
+                switch (tag) {
+                    case UTF8: values[i] = in.readUTF(); break;
+                    case INTEGER: values[i] = in.readInt(); break;
+                    case FLOAT: values[i] = in.readFloat(); break;
+                    case LONG: values[i] = in.readLong(); i++; break;
+                    case DOUBLE: values[i] = in.readDouble(); i++; break;
+                    case CLASS:
+                    case STRING:
+                    case METHOD_TYPE:
+                    case MODULE:
+                    case PACKAGE:
+                        values[i] = new int[]{in.readUnsignedShort()};
+                        break;
+                    case FIELDREF:
+                    case METHODREF:
+                    case INTERFACE_METHODREF:
+                    case NAME_AND_TYPE:
+                    case DYNAMIC:
+                    case INVOKE_DYNAMIC:
+                        values[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                        break;
+                    case METHOD_HANDLE:
+                        values[i] = new int[]{in.readUnsignedByte(), in.readUnsignedShort()};
+                        break;
+                    default:
+                        throw new IOException("未知的常量池类型: " + tag);
+                }
+            }
+            return new ConstantPool(tags, values);
+        }
+
+        String utf8(int index) {
+            return (String) values[index];
+        }
+
+        String className(int index) {
+            return utf8(((int[]) values[index])[0]);
+        }
+
+        /**
+         * 常量的可读文本：成员引用为 owner.name:descriptor，字符串带引号
+         */
+        String describe(int index) {
+            int[] refs = values[index] instanceof int[] ? (int[]) values[index] : null;
+            switch (tags[index]) {
+                case UTF8: return utf8(index);
+                case INTEGER:
+                case FLOAT:
+                case LONG:
+                case DOUBLE:
+                    return String.valueOf(values[index]);
+                case CLASS: return utf8(refs[0]);
+                case STRING: return "\"" + utf8(refs[0]) + "\"";
+                case METHOD_TYPE: return utf8(refs[0]);
+                case MODULE:
+                case PACKAGE:
+                    return utf8(refs[0]);
+                case FIELDREF:
+                case METHODREF:
+                case INTERFACE_METHODREF:
+                    return className(refs[0]) + "." + describe(refs[1]);
+                case NAME_AND_TYPE: return utf8(refs[0]) + ":" + utf8(refs[1]);
+                case METHOD_HANDLE: return "handle(" + refs[0] + ") " + describe(refs[1]);
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    return "bsm#" + refs[0] + " " + describe(refs[1]);
+                default: return "?";
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.quine.utils;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 常驻编译会话：跨代复用同一个 JavaCompiler 与文件管理器
+ *
+ * 一次性编译每次都要重新获取编译器、新建 StandardJavaFileManager 并重新解析整条 classpath；
+ * 会话只在构造时做一次，之后 jar/jrt 的目录索引与 javac 自身的 JIT 状态都保持热态。
+ * 非线程安全的文件管理器由 compile 上的锁保护；并行编译请使用多个会话。
+ */
+public class CompilerSession implements AutoCloseable {
+    private final JavaCompiler compiler;
+    private final CompilerUtils.MemoryFileManager fileManager;
+    private final List<String> options;
+
+    // 延迟统计：第一次编译为冷启动，其余为热编译
+    private long coldNanos = -1;
+    private long warmNanosTotal;
+    private int warmCount;
+    private boolean closed;
+
+    public CompilerSession() throws IOException {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new RuntimeException("无法获取 Java 编译器，请确保使用 JDK 而非 JRE");
+        }
+
+        StandardJavaFileManager standardManager = compiler.getStandardFileManager(null, null, null);
+        // classpath 只解析一次；若以 -classpath 选项传入，javac 会在每个任务里重置位置并丢弃索引缓存
+        standardManager.setLocation(StandardLocation.CLASS_PATH, resolveClassPath());
+        this.fileManager = new CompilerUtils.MemoryFileManager(standardManager);
+        // 跳过注解处理器发现（否则每次都要扫描 classpath 上的 META-INF/services）
+        this.options = List.of("-proc:none");
+    }
+
+    private static List<File> resolveClassPath() {
+        List<File> entries = new ArrayList<>();
+        entries.add(Paths.get("target/classes").toAbsolutePath().toFile());
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(new File(entry));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 在热会话中编译源码（纯内存）
+     */
+    public synchronized CompilerUtils.CompiledUnit compile(String className, String sourceCode) {
+        if (closed) {
+            throw new IllegalStateException("编译会话已关闭");
+        }
+
+        long start = System.nanoTime();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                null,
+                fileManager,
+                diagnostics,
+                options,
+                null,
+                List.of(new CompilerUtils.StringSourceJavaFileObject(className, sourceCode))
+            );
+
+            if (!task.call()) {
+                throw new RuntimeException(CompilerUtils.formatDiagnostics(diagnostics));
+            }
+            return new CompilerUtils.CompiledUnit(className, fileManager.getClassBytes());
+        } finally {
+            // 失败路径上同样丢弃半成品输出，保证下一次编译从干净状态开始
+            fileManager.discardOutputs();
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 编译并在独立 ClassLoader 中加载
+     */
+    public Class<?> compileAndLoad(String className, String sourceCode) throws ClassNotFoundException {
+        return compile(className, sourceCode).load();
+    }
+
+    private void recordLatency(long nanos) {
+        if (coldNanos < 0) {
+            coldNanos = nanos;
+        } else {
+            warmNanosTotal += nanos;
+            warmCount++;
+        }
+    }
+
+    public synchronized long getColdCompileMicros() {
+        return coldNanos < 0 ? 0 : coldNanos / 1_000;
+    }
+
+    public synchronized long getAverageWarmCompileMicros() {
+        return warmCount == 0 ? 0 : warmNanosTotal / warmCount / 1_000;
+    }
+
+    public synchronized int getCompileCount() {
+        return coldNanos < 0 ? 0 : warmCount + 1;
+    }
+
+    /**
+     * 冷/热编译延迟报告
+     */
+    public synchronized String latencyReport() {
+        return String.format("编译 %d 次：冷启动 %.1f ms，热编译平均 %.1f ms",
+            getCompileCount(), getColdCompileMicros() / 1000.0, getAverageWarmCompileMicros() / 1000.0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            fileManager.close();
+        }
+    }
+}
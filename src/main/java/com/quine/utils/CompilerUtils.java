@@ -3,7 +3,8 @@ package com.quine.utils;
 import javax.tools.*;
 import java.io.*;
 import java.net.URI;
-import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.*;
 
 public class CompilerUtils {
@@ -12,64 +13,124 @@ public class CompilerUtils {
      * 编译 Java 源码字符串并加载为 Class
      * @param className 完全限定类名 (如 "com.quine.sandbox.TargetSubject")
      * @param sourceCode Java 源代码字符串
-     * @return 编译后的 Class 对象
+     * @return 编译后的 Class 对象（由本次新建的独立 ClassLoader 定义）
      */
     public static Class<?> compileAndLoad(String className, String sourceCode) throws Exception {
-        // 获取系统编译器
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        if (compiler == null) {
-            throw new RuntimeException("无法获取 Java 编译器，请确保使用 JDK 而非 JRE");
-        }
-
-        // 使用 target/classes 作为输出目录（已在 classpath 中）
-        Path outputDir = Paths.get("target/classes");
-        Files.createDirectories(outputDir);
-
-        // 创建源文件对象
-        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
-
-        // 设置输出目录
-        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(outputDir.toFile()));
-
-        // 获取当前 classpath 并添加 target/classes
-        String classPath = System.getProperty("java.class.path");
-        String fullClassPath = outputDir.toAbsolutePath() + File.pathSeparator + classPath;
-        List<String> options = List.of("-classpath", fullClassPath);
-
-        // 创建内存中的源文件
-        JavaFileObject sourceFile = new StringSourceJavaFileObject(className, sourceCode);
-
-        // 编译
-        JavaCompiler.CompilationTask task = compiler.getTask(
-            null,
-            fileManager,
-            diagnostics,
-            options,
-            null,
-            List.of(sourceFile)
-        );
-
-        boolean success = task.call();
-
-        if (!success) {
-            StringBuilder errors = new StringBuilder("编译失败:\n");
-            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
-                errors.append(diagnostic.getMessage(null)).append("\n");
+        return compile(className, sourceCode).load();
+    }
+
+    /**
+     * 纯内存编译：字节码只写入字节数组，不落盘
+     * 每次调用都新建并关闭一个编译会话（冷路径）；进化循环应复用 {@link CompilerSession}
+     * @param className 完全限定类名
+     * @param sourceCode Java 源代码字符串
+     * @return 编译产物（类名 -> 字节码）
+     */
+    public static CompiledUnit compile(String className, String sourceCode) throws Exception {
+        try (CompilerSession session = new CompilerSession()) {
+            return session.compile(className, sourceCode);
+        }
+    }
+
+    static String formatDiagnostics(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder errors = new StringBuilder("编译失败:\n");
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            errors.append(diagnostic.getMessage(null)).append("\n");
+        }
+        return errors.toString();
+    }
+
+    public static String sha256(byte[]... chunks) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] chunk : chunks) {
+                digest.update(chunk);
             }
-            throw new RuntimeException(errors.toString());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        fileManager.close();
+    /**
+     * 一次编译的产物：内存中的字节码集合
+     */
+    public static class CompiledUnit {
+        public final String className;
+        public final Map<String, byte[]> classBytes;  // 二进制类名 -> 字节码（含内部类）
+        public final String bytecodeHash;             // 全部字节码的 SHA-256，用于证明加载的就是本次编译结果
+        public final String canonicalHash;            // 规范化字节码的 SHA-256，与局部变量名、方法顺序、常量池顺序无关
+
+        public CompiledUnit(String className, Map<String, byte[]> classBytes) {
+            this.className = className;
+            this.classBytes = Collections.unmodifiableMap(new TreeMap<>(classBytes));
+            this.bytecodeHash = hashOf(this.classBytes);
+            this.canonicalHash = canonicalHashOf(this.classBytes, bytecodeHash);
+        }
 
-        // 直接加载类（已在当前 classpath 中）
-        return Class.forName(className);
+        /**
+         * 在一个全新的子 ClassLoader 中加载主类
+         * 每次调用都得到一个独立的 Class，可随 ClassLoader 一起被 GC
+         */
+        public Class<?> load() throws ClassNotFoundException {
+            MemoryClassLoader loader = new MemoryClassLoader(classBytes, CompilerUtils.class.getClassLoader());
+            Class<?> clazz = loader.loadClass(className);
+            if (clazz.getClassLoader() != loader) {
+                throw new IllegalStateException("加载到的 " + className + " 不是本次编译产物");
+            }
+            return clazz;
+        }
+
+        private static String hashOf(Map<String, byte[]> classBytes) {
+            List<byte[]> chunks = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+                chunks.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                chunks.add(entry.getValue());
+            }
+            return sha256(chunks.toArray(new byte[0][]));
+        }
+
+        /**
+         * 规范形式：每个方法的指令序列（常量池与引导方法引用解析为文本、局部变量只看槽位），方法按签名排序；
+         * 调试属性（LocalVariableTable、LineNumberTable）不参与。解析失败时退回原始字节码哈希
+         */
+        private static String canonicalHashOf(Map<String, byte[]> classBytes, String fallback) {
+            StringBuilder canonical = new StringBuilder();
+            try {
+                for (byte[] bytes : classBytes.values()) {
+                    ClassFileReader.ClassInfo info = ClassFileReader.parse(bytes);
+                    canonical.append("class ").append(info.name).append(" extends ").append(info.superName)
+                        .append(" implements ").append(info.interfaces).append('\n');
+                    info.fields.stream().sorted().forEach(field -> canonical.append("field ").append(field).append('\n'));
+                    List<String> methods = new ArrayList<>();
+                    for (ClassFileReader.MethodInfo method : info.methods) {
+                        StringBuilder body = new StringBuilder("method ").append(method.name).append(method.descriptor).append('\n');
+                        for (ClassFileReader.Instruction instruction : method.instructions) {
+                            String text = instruction.toString();
+                            if (instruction.opcode == ClassFileReader.INVOKEDYNAMIC) {
+                                // 引导方法编号取决于首次出现的顺序，换成引导方法本身
+                                int space = instruction.operand.indexOf(' ');
+                                int index = Integer.parseInt(instruction.operand.substring(4, space));
+                                text = instruction.opcode + instruction.operand.substring(space) + " " + info.bootstrapArguments.get(index);
+                            }
+                            body.append(text).append('\n');
+                        }
+                        methods.add(body.toString());
+                    }
+                    Collections.sort(methods);
+                    methods.forEach(canonical::append);
+                }
+            } catch (IOException e) {
+                return fallback;
+            }
+            return sha256(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        }
     }
 
     /**
      * 内存中的 Java 源文件对象
      */
-    private static class StringSourceJavaFileObject extends SimpleJavaFileObject {
+    static class StringSourceJavaFileObject extends SimpleJavaFileObject {
         private final String code;
 
         public StringSourceJavaFileObject(String className, String code) {
@@ -83,4 +144,99 @@ public class CompilerUtils {
             return code;
         }
     }
+
+    /**
+     * 内存中的 .class 输出对象
+     */
+    private static class ByteArrayClassFileObject extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        public ByteArrayClassFileObject(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension),
+                  Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * 转发式文件管理器：读取依旧走标准实现，CLASS_OUTPUT 全部截获到内存
+     */
+    static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, ByteArrayClassFileObject> outputs = new LinkedHashMap<>();
+
+        MemoryFileManager(JavaFileManager delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            if (location == StandardLocation.CLASS_OUTPUT && kind == JavaFileObject.Kind.CLASS) {
+                ByteArrayClassFileObject file = new ByteArrayClassFileObject(className);
+                outputs.put(className, file);
+                return file;
+            }
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+
+        /**
+         * 取出本次编译产生的字节码
+         */
+        Map<String, byte[]> getClassBytes() {
+            Map<String, byte[]> result = new LinkedHashMap<>();
+            outputs.forEach((name, file) -> result.put(name, file.toByteArray()));
+            return result;
+        }
+
+        /**
+         * 清空输出缓冲，以便文件管理器在下一次编译中复用
+         */
+        void discardOutputs() {
+            outputs.clear();
+        }
+    }
+
+    /**
+     * 每个候选一个的子 ClassLoader
+     * 自身持有的类优先（child-first），避免父加载器里缓存的旧版 TargetSubject 被误用
+     */
+    public static class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classBytes;
+
+        public MemoryClassLoader(Map<String, byte[]> classBytes, ClassLoader parent) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    clazz = classBytes.containsKey(name) ? findClass(name) : super.loadClass(name, false);
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classBytes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
 }
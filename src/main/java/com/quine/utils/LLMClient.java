@@ -2,16 +2,53 @@ package com.quine.utils;
 
 import com.google.gson.*;
 import okhttp3.*;
+import okio.BufferedSource;
 
 import java.io.*;
+import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
-public class LLMClient {
+public class LLMClient implements AutoCloseable {
     private static final Properties CONFIG = loadConfig();
     private static final String API_URL = CONFIG.getProperty("API_URL", "https://dashscope.aliyuncs.com/compatible-mode/v1/chat/completions");
     private static final String API_KEY = CONFIG.getProperty("API_KEY");
     private static final String MODEL = CONFIG.getProperty("MODEL", "qwen3-coder-plus");
+    // 同时在途的变异请求上限
+    private static final int MAX_IN_FLIGHT = Integer.parseInt(CONFIG.getProperty("MAX_IN_FLIGHT", "4"));
+    // 补丁模式：模型只返回 diff 或改动的方法，输出 token 少、延迟低；补丁应用失败时回退到整段源码
+    private static final boolean PATCH_MODE = Boolean.getBoolean("quine.patch");
+    // 流式接收：边生成边检查，违规立即中止，顶层类一结束就返回，不等代码之后的解释
+    private static final boolean STREAM_MODE = Boolean.getBoolean("quine.llm.stream");
+
+    /**
+     * 默认任务说明（提示词中当前代码之前的部分）：单线程排序
+     */
+    public static final String DEFAULT_BRIEF = """
+            你是一个算法优化专家。请对以下排序代码进行改进。
+
+            改进策略（按优先级）：
+            1. 可以对现有算法进行优化（如添加提前退出、减少比较次数、减少交换次数）
+            2. 可以尝试相近的算法变体（如冒泡排序→鸡尾酒排序→梳排序）
+            3. 可以逐步引入更高效的思想（如引入"间隔"概念、分区思想、递归分治）
+            4. 如果当前算法已经很难优化，可以尝试更高效的排序算法
+
+            注意：
+            - 每次改动要有明确的优化意图
+            - 尽量渐进式改进，避免一步跳跃太大
+            - 不要添加任何注释
+
+            严格约束：
+            1. 必须实现 TaskSolver 接口
+            2. 类名必须保持为 TargetSubject
+            3. 包名必须是 com.quine.sandbox
+            4. 【重要】绝对禁止使用 java.util.Arrays、java.util.Collections 等标准库的排序方法
+            5. 只能使用基础 JDK 类（如 System、Math），不要引入第三方依赖
+            6. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+
+            """;
 
     private static Properties loadConfig() {
         Properties props = new Properties();
@@ -33,25 +70,296 @@ public class LLMClient {
 
     private final OkHttpClient client;
     private final Gson gson;
+    private final String apiUrl;
+    private final String apiKey;
+    private final String model;
+    private final String brief;
+    private final boolean patchMode;
+    // 对话录制 / 回放（live 模式为 null）
+    private final TranscriptStore transcripts;
+    private final boolean streamMode;
+    // 流式检查的约束：期望的类名与禁用 API（未设置时只判断代码是否完整）
+    private volatile String targetClass;
+    private volatile List<String> forbiddenApis = List.of();
+
+    // 全程累计用量；每个请求的用量另记到调用方传入的 Usage 上
+    private final Usage total = new Usage();
+    // 异步变异：每个请求一个虚拟线程，阻塞在网络 IO 上不占平台线程；信号量限制在途数量
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxInFlight;
+    private final Semaphore inFlight;
 
     public LLMClient() {
+        this(DEFAULT_BRIEF);
+    }
+
+    /**
+     * @param brief 任务说明与约束，放在提示词中当前代码之前
+     */
+    public LLMClient(String brief) {
+        this(API_URL, API_KEY, MODEL, MAX_IN_FLIGHT, brief);
+    }
+
+    /**
+     * @param apiUrl OpenAI 兼容的 chat/completions 地址（可指向本地桩服务器）
+     * @param apiKey API Key
+     * @param model 模型名
+     * @param maxInFlight 异步请求的最大在途数量
+     */
+    public LLMClient(String apiUrl, String apiKey, String model, int maxInFlight) {
+        this(apiUrl, apiKey, model, maxInFlight, DEFAULT_BRIEF);
+    }
+
+    public LLMClient(String apiUrl, String apiKey, String model, int maxInFlight, String brief) {
+        this(apiUrl, apiKey, model, maxInFlight, brief, PATCH_MODE);
+    }
+
+    /**
+     * @param patchMode 请求补丁（统一 diff 或方法替换）而不是完整源码
+     */
+    public LLMClient(String apiUrl, String apiKey, String model, int maxInFlight, String brief, boolean patchMode) {
+        this(apiUrl, apiKey, model, maxInFlight, brief, patchMode, TranscriptStore.shared());
+    }
+
+    /**
+     * @param transcripts 对话录制 / 回放，为 null 时只请求不录制
+     */
+    public LLMClient(String apiUrl, String apiKey, String model, int maxInFlight, String brief, boolean patchMode,
+                     TranscriptStore transcripts) {
+        this(apiUrl, apiKey, model, maxInFlight, brief, patchMode, transcripts, STREAM_MODE);
+    }
+
+    /**
+     * @param streamMode 流式接收回复（SSE），边收边检查
+     */
+    public LLMClient(String apiUrl, String apiKey, String model, int maxInFlight, String brief, boolean patchMode,
+                     TranscriptStore transcripts, boolean streamMode) {
+        this.patchMode = patchMode;
+        this.streamMode = streamMode;
+        this.transcripts = transcripts;
         this.client = new OkHttpClient.Builder()
             .connectTimeout(30, TimeUnit.SECONDS)
             .readTimeout(60, TimeUnit.SECONDS)
             .build();
         this.gson = new Gson();
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.brief = brief;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 异步变异：立即返回，请求在虚拟线程上执行
+     * 在途请求达到上限时，新请求在虚拟线程内排队等待，不阻塞调用方；
+     * 取消返回的 future 时同时取消它发出的 HTTP 请求，虚拟线程随即结束并归还在途名额
+     */
+    public CompletableFuture<String> mutateCodeAsync(String sourceCode) {
+        return mutateCodeAsync(sourceCode, null);
+    }
+
+    public CompletableFuture<String> mutateCodeAsync(String sourceCode, String profileHint) {
+        return mutateCodeAsync(sourceCode, profileHint, new Usage());
+    }
+
+    /**
+     * @param usage 本次变异的用量（含补丁回退的第二次请求）累加到这里；多个请求可共用一个，按代汇总
+     */
+    public CompletableFuture<String> mutateCodeAsync(String sourceCode, String profileHint, Usage usage) {
+        Calls calls = new Calls(usage);
+        if (transcripts != null && transcripts.isReplay()) {
+            // 回放没有网络延迟，在调用线程上按请求顺序完成，保证结果确定
+            try {
+                return CompletableFuture.completedFuture(mutateCode(sourceCode, profileHint, calls));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                inFlight.acquire();
+                try {
+                    return mutateCode(sourceCode, profileHint, calls);
+                } finally {
+                    inFlight.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("变异请求被中断");
+            }
+        }, asyncExecutor);
+        // cancel 不会中断执行中的 supplyAsync，阻塞在 OkHttp 上的请求只能通过 Call.cancel 结束
+        future.whenComplete((code, error) -> {
+            if (future.isCancelled()) {
+                calls.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 正在执行 / 已在排队的请求数（占用在途名额的数量）
+     */
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * 一次变异发出的 HTTP 请求（补丁回退时不止一个）及其用量；变异被取消时一并取消
+     */
+    private static class Calls {
+        private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+        private final Usage usage;
+        private volatile boolean cancelled;
+
+        Calls(Usage usage) {
+            this.usage = usage;
+        }
+
+        Call register(Call call) {
+            calls.add(call);
+            if (cancelled) {
+                call.cancel();
+            }
+            return call;
+        }
+
+        void cancel() {
+            cancelled = true;
+            for (Call call : calls) {
+                call.cancel();
+            }
+        }
+    }
+
+    /**
+     * LLM 用量：请求数、token、延迟与补丁应用情况
+     * 由客户端在持有自身锁时累加；调用方在变异完成后读取
+     */
+    public static class Usage {
+        long requests;
+        long promptTokens;
+        long completionTokens;
+        long latencyNanos;
+        long patches;          // 按补丁格式返回的次数
+        long patchesApplied;
+        long fallbacks;        // 补丁应用失败、改用整段源码重新请求的次数
+        long fullResponses;    // 补丁模式下模型仍返回了完整源码的次数
+        long streamed;         // 流式接收的请求数
+        long firstTokenNanos;
+        long earlyCompletes;   // 顶层类结束后不再等待剩余内容的次数
+        long aborts;           // 违规中止的次数
+
+        /**
+         * 把另一份用量计入这一份（如一代内丢弃的旧冠军变异）
+         */
+        public synchronized void add(Usage other) {
+            synchronized (other) {
+                requests += other.requests;
+                promptTokens += other.promptTokens;
+                completionTokens += other.completionTokens;
+                latencyNanos += other.latencyNanos;
+                patches += other.patches;
+                patchesApplied += other.patchesApplied;
+                fallbacks += other.fallbacks;
+                fullResponses += other.fullResponses;
+                streamed += other.streamed;
+                firstTokenNanos += other.firstTokenNanos;
+                earlyCompletes += other.earlyCompletes;
+                aborts += other.aborts;
+            }
+        }
+
+        public synchronized String format() {
+            return String.format("LLM：%d 次请求，平均延迟 %d ms，输入 %d / 输出 %d tokens（每次输出 %d）",
+                requests, requests == 0 ? 0 : latencyNanos / 1_000_000 / requests, promptTokens, completionTokens,
+                requests == 0 ? 0 : completionTokens / requests)
+                + (patches + fullResponses == 0 ? "" : String.format("，补丁 %d/%d 应用成功（%.0f%%），回退整段 %d 次，直接返回整段 %d 次",
+                    patchesApplied, patches, patches == 0 ? 0 : patchesApplied * 100.0 / patches, fallbacks, fullResponses))
+                + (streamed == 0 ? "" : String.format("，流式 %d 次（首 token 平均 %d ms，提前完成 %d 次，违规中止 %d 次）",
+                    streamed, firstTokenNanos / 1_000_000 / streamed, earlyCompletes, aborts));
+        }
     }
 
     /**
      * 调用 LLM 进行代码变异
+     * 补丁模式下先请求补丁并在本地应用，应用失败时以同一父代回退到整段源码请求
      * @param sourceCode 当前源代码
      * @return 变异后的源代码
      */
     public String mutateCode(String sourceCode) throws IOException {
-        String prompt = buildPrompt(sourceCode);
+        return mutateCode(sourceCode, null);
+    }
+
+    /**
+     * @param profileHint 父代的热点采样摘要（行号以 sourceCode 为准），没有时为 null
+     */
+    public String mutateCode(String sourceCode, String profileHint) throws IOException {
+        return mutateCode(sourceCode, profileHint, new Calls(new Usage()));
+    }
+
+    private String mutateCode(String sourceCode, String profileHint, Calls calls) throws IOException {
+        if (!patchMode) {
+            return cleanCode(chat(buildPrompt(sourceCode, profileHint), true, calls));
+        }
+        String response = cleanCode(chat(buildPatchPrompt(sourceCode, profileHint), false, calls));
+        if (PatchApplier.isFullSource(response)) {
+            count(calls, usage -> usage.fullResponses++);
+            return response;
+        }
+        try {
+            String patched = PatchApplier.apply(sourceCode, response);
+            count(calls, usage -> {
+                usage.patches++;
+                usage.patchesApplied++;
+            });
+            return patched;
+        } catch (PatchApplier.PatchException e) {
+            count(calls, usage -> {
+                usage.patches++;
+                usage.fallbacks++;
+            });
+            return cleanCode(chat(buildPrompt(sourceCode, profileHint), true, calls));
+        }
+    }
+
+    /**
+     * 流式检查的约束：回复中出现禁用 API 或类名不对时立即中止
+     * @param targetClass 期望的类名（可带包名）
+     */
+    public void setConstraints(String targetClass, List<String> forbiddenApis) {
+        this.targetClass = targetClass;
+        this.forbiddenApis = List.copyOf(forbiddenApis);
+    }
+
+    /**
+     * 发送一次 chat 请求，返回回复内容并记录 token 与延迟；回放模式下从录制中取回复
+     * 延迟记到得出结论为止：阻塞式为收完整个响应，流式为代码完整或判定违规
+     * @param fullSource 回复应当是整段源码（补丁请求为 false）
+     * @param calls 登记本次 HTTP 请求，变异被取消时一并取消
+     */
+    private String chat(String prompt, boolean fullSource, Calls calls) throws IOException {
+        if (transcripts != null && transcripts.isReplay()) {
+            long start = System.nanoTime();
+            TranscriptStore.Entry entry = transcripts.replay(prompt, fullSource);
+            if (entry == null) {
+                throw new IOException("回放缺失：提示词未录制过（-Dquine.llm.replay.strict=false 时按录制顺序补位）");
+            }
+            long latency = System.nanoTime() - start;
+            count(calls, usage -> {
+                usage.requests++;
+                usage.promptTokens += entry.promptTokens;
+                usage.completionTokens += entry.completionTokens;
+                usage.latencyNanos += latency;
+            });
+            return entry.response;
+        }
 
         JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", MODEL);
+        requestBody.addProperty("model", model);
 
         JsonArray messages = new JsonArray();
         JsonObject message = new JsonObject();
@@ -61,10 +369,16 @@ public class LLMClient {
 
         requestBody.add("messages", messages);
         requestBody.addProperty("temperature", 1.0);
+        if (streamMode) {
+            requestBody.addProperty("stream", true);
+            JsonObject streamOptions = new JsonObject();
+            streamOptions.addProperty("include_usage", true);
+            requestBody.add("stream_options", streamOptions);
+        }
 
         Request request = new Request.Builder()
-            .url(API_URL)
-            .header("Authorization", "Bearer " + API_KEY)
+            .url(apiUrl)
+            .header("Authorization", "Bearer " + apiKey)
             .header("Content-Type", "application/json")
             .post(RequestBody.create(
                 gson.toJson(requestBody),
@@ -72,7 +386,12 @@ public class LLMClient {
             ))
             .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        long start = System.nanoTime();
+        Call call = calls.register(client.newCall(request));
+        if (streamMode) {
+            return chatStreaming(prompt, call, calls, new StreamGuard(targetClass, forbiddenApis, fullSource), start);
+        }
+        try (Response response = call.execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("LLM API 调用失败: " + response.code() + " " + response.body().string());
             }
@@ -86,48 +405,176 @@ public class LLMClient {
                 .getAsJsonObject("message")
                 .get("content").getAsString();
 
-            return cleanCode(content);
+            // OpenAI 兼容接口的 usage 字段；缺失时按 0 计
+            JsonObject tokens = jsonResponse.has("usage") && jsonResponse.get("usage").isJsonObject()
+                ? jsonResponse.getAsJsonObject("usage") : new JsonObject();
+            long promptTokens = tokens.has("prompt_tokens") ? tokens.get("prompt_tokens").getAsLong() : 0;
+            long completionTokens = tokens.has("completion_tokens") ? tokens.get("completion_tokens").getAsLong() : 0;
+            long latency = System.nanoTime() - start;
+            count(calls, usage -> {
+                usage.requests++;
+                usage.promptTokens += promptTokens;
+                usage.completionTokens += completionTokens;
+                usage.latencyNanos += latency;
+            });
+            if (transcripts != null) {
+                transcripts.record(prompt, content, promptTokens, completionTokens);
+            }
+            return content;
         }
     }
 
-    private String buildPrompt(String sourceCode) {
-        return """
-            你是一个算法优化专家。请对以下排序代码进行改进。
+    /**
+     * 流式接收（SSE）：逐个 data 事件取增量交给 StreamGuard，一有结论就取消请求
+     */
+    private String chatStreaming(String prompt, Call call, Calls calls, StreamGuard guard, long start) throws IOException {
+        long firstToken = 0;
+        long promptTokens = 0;
+        long completionTokens = 0;
+        boolean finished = false;
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("LLM API 调用失败: " + response.code() + " " + response.body().string());
+            }
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.equals("[DONE]")) {
+                    finished = true;
+                    guard.finish();
+                    break;
+                }
+                JsonObject chunk = gson.fromJson(data, JsonObject.class);
+                if (chunk.has("usage") && chunk.get("usage").isJsonObject()) {
+                    JsonObject tokens = chunk.getAsJsonObject("usage");
+                    promptTokens = tokens.has("prompt_tokens") ? tokens.get("prompt_tokens").getAsLong() : promptTokens;
+                    completionTokens = tokens.has("completion_tokens") ? tokens.get("completion_tokens").getAsLong() : completionTokens;
+                }
+                JsonArray choices = chunk.getAsJsonArray("choices");
+                if (choices == null || choices.isEmpty()) {
+                    continue;
+                }
+                JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+                if (delta == null || !delta.has("content") || delta.get("content").isJsonNull()) {
+                    continue;
+                }
+                if (firstToken == 0) {
+                    firstToken = System.nanoTime() - start;
+                }
+                if (guard.append(delta.get("content").getAsString())) {
+                    call.cancel();
+                    break;
+                }
+            }
+        }
 
-            改进策略（按优先级）：
-            1. 可以对现有算法进行优化（如添加提前退出、减少比较次数、减少交换次数）
-            2. 可以尝试相近的算法变体（如冒泡排序→鸡尾酒排序→梳排序）
-            3. 可以逐步引入更高效的思想（如引入"间隔"概念、分区思想、递归分治）
-            4. 如果当前算法已经很难优化，可以尝试更高效的排序算法
+        long latency = System.nanoTime() - start;
+        long ttft = firstToken;
+        long prompted = promptTokens;
+        long completed = completionTokens;
+        boolean early = guard.isComplete() && !finished;
+        count(calls, usage -> {
+            usage.requests++;
+            usage.promptTokens += prompted;
+            usage.completionTokens += completed;
+            usage.latencyNanos += latency;
+            usage.streamed++;
+            usage.firstTokenNanos += ttft;
+            usage.earlyCompletes += early ? 1 : 0;
+            usage.aborts += guard.violation() != null ? 1 : 0;
+        });
+        if (guard.violation() != null) {
+            throw new IOException("流式回复违规，已中止: " + guard.violation());
+        }
+        if (!finished && !guard.isComplete()) {
+            // 连接在 [DONE] 之前断开，收到的代码不完整
+            throw new IOException("流式回复意外结束：未收到 [DONE]，代码不完整");
+        }
+        String content = guard.content();
+        if (transcripts != null) {
+            transcripts.record(prompt, content, promptTokens, completionTokens);
+        }
+        return content;
+    }
 
-            注意：
-            - 每次改动要有明确的优化意图
-            - 尽量渐进式改进，避免一步跳跃太大
-            - 不要添加任何注释
+    /**
+     * 计入全程累计与该请求的用量
+     */
+    private synchronized void count(Calls calls, Consumer<Usage> update) {
+        update.accept(total);
+        synchronized (calls.usage) {
+            update.accept(calls.usage);
+        }
+    }
 
-            严格约束：
-            1. 必须实现 TaskSolver 接口
-            2. 类名必须保持为 TargetSubject
-            3. 包名必须是 com.quine.sandbox
-            4. 【重要】绝对禁止使用 java.util.Arrays、java.util.Collections 等标准库的排序方法
-            5. 只能使用基础 JDK 类（如 System、Math），不要引入第三方依赖
-            6. 只返回完整的 Java 代码，不要 Markdown 代码块，不要解释
+    /**
+     * 全程累计用量
+     */
+    public synchronized String report() {
+        return total.format();
+    }
 
+    /**
+     * 整段源码请求（无热点摘要）的提示词，用于由已有的代际演化记录生成录制
+     */
+    public String fullSourcePrompt(String sourceCode) {
+        return buildPrompt(sourceCode, null);
+    }
+
+    private String buildPrompt(String sourceCode, String profileHint) {
+        return brief + """
             当前代码：
-            """ + sourceCode + """
+            """ + sourceCode + profileSection(profileHint) + """
 
             请进行优化，直接返回完整的 Java 代码：
             """;
     }
 
     /**
-     * 清洗 LLM 返回的代码（去除 Markdown 包裹）
+     * 补丁模式的提示词：只要求返回改动，未修改的代码不必重新输出
+     */
+    private String buildPatchPrompt(String sourceCode, String profileHint) {
+        return brief + """
+            当前代码：
+            """ + sourceCode + profileSection(profileHint) + """
+
+            请进行优化。为节省输出，只返回改动部分（此要求优先于上面"只返回完整的 Java 代码"的约束），二选一：
+            1. 统一 diff：以 @@ -起始行,行数 +起始行,行数 @@ 开头的若干块，每块带 3 行不变的上下文
+            2. 需要替换或新增的完整方法、字段（以及新增的 import），不要重复类声明和未修改的方法
+            不要 Markdown 代码块，不要解释：
+            """;
+    }
+
+    /**
+     * 热点采样摘要：告诉模型时间与分配花在哪里，优先改这些位置
+     */
+    private static String profileSection(String profileHint) {
+        if (profileHint == null || profileHint.isBlank()) {
+            return "";
+        }
+        return """
+
+
+            性能剖析（当前代码测速时的 JFR 采样，行号对应上面的代码）：
+            """ + profileHint.stripTrailing() + "\n优先优化这些热点。";
+    }
+
+    /**
+     * 清洗 LLM 返回的代码（去除 Markdown 包裹，含 ```diff）
      */
     private String cleanCode(String code) {
-        // 去除 ```java 和 ``` 包裹
-        code = code.replaceAll("```java\\s*", "");
-        code = code.replaceAll("```\\s*$", "");
+        // 去除 ```java / ```diff 和 ``` 包裹
+        code = code.replaceAll("```[a-zA-Z]*[ \\t]*\\r?\\n?", "");
         code = code.trim();
         return code;
     }
+
+    @Override
+    public void close() {
+        asyncExecutor.shutdownNow();
+    }
 }
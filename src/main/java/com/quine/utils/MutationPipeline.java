@@ -0,0 +1,122 @@
+package com.quine.utils;
+
+import java.util.concurrent.*;
+
+/**
+ * 变异流水线：始终保持固定数量的 LLM 请求在途
+ *
+ * 评估器处理上一个结果时，下一个（或几个）变异已经在网络上等待，
+ * LLM 延迟与编译、测速时间重叠。父代改变后调用 {@link #rebase}，之后补发的请求基于新父代；
+ * 已在途的请求仍按旧父代返回，由调用方根据 {@link Mutation#parentCode} 自行取舍。
+ * 父代附带热点采样摘要时，随每个请求一起写进提示词。
+ */
+public class MutationPipeline implements AutoCloseable {
+    private final LLMClient client;
+    private final int depth;
+    private final BlockingQueue<Mutation> completed = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+    // 父代源码与摘要作为一个不可变整体发布，补发请求不会拿到新代码配旧摘要（或反之）
+    private volatile Parent parent;
+
+    private static class Parent {
+        final String code;
+        final String hint;
+
+        Parent(String code, String hint) {
+            this.code = code;
+            this.hint = hint;
+        }
+    }
+
+    /**
+     * 一次变异的结果
+     */
+    public static class Mutation {
+        public final String parentCode;
+        public final String code;        // 失败时为 null
+        public final Throwable error;    // 成功时为 null
+        public final long latencyMs;
+        public final LLMClient.Usage usage;  // 这一个请求的用量（含补丁回退）
+
+        public Mutation(String parentCode, String code, Throwable error, long latencyMs, LLMClient.Usage usage) {
+            this.parentCode = parentCode;
+            this.code = code;
+            this.error = error;
+            this.latencyMs = latencyMs;
+            this.usage = usage;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * @param client LLM 客户端
+     * @param depth 流水线深度（同时在途的请求数）
+     * @param parentCode 初始父代源码
+     */
+    public MutationPipeline(LLMClient client, int depth, String parentCode) {
+        this(client, depth, parentCode, null);
+    }
+
+    /**
+     * @param parentHint 初始父代的热点采样摘要，没有时为 null
+     */
+    public MutationPipeline(LLMClient client, int depth, String parentCode, String parentHint) {
+        this.client = client;
+        this.depth = Math.max(1, depth);
+        this.parent = new Parent(parentCode, parentHint);
+        for (int i = 0; i < this.depth; i++) {
+            submit();
+        }
+    }
+
+    /**
+     * 取出最先完成的变异，并立即补发一个新请求维持深度
+     */
+    public Mutation next() throws InterruptedException {
+        Mutation mutation = completed.take();
+        submit();
+        return mutation;
+    }
+
+    /**
+     * 切换父代：之后补发的请求以新代码为基础
+     */
+    public void rebase(String newParentCode) {
+        rebase(newParentCode, null);
+    }
+
+    /**
+     * @param newParentHint 新父代的热点采样摘要，没有时为 null
+     */
+    public void rebase(String newParentCode, String newParentHint) {
+        this.parent = new Parent(newParentCode, newParentHint);
+    }
+
+    private void submit() {
+        Parent parent = this.parent;
+        long start = System.nanoTime();
+        LLMClient.Usage usage = new LLMClient.Usage();
+        CompletableFuture<String> future = client.mutateCodeAsync(parent.code, parent.hint, usage);
+        pending.add(future);
+        future.whenComplete((code, error) -> {
+            pending.remove(future);
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            completed.add(new Mutation(parent.code, code, cause, latencyMs, usage));
+        });
+    }
+
+    /**
+     * 取消所有在途请求（连同其 HTTP 调用）
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<String> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+}
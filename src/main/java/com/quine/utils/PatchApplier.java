@@ -0,0 +1,510 @@
+package com.quine.utils;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 补丁应用器：把 LLM 返回的修改应用到父代源码上
+ *
+ * 支持两种格式：
+ * 1. 统一 diff：按块（@@）应用，行号只作定位提示——先在提示位置附近找完全一致的旧内容，
+ *    再退到忽略空白的比较；模型常把行号写错、吞掉上下文行的行尾空格，都能容忍
+ * 2. 成员替换：若干完整的方法 / 字段 / 内部类（可带 import），按签名替换同名成员，签名变了但方法名唯一时按名替换，
+ *    都找不到则追加到类末尾
+ * 任一块无法定位都整体失败（抛出 {@link PatchException}），由调用方回退到整段源码模式。
+ */
+public final class PatchApplier {
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@\\s*-(\\d+)(?:,\\d+)?\\s+\\+\\d+(?:,\\d+)?\\s*@@.*");
+    private static final Pattern TYPE_DECLARATION = Pattern.compile("\\b(class|interface|enum|record)\\s+(\\w+)");
+    private static final Pattern PUBLIC_CLASS = Pattern.compile("\\bpublic\\s+(?:final\\s+)?class\\s+\\w+");
+    private static final Pattern IDENTIFIER_BEFORE = Pattern.compile("(\\w+)\\s*$");
+
+    private PatchApplier() {
+    }
+
+    /**
+     * 补丁无法应用
+     */
+    public static class PatchException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public PatchException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 应用补丁，自动识别格式
+     * @return 打过补丁的完整源码
+     */
+    public static String apply(String source, String patch) throws PatchException {
+        if (patch == null || patch.isBlank()) {
+            throw new PatchException("补丁为空");
+        }
+        return isUnifiedDiff(patch) ? applyUnifiedDiff(source, patch) : replaceMembers(source, patch);
+    }
+
+    /**
+     * 模型没有按补丁格式回答，而是直接给出了完整的类
+     */
+    public static boolean isFullSource(String response) {
+        String code = mask(response);
+        if (code.stripLeading().startsWith("package ")) {
+            return true;
+        }
+        Matcher matcher = PUBLIC_CLASS.matcher(code);
+        return matcher.find() && depthAt(code, matcher.start()) == 0;
+    }
+
+    static boolean isUnifiedDiff(String patch) {
+        for (String line : patch.split("\n", -1)) {
+            if (line.startsWith("@@")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===== 1. 统一 diff =====
+
+    /**
+     * 一个 diff 块：旧内容（上下文 + 删除行）与新内容（上下文 + 新增行）
+     */
+    private static class Hunk {
+        final int expectedLine;  // 旧文件中的起始行（0 基），行号缺失时为 -1
+        final List<String> oldLines = new ArrayList<>();
+        final List<String> newLines = new ArrayList<>();
+
+        Hunk(int expectedLine) {
+            this.expectedLine = expectedLine;
+        }
+    }
+
+    static String applyUnifiedDiff(String source, String patch) throws PatchException {
+        List<Hunk> hunks = parseHunks(patch);
+        if (hunks.isEmpty()) {
+            throw new PatchException("diff 中没有可应用的块");
+        }
+        List<String> lines = new ArrayList<>(Arrays.asList(source.split("\n", -1)));
+        int cursor = 0;   // 块通常按顺序、互不重叠
+        int offset = 0;   // 之前的块造成的行号偏移
+        for (int h = 0; h < hunks.size(); h++) {
+            Hunk hunk = hunks.get(h);
+            if (hunk.oldLines.isEmpty()) {
+                if (hunk.expectedLine < 0) {
+                    throw new PatchException("第 " + (h + 1) + " 块既无上下文也无行号，无法定位");
+                }
+                int at = Math.min(lines.size(), Math.max(cursor, hunk.expectedLine + offset));
+                lines.addAll(at, hunk.newLines);
+                cursor = at + hunk.newLines.size();
+                offset += hunk.newLines.size();
+                continue;
+            }
+            int expected = hunk.expectedLine < 0 ? cursor : hunk.expectedLine + offset;
+            int at = locate(lines, hunk.oldLines, cursor, expected, false);
+            if (at < 0) {
+                at = locate(lines, hunk.oldLines, cursor, expected, true);
+            }
+            if (at < 0) {
+                // 模型偶尔把块的顺序写反：退到全文查找
+                at = locate(lines, hunk.oldLines, 0, expected, false);
+            }
+            if (at < 0) {
+                at = locate(lines, hunk.oldLines, 0, expected, true);
+            }
+            if (at < 0) {
+                throw new PatchException("第 " + (h + 1) + " 块的旧内容在源码中找不到：" + hunk.oldLines.get(0).strip());
+            }
+            for (int i = 0; i < hunk.oldLines.size(); i++) {
+                lines.remove(at);
+            }
+            lines.addAll(at, hunk.newLines);
+            cursor = at + hunk.newLines.size();
+            offset += hunk.newLines.size() - hunk.oldLines.size();
+        }
+        return String.join("\n", lines);
+    }
+
+    private static List<Hunk> parseHunks(String patch) {
+        List<Hunk> hunks = new ArrayList<>();
+        Hunk current = null;
+        String[] lines = patch.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].endsWith("\r") ? lines[i].substring(0, lines[i].length() - 1) : lines[i];
+            if (line.startsWith("@@")) {
+                Matcher matcher = HUNK_HEADER.matcher(line);
+                current = new Hunk(matcher.matches() ? Math.max(0, Integer.parseInt(matcher.group(1)) - 1) : -1);
+                hunks.add(current);
+            } else if (line.startsWith("--- ") && i + 1 < lines.length && lines[i + 1].startsWith("+++ ")) {
+                i++;        // 文件头
+                current = null;
+            } else if (current == null || line.startsWith("\\")) {
+                continue;   // 块之前的说明文字 / "\ No newline at end of file"
+            } else if (line.startsWith("-")) {
+                current.oldLines.add(line.substring(1));
+            } else if (line.startsWith("+")) {
+                current.newLines.add(line.substring(1));
+            } else if (line.startsWith(" ") || line.isEmpty()) {
+                // 上下文行；模型常把空行行首的空格吞掉
+                String context = line.isEmpty() ? line : line.substring(1);
+                current.oldLines.add(context);
+                current.newLines.add(context);
+            } else {
+                current = null;  // 没有合法前缀的行：块到此结束，之后的说明文字不计入
+            }
+        }
+        // 块尾部多余的空上下文行（补丁末尾的换行）不参与匹配
+        for (Hunk hunk : hunks) {
+            while (!hunk.oldLines.isEmpty() && !hunk.newLines.isEmpty()
+                    && hunk.oldLines.get(hunk.oldLines.size() - 1).isBlank()
+                    && hunk.newLines.get(hunk.newLines.size() - 1).isBlank()) {
+                hunk.oldLines.remove(hunk.oldLines.size() - 1);
+                hunk.newLines.remove(hunk.newLines.size() - 1);
+            }
+        }
+        hunks.removeIf(hunk -> hunk.oldLines.isEmpty() && hunk.newLines.isEmpty());
+        return hunks;
+    }
+
+    /**
+     * 在 [from, 末尾) 中找与 block 一致的位置，多处匹配时取离 expected 最近的
+     * @param loose 忽略全部空白比较
+     */
+    private static int locate(List<String> lines, List<String> block, int from, int expected, boolean loose) {
+        int best = -1;
+        for (int start = from; start + block.size() <= lines.size(); start++) {
+            if (matchesAt(lines, block, start, loose)
+                    && (best < 0 || Math.abs(start - expected) < Math.abs(best - expected))) {
+                best = start;
+            }
+        }
+        return best;
+    }
+
+    private static boolean matchesAt(List<String> lines, List<String> block, int start, boolean loose) {
+        for (int i = 0; i < block.size(); i++) {
+            String actual = lines.get(start + i);
+            String wanted = block.get(i);
+            boolean same = loose
+                ? actual.replaceAll("\\s+", "").equals(wanted.replaceAll("\\s+", ""))
+                : actual.stripTrailing().equals(wanted.stripTrailing());
+            if (!same) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===== 2. 成员替换 =====
+
+    /**
+     * 源码中的一个类成员：[start, end) 为含前导注解与注释的完整文本范围
+     */
+    private static class Member {
+        final int start;
+        final int end;
+        final String signature;  // 方法：名称(参数类型,...)；字段：名称；内部类型：class 名称
+        final String name;
+
+        Member(int start, int end, String signature, String name) {
+            this.start = start;
+            this.end = end;
+            this.signature = signature;
+            this.name = name;
+        }
+    }
+
+    static String replaceMembers(String source, String patch) throws PatchException {
+        String maskedPatch = mask(patch);
+        List<String> imports = new ArrayList<>();
+        List<Member> replacements = new ArrayList<>();
+        for (Member member : splitMembers(patch, maskedPatch, 0, patch.length())) {
+            String text = patch.substring(member.start, member.end).strip();
+            if (text.startsWith("import ")) {
+                imports.add(text);
+            } else if (!text.startsWith("package ")) {
+                replacements.add(member);
+            }
+        }
+        if (replacements.isEmpty() && imports.isEmpty()) {
+            throw new PatchException("补丁中没有可识别的方法或字段");
+        }
+
+        String masked = mask(source);
+        Matcher type = TYPE_DECLARATION.matcher(masked);
+        int bodyStart = -1;
+        while (type.find()) {
+            if (depthAt(masked, type.start()) == 0) {
+                bodyStart = masked.indexOf('{', type.end());
+                break;
+            }
+        }
+        if (bodyStart < 0) {
+            throw new PatchException("源码中找不到类声明");
+        }
+        int bodyEnd = matchingBrace(masked, bodyStart);
+        if (bodyEnd < 0) {
+            throw new PatchException("源码的大括号不配对");
+        }
+        List<Member> existing = splitMembers(source, masked, bodyStart + 1, bodyEnd);
+
+        // 从后往前改，前面成员的位置不受影响；新增成员统一追加到类末尾
+        TreeMap<Integer, Member> edits = new TreeMap<>(Comparator.reverseOrder());
+        Map<Integer, String> editTexts = new HashMap<>();
+        StringBuilder appended = new StringBuilder();
+        for (Member replacement : replacements) {
+            String text = patch.substring(replacement.start, replacement.end).strip();
+            Member target = find(existing, replacement);
+            if (target == null) {
+                appended.append("\n\n    ").append(text);
+            } else if (edits.putIfAbsent(target.start, target) != null) {
+                throw new PatchException("补丁中重复替换了 " + target.signature);
+            } else {
+                editTexts.put(target.start, text);
+            }
+        }
+
+        StringBuilder result = new StringBuilder(source);
+        if (appended.length() > 0) {
+            int insertAt = bodyEnd;
+            while (insertAt > bodyStart + 1 && Character.isWhitespace(result.charAt(insertAt - 1))) {
+                insertAt--;
+            }
+            result.replace(insertAt, bodyEnd, appended + "\n");
+        }
+        for (Member target : edits.values()) {
+            int start = target.start;
+            while (start < target.end && Character.isWhitespace(source.charAt(start))) {
+                start++;  // 保留原有的缩进与空行
+            }
+            result.replace(start, target.end, editTexts.get(target.start));
+        }
+        return addImports(result.toString(), imports);
+    }
+
+    private static Member find(List<Member> existing, Member replacement) {
+        Member byName = null;
+        int sameName = 0;
+        for (Member member : existing) {
+            if (member.signature.equals(replacement.signature)) {
+                return member;
+            }
+            if (member.name.equals(replacement.name) && member.signature.contains("(") == replacement.signature.contains("(")) {
+                byName = member;
+                sameName++;
+            }
+        }
+        return sameName == 1 ? byName : null;
+    }
+
+    private static String addImports(String source, List<String> imports) {
+        StringBuilder missing = new StringBuilder();
+        for (String statement : imports) {
+            if (!source.contains(statement)) {
+                missing.append(statement).append('\n');
+            }
+        }
+        if (missing.length() == 0) {
+            return source;
+        }
+        Matcher lastImport = Pattern.compile("(?m)^(import|package)\\s[^;]*;[ \\t]*$").matcher(source);
+        int insertAt = 0;
+        while (lastImport.find()) {
+            insertAt = lastImport.end();
+        }
+        String block = missing.toString().stripTrailing();
+        return insertAt == 0
+            ? block + "\n\n" + source
+            : source.substring(0, insertAt) + "\n" + block + source.substring(insertAt);
+    }
+
+    /**
+     * 把 [from, to) 切分为顶层成员：在深度 0 遇到 ';' 或闭合的 '}' 即一个成员结束
+     */
+    private static List<Member> splitMembers(String text, String masked, int from, int to) {
+        List<Member> members = new ArrayList<>();
+        int depth = 0;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            char c = masked.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0 && !continuesAfterBrace(masked, i + 1, to)) {
+                    addMember(members, text, masked, start, i + 1);
+                    start = i + 1;
+                }
+            } else if (c == ';' && depth == 0) {
+                addMember(members, text, masked, start, i + 1);
+                start = i + 1;
+            }
+        }
+        return members;
+    }
+
+    /**
+     * 字段初始化器里的数组 / 匿名类（"= {1, 2};"、"= new X() {...};"）在 '}' 之后还有 ';'
+     */
+    private static boolean continuesAfterBrace(String masked, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = masked.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == ';' || c == ',' || c == ')';
+            }
+        }
+        return false;
+    }
+
+    private static void addMember(List<Member> members, String text, String masked, int start, int end) {
+        if (masked.substring(start, end).isBlank()) {
+            return;
+        }
+        // 成员范围含前导注解，名字与参数表从注解之后找：否则 @SuppressWarnings("unused") 会被当成方法名
+        String header = masked.substring(skipAnnotations(masked, start, end), end);
+        int brace = header.indexOf('{');
+        int paren = header.indexOf('(');
+        int assign = header.indexOf('=');
+        String head = brace < 0 ? header : header.substring(0, brace);
+        Matcher type = TYPE_DECLARATION.matcher(head);
+        if (type.find()) {
+            members.add(new Member(start, end, "class " + type.group(2), type.group(2)));
+        } else if (paren >= 0 && (assign < 0 || paren < assign) && (brace < 0 || paren < brace)) {
+            Matcher name = IDENTIFIER_BEFORE.matcher(header.substring(0, paren));
+            String methodName = name.find() ? name.group(1) : "";
+            int close = header.indexOf(')', paren);
+            String parameters = close < 0 ? "" : header.substring(paren + 1, close);
+            members.add(new Member(start, end, methodName + "(" + parameterTypes(parameters) + ")", methodName));
+        } else {
+            String declarator = assign >= 0 ? header.substring(0, assign) : header.substring(0, header.lastIndexOf(';') < 0 ? header.length() : header.lastIndexOf(';'));
+            Matcher name = IDENTIFIER_BEFORE.matcher(declarator.split(",")[0]);
+            String fieldName = name.find() ? name.group(1) : declarator.strip();
+            members.add(new Member(start, end, fieldName, fieldName));
+        }
+    }
+
+    /**
+     * 跳过 [from, to) 开头的注解（含括号里的参数），返回声明本身的起点；注解类型声明（@interface）不跳过
+     */
+    private static int skipAnnotations(String masked, int from, int to) {
+        int i = from;
+        while (true) {
+            while (i < to && Character.isWhitespace(masked.charAt(i))) {
+                i++;
+            }
+            if (i >= to || masked.charAt(i) != '@' || masked.startsWith("interface", i + 1)) {
+                return i;
+            }
+            i++;
+            while (i < to && (Character.isJavaIdentifierPart(masked.charAt(i)) || masked.charAt(i) == '.')) {
+                i++;
+            }
+            int paren = i;
+            while (paren < to && Character.isWhitespace(masked.charAt(paren))) {
+                paren++;
+            }
+            if (paren < to && masked.charAt(paren) == '(') {
+                int depth = 0;
+                for (i = paren; i < to; i++) {
+                    if (masked.charAt(i) == '(') {
+                        depth++;
+                    } else if (masked.charAt(i) == ')' && --depth == 0) {
+                        i++;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * "final int[] a, @Foo int lo" -> "int[],int"
+     */
+    private static String parameterTypes(String parameters) {
+        if (parameters.isBlank()) {
+            return "";
+        }
+        StringJoiner types = new StringJoiner(",");
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= parameters.length(); i++) {
+            char c = i < parameters.length() ? parameters.charAt(i) : ',';
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                String parameter = parameters.substring(start, i).replaceAll("@\\w+|\\bfinal\\b", "").strip();
+                int space = parameter.lastIndexOf(' ');
+                types.add((space < 0 ? parameter : parameter.substring(0, space)).replaceAll("\\s+", ""));
+                start = i + 1;
+            }
+        }
+        return types.toString();
+    }
+
+    private static int matchingBrace(String masked, int open) {
+        int depth = 0;
+        for (int i = open; i < masked.length(); i++) {
+            if (masked.charAt(i) == '{') {
+                depth++;
+            } else if (masked.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int depthAt(String masked, int position) {
+        int depth = 0;
+        for (int i = 0; i < position; i++) {
+            if (masked.charAt(i) == '{') {
+                depth++;
+            } else if (masked.charAt(i) == '}') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * 注释、字符串、字符与文本块的内容替换为空格（长度不变），之后的括号扫描不会被其中的 '{' ';' 干扰
+     */
+    public static String mask(String code) {
+        char[] out = code.toCharArray();
+        int i = 0;
+        int n = out.length;
+        while (i < n) {
+            char c = code.charAt(i);
+            char next = i + 1 < n ? code.charAt(i + 1) : 0;
+            int end;
+            if (c == '/' && next == '/') {
+                end = code.indexOf('\n', i);
+                end = end < 0 ? n : end;
+            } else if (c == '/' && next == '*') {
+                end = code.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+            } else if (c == '"' && code.startsWith("\"\"\"", i)) {
+                end = code.indexOf("\"\"\"", i + 3);
+                end = end < 0 ? n : end + 3;
+            } else if (c == '"' || c == '\'') {
+                end = i + 1;
+                while (end < n && code.charAt(end) != c && code.charAt(end) != '\n') {
+                    end += code.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(n, end + 1);
+            } else {
+                i++;
+                continue;
+            }
+            for (int j = i; j < end; j++) {
+                if (out[j] != '\n') {
+                    out[j] = ' ';
+                }
+            }
+            i = end;
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,192 @@
+package com.quine.utils;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 流式回复的增量检查：每收到一段增量就判断回复是否已经注定失败，或代码是否已经完整
+ *
+ * 阻塞式请求要等模型把整段回复（常常还有代码之后的解释）生成完才能开始编译。
+ * 流式接收时，一旦出现禁用 API、public 顶层类名不对、或以说明文字而不是代码开头，立即判定违规并中止请求。
+ * 整段源码请求中，顶层类型结束后还可能跟着包级私有的辅助类，所以右花括号到达时还不算完整：
+ * 其后出现代码块结束标记或说明文字时，代码才视为完整，之后的内容不再等待；否则收到 [DONE] 为止。
+ * 补丁模式的回复没有完整的类，只做禁用 API 检查。
+ */
+public class StreamGuard {
+    private static final Pattern TYPE_DECLARATION = Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern CODE_START = Pattern.compile(
+        "^(?:package|import|public|final|abstract|sealed|non-sealed|strictfp|class|interface|enum|record|@|//|/\\*)");
+    private static final Pattern PUBLIC = Pattern.compile("\\bpublic\\b");
+
+    private final String className;            // 期望的顶层类名（简单名），为 null 时不检查
+    private final List<String> forbiddenApis;
+    private final boolean fullSource;
+    private final StringBuilder text = new StringBuilder();
+
+    private String violation;
+    private int codeEnd = -1;                  // 代码结束位置（不含），未完整时为 -1
+    private int typeEnd = -1;                  // 最后一个已结束的顶层类型的结束位置，没有时为 -1
+
+    /**
+     * @param className 期望的顶层类名（可带包名），为 null 时不检查
+     * @param forbiddenApis 出现即违规的 API（与编译前的源码检查一致，按子串匹配）
+     * @param fullSource 回复应当是整段源码（补丁模式为 false）
+     */
+    public StreamGuard(String className, List<String> forbiddenApis, boolean fullSource) {
+        this.className = className == null ? null : className.substring(className.lastIndexOf('.') + 1);
+        this.forbiddenApis = forbiddenApis;
+        this.fullSource = fullSource;
+    }
+
+    /**
+     * 追加一段增量
+     * @return 已有结论（违规或代码完整）时为 true，调用方可以停止接收
+     */
+    public boolean append(String delta) {
+        if (isDecided()) {
+            return true;
+        }
+        int from = Math.max(0, text.length() - longestApi());
+        text.append(delta);
+        for (String api : forbiddenApis) {
+            if (text.indexOf(api, from) >= 0) {
+                violation = "使用了禁止的 " + api;
+                return true;
+            }
+        }
+        if (fullSource) {
+            checkStructure();
+        }
+        return isDecided();
+    }
+
+    /**
+     * 整段源码的结构检查：开头必须是代码（允许一行 Markdown 代码块标记），public 顶层类名正确；
+     * 顶层类型结束后紧跟代码块结束标记或说明文字时即完整，跟着代码（如辅助类）时继续接收
+     */
+    private void checkStructure() {
+        String body = body();
+        if (body == null) {
+            return;
+        }
+        String stripped = body.stripLeading();
+        int lineEnd = stripped.indexOf('\n');
+        if (lineEnd >= 0 && !CODE_START.matcher(stripped).find()) {
+            violation = "回复以说明文字而不是代码开头：" + abbreviate(stripped.substring(0, lineEnd).strip());
+            return;
+        }
+
+        String masked = PatchApplier.mask(body);
+        int depth = 0;
+        int segment = 0;         // 当前顶层声明的起点：上一个顶层声明或语句结束之后
+        boolean inType = false;  // 当前深度 0 的花括号是否是类型体（注解的数组参数等不是）
+        typeEnd = -1;
+        for (int i = 0; i < masked.length(); i++) {
+            char c = masked.charAt(i);
+            if (c == '{') {
+                if (depth == 0) {
+                    Matcher declaration = TYPE_DECLARATION.matcher(masked).region(segment, i);
+                    String name = null;
+                    int declared = -1;
+                    while (declaration.find()) {
+                        name = declaration.group(1);
+                        declared = declaration.start();
+                    }
+                    inType = name != null;
+                    // 只检查 public 类型：它之前或之后的包级私有辅助类名字不受限制
+                    if (inType && className != null && !name.equals(className)
+                            && PUBLIC.matcher(masked.substring(segment, declared)).find()) {
+                        violation = "类名应为 " + className + "，实际为 " + name;
+                        return;
+                    }
+                }
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0 && inType) {
+                    typeEnd = i + 1;
+                    segment = i + 1;
+                    inType = false;
+                }
+            } else if (c == ';' && depth == 0) {
+                segment = i + 1;
+            }
+        }
+        if (depth != 0 || typeEnd < 0) {
+            return;
+        }
+        String after = body.substring(typeEnd).stripLeading();
+        if (after.startsWith("```")) {
+            codeEnd = typeEnd;
+        } else if (after.indexOf('\n') >= 0 && !CODE_START.matcher(after).find()) {
+            codeEnd = typeEnd;  // 代码之后的说明文字
+        }
+    }
+
+    /**
+     * 流已正常结束（收到 [DONE]）：不会再有新的顶层声明，最后一个顶层类型之后的内容（说明文字、代码块结束标记）不计入
+     */
+    public void finish() {
+        if (fullSource && violation == null && codeEnd < 0 && typeEnd >= 0) {
+            codeEnd = typeEnd;
+        }
+    }
+
+    /**
+     * 去掉开头 Markdown 代码块标记后的正文；标记所在行还没收全时为 null
+     */
+    private String body() {
+        String all = text.toString();
+        int start = 0;
+        while (start < all.length() && Character.isWhitespace(all.charAt(start))) {
+            start++;
+        }
+        if (all.startsWith("```", start)) {
+            int lineEnd = all.indexOf('\n', start);
+            if (lineEnd < 0) {
+                return null;
+            }
+            return all.substring(lineEnd + 1);
+        }
+        if (all.length() - start < 3 && "```".startsWith(all.substring(start))) {
+            return null;  // 可能是代码块标记的开头
+        }
+        return all.substring(start);
+    }
+
+    private int longestApi() {
+        int longest = 0;
+        for (String api : forbiddenApis) {
+            longest = Math.max(longest, api.length());
+        }
+        return longest;
+    }
+
+    private static String abbreviate(String line) {
+        return line.length() > 40 ? line.substring(0, 40) + "…" : line;
+    }
+
+    public boolean isDecided() {
+        return violation != null || codeEnd >= 0;
+    }
+
+    /**
+     * 违规原因，未违规时为 null
+     */
+    public String violation() {
+        return violation;
+    }
+
+    public boolean isComplete() {
+        return codeEnd >= 0;
+    }
+
+    /**
+     * 已收到的内容；代码完整时截到最后一个顶层类型结束为止
+     */
+    public String content() {
+        String body = codeEnd >= 0 ? body() : null;
+        return body != null ? body.substring(0, codeEnd) : text.toString();
+    }
+}
@@ -0,0 +1,318 @@
+package com.quine.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * LLM 对话录制 / 回放：请求哈希 -> 回复，存放在一个紧凑的追加写文件里
+ *
+ * 每次运行 Main 都要重新付出 LLM 延迟，断网时整个引擎根本跑不起来。录制模式照常请求，
+ * 同时把（提示词哈希, 回复, token 数）追加到 transcripts.bin；回放模式不访问网络，按提示词哈希取回复：
+ * 同一提示词被多次请求时按录制顺序依次给出，回复循环使用；未录制过的提示词直接失败（默认的严格模式）。
+ * 关闭严格模式时，提示词未录制过（或它的回复已经用完）按录制顺序补位下一条尚未给出的回复，全部给出过后从头循环，
+ * 这样父代与录制时不同，也能沿着录制的序列继续走下去；补位的回复与提示词无关，只用于演示与冒烟运行，
+ * 且整段源码请求不会补位补丁格式的回复。
+ * 回放在调用线程上同步完成，给出顺序只取决于请求顺序，同一次录制的回放结果是确定的。
+ *
+ * 文件格式：魔数，之后每条记录为 提示词哈希(8) + 输入 token(4) + 输出 token(4) + 原长(4) + 存储长(4) + 回复
+ * （Deflate 压缩，压缩后更长时原样存放）。打开时只读记录头建立索引，崩溃留下的残缺记录截掉。
+ */
+public class TranscriptStore implements AutoCloseable {
+    private static final int MAGIC = 0x51_54_52_31;  // "QTR1"
+    private static final int HEADER_BYTES = 24;
+    private static TranscriptStore shared;
+    private static boolean sharedLoaded;
+
+    /**
+     * 运行模式：live 不录制，record 请求并录制，replay 只回放
+     */
+    public enum Mode {
+        LIVE, RECORD, REPLAY
+    }
+
+    /**
+     * 一条录制的回复
+     */
+    public static class Entry {
+        public final String response;
+        public final long promptTokens;
+        public final long completionTokens;
+
+        Entry(String response, long promptTokens, long completionTokens) {
+            this.response = response;
+            this.promptTokens = promptTokens;
+            this.completionTokens = completionTokens;
+        }
+    }
+
+    private final Path file;
+    private final Mode mode;
+    private final boolean strict;
+    private final FileChannel channel;
+
+    // 索引：提示词哈希 -> 各条记录偏移（录制顺序），全部记录偏移（录制顺序）
+    private final Map<Long, List<Long>> byPrompt = new HashMap<>();
+    private final List<Long> order = new ArrayList<>();
+    private long end;
+
+    // 回放状态
+    private final Map<Long, Integer> promptCursor = new HashMap<>();
+    private final Set<Long> served = new HashSet<>();
+    private int orderCursor;
+
+    // 统计
+    private long recorded;
+    private long hits;
+    private long fallbacks;
+    private long misses;
+    private long rawBytes;
+
+    /**
+     * @param directory 存放 transcripts.bin 的目录
+     * @param strict 回放时提示词未录制过即失败，不按录制顺序补位
+     */
+    public TranscriptStore(Path directory, Mode mode, boolean strict) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve("transcripts.bin");
+        this.mode = mode;
+        this.strict = strict;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    /**
+     * 从系统属性读取配置：quine.llm.mode（live / record / replay，默认 live）/ quine.llm.transcripts（默认 target/transcripts）/
+     * quine.llm.replay.strict（默认 true）
+     * @return live 模式返回 null
+     */
+    public static TranscriptStore fromSystemProperties() throws IOException {
+        Mode mode = Mode.valueOf(System.getProperty("quine.llm.mode", "live").toUpperCase());
+        if (mode == Mode.LIVE) {
+            return null;
+        }
+        return new TranscriptStore(Paths.get(System.getProperty("quine.llm.transcripts", "target/transcripts")), mode,
+            Boolean.parseBoolean(System.getProperty("quine.llm.replay.strict", "true")));
+    }
+
+    /**
+     * 进程内共享的实例（同一文件只打开一次，多个 LLMClient 共用）；live 模式为 null
+     */
+    public static synchronized TranscriptStore shared() {
+        if (!sharedLoaded) {
+            try {
+                shared = fromSystemProperties();
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开对话录制文件失败", e);
+            }
+            sharedLoaded = true;
+        }
+        return shared;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isReplay() {
+        return mode == Mode.REPLAY;
+    }
+
+    public synchronized int size() {
+        return order.size();
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < Integer.BYTES) {
+            channel.truncate(0);
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+            magic.flip();
+            writeFully(magic, 0);
+            end = Integer.BYTES;
+            return;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+        readFully(magic, 0);
+        if (magic.flip().getInt() != MAGIC) {
+            throw new IOException("对话录制文件格式不符: " + file);
+        }
+        long position = Integer.BYTES;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            long hash = header.getLong();
+            header.position(16);
+            int rawLength = header.getInt();
+            int length = header.getInt();
+            if (position + HEADER_BYTES + length > size) {
+                break;
+            }
+            index(hash, position);
+            rawBytes += rawLength;
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        end = position;
+    }
+
+    private void index(long hash, long offset) {
+        byPrompt.computeIfAbsent(hash, h -> new ArrayList<>()).add(offset);
+        order.add(offset);
+    }
+
+    public synchronized boolean contains(String prompt) {
+        return byPrompt.containsKey(hash64(prompt));
+    }
+
+    /**
+     * 追加一条录制并落盘
+     */
+    public synchronized void record(String prompt, String response, long promptTokens, long completionTokens) throws IOException {
+        byte[] raw = response.getBytes(StandardCharsets.UTF_8);
+        byte[] stored = deflate(raw);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + stored.length);
+        long hash = hash64(prompt);
+        record.putLong(hash).putInt((int) promptTokens).putInt((int) completionTokens)
+            .putInt(raw.length).putInt(stored.length).put(stored);
+        record.flip();
+        writeFully(record, end);
+        channel.force(false);
+        index(hash, end);
+        end += HEADER_BYTES + stored.length;
+        rawBytes += raw.length;
+        recorded++;
+    }
+
+    /**
+     * 回放一条回复：先按提示词，未录制过或已用完时按录制顺序补位（非严格模式）
+     * @param fullSource 请求的是整段源码：补位时跳过补丁格式的回复
+     * @return 没有可给出的回复，或严格模式下提示词未录制过时返回 null
+     */
+    public synchronized Entry replay(String prompt, boolean fullSource) throws IOException {
+        long hash = hash64(prompt);
+        List<Long> offsets = byPrompt.get(hash);
+        if (offsets != null) {
+            int cursor = promptCursor.merge(hash, 1, Integer::sum) - 1;
+            if (cursor < offsets.size() || strict) {
+                long offset = offsets.get(cursor % offsets.size());
+                served.add(offset);
+                hits++;
+                return read(offset);
+            }
+        }
+        if (strict || order.isEmpty()) {
+            misses++;
+            return null;
+        }
+        // 补位：下一条尚未给出的回复，全部给出过后从头循环；整段源码请求只接受整段源码的回复
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < order.size(); i++) {
+                long candidate = order.get((orderCursor + i) % order.size());
+                if (pass == 0 && served.contains(candidate)) {
+                    continue;
+                }
+                Entry entry = read(candidate);
+                if (fullSource && !PatchApplier.isFullSource(entry.response)) {
+                    continue;
+                }
+                orderCursor = (orderCursor + i + 1) % order.size();
+                served.add(candidate);
+                fallbacks++;
+                return entry;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    private Entry read(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        header.getLong();
+        long promptTokens = header.getInt();
+        long completionTokens = header.getInt();
+        int rawLength = header.getInt();
+        ByteBuffer stored = ByteBuffer.allocate(header.getInt());
+        readFully(stored, offset + HEADER_BYTES);
+        if (stored.capacity() == rawLength) {
+            return new Entry(new String(stored.array(), StandardCharsets.UTF_8), promptTokens, completionTokens);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored.array());
+            byte[] raw = new byte[rawLength];
+            inflater.inflate(raw);
+            return new Entry(new String(raw, StandardCharsets.UTF_8), promptTokens, completionTokens);
+        } catch (DataFormatException e) {
+            throw new IOException("对话录制记录损坏（偏移 " + offset + "）", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] chunk = new byte[4096];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return compressed.size() < raw.length ? compressed.toByteArray() : raw;
+    }
+
+    /**
+     * 请求哈希：提示词的 SHA-256 前 8 字节（不含模型名，录制的回复可以在换模型后继续回放）
+     */
+    static long hash64(String prompt) {
+        return Long.parseUnsignedLong(CompilerUtils.sha256(prompt.getBytes(StandardCharsets.UTF_8)).substring(0, 16), 16);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("对话录制文件意外结束");
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * 录制条数、文件大小与回放命中情况
+     */
+    public synchronized String report() {
+        String report = String.format("对话录制（%s）：%d 条（%d 个不同提示词），回复 %.1f KB 存为 %.1f KB", mode.name().toLowerCase(),
+            order.size(), byPrompt.size(), rawBytes / 1024.0, end / 1024.0);
+        if (mode == Mode.RECORD) {
+            return report + String.format("，本次录制 %d 条", recorded);
+        }
+        return report + String.format("，%s：命中 %d 次，顺序补位 %d 次，缺失 %d 次", strict ? "严格回放" : "非严格回放（补位的回复与提示词无关）",
+            hits, fallbacks, misses);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.quine.sandbox;
+
+import com.quine.task.HistogramSolver;
+
+public class HistogramTargetSubject implements HistogramSolver {
+    @Override
+    public int[] solve(int[] input) {
+        // 每个桶各扫描一遍整个数组 - 故意低效的实现
+        int[] counts = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int value : input) {
+                if ((value & 0xFF) == bucket) {
+                    counts[bucket]++;
+                }
+            }
+        }
+        return counts;
+    }
+}
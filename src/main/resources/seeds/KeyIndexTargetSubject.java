@@ -0,0 +1,22 @@
+package com.quine.sandbox;
+
+import com.quine.core.KeyIndexSortSolver;
+
+public class KeyIndexTargetSubject implements KeyIndexSortSolver {
+    @Override
+    public void solve(long[] keys, int[] payload) {
+        // 插入排序 - 故意低效的实现，载荷随键一起移动
+        for (int i = 1; i < keys.length; i++) {
+            long key = keys[i];
+            int value = payload[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                payload[j + 1] = payload[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            payload[j + 1] = value;
+        }
+    }
+}
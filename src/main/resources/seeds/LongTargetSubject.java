@@ -0,0 +1,21 @@
+package com.quine.sandbox;
+
+import com.quine.core.LongSortSolver;
+
+public class LongTargetSubject implements LongSortSolver {
+    @Override
+    public long[] solve(long[] input) {
+        // 插入排序 - 故意低效的实现
+        long[] arr = input.clone();
+        for (int i = 1; i < arr.length; i++) {
+            long key = arr[i];
+            int j = i - 1;
+            while (j >= 0 && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+        }
+        return arr;
+    }
+}